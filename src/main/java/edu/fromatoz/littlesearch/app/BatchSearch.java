@@ -0,0 +1,211 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.SearchQuery;
+import edu.fromatoz.littlesearch.searchengine.ShardCoordinator;
+
+/**
+ * The {@code BatchSearch} class defines the search of many queries (one per line, in the syntax of {@link SearchQuery}),
+ * by several threads at once, against a search engine which is loaded once (such as for an offline evaluation, or for warming a cache).
+ * <p>The result of each query is written as soon as it is found, as one line of JSON (NDJSON): the number of its line, the query
+ * (as it is read, then as it is searched), the documents found (their numbers, scores, paths and snippets) and the time spent
+ * on each step of the search (in microseconds):</p>
+ * <ul>
+ * <li>{@code expansion_us}: the correction of the misspelled words, then their expansion by synonymy;</li>
+ * <li>{@code search_us}: the search itself;</li>
+ * <li>{@code fetch_us}: the fetch of the documents found (their snippets and their paths), if it is known.</li>
+ * </ul>
+ * <p>The results are thus written in the order in which they are found, not in the order of the queries.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class BatchSearch {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(BatchSearch.class);
+
+	// The number of queries which are read ahead of the searches, per thread (so that a large file is not read at once)...
+	private static final int QUEUED_QUERIES_PER_THREAD = 2;
+
+	// (An object mapper can be shared by several threads, once it is configured.)
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final UnaryOperator<String> corrector;
+
+	private final Function<SearchQuery, Littlesearch.Result> searcher;
+
+	private final int threadCount;
+
+	/**
+	 * Constructs a batch search.
+	 * 
+	 * @param corrector
+	 *  the corrector of the misspelled words (of a search engine)
+	 * @param searcher
+	 *  the searcher of the queries (of a search engine), which should be called by several threads at once
+	 * @param threadCount
+	 *  the number of threads searching the queries
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if the number of threads is not positive
+	 */
+	public BatchSearch(UnaryOperator<String> corrector, Function<SearchQuery, Littlesearch.Result> searcher, int threadCount) {
+
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("A number of threads should be positive: " + threadCount + ".");
+		}
+
+		this.corrector = corrector;
+		this.searcher = searcher;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Searches the queries, then writes their results (one line of JSON per query, flushed as soon as it is written).
+	 * <p>The empty lines are skipped; a query which fails is written with its error (rather than its documents).</p>
+	 * 
+	 * @param queriesReader
+	 *  the reader of the queries
+	 * @param resultsWriter
+	 *  the writer of the results
+	 * 
+	 * @return the number of queries searched
+	 * 
+	 * @throws IOException
+	 *  if the queries cannot be read, or if the results cannot be written
+	 */
+	public int run(BufferedReader queriesReader, Writer resultsWriter) throws IOException {
+
+		long start = System.nanoTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		Semaphore queuedQueries = new Semaphore(threadCount * QUEUED_QUERIES_PER_THREAD);
+		AtomicInteger errorCount = new AtomicInteger();
+		// The first failure of the writer (after which the next results are no longer written)...
+		AtomicReference<IOException> writeFailure = new AtomicReference<>();
+		int queryCount = 0;
+		try {
+			String line;
+			int lineNumber = 0;
+			while (((line = queriesReader.readLine()) != null) && (writeFailure.get() == null)) {
+				lineNumber++;
+				String text = line.trim();
+				if (!(text.isEmpty())) {
+					queuedQueries.acquire();
+					int queryLineNumber = lineNumber;
+					executor.execute(() -> {
+						try {
+							ObjectNode resultNode = search(queryLineNumber, text);
+							if (resultNode.has("error")) {
+								errorCount.incrementAndGet();
+							}
+							if (writeFailure.get() == null) {
+								write(resultsWriter, OBJECT_MAPPER.writeValueAsString(resultNode));
+							}
+						} catch (IOException ioe) {
+							writeFailure.compareAndSet(null, ioe);
+						} finally {
+							queuedQueries.release();
+						}
+					});
+					queryCount++;
+				}
+			}
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException ie) {
+			LOGGER.error(ie);
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		if (writeFailure.get() != null) {
+			throw writeFailure.get();
+		}
+
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOGGER.info(queryCount + " requêtes (" + errorCount.get() + " en erreur) en " + time + " ms, soit "
+				+ String.format("%.1f", (queryCount * 1_000.0) / Math.max(1, time)) + " requêtes/s (" + threadCount + " threads)");
+
+		return queryCount;
+	}
+
+	/**
+	 * Searches a query, measuring each step of the search.
+	 * 
+	 * @param lineNumber
+	 *  the number of the line of the query
+	 * @param text
+	 *  the text of the query
+	 * 
+	 * @return the JSON of the result
+	 */
+	private ObjectNode search(int lineNumber, String text) {
+
+		ObjectNode resultNode = OBJECT_MAPPER.createObjectNode();
+		resultNode.put("line", lineNumber);
+		resultNode.put("query", text);
+
+		try {
+			long start = System.nanoTime();
+			SearchQuery searchQuery = SearchEngine.buildQuery(text, corrector);
+			long expansionEnd = System.nanoTime();
+			Littlesearch.Result result = searcher.apply(searchQuery);
+			long searchEnd = System.nanoTime();
+
+			resultNode.put("expanded", searchQuery.toString());
+			ArrayNode documentsNode = resultNode.putArray("documents");
+			for (Littlesearch.Document document : result.getDocuments()) {
+				ObjectNode documentNode = documentsNode.addObject();
+				documentNode.put("number", document.getNumber());
+				documentNode.put("score", document.getScore());
+				documentNode.put("path", document.getPath());
+				documentNode.put("snippet", document.getSnippet());
+			}
+			if ((result instanceof ShardCoordinator.Result) && ((ShardCoordinator.Result) result).isPartial()) {
+				ArrayNode missingShardsNode = resultNode.putArray("missing_shards");
+				((ShardCoordinator.Result) result).getMissingShardUrls().forEach(missingShardsNode::add);
+			}
+			resultNode.put("expansion_us", TimeUnit.NANOSECONDS.toMicros(expansionEnd - start));
+			resultNode.put("search_us", TimeUnit.NANOSECONDS.toMicros((searchEnd - expansionEnd) - result.getFetchTime()));
+			resultNode.put("fetch_us", TimeUnit.NANOSECONDS.toMicros(result.getFetchTime()));
+		} catch (RuntimeException re) {
+			LOGGER.error("La requête de la ligne " + lineNumber + " échoue : " + re);
+			resultNode.put("error", String.valueOf(re));
+		}
+
+		return resultNode;
+	}
+
+	private static void write(Writer resultsWriter, String json) throws IOException {
+
+		synchronized (resultsWriter) {
+			resultsWriter.write(json);
+			resultsWriter.write('\n');
+			resultsWriter.flush();
+		}
+	}
+
+}
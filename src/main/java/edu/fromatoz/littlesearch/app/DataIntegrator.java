@@ -1,11 +1,17 @@
 package edu.fromatoz.littlesearch.app;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
@@ -17,12 +23,18 @@ import org.jsoup.nodes.Element;
 
 import org.jsoup.select.Elements;
 
+import edu.fromatoz.littlesearch.dataintegrator.CNRTLStandIn;
 import edu.fromatoz.littlesearch.dataintegrator.FrenchAnalyser;
+import edu.fromatoz.littlesearch.dataintegrator.Vocabulary;
 
 import edu.fromatoz.littlesearch.dataintegrator.controller.*;
 
 import edu.fromatoz.littlesearch.dataintegrator.model.JSONWriter;
 
+import edu.fromatoz.littlesearch.metrics.CNRTLFetchEvent;
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.Stage;
+
 import edu.fromatoz.littlesearch.tool.Separator;
 
 /**
@@ -59,7 +71,7 @@ public class DataIntegrator {
 	/**
 	 * The URL of the CNRTL's home page.
 	 */
-	private static final String CNRTL_HOME_PAGE_URL = COMMUNICATION_PROTOCOL + Separator.COLON.getValue() + "//" + CNRTL_DOMAIN_NAME;
+	public static final String CNRTL_HOME_PAGE_URL = COMMUNICATION_PROTOCOL + Separator.COLON.getValue() + "//" + CNRTL_DOMAIN_NAME;
 	/**
 	 * Format of the URL of a CNRTL's page.
 	 */
@@ -78,6 +90,11 @@ public class DataIntegrator {
 	 */
 	public static final String SYNONYMY_FORMAT = String.format(CNRTL_URL_FORMAT, "synonymie") + RESOURCE_PATH_FORMAT;
 
+	/**
+	 * The file of the vocabulary of the corpus (see {@link VocabularyBuilder}).
+	 */
+	public static final File VOCABULARY_FILE = new File("target" + Separator.SLASH.getValue() + "littlesearch_vocabulary.tsv");
+
     /**
 	 * Allows a developer to integrate data from the text of the corpus.
 	 * 
@@ -93,9 +110,12 @@ public class DataIntegrator {
 		}
 		String textFilePath = String.format(SearchEngine.TEXT_FILE_PATH_FORMAT, textFileName);
 
+		// Dumps the metrics periodically (if requested)...
+		Metrics.startPeriodicDump();
+
 		JSONWriter jsonWriter = new JSONWriter();
 
-		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(textFilePath)))) {
+		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(textFilePath), StandardCharsets.UTF_8))) {
 			StringBuilder textBuilder = new StringBuilder();
 			String paragraph;
 			while ((paragraph = bufferedReader.readLine()) != null) {
@@ -105,8 +125,8 @@ public class DataIntegrator {
 			if (!(text.isEmpty())) {
 				// Injects the text in question to the French analyser...
 				FrenchAnalyser frenchAnalyser = new FrenchAnalyser(text);
-				// Then gets the tokens after analysing the text in question
-				Set<String> words = frenchAnalyser.getTokens();
+				// Then gets the tokens after analysing the text in question (the most frequent in the corpus first)
+				List<String> words = sortByFrequency(frenchAnalyser.getTokens());
 				for (String word : words) {
 					// For monitoring...
 					LOGGER.info(word);
@@ -122,6 +142,31 @@ public class DataIntegrator {
 		}
 	}
 
+	/**
+	 * Sorts tokens by their frequency in the corpus (the most frequent first), if the vocabulary of the corpus is built;
+	 * otherwise, the tokens are kept in their order.
+	 * 
+	 * @param tokens
+	 *  the tokens
+	 * 
+	 * @return the list of the sorted tokens
+	 */
+	private static List<String> sortByFrequency(Set<String> tokens) {
+
+		List<String> sortedTokens = new ArrayList<>(tokens);
+
+		if (VOCABULARY_FILE.isFile()) {
+			try {
+				Vocabulary vocabulary = Vocabulary.read(VOCABULARY_FILE);
+				sortedTokens.sort(Comparator.comparingInt(vocabulary::getTermFrequency).reversed());
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
+			}
+		}
+
+		return sortedTokens;
+	}
+
 	/**
 	 * The {@code CNRTLParser} class defines a parser for the HTML pages of the CNRTL.
 	 * <p>Several of the tools which we have developed for the data integrator
@@ -132,6 +177,35 @@ public class DataIntegrator {
 	 */
 	public static class CNRTLParser {
 
+		/**
+		 * The default wait before each request (in milliseconds: 2 seconds, for sparing the CNRTL).
+		 */
+		public static final long DEFAULT_WAIT = 2_000L;
+
+		// The metrics of the waits (between two requests) and of the fetches (of a page)...
+		private static final Stage WAIT_STAGE = Metrics.stage("cnrtl.wait");
+		private static final Stage FETCH_STAGE = Metrics.stage("cnrtl.fetch");
+
+		// The URL of the server which is requested instead of the CNRTL (or the one of the CNRTL)...
+		private static volatile String serverUrl = CNRTL_HOME_PAGE_URL;
+
+		// The wait before each request (in milliseconds)...
+		private static volatile long waitMillis = DEFAULT_WAIT;
+
+		/**
+		 * Gives the server which is requested instead of the CNRTL, such as a {@link CNRTLStandIn} (the pages being requested by the same paths).
+		 * 
+		 * @param url
+		 *  the URL of the server, such as "http://127.0.0.1:8080" (or <i>null</i>, for requesting the CNRTL)
+		 * @param wait
+		 *  the wait (in milliseconds) before each request
+		 */
+		public static void setServer(String url, long wait) {
+
+			serverUrl = (url != null) ? url : CNRTL_HOME_PAGE_URL;
+			waitMillis = wait;
+		}
+
 		/**
 		 * Returns the first of the elements returned by the value of the CSS class (or the CSS ID).
 		 * 
@@ -188,15 +262,36 @@ public class DataIntegrator {
 
 			Elements elements = null;
 
+			CNRTLFetchEvent event = new CNRTLFetchEvent();
+			event.begin();
+			long start = System.nanoTime();
 			try {
-				Thread.sleep(2_000);
-				
-				Document document = (Jsoup.connect(url)).get();
-				if (document != null) {
-					elements = document.select(cssQuery);
+				Thread.sleep(waitMillis);
+				long fetchStart = System.nanoTime();
+				WAIT_STAGE.record(fetchStart - start);
+				event.setWaitTime(fetchStart - start);
+
+				try {
+					Document document = (Jsoup.connect(url.replace(CNRTL_HOME_PAGE_URL, serverUrl))).get();
+					if (document != null) {
+						elements = document.select(cssQuery);
+					}
+				} finally {
+					FETCH_STAGE.record(System.nanoTime() - fetchStart);
 				}
-			} catch (InterruptedException | IOException ie) {
+			} catch (IOException ioe) {
+				// (A failed request only fails its own page: the thread is not interrupted.)
+				FETCH_STAGE.recordError();
+				LOGGER.error(ioe);
+			} catch (InterruptedException ie) {
+				FETCH_STAGE.recordError();
 				Thread.currentThread().interrupt();
+			} finally {
+				if (event.shouldCommit()) {
+					event.setUrl(url);
+					event.setElements((elements != null) ? elements.size() : -1);
+				}
+				event.commit();
 			}
 
 			return elements;
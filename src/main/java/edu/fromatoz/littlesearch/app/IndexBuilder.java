@@ -0,0 +1,57 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.File;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.searchengine.IndexArtifact;
+import edu.fromatoz.littlesearch.searchengine.IndexProfile;
+
+/**
+ * The {@code IndexBuilder} class is the "main" class of the building of the index artifact
+ * (run by Maven, in the "package" phase): the search engine then opens the artifact instead of indexing the texts.
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class IndexBuilder {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(IndexBuilder.class);
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private IndexBuilder() {
+
+		throw new IllegalStateException("IndexBuilder class");
+	}
+
+	/**
+	 * Builds the index artifact.
+	 * 
+	 * @param args
+	 *  the directory of the artifact (optional: {@code SearchEngine.INDEX_ARTIFACT_DIRECTORY}, by default),
+	 *  then the name of the profile of the indexes (optional: "read-optimized", by default; see {@link IndexProfile})
+	 */
+	public static void main(String[] args) {
+
+		IndexProfile indexProfile = IndexProfile.READ_OPTIMIZED;
+		if (args.length > 1) {
+			try {
+				indexProfile = IndexProfile.forName(args[1]);
+			} catch (IllegalArgumentException iae) {
+				LOGGER.error(iae.getMessage());
+				System.exit(1);
+			}
+		}
+		IndexArtifact indexArtifact = new IndexArtifact((args.length > 0) ? new File(args[0]) : SearchEngine.INDEX_ARTIFACT_DIRECTORY, indexProfile);
+
+		long start = System.currentTimeMillis();
+		if (!(indexArtifact.build())) {
+			System.exit(1);
+		}
+		LOGGER.info("Index artifact (" + indexProfile.getName() + ") built into \"" + indexArtifact.getDirectory() + "\" (" + (System.currentTimeMillis() - start) + " ms).");
+	}
+
+}
@@ -0,0 +1,73 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import edu.fromatoz.littlesearch.searchengine.IndexArtifact;
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.Synonymysearch;
+
+/**
+ * The {@code MemoryReport} class is the "main" class of the diagnosis of the memory of the search engine:
+ * it opens the index artifact (as the search engine does), builds the structures which are built when they are first needed
+ * (the spellchecker and the suggester), then reports the heap retained by each component (see {@code Littlesearch.getChildResources()}
+ * and {@code Synonymysearch.getRamUsage()}) and the statistics of the index (see {@code Littlesearch.getIndexStatistics()}).
+ * <p>The heap of the components is estimated (as Lucene does, from the sizes of the objects, without walking the heap):
+ * it is compared with the heap used by the whole JVM, once it is collected.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class MemoryReport {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MemoryReport.class);
+
+	// The option of the passage mode...
+	private static final String PASSAGES_OPTION = "--passages";
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private MemoryReport() {
+
+		throw new IllegalStateException("MemoryReport class");
+	}
+
+	/**
+	 * Reports the memory of the search engine.
+	 * 
+	 * @param args
+	 *  "--passages" (optional: for the index of the passages)
+	 * 
+	 * @throws IOException
+	 *  if the index artifact cannot be opened, or read
+	 */
+	public static void main(String[] args) throws IOException {
+
+		boolean passageMode = (args.length > 0) && args[0].equals(PASSAGES_OPTION);
+
+		IndexArtifact indexArtifact = new IndexArtifact(SearchEngine.INDEX_ARTIFACT_DIRECTORY);
+		if (!(indexArtifact.isUpToDate()) && !(indexArtifact.build())) {
+			System.exit(1);
+		}
+		try (Littlesearch littlesearch = indexArtifact.open(passageMode)) {
+			// Builds the spellchecker (for a word which the index does not know) and the suggester...
+			littlesearch.correct("théorèmme");
+			littlesearch.suggest("th", 1);
+
+			LOGGER.info("Mémoire estimée du moteur de recherche :\n" + Accountables.toString(Accountables.namedAccountable("littlesearch", littlesearch.getChildResources(), littlesearch.ramBytesUsed())));
+			LOGGER.info("Mémoire estimée de la synonymie :\n" + Accountables.toString(Synonymysearch.getRamUsage()));
+			LOGGER.info("Statistiques de l'index :\n" + littlesearch.getIndexStatistics());
+
+			System.gc();
+			Runtime runtime = Runtime.getRuntime();
+			LOGGER.info("Mémoire utilisée par la JVM (après un GC) : " + RamUsageEstimator.humanReadableUnits(runtime.totalMemory() - runtime.freeMemory()));
+		}
+	}
+
+}
@@ -1,16 +1,44 @@
 package edu.fromatoz.littlesearch.app;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import edu.fromatoz.littlesearch.searchengine.Synonymysearch;
 
+import org.apache.log4j.Appender;
+import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Logger;
 
+import edu.fromatoz.littlesearch.searchengine.CorpusWatcher;
+import edu.fromatoz.littlesearch.searchengine.IndexArtifact;
 import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.SearchQuery;
+import edu.fromatoz.littlesearch.searchengine.ShardCoordinator;
+import edu.fromatoz.littlesearch.searchengine.ShardedLittlesearch;
+
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.Stage;
 
 import edu.fromatoz.littlesearch.tool.Extension;
 import edu.fromatoz.littlesearch.tool.Separator;
@@ -47,7 +75,83 @@ public class SearchEngine {
 	 */
 	public static final String TEXT_FILE_PATH_FORMAT = TEXT_CORPUS_DIRECTORY + Separator.SLASH.getValue() + TEXT_FILE_EXTENDED_NAME_FORMAT;
 
-	private static StringBuilder exactWordsBuilder = new StringBuilder();
+	/**
+	 * The directory of the index artifact (prebuilt by {@link IndexBuilder}, or when the first search finds it stale).
+	 */
+	public static final File INDEX_ARTIFACT_DIRECTORY = new File("target" + Separator.SLASH.getValue() + "littlesearch_artifact");
+
+	/**
+	 * The directory of the shards of the named corpora (one per corpus, see {@link ShardedLittlesearch}).
+	 */
+	public static final File SHARDS_DIRECTORY = new File("target" + Separator.SLASH.getValue() + "littlesearch_shards");
+
+	/**
+	 * The option for indexing and searching passage by passage (rather than text by text).
+	 */
+	private static final String PASSAGE_MODE_OPTION_REGEX = "^(--passages|-p)$";
+
+	/**
+	 * The option for watching the corpus directory (the changed texts being indexed while searching),
+	 * the next queries being read from the standard input, one per line.
+	 */
+	private static final String WATCH_MODE_OPTION_REGEX = "^(--watch|-w)$";
+
+	/**
+	 * The option for profiling each search (the cost of each clause of the query, and the explanation of each score).
+	 */
+	private static final String PROFILE_MODE_OPTION_REGEX = "^(--profile)$";
+
+	/**
+	 * The option for searching a named corpus (which could be repeated): its name, then its directory, such as "--corpus=maths=mathematicians";
+	 * the corpora are then searched together, each one in its own shard (indexed only if the corpus has changed).
+	 */
+	private static final Pattern CORPUS_OPTION_PATTERN = Pattern.compile("^--corpus=([\\w-]+)=(.+)$");
+
+	/**
+	 * The option for searching a shard process (which could be repeated): its URL, such as "--shard=http://127.0.0.1:8080" (see {@link ShardProcess});
+	 * the shard processes are then searched together, the words being expanded (but not corrected) once, by this process.
+	 */
+	private static final Pattern SHARD_OPTION_PATTERN = Pattern.compile("^--shard=(.+)$");
+
+	/**
+	 * The option for searching many queries, one per line, from a file (such as "--batch=queries.txt") or from the standard input ("--batch"),
+	 * by several threads at once (see {@link BatchSearch}): the results are then written on the standard output as NDJSON,
+	 * the logs being written on the standard error (the corpus is not watched).
+	 */
+	private static final Pattern BATCH_OPTION_PATTERN = Pattern.compile("^--batch(?:=(.+))?$");
+
+	/**
+	 * The option for the number of threads which search the queries of a batch, such as "--threads=4" (the number of cores, by default).
+	 */
+	private static final Pattern THREADS_OPTION_PATTERN = Pattern.compile("^--threads=(.*)$");
+
+	// The usage of the search engine (logged when no word is given, or when an option is invalid)...
+	private static final String USAGE = "Use: ./searchFor [--passages] [--watch] [--profile] [--corpus=<name>=<directory>]... [--shard=<url>]... [--batch[=<file>] [--threads=<n>]] <word>...";
+
+	// The name of the appender of the logs on the console (see log4j.properties)...
+	private static final String CONSOLE_APPENDER_NAME = "console";
+
+	// The metrics of the queries (corrected, expanded by synonymy, then searched)...
+	private static final Stage QUERY_STAGE = Metrics.stage("searchengine.query");
+
+	private static boolean passageMode = false;
+	private static boolean watchMode = false;
+	private static boolean profileMode = false;
+	private static boolean batchMode = false;
+
+	// The file of the queries of a batch (or null, for reading them from the standard input)...
+	private static File batchFile = null;
+
+	// The number of threads which search the queries of a batch...
+	private static int threadCount = Runtime.getRuntime().availableProcessors();
+
+	// The directories of the named corpora, by their names (none, for searching the corpus of the index artifact)...
+	private static Map<String, File> corpusDirectories = new LinkedHashMap<>();
+
+	// The URLs of the shard processes (none, for searching in this process)...
+	private static List<String> shardUrls = new ArrayList<>();
+
+	// The text of the query (in the syntax of SearchQuery: words, _exact_ words, "phrases" and words NEAR/n each other)...
 	private static StringBuilder wordsBuilder = new StringBuilder();
 
     /**
@@ -59,55 +163,284 @@ public class SearchEngine {
 	public static void main(String[] args) {
 
 		// Gives the search words to the engine...
-		String words = "";
 		if (args.length > 0) {
 			for (String word : args) {
-				try {
-					word = new String(word.getBytes("UTF-8"));
-					buildWords(word);
-				} catch (UnsupportedEncodingException uee) {
-					LOGGER.error(uee);
+				if (!(buildWords(word))) {
+					LOGGER.info(USAGE);
+					System.exit(1);
 				}
 			}
-			words = exactWordsBuilder.toString();
-			words += Synonymysearch.search(wordsBuilder.toString());
-			words = words.trim();
-
-			// For demo...
-			LOGGER.info("[" + String.join(", ", words.split((Separator.SPACE).getValue())) + "]" + (Separator.NEW_LINE).getValue());
 		} else {
-		    LOGGER.info("Use: ./searchFor <word>...");
+		    LOGGER.info(USAGE);
 			System.exit(0);
 		}
 
-		// Indexes the texts...
-		if (!(Littlesearch.indexTexts())) {
-			System.exit(1);
-		} else {
-			// If the indexing is successful, searches for words and for synonyms if exist...
-			List<Littlesearch.Document> documents = Littlesearch.search(words);
-			if (documents.isEmpty()) {
-			    LOGGER.info("Littlesearch ne trouve rien pour \"" + words + "\".");
+		// Keeps the standard output for the results of a batch (the logs being written on the standard error instead)...
+		if (batchMode) {
+			Appender consoleAppender = Logger.getRootLogger().getAppender(CONSOLE_APPENDER_NAME);
+			if (consoleAppender instanceof ConsoleAppender) {
+				((ConsoleAppender) consoleAppender).setTarget(ConsoleAppender.SYSTEM_ERR);
+				((ConsoleAppender) consoleAppender).activateOptions();
+			}
+			watchMode = false;
+		}
+
+		// Dumps the metrics periodically (if requested)...
+		Metrics.startPeriodicDump();
+
+		// Searches the shard processes (if any), scattering the query to them...
+		if (!(shardUrls.isEmpty())) {
+			try (ShardCoordinator shardCoordinator = new ShardCoordinator(shardUrls, ShardCoordinator.DEFAULT_TIMEOUT)) {
+				// (The words are corrected by no shard, since the coordinator has no spellchecker.)
+				if (!(run(UnaryOperator.identity(), searchQuery -> {
+					ShardCoordinator.Result result = shardCoordinator.search(searchQuery);
+					if (result.isPartial()) {
+						LOGGER.warn("Résultat partiel (fragments manquants " + (Separator.COLON).getValue() + " " + result.getMissingShardUrls() + ")");
+					}
+					return result;
+				}))) {
+					System.exit(1);
+				}
+			}
+			return;
+		}
+
+		// Searches the named corpora (if any), fanning out across their shards...
+		if (!(corpusDirectories.isEmpty())) {
+			if (!(searchShards())) {
+				System.exit(1);
+			}
+			return;
+		}
+
+		// Opens the index artifact (or, for watching the corpus, indexes the texts into a writable index)...
+		try (Littlesearch littlesearch = watchMode ? new Littlesearch(passageMode) : openIndexArtifact()) {
+			if ((littlesearch == null) || (watchMode && !(littlesearch.indexTexts()))) {
 				System.exit(1);
+			} else if (!watchMode) {
+				// If the indexing is successful, searches for the words...
+				if (!(run(littlesearch::correct, searchQuery -> littlesearch.search(searchQuery, profileMode)))) {
+					System.exit(1);
+				}
 			} else {
-				// If the engine finds at least one of the searched words in an indexed document, returns the document in question...
-				ListIterator<Littlesearch.Document> documentsIterator = documents.listIterator();
-				while (documentsIterator.hasNext()) {
-					edu.fromatoz.littlesearch.searchengine.Littlesearch.Document document = documentsIterator.next();
-					LOGGER.info("Document " + document.getNumber() + " (" + document.getScore() + ") " + (Separator.COLON).getValue());
-					LOGGER.info(document.getContent());
+				// Watches the corpus directory (the changes being indexed in the background), while searching...
+				try (CorpusWatcher corpusWatcher = new CorpusWatcher(littlesearch, TEXT_CORPUS_DIRECTORY);
+						BufferedReader queriesReader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+					corpusWatcher.start();
+					search(littlesearch::correct, searchQuery -> littlesearch.search(searchQuery, profileMode));
+					String query;
+					while ((query = queriesReader.readLine()) != null) {
+						// (A line is a query only: a word such as "--batch" is searched, rather than parsed as an option.)
+						wordsBuilder.setLength(0);
+						for (String word : query.trim().split("\\s+")) {
+							if (!(word.isEmpty())) {
+								appendWord(word);
+							}
+						}
+						if (wordsBuilder.length() > 0) {
+							search(littlesearch::correct, searchQuery -> littlesearch.search(searchQuery, profileMode));
+						}
+					}
 				}
 			}
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			System.exit(1);
 		}
 	}
 
-	private static void buildWords(String word) {
+	/**
+	 * Opens the index artifact, read-only; if the artifact is stale (or not built yet), builds it before.
+	 * 
+	 * @return the search engine (or <i>null</i>, if the artifact cannot be built)
+	 * 
+	 * @throws IOException
+	 *  if the artifact cannot be opened
+	 */
+	private static Littlesearch openIndexArtifact() throws IOException {
+
+		IndexArtifact indexArtifact = new IndexArtifact(INDEX_ARTIFACT_DIRECTORY);
+		if (!(indexArtifact.isUpToDate())) {
+			LOGGER.info("L'index de \"" + INDEX_ARTIFACT_DIRECTORY + "\" n'est pas à jour : construction...");
+			if (!(indexArtifact.build())) {
+				return null;
+			}
+		}
 
-		if (word.startsWith("_") && word.endsWith("_")) {
-			word = word.substring(1, word.length() - 1);
-			exactWordsBuilder.append(word + (Separator.SPACE).getValue());
+		return indexArtifact.open(passageMode);
+	}
+
+	/**
+	 * Searches the shards of the named corpora for the built words (the shards which are not up to date being built before),
+	 * one thread per shard, then prints the documents found.
+	 * (The searches of the shards are not profiled.)
+	 * 
+	 * @return <i>true</i>, if at least one document is found
+	 */
+	private static boolean searchShards() {
+
+		ExecutorService fanOutExecutor = Executors.newFixedThreadPool(corpusDirectories.size());
+		try (ShardedLittlesearch shardedLittlesearch = new ShardedLittlesearch(SHARDS_DIRECTORY.toPath(), corpusDirectories, passageMode, fanOutExecutor)) {
+			return shardedLittlesearch.indexTexts() && run(shardedLittlesearch::correct, shardedLittlesearch::search);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		} finally {
+			fanOutExecutor.shutdown();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Searches for the built words (or, for a batch, for the queries of the batch), then prints the documents found.
+	 * 
+	 * @param corrector
+	 *  the corrector of the misspelled words (of a search engine)
+	 * @param searcher
+	 *  the searcher of the query (of a search engine)
+	 * 
+	 * @return <i>true</i>, if at least one document is found (or, for a batch, if all the queries are searched)
+	 */
+	private static boolean run(UnaryOperator<String> corrector, Function<SearchQuery, Littlesearch.Result> searcher) {
+
+		if (!batchMode) {
+			return search(corrector, searcher);
+		}
+
+		// (The synonyms are compiled once for the whole batch, unless they are given by the index artifact.)
+		Synonymysearch.loadCompiledSynonyms();
+		Writer resultsWriter = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		try (BufferedReader queriesReader = (batchFile != null) ? Files.newBufferedReader(batchFile.toPath(), StandardCharsets.UTF_8)
+				: new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+			(new BatchSearch(corrector, searcher, threadCount)).run(queriesReader, resultsWriter);
+
+			return true;
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Searches for the built words, then prints the documents found.
+	 * 
+	 * @param corrector
+	 *  the corrector of the misspelled words (of a search engine)
+	 * @param searcher
+	 *  the searcher of the query (of a search engine)
+	 * 
+	 * @return <i>true</i>, if at least one document is found
+	 */
+	private static boolean search(UnaryOperator<String> corrector, Function<SearchQuery, Littlesearch.Result> searcher) {
+
+		long start = System.nanoTime();
+
+		SearchQuery query = buildQuery(wordsBuilder.toString(), corrector);
+
+		// For demo...
+		LOGGER.info("[" + query + "]" + (Separator.NEW_LINE).getValue());
+
+		// Searches for words and for synonyms...
+		Littlesearch.Result result = searcher.apply(query);
+		List<Littlesearch.Document> documents = result.getDocuments();
+		QUERY_STAGE.record(System.nanoTime() - start);
+		if (result.getProfile() != null) {
+			LOGGER.info("Profil de la recherche " + (Separator.COLON).getValue() + (Separator.NEW_LINE).getValue() + result.getProfile());
+		}
+		if (documents.isEmpty()) {
+		    LOGGER.info("Littlesearch ne trouve rien pour \"" + query + "\".");
+			return false;
+		}
+		// If the engine finds at least one of the searched words in an indexed document, returns the document in question...
+		ListIterator<Littlesearch.Document> documentsIterator = documents.listIterator();
+		while (documentsIterator.hasNext()) {
+			Littlesearch.Document document = documentsIterator.next();
+			LOGGER.info("Document " + document.getNumber() + " (" + document.getScore() + ") " + (Separator.COLON).getValue());
+			LOGGER.info(document.getSnippet());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Builds a query: the words (the misspelled ones being corrected) with their synonyms if exist,
+	 * the exact words, the phrases and the words near each other being searched as they are.
+	 * 
+	 * @param text
+	 *  the text of the query (in the syntax of {@link SearchQuery})
+	 * @param corrector
+	 *  the corrector of the misspelled words (of a search engine)
+	 * 
+	 * @return the query
+	 */
+	public static SearchQuery buildQuery(String text, UnaryOperator<String> corrector) {
+
+		SearchQuery.Builder queryBuilder = new SearchQuery.Builder();
+		for (SearchQuery.Clause clause : (SearchQuery.parse(text)).getClauses()) {
+			if (clause.getType() == SearchQuery.Clause.Type.WORD) {
+				String word = corrector.apply(clause.getWord());
+				queryBuilder.addWord(word, Synonymysearch.expand(word));
+			} else {
+				queryBuilder.add(clause);
+			}
+		}
+
+		return queryBuilder.build();
+	}
+
+	/**
+	 * Parses an argument of the command line: either an option, or a word of the query.
+	 * 
+	 * @param word
+	 *  the argument
+	 * 
+	 * @return <i>false</i>, if the argument is an option whose value is invalid
+	 */
+	private static boolean buildWords(String word) {
+
+		Matcher corpusOptionMatcher = CORPUS_OPTION_PATTERN.matcher(word);
+		Matcher shardOptionMatcher = SHARD_OPTION_PATTERN.matcher(word);
+		Matcher batchOptionMatcher = BATCH_OPTION_PATTERN.matcher(word);
+		Matcher threadsOptionMatcher = THREADS_OPTION_PATTERN.matcher(word);
+		if (corpusOptionMatcher.matches()) {
+			corpusDirectories.put(corpusOptionMatcher.group(1), new File(corpusOptionMatcher.group(2)));
+		} else if (shardOptionMatcher.matches()) {
+			shardUrls.add(shardOptionMatcher.group(1));
+		} else if (batchOptionMatcher.matches()) {
+			batchMode = true;
+			batchFile = (batchOptionMatcher.group(1) != null) ? new File(batchOptionMatcher.group(1)) : null;
+		} else if (threadsOptionMatcher.matches()) {
+			threadCount = parseThreadCount(threadsOptionMatcher.group(1));
+			if (threadCount < 1) {
+				LOGGER.error("Nombre de fils d'exécution invalide : " + threadsOptionMatcher.group(1) + " (un entier entre 1 et " + Integer.MAX_VALUE + " est attendu)");
+				return false;
+			}
+		} else if (word.matches(PASSAGE_MODE_OPTION_REGEX)) {
+			passageMode = true;
+		} else if (word.matches(WATCH_MODE_OPTION_REGEX)) {
+			watchMode = true;
+		} else if (word.matches(PROFILE_MODE_OPTION_REGEX)) {
+			profileMode = true;
 		} else {
-			wordsBuilder.append(word + (Separator.SPACE).getValue());
+			appendWord(word);
+		}
+
+		return true;
+	}
+
+	private static void appendWord(String word) {
+
+		wordsBuilder.append(word + (Separator.SPACE).getValue());
+	}
+
+	// Returns the number of threads of the option (or 0, if it is not a positive integer, or if it overflows)...
+	private static int parseThreadCount(String value) {
+
+		try {
+			return Math.max(0, Integer.parseInt(value));
+		} catch (NumberFormatException nfe) {
+			return 0;
 		}
 	}
 
@@ -0,0 +1,172 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.searchengine.ShardCoordinator;
+import edu.fromatoz.littlesearch.searchengine.ShardServer;
+import edu.fromatoz.littlesearch.searchengine.ShardedLittlesearch;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code ShardProcess} class defines a shard process: a JVM which indexes a slice of the corpus into its own shard
+ * (only if the slice has changed, see {@link ShardedLittlesearch}), then serves its searches on a port of the loopback interface
+ * (see {@link ShardServer}) to a coordinator (see {@link ShardCoordinator}), until its standard input is closed.
+ * <p>A shard process could be started by hand (its URL is then given to the search engine by the option "--shard"),
+ * or by the coordinating process itself (see {@code start(String, File, File)}).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ShardProcess implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ShardProcess.class);
+
+	// The line by which a shard process tells that it is ready, then its URL...
+	private static final String READY_LINE_PREFIX = "LITTLESEARCH_SHARD_READY ";
+
+	// The delay (in seconds) given to a shard process for stopping, once its standard input is closed...
+	private static final long STOP_DELAY = 10;
+
+	private final Process process;
+
+	private final String url;
+
+	private ShardProcess(Process process, String url) {
+
+		this.process = process;
+		this.url = url;
+	}
+
+	/**
+	 * Runs a shard process.
+	 * 
+	 * @param args
+	 *  the name of the slice of the corpus, the directory of the slice, the directory of the shards
+	 *  (optional: the one of the search engine, by default) and the port (optional: a free port, by default)
+	 */
+	public static void main(String[] args) {
+
+		if (args.length < 2) {
+			LOGGER.info("Use: ShardProcess <name> <corpus directory> [<shards directory> [<port>]]");
+			System.exit(0);
+		}
+		String name = args[0];
+		File shardsDirectory = (args.length > 2) ? new File(args[2]) : SearchEngine.SHARDS_DIRECTORY;
+		int port = (args.length > 3) ? Integer.parseInt(args[3]) : 0;
+
+		try (ShardedLittlesearch shardedLittlesearch = new ShardedLittlesearch(shardsDirectory.toPath(), Collections.singletonMap(name, new File(args[1])), false, null)) {
+			if (!(shardedLittlesearch.indexTexts())) {
+				System.exit(1);
+			}
+			try (ShardServer shardServer = new ShardServer(shardedLittlesearch.getShard(name), port);
+					BufferedReader standardInputReader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+				// (The ready line is written on the standard output itself, whatever the configuration of the logger, for the coordinating process.)
+				System.out.println(READY_LINE_PREFIX + shardServer.getUrl());
+				System.out.flush();
+				// Serves the searches until the standard input is closed (by the coordinating process, or when it dies)...
+				while (standardInputReader.readLine() != null) {
+					// (Any line is ignored.)
+				}
+			}
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Starts a shard process (in a new JVM, with the class path of this one), then waits until it is ready
+	 * (so, until its slice of the corpus is indexed, if it has changed).
+	 * 
+	 * @param name
+	 *  the name of the slice of the corpus (made of letters, digits, underscores and hyphens)
+	 * @param corpusDirectory
+	 *  the directory of the slice
+	 * @param shardsDirectory
+	 *  the directory of the shards
+	 * 
+	 * @return the shard process
+	 * 
+	 * @throws IOException
+	 *  if the shard process cannot be started, or if it stops before being ready
+	 */
+	public static ShardProcess start(String name, File corpusDirectory, File shardsDirectory) throws IOException {
+
+		ProcessBuilder processBuilder = new ProcessBuilder(System.getProperty("java.home") + Separator.SLASH.getValue() + "bin" + Separator.SLASH.getValue() + "java",
+				"-cp", System.getProperty("java.class.path"), "-Dfile.encoding=" + System.getProperty("file.encoding"),
+				ShardProcess.class.getName(), name, corpusDirectory.getPath(), shardsDirectory.getPath());
+		processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process process = processBuilder.start();
+
+		BufferedReader outputReader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+		String line;
+		while ((line = outputReader.readLine()) != null) {
+			if (line.startsWith(READY_LINE_PREFIX)) {
+				// Drains the rest of the output (the logs of the shard process), so that the shard process never blocks on it...
+				Thread drainer = new Thread(() -> {
+					try {
+						while (outputReader.readLine() != null) {
+							// (The logs are also written in the log file.)
+						}
+					} catch (IOException ioe) {
+						// (The shard process has stopped.)
+					}
+				}, "shard-process-output");
+				drainer.setDaemon(true);
+				drainer.start();
+
+				return new ShardProcess(process, line.substring(READY_LINE_PREFIX.length()));
+			}
+		}
+		process.destroyForcibly();
+
+		throw new IOException("The shard process \"" + name + "\" has stopped before being ready.");
+	}
+
+	/**
+	 * Returns the URL of the server of the shard process (which is given to the coordinator).
+	 * 
+	 * @return the URL, such as "http://127.0.0.1:8080"
+	 */
+	public String getUrl() {
+
+		return url;
+	}
+
+	/**
+	 * Stops the shard process: closes its standard input, then kills it if it does not stop in time.
+	 */
+	@Override
+	public void close() {
+
+		try {
+			process.getOutputStream().close();
+			if (!(process.waitFor(STOP_DELAY, TimeUnit.SECONDS))) {
+				process.destroyForcibly();
+			}
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			process.destroyForcibly();
+		} catch (InterruptedException ie) {
+			LOGGER.error(ie);
+			Thread.currentThread().interrupt();
+			process.destroyForcibly();
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.dataintegrator.Vocabulary;
+
+/**
+ * The {@code VocabularyBuilder} class is the "main" class of the building of the vocabulary of the corpus
+ * (run by Maven, in the "package" phase): the term and document frequencies of the tokens of all the texts
+ * (see {@link Vocabulary}), which the data integrator then uses for integrating the most frequent words first.
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class VocabularyBuilder {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(VocabularyBuilder.class);
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private VocabularyBuilder() {
+
+		throw new IllegalStateException("VocabularyBuilder class");
+	}
+
+	/**
+	 * Builds the vocabulary of the corpus.
+	 * 
+	 * @param args
+	 *  the file of the vocabulary (optional: {@code DataIntegrator.VOCABULARY_FILE}, by default)
+	 */
+	public static void main(String[] args) {
+
+		File vocabularyFile = (args.length > 0) ? new File(args[0]) : DataIntegrator.VOCABULARY_FILE;
+
+		long start = System.currentTimeMillis();
+		Vocabulary vocabulary = Vocabulary.build(SearchEngine.TEXT_CORPUS_DIRECTORY);
+		try {
+			vocabulary.write(vocabularyFile);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			System.exit(1);
+		}
+		LOGGER.info("Vocabulary (" + vocabulary.size() + " tokens, " + vocabulary.getDocumentCount() + " texts) built into \"" + vocabularyFile
+				+ "\" (" + (System.currentTimeMillis() - start) + " ms).");
+	}
+
+}
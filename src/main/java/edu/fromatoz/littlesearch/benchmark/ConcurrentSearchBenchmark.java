@@ -0,0 +1,126 @@
+package edu.fromatoz.littlesearch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+
+/**
+ * The {@code ConcurrentSearchBenchmark} class measures the throughput of the searches (the queries per second)
+ * according to the number of threads which share a single instance of {@link Littlesearch}.
+ * <p>The texts are indexed once into a temporary index; then, for each number of threads (the powers of two up to the number of cores),
+ * each thread searches the queries in turn, as many times as requested.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ConcurrentSearchBenchmark {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ConcurrentSearchBenchmark.class);
+
+	// The queries which are searched (some with synonyms, as expanded by Synonymysearch)...
+	private static final String[] QUERIES = {
+		"Riemann", "géomètre mathématicien mathématiciens", "algèbre algèbres", "théorème théorèmes", "Gauss astronome", "calcul calculs symbole"
+	};
+
+	// The number of queries searched by each thread, before measuring...
+	private static final int WARM_UP_QUERIES_PER_THREAD = 100;
+
+	// The number of measured queries searched by each thread...
+	private static final int QUERIES_PER_THREAD = 300;
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private ConcurrentSearchBenchmark() {
+
+		throw new IllegalStateException("ConcurrentSearchBenchmark class");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args
+	 *  (unused)
+	 * 
+	 * @throws IOException
+	 *  if the temporary index cannot be created
+	 * @throws InterruptedException
+	 *  if the benchmark is interrupted
+	 * @throws ExecutionException
+	 *  if a search fails
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+
+		Path indexPath = Files.createTempDirectory("littlesearch_benchmark_index");
+		try (Littlesearch littlesearch = new Littlesearch(indexPath, false)) {
+			if (littlesearch.indexTexts()) {
+				int cores = Runtime.getRuntime().availableProcessors();
+				LOGGER.info("threads\tqueries/s");
+				for (int threadCount = 1; threadCount <= cores; threadCount *= 2) {
+					runSearches(littlesearch, threadCount, WARM_UP_QUERIES_PER_THREAD);
+					long start = System.nanoTime();
+					runSearches(littlesearch, threadCount, QUERIES_PER_THREAD);
+					double seconds = (System.nanoTime() - start) / 1e9;
+					LOGGER.info(String.format("%d\t%.0f", threadCount, (threadCount * QUERIES_PER_THREAD) / seconds));
+				}
+			}
+		} finally {
+			for (File file : indexPath.toFile().listFiles()) {
+				Files.delete(file.toPath());
+			}
+			Files.delete(indexPath);
+		}
+	}
+
+	/**
+	 * Searches the queries by several threads at once, until each thread has searched as many queries as requested.
+	 * 
+	 * @param littlesearch
+	 *  the search engine, shared by the threads
+	 * @param threadCount
+	 *  the number of threads
+	 * @param queriesPerThread
+	 *  the number of queries searched by each thread
+	 * 
+	 * @throws InterruptedException
+	 *  if the searches are interrupted
+	 * @throws ExecutionException
+	 *  if a search fails
+	 */
+	private static void runSearches(Littlesearch littlesearch, int threadCount, int queriesPerThread) throws InterruptedException, ExecutionException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threadCount; t++) {
+				final int offset = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < queriesPerThread; i++) {
+						littlesearch.search(QUERIES[(offset + i) % QUERIES.length]);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				// (Rethrows the failure of a thread, if any.)
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package edu.fromatoz.littlesearch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.searchengine.IndexProfile;
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.Synonymysearch;
+
+/**
+ * The {@code IndexProfileBenchmark} class compares the index profiles (see {@link IndexProfile}) on the corpus:
+ * for each profile, the texts are indexed into a temporary index, of which the build time and the size are printed,
+ * then each query is searched several times, and the content of each document found is fetched;
+ * the median and the 99th percentile of the latencies of the searches and of the fetches are printed.
+ * <p>(The build time includes the building of the spellchecker and of the suggester, which is the same for all the profiles.)</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class IndexProfileBenchmark {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(IndexProfileBenchmark.class);
+
+	// The words of the queries (before their expansion by synonymy)...
+	private static final String[] WORDS = {
+		"calcul", "théorème", "géomètre", "travail", "mathématicien", "algèbre", "évolution", "témoigner", "analyse", "nombre"
+	};
+
+	// The number of searches of each query, before measuring...
+	private static final int WARM_UP_ROUNDS = 50;
+
+	// The number of measured searches of each query...
+	private static final int MEASURED_ROUNDS = 200;
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private IndexProfileBenchmark() {
+
+		throw new IllegalStateException("IndexProfileBenchmark class");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args
+	 *  the names of the profiles to be compared (optional: all the profiles, by default)
+	 * 
+	 * @throws IOException
+	 *  if a temporary index cannot be created
+	 */
+	public static void main(String[] args) throws IOException {
+
+		List<IndexProfile> indexProfiles = new ArrayList<>();
+		for (String name : args) {
+			indexProfiles.add(IndexProfile.forName(name));
+		}
+		if (indexProfiles.isEmpty()) {
+			indexProfiles.addAll(Arrays.asList(IndexProfile.values()));
+		}
+
+		// Expands the queries once for all the profiles (as long OR queries)...
+		List<String> queries = new ArrayList<>();
+		for (String word : WORDS) {
+			queries.add(Synonymysearch.search(word));
+		}
+
+		LOGGER.info("profile\tbuild (ms)\tsize (KiB)\tsearch p50 (µs)\tsearch p99 (µs)\tfetch p50 (µs)\tfetch p99 (µs)");
+		for (IndexProfile indexProfile : indexProfiles) {
+			benchmark(queries, indexProfile);
+		}
+	}
+
+	/**
+	 * Measures the build time, the size and the latencies of an index profile.
+	 * 
+	 * @param queries
+	 *  the queries
+	 * @param indexProfile
+	 *  the profile of the index
+	 * 
+	 * @throws IOException
+	 *  if the temporary index cannot be created
+	 */
+	private static void benchmark(List<String> queries, IndexProfile indexProfile) throws IOException {
+
+		Path indexPath = Files.createTempDirectory("littlesearch_benchmark_index");
+		try (Littlesearch littlesearch = new Littlesearch(indexPath, false, null, 0, indexProfile)) {
+			long start = System.nanoTime();
+			if (littlesearch.indexTexts()) {
+				long buildTime = (System.nanoTime() - start) / 1_000_000;
+				long size = getSize(indexPath) / 1_024;
+
+				for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+					for (String query : queries) {
+						littlesearch.search(query).forEach(Littlesearch.Document::getContent);
+					}
+				}
+				List<Long> searchLatencies = new ArrayList<>();
+				List<Long> fetchLatencies = new ArrayList<>();
+				for (int i = 0; i < MEASURED_ROUNDS; i++) {
+					for (String query : queries) {
+						start = System.nanoTime();
+						List<Littlesearch.Document> documents = littlesearch.search(query);
+						searchLatencies.add((System.nanoTime() - start) / 1_000);
+						for (Littlesearch.Document document : documents) {
+							start = System.nanoTime();
+							document.getContent();
+							fetchLatencies.add((System.nanoTime() - start) / 1_000);
+						}
+					}
+				}
+				LOGGER.info(String.format("%s\t%d\t%d\t%d\t%d\t%d\t%d", indexProfile.getName(), buildTime, size,
+						getPercentile(searchLatencies, 50), getPercentile(searchLatencies, 99), getPercentile(fetchLatencies, 50), getPercentile(fetchLatencies, 99)));
+			}
+		} finally {
+			try (Stream<Path> paths = Files.walk(indexPath)) {
+				paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+
+	/**
+	 * Returns the size of the files of an index.
+	 * 
+	 * @param indexPath
+	 *  the path of the directory of the index
+	 * 
+	 * @return the size (in bytes)
+	 * 
+	 * @throws IOException
+	 *  if the directory cannot be read
+	 */
+	private static long getSize(Path indexPath) throws IOException {
+
+		try (Stream<Path> paths = Files.list(indexPath)) {
+			return paths.mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+
+	/**
+	 * Returns a percentile of latencies.
+	 * 
+	 * @param latencies
+	 *  the latencies (which are sorted by this method)
+	 * @param percentile
+	 *  the percentile (between 0 and 100)
+	 * 
+	 * @return the percentile (or 0, if there is no latency)
+	 */
+	private static long getPercentile(List<Long> latencies, int percentile) {
+
+		if (latencies.isEmpty()) {
+			return 0;
+		}
+		latencies.sort(null);
+
+		return latencies.get(Math.min(latencies.size() - 1, (latencies.size() * percentile) / 100));
+	}
+
+}
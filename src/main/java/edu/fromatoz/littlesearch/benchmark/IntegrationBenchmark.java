@@ -0,0 +1,195 @@
+package edu.fromatoz.littlesearch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fromatoz.littlesearch.app.DataIntegrator;
+
+import edu.fromatoz.littlesearch.dataintegrator.CNRTLStandIn;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.JSONWriter;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.SynonymsSet;
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.Word;
+
+import edu.fromatoz.littlesearch.tool.Extension;
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code IntegrationBenchmark} class measures the throughput of the integration of data (the words integrated per second)
+ * according to the number of threads which load the words, against a stand-in for the CNRTL (see {@link CNRTLStandIn}),
+ * so on the loopback interface, without any network.
+ * <p>The words are canonical forms sampled across the data warehouse, from which the stand-in generates its pages;
+ * for each number of threads, they are loaded into a new temporary data warehouse, so that each run sends the same requests
+ * (the integrator does not wait between its requests, the stand-in simulating the latency of the CNRTL).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class IntegrationBenchmark {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(IntegrationBenchmark.class);
+
+	// The directory of the data warehouse...
+	private static final String DATA_WAREHOUSE = "data_warehouse";
+
+	// The default latency of the stand-in (in milliseconds)...
+	private static final long DEFAULT_LATENCY = 2;
+
+	// The default number of words to be integrated...
+	private static final int DEFAULT_WORD_COUNT = 16;
+
+	// The numbers of threads to be compared...
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+	// The suffix of the JSON files of the data warehouse...
+	private static final String JSON_FILE_SUFFIX = (Separator.POINT).getValue() + (Extension.JSON).getValue();
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private IntegrationBenchmark() {
+
+		throw new IllegalStateException("IntegrationBenchmark class");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args
+	 *  the latency of the stand-in, in milliseconds (optional: 2, by default),
+	 *  the rate of the errors injected by the stand-in (optional: 0, by default)
+	 *  and the number of words to be integrated (optional: 16, by default)
+	 * 
+	 * @throws IOException
+	 *  if the stand-in cannot be started, or if a temporary data warehouse cannot be created
+	 * @throws InterruptedException
+	 *  if the benchmark is interrupted
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		long latency = (args.length > 0) ? Long.parseLong(args[0]) : DEFAULT_LATENCY;
+		double errorRate = (args.length > 1) ? Double.parseDouble(args[1]) : 0;
+		int wordCount = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_WORD_COUNT;
+
+		File dataWarehouse = new File(DATA_WAREHOUSE);
+		List<String> words = getWords(dataWarehouse, wordCount);
+
+		try (CNRTLStandIn standIn = new CNRTLStandIn(null, dataWarehouse)) {
+			standIn.setLatency(latency);
+			standIn.setErrorRate(errorRate);
+			DataIntegrator.CNRTLParser.setServer(standIn.getUrl(), 0);
+
+			LOGGER.info("threads\twords\ttime (ms)\twords/s\trequests\terrors");
+			for (int threadCount : THREAD_COUNTS) {
+				benchmark(standIn, words, threadCount);
+			}
+		} finally {
+			DataIntegrator.CNRTLParser.setServer(null, DataIntegrator.CNRTLParser.DEFAULT_WAIT);
+		}
+	}
+
+	/**
+	 * Measures the throughput of the integration for a number of threads.
+	 * 
+	 * @param standIn
+	 *  the stand-in for the CNRTL
+	 * @param words
+	 *  the words to be integrated
+	 * @param threadCount
+	 *  the number of threads which load the words
+	 * 
+	 * @throws IOException
+	 *  if the temporary data warehouse cannot be created
+	 * @throws InterruptedException
+	 *  if the benchmark is interrupted
+	 */
+	private static void benchmark(CNRTLStandIn standIn, List<String> words, int threadCount) throws IOException, InterruptedException {
+
+		Path dataWarehousePath = Files.createTempDirectory("littlesearch_benchmark_data_warehouse");
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			JSONWriter jsonWriter = new JSONWriter(dataWarehousePath.toFile());
+			long requestCount = standIn.getRequestCount();
+			long errorCount = standIn.getErrorCount();
+
+			long start = System.nanoTime();
+			for (String word : words) {
+				executor.execute(() -> jsonWriter.load(word));
+			}
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.HOURS);
+			long time = (System.nanoTime() - start) / 1_000_000;
+
+			LOGGER.info(String.format("%d\t%d\t%d\t%.1f\t%d\t%d", threadCount, words.size(), time, (words.size() * 1_000.0) / Math.max(1, time),
+					standIn.getRequestCount() - requestCount, standIn.getErrorCount() - errorCount));
+		} finally {
+			executor.shutdownNow();
+			try (Stream<Path> paths = Files.walk(dataWarehousePath)) {
+				paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+
+	/**
+	 * Returns canonical forms sampled across the data warehouse (at regular intervals of its sorted JSON files).
+	 * 
+	 * @param dataWarehouse
+	 *  the directory of the data warehouse
+	 * @param wordCount
+	 *  the number of words to be sampled
+	 * 
+	 * @return the list of the words (fewer than requested, if the data warehouse is smaller)
+	 */
+	private static List<String> getWords(File dataWarehouse, int wordCount) {
+
+		List<String> words = new ArrayList<>();
+		// (The files are listed as paths, which keep the bytes of their names: a name such as "théorème.json" is read whatever the locale.)
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(dataWarehouse.toPath(), "*" + JSON_FILE_SUFFIX)) {
+			paths.forEach(files::add);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			return words;
+		}
+		Collections.sort(files);
+
+		// (The word of a file is the canonical form of its first synonym, rather than its name, which the locale could not decode.)
+		ObjectMapper objectMapper = new ObjectMapper();
+		int step = Math.max(1, files.size() / wordCount);
+		for (int i = 0; (i < files.size()) && (words.size() < wordCount); i += step) {
+			try (InputStreamReader inputStreamReader = new InputStreamReader(Files.newInputStream(files.get(i)), StandardCharsets.ISO_8859_1)) {
+				Word[] synonyms = (objectMapper.readValue(inputStreamReader, SynonymsSet.class)).getSynonyms();
+				if ((synonyms != null) && (synonyms.length > 0)) {
+					words.add(synonyms[0].getCanonicalForm());
+				}
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
+			}
+		}
+
+		return words;
+	}
+
+}
@@ -0,0 +1,520 @@
+package edu.fromatoz.littlesearch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.app.SearchEngine;
+import edu.fromatoz.littlesearch.app.ShardProcess;
+
+import edu.fromatoz.littlesearch.dataintegrator.Vocabulary;
+
+import edu.fromatoz.littlesearch.metrics.LatencyHistogram;
+
+import edu.fromatoz.littlesearch.searchengine.CompiledSynonyms;
+import edu.fromatoz.littlesearch.searchengine.IndexArtifact;
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.ShardCoordinator;
+import edu.fromatoz.littlesearch.searchengine.Synonymysearch;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code LoadGenerator} class replays a log of queries against the search engine, for planning the capacity of its hosts:
+ * either at a fixed rate (an <i>open</i> loop, the requests being sent on schedule, whether the previous ones have returned or not),
+ * or by some clients which send their requests one after the other (a <i>closed</i> loop).
+ * <p>The latencies are recorded in a fine histogram (see {@link LatencyHistogram}), then the throughput and the percentiles
+ * (p50, p90, p99 and p99.9) are reported, both as measured (the <i>service time</i>) and corrected for the <i>coordinated omission</i>:
+ * at a fixed rate, the latency of a request is measured from the time at which it should have been sent;
+ * in a closed loop, the requests which a slow request has postponed are added afterwards (see {@code LatencyHistogram.copyCorrectedForCoordinatedOmission(long)}),
+ * the expected interval between two requests of a client being the mean service time.</p>
+ * <p>The log of queries (one per line, in the syntax of the search engine) is generated, unless it is given: its words are drawn from
+ * the vocabulary of the corpus (by their frequencies, the too common words being left out) and from the forms of the data warehouse
+ * which have synonyms (so that the queries are expanded as those of the users).</p>
+ * <p>The engine is either the one of this process (on the index artifact), or a shard process on the loopback interface (see {@link ShardProcess}),
+ * started by the load generator itself ("--server"), or already running ("--shard=&lt;url&gt;").</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class LoadGenerator {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class);
+
+	/**
+	 * The file of the generated log of queries (which could then be replayed, or edited).
+	 */
+	public static final File QUERY_LOG_FILE = new File("target" + Separator.SLASH.getValue() + "littlesearch_queries.txt");
+
+	// The number of bits of the buckets of each power of two of the histograms (so, within 0.8 %)...
+	private static final int HISTOGRAM_PRECISION = 7;
+
+	// The percentiles which are reported...
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+	// The default number of clients (or of workers, at a fixed rate)...
+	private static final int DEFAULT_CLIENT_COUNT = 4;
+
+	// The default durations of the warm-up and of the measure (in seconds)...
+	private static final long DEFAULT_WARM_UP = 5;
+	private static final long DEFAULT_DURATION = 30;
+
+	// The default number of generated queries, and the seed from which they are drawn...
+	private static final int DEFAULT_QUERY_COUNT = 1_000;
+	private static final long QUERY_SEED = 42;
+
+	// The greatest number of words of a generated query...
+	private static final int MAX_QUERY_WORD_COUNT = 3;
+
+	// The probability of a generated word to be drawn from the forms which have synonyms (rather than from the vocabulary)...
+	private static final double SYNONYM_WORD_PROBABILITY = 0.4;
+
+	// The shortest word of a generated query...
+	private static final int MIN_WORD_LENGTH = 4;
+
+	// A word of a generated query (letters and hyphens only) and the tag of a token of the vocabulary (such as "[PROPER.NOUN]")...
+	private static final Pattern WORD_PATTERN = Pattern.compile("^[\\p{L}-]+$");
+	private static final Pattern TAG_PATTERN = Pattern.compile("\\[[^\\]]*\\]$");
+
+	// The options...
+	private static final Pattern OPTION_PATTERN = Pattern.compile("^--(rate|clients|warmup|duration|queries|shard)=(.+)$");
+	private static final String SERVER_OPTION = "--server";
+	private static final String PASSAGES_OPTION = "--passages";
+
+	private final List<String> queries;
+
+	private final Predicate<String> searcher;
+
+	private final int clientCount;
+
+	private final double rate;
+
+	/**
+	 * Constructs a load generator.
+	 * 
+	 * @param queries
+	 *  the queries (which are replayed in turn, from the first one again once the last one is sent)
+	 * @param searcher
+	 *  the searcher of a query (called by several threads at once), which tells whether the search has succeeded
+	 * @param clientCount
+	 *  the number of clients (or, at a fixed rate, of the workers which send the requests)
+	 * @param rate
+	 *  the rate of the requests (per second), or 0 for a closed loop
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no query, if the number of clients is not positive, or if the rate is negative
+	 */
+	public LoadGenerator(List<String> queries, Predicate<String> searcher, int clientCount, double rate) {
+
+		if (queries.isEmpty()) {
+			throw new IllegalArgumentException("No query is given.");
+		}
+		if (clientCount <= 0) {
+			throw new IllegalArgumentException("A number of clients should be positive: " + clientCount + ".");
+		}
+		if (rate < 0) {
+			throw new IllegalArgumentException("A rate should not be negative: " + rate + ".");
+		}
+
+		this.queries = new ArrayList<>(queries);
+		this.searcher = searcher;
+		this.clientCount = clientCount;
+		this.rate = rate;
+	}
+
+	/**
+	 * Runs the load generator.
+	 * 
+	 * @param args
+	 *  the options: "--rate=&lt;requests per second&gt;" (a closed loop, by default), "--clients=&lt;n&gt;" (4, by default),
+	 *  "--warmup=&lt;seconds&gt;" (5, by default), "--duration=&lt;seconds&gt;" (30, by default), "--queries=&lt;file&gt;" (a generated log, by default),
+	 *  "--server" or "--shard=&lt;url&gt;" (the engine of this process, by default) and "--passages"
+	 * 
+	 * @throws IOException
+	 *  if the log of queries cannot be read (or written), or if the engine cannot be started
+	 * @throws InterruptedException
+	 *  if the load generator is interrupted
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		double rate = 0;
+		int clientCount = DEFAULT_CLIENT_COUNT;
+		long warmUp = DEFAULT_WARM_UP;
+		long duration = DEFAULT_DURATION;
+		File queryLogFile = null;
+		List<String> shardUrls = new ArrayList<>();
+		boolean serverMode = false;
+		boolean passageMode = false;
+		for (String arg : args) {
+			Matcher optionMatcher = OPTION_PATTERN.matcher(arg);
+			if (optionMatcher.matches()) {
+				String value = optionMatcher.group(2);
+				switch (optionMatcher.group(1)) {
+				case "rate":
+					rate = Double.parseDouble(value);
+					break;
+				case "clients":
+					clientCount = Integer.parseInt(value);
+					break;
+				case "warmup":
+					warmUp = Long.parseLong(value);
+					break;
+				case "duration":
+					duration = Long.parseLong(value);
+					break;
+				case "queries":
+					queryLogFile = new File(value);
+					break;
+				default:
+					shardUrls.add(value);
+					break;
+				}
+			} else if (arg.equals(SERVER_OPTION)) {
+				serverMode = true;
+			} else if (arg.equals(PASSAGES_OPTION)) {
+				passageMode = true;
+			} else {
+				LOGGER.info("Use: LoadGenerator [--rate=<requests per second>] [--clients=<n>] [--warmup=<seconds>] [--duration=<seconds>]"
+						+ " [--queries=<file>] [--server | --shard=<url>...] [--passages]");
+				System.exit(0);
+			}
+		}
+
+		// Reads (or generates) the log of queries...
+		List<String> queries;
+		if (queryLogFile != null) {
+			queries = readQueries(queryLogFile);
+		} else {
+			queries = generateQueries(Vocabulary.build(SearchEngine.TEXT_CORPUS_DIRECTORY), Synonymysearch.compile(), DEFAULT_QUERY_COUNT, QUERY_SEED);
+			QUERY_LOG_FILE.getParentFile().mkdirs();
+			Files.write(QUERY_LOG_FILE.toPath(), queries, StandardCharsets.UTF_8);
+			LOGGER.info(queries.size() + " requêtes générées dans \"" + QUERY_LOG_FILE + "\"");
+		}
+
+		if (serverMode || !(shardUrls.isEmpty())) {
+			// Searches a shard process (started for the whole corpus, if none is given), over the loopback interface...
+			try (ShardProcess shardProcess = shardUrls.isEmpty() ? ShardProcess.start("corpus", SearchEngine.TEXT_CORPUS_DIRECTORY, SearchEngine.SHARDS_DIRECTORY) : null;
+					ShardCoordinator shardCoordinator = new ShardCoordinator((shardProcess != null) ? Collections.singletonList(shardProcess.getUrl()) : shardUrls, ShardCoordinator.DEFAULT_TIMEOUT)) {
+				Synonymysearch.loadCompiledSynonyms();
+				run(new LoadGenerator(queries, query -> !(shardCoordinator.search(SearchEngine.buildQuery(query, word -> word))).isPartial(), clientCount, rate), warmUp, duration);
+			}
+		} else {
+			// Searches the index artifact, in this process...
+			IndexArtifact indexArtifact = new IndexArtifact(SearchEngine.INDEX_ARTIFACT_DIRECTORY);
+			if (!(indexArtifact.isUpToDate()) && !(indexArtifact.build())) {
+				System.exit(1);
+			}
+			try (Littlesearch littlesearch = indexArtifact.open(passageMode)) {
+				run(new LoadGenerator(queries, query -> {
+					littlesearch.search(SearchEngine.buildQuery(query, littlesearch::correct), false);
+					return true;
+				}, clientCount, rate), warmUp, duration);
+			}
+		}
+	}
+
+	/**
+	 * Warms the engine up, then measures it and prints the report.
+	 * 
+	 * @param loadGenerator
+	 *  the load generator
+	 * @param warmUp
+	 *  the duration of the warm-up (in seconds)
+	 * @param duration
+	 *  the duration of the measure (in seconds)
+	 * 
+	 * @throws InterruptedException
+	 *  if the load generator is interrupted
+	 */
+	private static void run(LoadGenerator loadGenerator, long warmUp, long duration) throws InterruptedException {
+
+		Report warmUpReport = loadGenerator.run(TimeUnit.SECONDS.toNanos(warmUp));
+		LOGGER.info("Préchauffage : " + warmUpReport.getRequestCount() + " requêtes en " + warmUp + " s");
+
+		LOGGER.info(loadGenerator.run(TimeUnit.SECONDS.toNanos(duration)));
+	}
+
+	/**
+	 * Replays the queries for a while (or until the thread is interrupted).
+	 * 
+	 * @param durationNanos
+	 *  the duration (in nanoseconds)
+	 * 
+	 * @return the report
+	 * 
+	 * @throws InterruptedException
+	 *  if the load generator is interrupted
+	 */
+	public Report run(long durationNanos) throws InterruptedException {
+
+		LatencyHistogram latencies = new LatencyHistogram(HISTOGRAM_PRECISION);
+		LatencyHistogram serviceTimes = new LatencyHistogram(HISTOGRAM_PRECISION);
+		LongAdder errorCount = new LongAdder();
+		// The next request (at a fixed rate, its number gives the time at which it should be sent)...
+		AtomicLong nextRequest = new AtomicLong();
+		AtomicLong end = new AtomicLong();
+
+		long start = System.nanoTime();
+		long deadline = start + durationNanos;
+		double interval = (rate > 0) ? (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+
+		List<Thread> clients = new ArrayList<>();
+		for (int i = 0; i < clientCount; i++) {
+			Thread client = new Thread(() -> {
+				while (!(Thread.currentThread().isInterrupted())) {
+					long request = nextRequest.getAndIncrement();
+					// (At a fixed rate, the time at which the request should be sent; in a closed loop, now.)
+					long intendedStart = (rate > 0) ? (start + (long) (request * interval)) : System.nanoTime();
+					if (intendedStart >= deadline) {
+						break;
+					}
+					// Waits until the request should be sent (unless it is already late)...
+					for (long delay = intendedStart - System.nanoTime(); delay > 0; delay = intendedStart - System.nanoTime()) {
+						LockSupport.parkNanos(delay);
+					}
+					long requestStart = System.nanoTime();
+
+					boolean succeeded;
+					try {
+						succeeded = searcher.test(queries.get((int) (request % queries.size())));
+					} catch (RuntimeException re) {
+						succeeded = false;
+					}
+
+					long requestEnd = System.nanoTime();
+					if (!succeeded) {
+						errorCount.increment();
+					}
+					serviceTimes.record(requestEnd - requestStart);
+					latencies.record(requestEnd - intendedStart);
+					end.accumulateAndGet(requestEnd, Math::max);
+				}
+			}, "load-generator-client-" + i);
+			client.setDaemon(true);
+			clients.add(client);
+			client.start();
+		}
+		try {
+			for (Thread client : clients) {
+				client.join();
+			}
+		} finally {
+			clients.forEach(Thread::interrupt);
+		}
+
+		// (In a closed loop, each client is expected to send a request every mean service time.)
+		return new Report(clientCount, rate, Math.max(end.get(), start + 1) - start, errorCount.sum(),
+				(rate > 0) ? latencies : serviceTimes.copyCorrectedForCoordinatedOmission(serviceTimes.getMean()), serviceTimes);
+	}
+
+	/**
+	 * Generates a log of queries: each query is made of one word or more (up to 3), drawn from the vocabulary of the corpus
+	 * (by their term frequencies, the words of more than half of the texts, and the too short ones, being left out)
+	 * or from the forms of the data warehouse which have synonyms and appear in the corpus.
+	 * 
+	 * @param vocabulary
+	 *  the vocabulary of the corpus
+	 * @param compiledSynonyms
+	 *  the compiled synonyms of the data warehouse
+	 * @param count
+	 *  the number of queries
+	 * @param seed
+	 *  the seed of the drawing (the same seed giving the same queries)
+	 * 
+	 * @return the list of the queries
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if the vocabulary has no word to be drawn
+	 */
+	public static List<String> generateQueries(Vocabulary vocabulary, CompiledSynonyms compiledSynonyms, int count, long seed) {
+
+		// Gathers the words of the vocabulary (without their tags), with their cumulative term frequencies...
+		List<String> words = new ArrayList<>();
+		List<String> synonymWords = new ArrayList<>();
+		long[] cumulativeFrequencies = new long[vocabulary.size()];
+		long totalFrequency = 0;
+		for (String token : vocabulary.getTokens()) {
+			String word = TAG_PATTERN.matcher(token).replaceFirst("");
+			if ((word.length() >= MIN_WORD_LENGTH) && WORD_PATTERN.matcher(word).matches()
+					&& (vocabulary.getDocumentFrequency(token) <= (vocabulary.getDocumentCount() / 2))) {
+				totalFrequency += vocabulary.getTermFrequency(token);
+				cumulativeFrequencies[words.size()] = totalFrequency;
+				words.add(word);
+				if (!(compiledSynonyms.getExpansions(word, 1).isEmpty())) {
+					synonymWords.add(word);
+				}
+			}
+		}
+		if (words.isEmpty()) {
+			throw new IllegalArgumentException("The vocabulary has no word to be drawn.");
+		}
+		Collections.sort(synonymWords);
+
+		Random random = new Random(seed);
+		List<String> queries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			List<String> queryWords = new ArrayList<>();
+			int wordCount = 1 + random.nextInt(MAX_QUERY_WORD_COUNT);
+			for (int j = 0; j < wordCount; j++) {
+				if (!(synonymWords.isEmpty()) && (random.nextDouble() < SYNONYM_WORD_PROBABILITY)) {
+					queryWords.add(synonymWords.get(random.nextInt(synonymWords.size())));
+				} else {
+					long frequency = (long) (random.nextDouble() * totalFrequency);
+					int index = 0;
+					while (cumulativeFrequencies[index] <= frequency) {
+						index++;
+					}
+					queryWords.add(words.get(index));
+				}
+			}
+			queries.add(String.join((Separator.SPACE).getValue(), queryWords));
+		}
+
+		return queries;
+	}
+
+	/**
+	 * Reads a log of queries: one query per line (the empty lines being skipped).
+	 * 
+	 * @param queryLogFile
+	 *  the file of the log
+	 * 
+	 * @return the list of the queries
+	 * 
+	 * @throws IOException
+	 *  if the log cannot be read
+	 */
+	public static List<String> readQueries(File queryLogFile) throws IOException {
+
+		List<String> queries = new ArrayList<>();
+		for (String line : Files.readAllLines(queryLogFile.toPath(), StandardCharsets.UTF_8)) {
+			if (!(line.trim().isEmpty())) {
+				queries.add(line.trim());
+			}
+		}
+
+		return queries;
+	}
+
+	/**
+	 * The {@code Report} class defines the report of a run: its throughput, its errors and its latencies.
+	 */
+	public static class Report {
+
+		private final int clientCount;
+
+		private final double rate;
+
+		private final long elapsedNanos;
+
+		private final long errorCount;
+
+		private final LatencyHistogram latencies;
+
+		private final LatencyHistogram serviceTimes;
+
+		private Report(int clientCount, double rate, long elapsedNanos, long errorCount, LatencyHistogram latencies, LatencyHistogram serviceTimes) {
+
+			this.clientCount = clientCount;
+			this.rate = rate;
+			this.elapsedNanos = elapsedNanos;
+			this.errorCount = errorCount;
+			this.latencies = latencies;
+			this.serviceTimes = serviceTimes;
+		}
+
+		/**
+		 * Returns the number of the requests which have been sent (and have returned).
+		 * 
+		 * @return the number of requests
+		 */
+		public long getRequestCount() {
+
+			return serviceTimes.getCount();
+		}
+
+		/**
+		 * Returns the number of the requests which have failed (or, for shards, whose result is partial).
+		 * 
+		 * @return the number of errors
+		 */
+		public long getErrorCount() {
+
+			return errorCount;
+		}
+
+		/**
+		 * Returns the throughput: the requests which have returned per second.
+		 * 
+		 * @return the throughput (per second)
+		 */
+		public double getThroughput() {
+
+			return (getRequestCount() * (double) TimeUnit.SECONDS.toNanos(1)) / elapsedNanos;
+		}
+
+		/**
+		 * Returns the latencies, corrected for the coordinated omission (at a fixed rate, from the time at which each request should have been sent;
+		 * in a closed loop, with the requests which the slow requests have postponed).
+		 * 
+		 * @return the histogram of the latencies (in nanoseconds)
+		 */
+		public LatencyHistogram getLatencies() {
+
+			return latencies;
+		}
+
+		/**
+		 * Returns the service times: the latencies as measured, from the time at which each request has been sent.
+		 * 
+		 * @return the histogram of the service times (in nanoseconds)
+		 */
+		public LatencyHistogram getServiceTimes() {
+
+			return serviceTimes;
+		}
+
+		@Override
+		public String toString() {
+
+			StringBuilder reportBuilder = new StringBuilder();
+			reportBuilder.append(String.format("%s, %d clients : %d requêtes (%d erreurs), %.1f requêtes/s%n",
+					(rate > 0) ? String.format("débit fixé à %.1f requêtes/s", rate) : "boucle fermée", clientCount, getRequestCount(), errorCount, getThroughput()));
+			reportBuilder.append("\t\tp50 (ms)\tp90 (ms)\tp99 (ms)\tp99.9 (ms)\tmax (ms)");
+			appendPercentiles(reportBuilder, "corrigée", latencies);
+			appendPercentiles(reportBuilder, "mesurée", serviceTimes);
+
+			return reportBuilder.toString();
+		}
+
+		private static void appendPercentiles(StringBuilder reportBuilder, String name, LatencyHistogram histogram) {
+
+			reportBuilder.append(String.format("%nlatence %s", name));
+			for (double percentile : PERCENTILES) {
+				reportBuilder.append(String.format("\t%.3f", histogram.getPercentile(percentile) / 1e6));
+			}
+			reportBuilder.append(String.format("\t%.3f", histogram.getMax() / 1e6));
+		}
+
+	}
+
+}
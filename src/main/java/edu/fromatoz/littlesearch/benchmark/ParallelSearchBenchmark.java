@@ -0,0 +1,146 @@
+package edu.fromatoz.littlesearch.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+import edu.fromatoz.littlesearch.searchengine.Synonymysearch;
+
+/**
+ * The {@code ParallelSearchBenchmark} class measures the latency of the searches (expanded by synonymy)
+ * according to the number of segments of the index and to the number of threads which search them.
+ * <p>For each configuration, the texts are indexed into a temporary index, then each query is searched
+ * several times; the mean, the median and the 99th percentile of the latencies are printed.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ParallelSearchBenchmark {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ParallelSearchBenchmark.class);
+
+	// The words of the queries (before their expansion by synonymy)...
+	private static final String[] WORDS = {
+		"calcul", "théorème", "géomètre", "travail", "mathématicien", "algèbre", "évolution", "témoigner", "analyse", "nombre"
+	};
+
+	// The number of searches of each query, before measuring...
+	private static final int WARM_UP_ROUNDS = 50;
+
+	// The number of measured searches of each query...
+	private static final int MEASURED_ROUNDS = 200;
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private ParallelSearchBenchmark() {
+
+		throw new IllegalStateException("ParallelSearchBenchmark class");
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args
+	 *  (unused)
+	 * 
+	 * @throws IOException
+	 *  if a temporary index cannot be created
+	 */
+	public static void main(String[] args) throws IOException {
+
+		// Expands the queries once for all the configurations (as long OR queries)...
+		List<String> queries = new ArrayList<>();
+		for (String word : WORDS) {
+			queries.add(Synonymysearch.search(word));
+		}
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		LOGGER.info("segments\tthreads\tmean (µs)\tp50 (µs)\tp99 (µs)");
+		for (int segmentCount : getCounts(cores)) {
+			for (int threadCount : getCounts(cores)) {
+				benchmark(queries, segmentCount, threadCount);
+			}
+			// Without any executor (the slices are searched by the calling thread)...
+			benchmark(queries, segmentCount, 0);
+		}
+	}
+
+	/**
+	 * Measures the latencies of the searches for a configuration.
+	 * 
+	 * @param queries
+	 *  the queries
+	 * @param segmentCount
+	 *  the target number of segments
+	 * @param threadCount
+	 *  the number of threads searching the slices (0, for searching them in the calling thread)
+	 * 
+	 * @throws IOException
+	 *  if the temporary index cannot be created
+	 */
+	private static void benchmark(List<String> queries, int segmentCount, int threadCount) throws IOException {
+
+		Path indexPath = Files.createTempDirectory("littlesearch_benchmark_index");
+		ExecutorService executor = (threadCount > 0) ? Executors.newFixedThreadPool(threadCount) : null;
+		try (Littlesearch littlesearch = new Littlesearch(indexPath, false, executor, segmentCount)) {
+			if (littlesearch.indexTexts()) {
+				for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+					queries.forEach(littlesearch::search);
+				}
+				long[] latencies = new long[MEASURED_ROUNDS * queries.size()];
+				int n = 0;
+				for (int i = 0; i < MEASURED_ROUNDS; i++) {
+					for (String query : queries) {
+						long start = System.nanoTime();
+						littlesearch.search(query);
+						latencies[n++] = (System.nanoTime() - start) / 1_000;
+					}
+				}
+				Arrays.sort(latencies);
+				LOGGER.info(String.format("%d\t%s\t%d\t%d\t%d", segmentCount, (threadCount > 0) ? threadCount : "-",
+						Arrays.stream(latencies).sum() / latencies.length, latencies[latencies.length / 2], latencies[(latencies.length * 99) / 100]));
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+			for (File file : indexPath.toFile().listFiles()) {
+				Files.delete(file.toPath());
+			}
+			Files.delete(indexPath);
+		}
+	}
+
+	/**
+	 * Returns the counts to be benchmarked: the powers of two up to the number of cores, then the number of cores.
+	 * 
+	 * @param cores
+	 *  the number of cores
+	 * 
+	 * @return the list of the counts
+	 */
+	private static List<Integer> getCounts(int cores) {
+
+		List<Integer> counts = new ArrayList<>();
+		for (int count = 1; count < cores; count *= 2) {
+			counts.add(count);
+		}
+		counts.add(cores);
+
+		return counts;
+	}
+
+}
@@ -0,0 +1,423 @@
+package edu.fromatoz.littlesearch.dataintegrator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import org.jsoup.Jsoup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.fromatoz.littlesearch.app.DataIntegrator;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.SynonymsSet;
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.Word;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.word.Noun;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code CNRTLStandIn} class defines a local HTTP server which stands in for the <a href="http://www.cnrtl.fr">CNRTL</a>,
+ * so that the integration of data could be tested and benchmarked offline (on the loopback interface):
+ * it serves the pages of definition, of morphology and of synonymy (see the URL formats of {@link DataIntegrator}),
+ * the integrator being given its URL (see {@code DataIntegrator.CNRTLParser.setServer(String, long)}).
+ * <p>Each page is:</p>
+ * <ul>
+ * <li><b>replayed</b>, if it has been recorded (as an HTML file, under the directory of the pages, by the path of its URL);</li>
+ * <li>otherwise <b>recorded</b> from the CNRTL itself, if the recording is requested;</li>
+ * <li>otherwise <b>generated</b> from a data warehouse: a page with only the elements which the integrator reads,
+ * so that integrating a word gives back its synonyms set (an unknown word gives a page without any result, as the CNRTL does).</li>
+ * </ul>
+ * <p>A latency could be added to each response, and errors (503) could be injected at a given rate.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class CNRTLStandIn implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(CNRTLStandIn.class);
+
+	// The sections of the CNRTL (those of the URL formats of the data integrator)...
+	private static final String DEFINITION_SECTION = "definition";
+	private static final String MORPHOLOGY_SECTION = "morphologie";
+	private static final String SYNONYMY_SECTION = "synonymie";
+
+	// The extension of the files of the recorded pages...
+	private static final String PAGE_FILE_SUFFIX = ".html";
+
+	// The page of a word which the CNRTL does not know...
+	private static final String NO_RESULT_PAGE = "<html><body><div>Aucune ressource trouvée.</div></body></html>";
+
+	// Disables Nagle's algorithm on the connections of the server (which, otherwise, delays each response by some 40 ms),
+	// unless it is configured (the property is read once, when the first server is created)...
+	static {
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", Boolean.TRUE.toString());
+		}
+	}
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	// The directory of the recorded pages (or null, if no page is recorded)...
+	private final File pagesDirectory;
+
+	// The entry of each form of the data warehouse (its canonical form, its part of speech and all its forms)...
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	// The synonyms (their canonical forms) of each canonical form of the data warehouse...
+	private final Map<String, List<String>> synonyms = new HashMap<>();
+
+	private volatile long latencyMillis;
+
+	private volatile double errorRate;
+
+	private volatile boolean recording;
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong errorCount = new AtomicLong();
+
+	/**
+	 * Constructs then starts a stand-in server, on a free port of the loopback interface.
+	 * 
+	 * @param pagesDirectory
+	 *  the directory of the recorded pages (or <i>null</i>, for generating all the pages)
+	 * @param dataWarehouse
+	 *  the directory of the data warehouse from which the pages are generated (or <i>null</i>, for knowing no word)
+	 * 
+	 * @throws IOException
+	 *  if the server cannot be started
+	 */
+	public CNRTLStandIn(File pagesDirectory, File dataWarehouse) throws IOException {
+
+		this.pagesDirectory = pagesDirectory;
+		if (dataWarehouse != null) {
+			readDataWarehouse(dataWarehouse);
+		}
+
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "cnrtl-stand-in");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext(Separator.SLASH.getValue(), this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * Returns the URL of the server (which replaces the URL of the CNRTL's home page).
+	 * 
+	 * @return the URL, such as "http://127.0.0.1:8080"
+	 */
+	public String getUrl() {
+
+		InetSocketAddress address = server.getAddress();
+
+		return "http://" + (address.getAddress()).getHostAddress() + Separator.COLON.getValue() + address.getPort();
+	}
+
+	/**
+	 * Sets the latency which is added to each response.
+	 * 
+	 * @param millis
+	 *  the latency (in milliseconds)
+	 */
+	public void setLatency(long millis) {
+
+		latencyMillis = millis;
+	}
+
+	/**
+	 * Sets the rate of the requests which fail (by a "503 Service Unavailable").
+	 * 
+	 * @param rate
+	 *  the rate (between 0 and 1)
+	 */
+	public void setErrorRate(double rate) {
+
+		errorRate = rate;
+	}
+
+	/**
+	 * Sets whether the pages which are not recorded yet are recorded from the CNRTL itself (instead of being generated).
+	 * 
+	 * @param recording
+	 *  <i>true</i>, for recording the pages (a directory of the pages should be given)
+	 */
+	public void setRecording(boolean recording) {
+
+		this.recording = recording;
+	}
+
+	/**
+	 * Returns the number of requests which have been served (the injected errors included).
+	 * 
+	 * @return the number of requests
+	 */
+	public long getRequestCount() {
+
+		return requestCount.get();
+	}
+
+	/**
+	 * Returns the number of injected errors.
+	 * 
+	 * @return the number of errors
+	 */
+	public long getErrorCount() {
+
+		return errorCount.get();
+	}
+
+	@Override
+	public void close() {
+
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Handles a request: waits for the latency, then fails (at the error rate) or responds with the page of the path.
+	 * 
+	 * @param exchange
+	 *  the exchange of the request
+	 * 
+	 * @throws IOException
+	 *  if the response cannot be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+
+		requestCount.incrementAndGet();
+		try {
+			if (latencyMillis > 0) {
+				Thread.sleep(latencyMillis);
+			}
+			if ((errorRate > 0) && (ThreadLocalRandom.current().nextDouble() < errorRate)) {
+				errorCount.incrementAndGet();
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			byte[] page = getPage((exchange.getRequestURI()).getPath()).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+			exchange.sendResponseHeaders(200, page.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(page);
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Returns the page of a path: the recorded page, or the page recorded from the CNRTL, or the generated page.
+	 * 
+	 * @param path
+	 *  the (decoded) path of the page, such as "/synonymie/système/substantif"
+	 * 
+	 * @return the HTML of the page
+	 * 
+	 * @throws IOException
+	 *  if the page cannot be read, or recorded
+	 */
+	private String getPage(String path) throws IOException {
+
+		String trimmedPath = path.replaceAll("^/+|/+$", "");
+		if (pagesDirectory != null) {
+			File pageFile = new File(pagesDirectory, trimmedPath + PAGE_FILE_SUFFIX);
+			if (pageFile.isFile()) {
+				return new String(Files.readAllBytes(pageFile.toPath()), StandardCharsets.UTF_8);
+			}
+			if (recording) {
+				String page = (Jsoup.connect(DataIntegrator.CNRTL_HOME_PAGE_URL + path)).execute().body();
+				File pageDirectory = pageFile.getParentFile();
+				if (!(pageDirectory.isDirectory()) && !(pageDirectory.mkdirs())) {
+					throw new IOException("The directory \"" + pageDirectory + "\" cannot be created.");
+				}
+				Files.write(pageFile.toPath(), page.getBytes(StandardCharsets.UTF_8));
+
+				return page;
+			}
+		}
+
+		return generatePage(trimmedPath.split(Separator.SLASH.getValue()));
+	}
+
+	/**
+	 * Generates the page of a path from the data warehouse, with only the elements which the integrator reads.
+	 * 
+	 * @param segments
+	 *  the segments of the path: the section, the word then (optionally) the part of speech
+	 * 
+	 * @return the HTML of the page
+	 */
+	private String generatePage(String[] segments) {
+
+		Entry entry = (segments.length > 1) ? entries.get(segments[1].toLowerCase()) : null;
+		if (entry == null) {
+			return NO_RESULT_PAGE;
+		}
+
+		StringBuilder pageBuilder = new StringBuilder("<html><body>");
+		switch (segments[0]) {
+		case SYNONYMY_SECTION:
+			// The part of speech (for the tagger), the canonical form (for its lemmatisation) and the synonyms (for the set)...
+			pageBuilder.append("<ul><li id=\"vitemselected\"><a>" + escape(entry.canonicalForm) + ", " + entry.partOfSpeech + "</a></li></ul>");
+			pageBuilder.append("<div class=\"messagecenter\">Synonymes de \"" + escape(entry.canonicalForm) + "\"</div><table>");
+			for (String synonym : synonyms.getOrDefault(entry.canonicalForm, Collections.emptyList())) {
+				pageBuilder.append("<tr><td class=\"syno_format\"><a>" + escape(synonym) + "</a></td></tr>");
+			}
+			pageBuilder.append("</table>");
+			break;
+		case DEFINITION_SECTION:
+			// (Without other singular form: the singular form is the canonical form.)
+			pageBuilder.append("<ul><li id=\"vitemselected\"><span>" + escape(entry.canonicalForm) + "</span></li></ul>");
+			break;
+		case MORPHOLOGY_SECTION:
+			for (String form : entry.forms) {
+				pageBuilder.append("<span class=\"morf_sound\">" + escape(form) + "</span>");
+			}
+			break;
+		default:
+			return NO_RESULT_PAGE;
+		}
+
+		return pageBuilder.append("</body></html>").toString();
+	}
+
+	/**
+	 * Reads the synonyms sets of a data warehouse (sorted by file name): the entry of each form and the synonyms of each canonical form
+	 * (those of the set of which it is the reference word or, if there is none, those of the first set of which it is a member).
+	 * 
+	 * @param dataWarehouse
+	 *  the directory of the data warehouse
+	 */
+	private void readDataWarehouse(File dataWarehouse) {
+
+		if (!(dataWarehouse.isDirectory())) {
+			return;
+		}
+		// (The files are listed as paths, which keep the bytes of their names: a name such as "théorème.json" is read whatever the locale.)
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(dataWarehouse.toPath())) {
+			paths.forEach(files::add);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			return;
+		}
+		Collections.sort(files);
+
+		List<SynonymsSet> synonymsSets = new ArrayList<>();
+		ObjectMapper objectMapper = new ObjectMapper();
+		for (Path file : files) {
+			try (InputStreamReader inputStreamReader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.ISO_8859_1)) {
+				SynonymsSet synonymsSet = objectMapper.readValue(inputStreamReader, SynonymsSet.class);
+				if ((synonymsSet.getSynonyms() != null) && ((synonymsSet.getSynonyms()).length > 0)) {
+					synonymsSets.add(synonymsSet);
+				}
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
+			}
+		}
+
+		// The canonical forms first (a form which is a canonical form is its own entry)...
+		for (boolean canonical : new boolean[] { true, false }) {
+			for (SynonymsSet synonymsSet : synonymsSets) {
+				for (Word synonym : synonymsSet.getSynonyms()) {
+					Entry entry = new Entry(synonym, synonymsSet.getPartOfSpeech());
+					for (String form : canonical ? Collections.singletonList(entry.canonicalForm) : entry.forms) {
+						entries.putIfAbsent(form.toLowerCase(), entry);
+					}
+				}
+			}
+		}
+		// The sets of the reference words first...
+		for (boolean reference : new boolean[] { true, false }) {
+			for (SynonymsSet synonymsSet : synonymsSets) {
+				Word[] setSynonyms = synonymsSet.getSynonyms();
+				for (int i = 0; i < (reference ? 1 : setSynonyms.length); i++) {
+					String canonicalForm = setSynonyms[i].getCanonicalForm();
+					if (!(synonyms.containsKey(canonicalForm))) {
+						List<String> otherSynonyms = new ArrayList<>();
+						for (Word synonym : setSynonyms) {
+							if (!(canonicalForm.equals(synonym.getCanonicalForm()))) {
+								otherSynonyms.add(synonym.getCanonicalForm());
+							}
+						}
+						synonyms.put(canonicalForm, otherSynonyms);
+					}
+				}
+			}
+		}
+	}
+
+	private static String escape(String text) {
+
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	/**
+	 * The {@code Entry} class defines a word of the data warehouse, as the generated pages show it.
+	 */
+	private static final class Entry {
+
+		private final String canonicalForm;
+
+		private final String partOfSpeech;
+
+		// All the forms (the canonical form first)...
+		private final List<String> forms = new ArrayList<>();
+
+		private Entry(Word word, String partOfSpeech) {
+
+			canonicalForm = word.getCanonicalForm();
+			this.partOfSpeech = partOfSpeech;
+
+			forms.add(canonicalForm);
+			if ((word instanceof Noun) && (((Noun) word).getOtherForms() != null)) {
+				for (Object otherForm : ((Noun) word).getOtherForms()) {
+					forms.add(otherForm.toString());
+				}
+			}
+		}
+
+	}
+
+}
@@ -1,13 +1,16 @@
 package edu.fromatoz.littlesearch.dataintegrator;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import edu.fromatoz.littlesearch.dataintegrator.model.JSONWriter;
 
+import edu.fromatoz.littlesearch.tool.StringIntHashMap;
 import edu.fromatoz.littlesearch.tool.ValuesFileReader;
 
 import org.apache.log4j.Logger;
@@ -49,7 +52,7 @@ public class FrenchAnalyser {
 	 * <li><b>discard the digits</b> (by the method "{@code discardDigits}");</li>
 	 * <li><b>tokenize the text</b> (by the method "{@code tokenizeByWhitespace}"), task which returns a first set of <i>tokens</i>;</li>
 	 * <li><b>filter the stop words</b> (by the method "{@code filterStopWords}");</li>
-	 * <li><b>annotate proper nouns</b> (by the method "{@code annotate}");</li>
+	 * <li><b>annotate proper nouns</b> (by the method "{@code disambiguate}");</li>
 	 * <li><b>disambiguate "être" tokens</b> (by the method "{@code disambiguate}");</li>
 	 * <li><b>disambiguate "avoir" tokens</b> (by the method "{@code disambiguate}");</li>
 	 * <li><b>disambiguate "aujourd'hui" tokens</b> (by the method "{@code disambiguate}");</li>
@@ -71,24 +74,40 @@ public class FrenchAnalyser {
 		tokens = tokenizeByWhitespace();
 		// Does the task 4: Filters the stop words
 		filterStopWords();
-		// Does the task 5: Annotates proper nouns (for a NER (Named-Entity Recognition) for proper noun)
-		annotate("proper.nouns");
-		// Does the task 6: Disambiguates "être" tokens
-		disambiguate("être", "été");
-		disambiguate("être", "est");
-		// Does the task 7: Disambiguates "avoir" tokens
-		disambiguate("avoir", "a");
-		// Does the task 8: Disambiguates "aujourd'hui" tokens
-		disambiguate("aujourd'hui", "aujourd");
-		disambiguate("aujourd'hui", "hui");
-		// Does the task 9: Disambiguates "J.-C." tokens
-		disambiguate("J.-C.", "-C");
+		// Does the tasks 5 to 9: Annotates proper nouns (for a NER (Named-Entity Recognition) for proper noun),
+		// then disambiguates "être", "avoir", "aujourd'hui" and "J.-C." tokens
+		getDisambiguations().forEach((ambiguousToken, disambiguatedToken) -> disambiguate(disambiguatedToken, ambiguousToken));
 
 		// For monitoring...
 		LOGGER.info(tokens);
 		return tokens;
 	}
 
+	/**
+	 * Returns the <b>frequencies of the tokens</b> of the text in question: the number of occurrences of each token,
+	 * the tokens being those of {@code getTokens()} (so, after performing the same tasks).
+	 * <p>(A token which is split by the punctuation, such as "aujourd'hui", is counted once per part.)</p>
+	 * 
+	 * @return the frequency of each token of the text which is as a parameter of the constructor
+	 */
+	public StringIntHashMap getTokenFrequencies() {
+
+		discardPunctuation();
+		discardDigits();
+
+		Set<String> stopWords = getStopWords();
+		Map<String, String> disambiguations = getDisambiguations();
+
+		StringIntHashMap tokenFrequencies = new StringIntHashMap();
+		for (String token : text.split("\\s")) {
+			if (!(token.isEmpty()) && !(stopWords.contains(token.toLowerCase()))) {
+				tokenFrequencies.addTo(disambiguations.getOrDefault(token, token), 1);
+			}
+		}
+
+		return tokenFrequencies;
+	}
+
 	/**
 	 * Discards the punctuation.
 	 */
@@ -120,27 +139,48 @@ public class FrenchAnalyser {
 	 */
 	private void filterStopWords() {
 
+		getStopWords().stream().forEach(w -> tokens.removeIf(t -> (t.toLowerCase()).equals(w)));
+
+		tokens.removeIf(String::isEmpty);
+	}
+
+	/**
+	 * Returns the stop words (pronouns, determinants, articles and others).
+	 * 
+	 * @return the set of the stop words
+	 */
+	private Set<String> getStopWords() {
+
 		Set<String> stopWords = getWords("pronouns");
 		stopWords.addAll(getWords("determinants"));
 		stopWords.addAll(getWords("articles"));
 		stopWords.addAll(getWords("others"));
 
-		stopWords.stream().forEach(w -> tokens.removeIf(t -> (t.toLowerCase()).equals(w)));
-
-		tokens.removeIf(String::isEmpty);
+		return stopWords;
 	}
 
 	/**
-	 * Annotates a token which is contained by the set of tokens.
+	 * Returns the disambiguations of the tokens, in the order where they are performed:
+	 * the annotated proper nouns, then the forms of "être", of "avoir", of "aujourd'hui" and of "J.-C.".
 	 * 
-	 * @param namedEntityFileName
-	 *  the name of the named-entity file
+	 * @return the map of the ambiguous tokens to their disambiguated token
 	 */
-	private void annotate(String namedEntityFileName) {
+	private Map<String, String> getDisambiguations() {
+
+		Map<String, String> disambiguations = new LinkedHashMap<>();
 
+		String namedEntityFileName = "proper.nouns";
 		for (String properNoun : getWords(namedEntityFileName)) {
-			disambiguate(properNoun + "[" + (namedEntityFileName.substring(0, namedEntityFileName.length() - 1)).toUpperCase() + "]", properNoun);
+			disambiguations.put(properNoun, properNoun + "[" + (namedEntityFileName.substring(0, namedEntityFileName.length() - 1)).toUpperCase() + "]");
 		}
+		disambiguations.put("été", "être");
+		disambiguations.put("est", "être");
+		disambiguations.put("a", "avoir");
+		disambiguations.put("aujourd", "aujourd'hui");
+		disambiguations.put("hui", "aujourd'hui");
+		disambiguations.put("-C", "J.-C.");
+
+		return disambiguations;
 	}
 
 	/**
@@ -174,11 +214,7 @@ public class FrenchAnalyser {
 		Set<String> keys = VALUES_FILE_READER.getKeys(valuesFileName);
 		for (String key : keys) {
 			for (String value : (VALUES_FILE_READER.getStringValue(valuesFileName, key)).split("\\s")) {
-				try {
-					words.add(new String(value.getBytes("ISO-8859-1")));
-				} catch (UnsupportedEncodingException uee) {
-					LOGGER.error(uee);
-				}
+				words.add(new String(value.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8));
 			}
 		}
 
@@ -0,0 +1,245 @@
+package edu.fromatoz.littlesearch.dataintegrator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+import edu.fromatoz.littlesearch.tool.StringIntHashMap;
+
+/**
+ * The {@code Vocabulary} class defines the vocabulary of a corpus: for each token (see {@code FrenchAnalyser.getTokens()}),
+ * its <i>term frequency</i> (its number of occurrences in the corpus) and its <i>document frequency</i>
+ * (the number of texts where it appears).
+ * <p>The texts are analysed concurrently (by a parallel stream, so by the common fork/join pool): each worker counts into
+ * its own vocabulary, then the vocabularies are merged. The frequencies are kept in primitive maps (see {@link StringIntHashMap}).</p>
+ * <p>The vocabulary is written to (then read from) a tab-separated file: one line per token
+ * (the token, its term frequency and its document frequency), the most frequent tokens first.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public final class Vocabulary {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(Vocabulary.class);
+
+	private final StringIntHashMap termFrequencies = new StringIntHashMap();
+
+	private final StringIntHashMap documentFrequencies = new StringIntHashMap();
+
+	private int documentCount;
+
+	/**
+	 * Constructs an empty vocabulary.
+	 */
+	public Vocabulary() {
+	}
+
+	/**
+	 * Builds the vocabulary of the texts of a corpus, analysing them concurrently.
+	 * 
+	 * @param corpusDirectory
+	 *  the directory of the texts
+	 * 
+	 * @return the vocabulary (empty, if the directory does not exist or is empty)
+	 */
+	public static Vocabulary build(File corpusDirectory) {
+
+		File[] files = corpusDirectory.listFiles(File::isFile);
+		if (files == null) {
+			return new Vocabulary();
+		}
+
+		return Arrays.stream(files).parallel().collect(Vocabulary::new, Vocabulary::add, Vocabulary::addAll);
+	}
+
+	/**
+	 * Adds the tokens of a text to the vocabulary.
+	 * 
+	 * @param textFile
+	 *  the file of the text
+	 */
+	public void add(File textFile) {
+
+		StringIntHashMap tokenFrequencies = (new FrenchAnalyser(getText(textFile))).getTokenFrequencies();
+		tokenFrequencies.forEach((token, frequency) -> {
+			termFrequencies.addTo(token, frequency);
+			documentFrequencies.addTo(token, 1);
+		});
+		documentCount++;
+	}
+
+	/**
+	 * Adds (merges) another vocabulary to this vocabulary.
+	 * 
+	 * @param other
+	 *  the other vocabulary
+	 */
+	public void addAll(Vocabulary other) {
+
+		termFrequencies.addAll(other.termFrequencies);
+		documentFrequencies.addAll(other.documentFrequencies);
+		documentCount += other.documentCount;
+	}
+
+	/**
+	 * Returns the term frequency of a token: its number of occurrences in the corpus.
+	 * 
+	 * @param token
+	 *  the token
+	 * 
+	 * @return the term frequency (0, if the vocabulary does not contain the token)
+	 */
+	public int getTermFrequency(String token) {
+
+		return termFrequencies.get(token);
+	}
+
+	/**
+	 * Returns the document frequency of a token: the number of texts where it appears.
+	 * 
+	 * @param token
+	 *  the token
+	 * 
+	 * @return the document frequency (0, if the vocabulary does not contain the token)
+	 */
+	public int getDocumentFrequency(String token) {
+
+		return documentFrequencies.get(token);
+	}
+
+	/**
+	 * Returns the number of texts of the corpus.
+	 * 
+	 * @return the number of texts
+	 */
+	public int getDocumentCount() {
+
+		return documentCount;
+	}
+
+	/**
+	 * Returns the number of tokens of the vocabulary.
+	 * 
+	 * @return the number of tokens
+	 */
+	public int size() {
+
+		return termFrequencies.size();
+	}
+
+	/**
+	 * Returns the tokens of the vocabulary, the most frequent first (then in alphabetical order).
+	 * 
+	 * @return the array of the tokens
+	 */
+	public String[] getTokens() {
+
+		String[] tokens = termFrequencies.getKeys();
+		Arrays.sort(tokens, Comparator.comparingInt(termFrequencies::get).reversed());
+
+		return tokens;
+	}
+
+	/**
+	 * Writes the vocabulary to a (tab-separated) file: the number of texts on the first line, then one line per token.
+	 * 
+	 * @param file
+	 *  the file of the vocabulary
+	 * 
+	 * @throws IOException
+	 *  if the file cannot be written
+	 */
+	public void write(File file) throws IOException {
+
+		File directory = file.getAbsoluteFile().getParentFile();
+		if ((directory != null) && !(directory.isDirectory()) && !(directory.mkdirs())) {
+			throw new IOException("The directory \"" + directory + "\" cannot be created.");
+		}
+		try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			bufferedWriter.write(Integer.toString(documentCount));
+			bufferedWriter.newLine();
+			for (String token : getTokens()) {
+				bufferedWriter.write(token + "\t" + termFrequencies.get(token) + "\t" + documentFrequencies.get(token));
+				bufferedWriter.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Reads a vocabulary from a file (written by {@code write(File)}).
+	 * 
+	 * @param file
+	 *  the file of the vocabulary
+	 * 
+	 * @return the vocabulary
+	 * 
+	 * @throws IOException
+	 *  if the file cannot be read, or if it is not a vocabulary
+	 */
+	public static Vocabulary read(File file) throws IOException {
+
+		Vocabulary vocabulary = new Vocabulary();
+
+		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line = bufferedReader.readLine();
+			try {
+				vocabulary.documentCount = (line != null) ? Integer.parseInt(line) : 0;
+				while ((line = bufferedReader.readLine()) != null) {
+					String[] fields = line.split("\t");
+					if (fields.length == 3) {
+						vocabulary.termFrequencies.addTo(fields[0], Integer.parseInt(fields[1]));
+						vocabulary.documentFrequencies.addTo(fields[0], Integer.parseInt(fields[2]));
+					}
+				}
+			} catch (NumberFormatException nfe) {
+				throw new IOException("\"" + file + "\" is not a vocabulary file (\"" + line + "\").", nfe);
+			}
+		}
+
+		return vocabulary;
+	}
+
+	/**
+	 * Returns the text of a file that is as a parameter.
+	 * 
+	 * @param textFile
+	 *  the file of a text
+	 * 
+	 * @return the text (empty, if the file cannot be read)
+	 */
+	private static String getText(File textFile) {
+
+		StringBuilder textBuilder = new StringBuilder();
+
+		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(textFile), StandardCharsets.UTF_8))) {
+			String paragraph;
+			while ((paragraph = bufferedReader.readLine()) != null) {
+				textBuilder.append(paragraph + (Separator.NEW_LINE).getValue());
+			}
+		} catch (FileNotFoundException fnfe) {
+			LOGGER.error(fnfe);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+
+		return textBuilder.toString();
+	}
+
+}
@@ -1,18 +1,32 @@
 package edu.fromatoz.littlesearch.dataintegrator.model;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 
 import java.nio.charset.StandardCharsets;
 
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
 import edu.fromatoz.littlesearch.dataintegrator.controller.FrenchTagger;
 
 import edu.fromatoz.littlesearch.dataintegrator.model.entity.SynonymsSet;
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.Word;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.entity.word.Noun;
+
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.Stage;
 
 import edu.fromatoz.littlesearch.tool.Extension;
 import edu.fromatoz.littlesearch.tool.Separator;
@@ -32,20 +46,77 @@ public class JSONWriter {
 	 */
 	private static final Logger LOGGER = Logger.getLogger(JSONWriter.class);
 
+	// The metrics of the loads (of a word) and of the writes (of a JSON file)...
+	private static final Stage LOAD_STAGE = Metrics.stage("jsonwriter.load");
+	private static final Stage WRITE_STAGE = Metrics.stage("jsonwriter.write");
+	// (The words which are already known, so skipped before being tagged...)
+	private static final Stage KNOWN_STAGE = Metrics.stage("jsonwriter.known");
+
 	// The Data Warehouse
 	private static final String DATA_WAREHOUSE = "data_warehouse";
 	// The JSON file name extended format...
 	private static final String JSON_FILE_NAME_EXTENDED_FORMAT = "%s" + (Separator.POINT).getValue() + (Extension.JSON).getValue();
-	// The JSON file path format...
-	private static final String JSON_FILE_PATH_FORMAT = DATA_WAREHOUSE + (Separator.SLASH).getValue() + JSON_FILE_NAME_EXTENDED_FORMAT;
 
+	// The directory of the data warehouse...
+	private final File dataWarehouse;
+
+	// The forms known by the data warehouse (read once, then updated by each write)...
+	private final Set<String> knownForms;
+
+	/**
+	 * Constructs a writer, which reads the forms already known by the data warehouse.
+	 */
+	public JSONWriter() {
+
+		this(new File(DATA_WAREHOUSE));
+	}
+
+	/**
+	 * Constructs a writer into another data warehouse (such as a temporary one), which reads the forms it already knows.
+	 * <p>The words could be loaded by several threads at once.</p>
+	 * 
+	 * @param dataWarehouse
+	 *  the directory of the data warehouse
+	 */
+	public JSONWriter(File dataWarehouse) {
+
+		this.dataWarehouse = dataWarehouse;
+		knownForms = readKnownForms(dataWarehouse);
+	}
+
+	/**
+	 * Loads a word into the data warehouse: tags the word, then writes the synonyms set of its canonical form (as a JSON file).
+	 * <p>A word which the data warehouse already knows (as any form of any synonym of any set) is skipped before being tagged,
+	 * so without any request to the CNRTL.</p>
+	 * 
+	 * @param word
+	 *  the word to be loaded
+	 */
 	public void load(String word) {
 
+		long start = System.nanoTime();
+
+		if (knownForms.contains(word.toLowerCase())) {
+			KNOWN_STAGE.record(System.nanoTime() - start);
+
+			// For monitoring...
+			LOGGER.info("\"" + word + "\" is already known by the data warehouse.");
+			return;
+		}
+
 		FrenchTagger tagger = new FrenchTagger(word);
 
 		if (tagger.getPartOfSpeech() != null) {
-			File jsonFile = new File(String.format(JSON_FILE_PATH_FORMAT, tagger.getCanonicalForm()));
-			if (!(jsonFile.exists())) {
+			Path jsonFile;
+			try {
+				jsonFile = (dataWarehouse.toPath()).resolve(String.format(JSON_FILE_NAME_EXTENDED_FORMAT, tagger.getCanonicalForm()));
+			} catch (InvalidPathException ipe) {
+				// (The name of the file is the canonical form, which an accent makes unmappable unless the locale is a UTF-8 one.)
+				LOAD_STAGE.recordError();
+				LOGGER.error("The JSON file of \"" + tagger.getCanonicalForm() + "\" cannot be named under this locale (a UTF-8 locale is required): " + ipe);
+				return;
+			}
+			if (!(Files.exists(jsonFile)) && !(knownForms.contains((tagger.getCanonicalForm()).toLowerCase()))) {
 				SynonymsSet synonymsSet = new SynonymsSet(tagger);
 				if ((synonymsSet.getSynonyms()).length > 0) {
 					/**
@@ -53,16 +124,78 @@ public class JSONWriter {
 					 */
 					ObjectWriter objectWripper = (new ObjectMapper()).writerWithDefaultPrettyPrinter();
 					try {
-						objectWripper.writeValue(new OutputStreamWriter(new FileOutputStream(jsonFile), StandardCharsets.ISO_8859_1), synonymsSet);
+						long writeStart = System.nanoTime();
+						objectWripper.writeValue(new OutputStreamWriter(Files.newOutputStream(jsonFile), StandardCharsets.ISO_8859_1), synonymsSet);
+						WRITE_STAGE.record(System.nanoTime() - writeStart);
+						addKnownForms(knownForms, synonymsSet);
 
 						// For monitoring...
 						LOGGER.info(objectWripper.writeValueAsString(synonymsSet));
 					} catch (IOException ioe) {
+						WRITE_STAGE.recordError();
 						LOGGER.error(ioe);
 					}
 				}
 			}
 		}
+
+		LOAD_STAGE.record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the forms known by the data warehouse: the canonical forms and the other forms of all the synonyms of its sets (read from its JSON files).
+	 * 
+	 * @param dataWarehouse
+	 *  the directory of the data warehouse
+	 * 
+	 * @return the set of the known forms (lower-cased; safe for concurrent updates)
+	 */
+	private static Set<String> readKnownForms(File dataWarehouse) {
+
+		Set<String> forms = ConcurrentHashMap.newKeySet();
+
+		// (The files are listed as paths, which keep the bytes of their names: a name such as "théorème.json" is read whatever the locale.)
+		if (dataWarehouse.isDirectory()) {
+			ObjectMapper objectMapper = new ObjectMapper();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(dataWarehouse.toPath())) {
+				for (Path file : files) {
+					try (InputStreamReader inputStreamReader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.ISO_8859_1)) {
+						addKnownForms(forms, objectMapper.readValue(inputStreamReader, SynonymsSet.class));
+					} catch (IOException ioe) {
+						LOGGER.error(ioe);
+					}
+				}
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
+			}
+		}
+
+		return forms;
+	}
+
+	/**
+	 * Adds the forms of all the synonyms of a set to the known forms.
+	 * 
+	 * @param forms
+	 *  the known forms
+	 * @param synonymsSet
+	 *  the synonyms set
+	 */
+	private static void addKnownForms(Set<String> forms, SynonymsSet synonymsSet) {
+
+		Word[] synonyms = synonymsSet.getSynonyms();
+		if (synonyms != null) {
+			for (Word synonym : synonyms) {
+				if (synonym.getCanonicalForm() != null) {
+					forms.add((synonym.getCanonicalForm()).toLowerCase());
+				}
+				if ((synonym instanceof Noun) && (((Noun) synonym).getOtherForms() != null)) {
+					for (Object otherForm : ((Noun) synonym).getOtherForms()) {
+						forms.add((otherForm.toString()).toLowerCase());
+					}
+				}
+			}
+		}
 	}
 
 }
@@ -73,6 +73,11 @@ public class SynonymsSet {
 
 		String url = String.format(DataIntegrator.SYNONYMY_FORMAT, tagger.getCanonicalForm() + (Separator.SLASH).getValue() + tagger.getPartOfSpeech());
 		Elements synonymElements = (new CNRTLParser()).getHTMLElements(url, "td[class*=syno_format]");
+		if (synonymElements == null) {
+			// (The page cannot be fetched: the set is left empty, so that it is not written.)
+			synonyms = new Word[0];
+			return;
+		}
 		ListIterator<Element> synonymElementsListIterator = synonymElements.listIterator();
 		while (synonymElementsListIterator.hasNext()) {
 			Element synonymElement = synonymElementsListIterator.next();
@@ -0,0 +1,49 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The {@code CNRTLFetchEvent} class defines the Flight Recorder event of the fetch of a CNRTL's page (wait included).
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@Name("edu.fromatoz.littlesearch.CNRTLFetch")
+@Label("CNRTL Fetch")
+@Category({ "Littlesearch", "Data Integrator" })
+@Description("The fetch of a CNRTL's page")
+public class CNRTLFetchEvent extends Event {
+
+	@Label("URL")
+	private String url;
+
+	@Label("Wait Time")
+	@Description("The time waited before the request (so that the CNRTL is not overloaded)")
+	@Timespan(Timespan.NANOSECONDS)
+	private long waitTime;
+
+	@Label("Elements")
+	@Description("The number of the elements which are selected (-1, if the page cannot be fetched)")
+	private int elements;
+
+	public void setUrl(String url) {
+
+		this.url = url;
+	}
+
+	public void setWaitTime(long waitTime) {
+
+		this.waitTime = waitTime;
+	}
+
+	public void setElements(int elements) {
+
+		this.elements = elements;
+	}
+
+}
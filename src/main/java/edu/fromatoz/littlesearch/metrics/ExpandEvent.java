@@ -0,0 +1,38 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code ExpandEvent} class defines the Flight Recorder event of the expansion of words by synonymy.
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@Name("edu.fromatoz.littlesearch.Expand")
+@Label("Expand")
+@Category({ "Littlesearch", "Search Engine" })
+@Description("The expansion of words by synonymy")
+public class ExpandEvent extends Event {
+
+	@Label("Words")
+	private String words;
+
+	@Label("Expansion Size")
+	@Description("The number of the forms which are searched (the words and their synonyms)")
+	private int expansionSize;
+
+	public void setWords(String words) {
+
+		this.words = words;
+	}
+
+	public void setExpansionSize(int expansionSize) {
+
+		this.expansionSize = expansionSize;
+	}
+
+}
@@ -0,0 +1,46 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code IndexEvent} class defines the Flight Recorder event of the indexing of a text.
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@Name("edu.fromatoz.littlesearch.Index")
+@Label("Index")
+@Category({ "Littlesearch", "Search Engine" })
+@Description("The indexing of a text")
+public class IndexEvent extends Event {
+
+	@Label("Path")
+	private String path;
+
+	@Label("Characters")
+	private long characters;
+
+	@Label("Documents")
+	@Description("The number of the documents of the text (its passages and itself, in the passage mode)")
+	private int documents;
+
+	public void setPath(String path) {
+
+		this.path = path;
+	}
+
+	public void setCharacters(long characters) {
+
+		this.characters = characters;
+	}
+
+	public void setDocuments(int documents) {
+
+		this.documents = documents;
+	}
+
+}
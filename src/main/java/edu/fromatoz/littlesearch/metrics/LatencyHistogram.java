@@ -0,0 +1,295 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LatencyHistogram} class defines a histogram of latencies (in nanoseconds), cheap enough to be recorded on the hot paths.
+ * <p>The latencies are counted in log-linear buckets: each power of two is divided into 8 buckets (by default),
+ * so that any percentile is known within 12.5&nbsp;%, without storing the latencies themselves.
+ * A finer histogram (such as for a load test, see {@code LoadGenerator}) divides each power of two into more buckets:
+ * 128 buckets, for instance, know any percentile within 0.8&nbsp;%.
+ * The recording is lock-free (a few atomic additions), so the histogram could be shared by many threads.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class LatencyHistogram {
+
+	// The default number of bits of the sub-buckets of each power of two (8 sub-buckets)...
+	private static final int SUB_BUCKET_BITS = 3;
+
+	// The greatest number of bits of the sub-buckets (1024 sub-buckets, so some 450 KB of buckets)...
+	private static final int MAX_SUB_BUCKET_BITS = 10;
+
+	private final int subBucketBits;
+
+	// The number of buckets (enough for any positive long)...
+	private final int bucketCount;
+
+	private final AtomicLongArray buckets;
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+	/**
+	 * Constructs a histogram of which each power of two is divided into 8 buckets (so, within 12.5&nbsp;%).
+	 */
+	public LatencyHistogram() {
+
+		this(SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Constructs a histogram of which each power of two is divided into 2<sup>{@code subBucketBits}</sup> buckets
+	 * (so, within 100&nbsp;/&nbsp;2<sup>{@code subBucketBits}</sup>&nbsp;%).
+	 * 
+	 * @param subBucketBits
+	 *  the number of bits of the buckets of each power of two (between 1 and 10)
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if the number of bits is not between 1 and 10
+	 */
+	public LatencyHistogram(int subBucketBits) {
+
+		if ((subBucketBits < 1) || (subBucketBits > MAX_SUB_BUCKET_BITS)) {
+			throw new IllegalArgumentException("A number of bits of the buckets should be between 1 and " + MAX_SUB_BUCKET_BITS + ": " + subBucketBits + ".");
+		}
+
+		this.subBucketBits = subBucketBits;
+		bucketCount = (Long.SIZE - subBucketBits) << subBucketBits;
+		buckets = new AtomicLongArray(bucketCount);
+	}
+
+	/**
+	 * Records a latency.
+	 * 
+	 * @param nanos
+	 *  the latency (in nanoseconds); a negative latency is recorded as 0
+	 */
+	public void record(long nanos) {
+
+		record(nanos, 1);
+	}
+
+	/**
+	 * Records a latency several times.
+	 * 
+	 * @param nanos
+	 *  the latency (in nanoseconds); a negative latency is recorded as 0
+	 * @param n
+	 *  the number of times
+	 */
+	private void record(long nanos, long n) {
+
+		long latency = Math.max(nanos, 0);
+
+		buckets.addAndGet(getBucket(latency, subBucketBits), n);
+		count.add(n);
+		sum.add(latency * n);
+		max.accumulate(latency);
+	}
+
+	/**
+	 * Records a latency which has delayed the next requests, correcting the <i>coordinated omission</i>:
+	 * when a client sends its requests one after the other, every expected interval, a slow request postpones the next ones,
+	 * which are thus never measured while the server stalls. The latencies which these requests would have had are then recorded too
+	 * (the latency minus the expected interval, minus twice the expected interval, and so on, while it remains greater than the interval).
+	 * 
+	 * @param nanos
+	 *  the latency (in nanoseconds); a negative latency is recorded as 0
+	 * @param expectedIntervalNanos
+	 *  the expected interval between two requests (in nanoseconds), or 0 for recording the latency alone
+	 */
+	public void recordWithExpectedInterval(long nanos, long expectedIntervalNanos) {
+
+		recordWithExpectedInterval(nanos, 1, expectedIntervalNanos);
+	}
+
+	private void recordWithExpectedInterval(long nanos, long n, long expectedIntervalNanos) {
+
+		record(nanos, n);
+		if (expectedIntervalNanos > 0) {
+			for (long missingLatency = nanos - expectedIntervalNanos; missingLatency >= expectedIntervalNanos; missingLatency -= expectedIntervalNanos) {
+				record(missingLatency, n);
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the histogram, corrected for the coordinated omission once the latencies are recorded
+	 * (see {@code recordWithExpectedInterval(long, long)}), such as when the expected interval is only known afterwards.
+	 * (Each latency of the copy is the upper bound of its bucket, within the precision of the histogram.)
+	 * 
+	 * @param expectedIntervalNanos
+	 *  the expected interval between two requests (in nanoseconds), or 0 for a copy which is not corrected
+	 * 
+	 * @return the corrected copy (with the same precision)
+	 */
+	public LatencyHistogram copyCorrectedForCoordinatedOmission(long expectedIntervalNanos) {
+
+		LatencyHistogram copy = new LatencyHistogram(subBucketBits);
+		long currentMax = getMax();
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			long n = buckets.get(bucket);
+			if (n > 0) {
+				copy.recordWithExpectedInterval(Math.min(getUpperBound(bucket, subBucketBits), currentMax), n, expectedIntervalNanos);
+			}
+		}
+
+		return copy;
+	}
+
+	/**
+	 * Returns the number of the recorded latencies.
+	 * 
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean of the recorded latencies.
+	 * 
+	 * @return the mean (in nanoseconds), or 0 if no latency is recorded
+	 */
+	public long getMean() {
+
+		long n = count.sum();
+
+		return (n > 0) ? sum.sum() / n : 0;
+	}
+
+	/**
+	 * Returns the maximum of the recorded latencies.
+	 * 
+	 * @return the maximum (in nanoseconds)
+	 */
+	public long getMax() {
+
+		return max.get();
+	}
+
+	/**
+	 * Returns (an upper bound of) a percentile of the recorded latencies.
+	 * 
+	 * @param percentile
+	 *  the percentile (between 0 and 100)
+	 * 
+	 * @return the percentile (in nanoseconds), or 0 if no latency is recorded
+	 */
+	public long getPercentile(double percentile) {
+
+		long[] counts = new long[bucketCount];
+		long n = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			counts[bucket] = buckets.get(bucket);
+			n += counts[bucket];
+		}
+		if (n == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil((percentile / 100) * n));
+		long cumulativeCount = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			cumulativeCount += counts[bucket];
+			if (cumulativeCount >= rank) {
+				return Math.min(getUpperBound(bucket, subBucketBits), getMax());
+			}
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * Forgets all the recorded latencies.
+	 * (The latencies which are recorded meanwhile could be partly forgotten.)
+	 */
+	public void reset() {
+
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			buckets.set(bucket, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+
+	/**
+	 * Returns the bucket of a latency (in a histogram of 8 buckets per power of two).
+	 * 
+	 * @param latency
+	 *  the latency (positive)
+	 * 
+	 * @return the index of the bucket
+	 */
+	static int getBucket(long latency) {
+
+		return getBucket(latency, SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Returns the bucket of a latency.
+	 * 
+	 * @param latency
+	 *  the latency (positive)
+	 * @param subBucketBits
+	 *  the number of bits of the buckets of each power of two
+	 * 
+	 * @return the index of the bucket
+	 */
+	static int getBucket(long latency, int subBucketBits) {
+
+		int subBucketCount = 1 << subBucketBits;
+		if (latency < subBucketCount) {
+			return (int) latency;
+		}
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(latency);
+		int subBucket = (int) ((latency >>> (exponent - subBucketBits)) & (subBucketCount - 1));
+
+		return ((exponent - subBucketBits + 1) * subBucketCount) + subBucket;
+	}
+
+	/**
+	 * Returns the greatest latency of a bucket (in a histogram of 8 buckets per power of two).
+	 * 
+	 * @param bucket
+	 *  the index of the bucket
+	 * 
+	 * @return the upper bound of the bucket (in nanoseconds)
+	 */
+	static long getUpperBound(int bucket) {
+
+		return getUpperBound(bucket, SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Returns the greatest latency of a bucket.
+	 * 
+	 * @param bucket
+	 *  the index of the bucket
+	 * @param subBucketBits
+	 *  the number of bits of the buckets of each power of two
+	 * 
+	 * @return the upper bound of the bucket (in nanoseconds)
+	 */
+	static long getUpperBound(int bucket, int subBucketBits) {
+
+		int subBucketCount = 1 << subBucketBits;
+		if (bucket < subBucketCount) {
+			return bucket;
+		}
+		int shift = (bucket / subBucketCount) - 1;
+		long lowerBound = ((long) (subBucketCount + (bucket % subBucketCount))) << shift;
+
+		return lowerBound + (1L << shift) - 1;
+	}
+
+}
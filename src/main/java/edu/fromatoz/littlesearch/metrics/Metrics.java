@@ -0,0 +1,127 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code Metrics} class defines the registry of the metrics of the stages of the processing.
+ * <p>Each stage is registered as an MBean (see {@link StageMXBean}), named
+ * "{@code edu.fromatoz.littlesearch:type=Stage,name=<stage>}", so that its latencies could be read over JMX
+ * (with JConsole, for example); they could also be dumped as a text, periodically, to the log.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class Metrics {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(Metrics.class);
+
+	/**
+	 * The system property of the period (in seconds) of the dump of the metrics to the log.
+	 */
+	public static final String DUMP_PERIOD_PROPERTY = "littlesearch.metrics.dump";
+
+	// The format of the name of the MBean of a stage...
+	private static final String OBJECT_NAME_FORMAT = "edu.fromatoz.littlesearch:type=Stage,name=%s";
+
+	// The format of a line of the dump...
+	private static final String DUMP_LINE_FORMAT = "%-28s %10s %8s %10s %10s %10s %10s %10s";
+
+	// The stages (sorted by name)...
+	private static final Map<String, Stage> STAGES = new ConcurrentSkipListMap<>();
+
+	// The scheduler of the periodic dump (if it is started)...
+	private static ScheduledExecutorService dumper;
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private Metrics() {
+
+		throw new IllegalStateException("Metrics class");
+	}
+
+	/**
+	 * Returns the stage of which the name is as a parameter (registered, as an MBean, when it is first requested).
+	 * 
+	 * @param name
+	 *  the name of the stage (for example, "synonymysearch.expand")
+	 * 
+	 * @return the stage
+	 */
+	public static Stage stage(String name) {
+
+		return STAGES.computeIfAbsent(name, n -> {
+			Stage stage = new Stage(n);
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(stage, new ObjectName(String.format(OBJECT_NAME_FORMAT, ObjectName.quote(n))));
+			} catch (JMException jme) {
+				LOGGER.error(jme);
+			}
+			return stage;
+		});
+	}
+
+	/**
+	 * Returns the metrics of all the stages, as a text (one line per stage, the latencies in microseconds).
+	 * 
+	 * @return the dump of the metrics
+	 */
+	public static String dump() {
+
+		StringBuilder dumpBuilder = new StringBuilder();
+
+		dumpBuilder.append(String.format(DUMP_LINE_FORMAT, "stage", "count", "errors", "mean (µs)", "p50 (µs)", "p90 (µs)", "p99 (µs)", "max (µs)"));
+		for (Stage stage : STAGES.values()) {
+			dumpBuilder.append((Separator.NEW_LINE).getValue());
+			dumpBuilder.append(String.format(DUMP_LINE_FORMAT, stage.getName(), stage.getCount(), stage.getErrorCount(),
+					stage.getMeanMicros(), stage.getP50Micros(), stage.getP90Micros(), stage.getP99Micros(), stage.getMaxMicros()));
+		}
+
+		return dumpBuilder.toString();
+	}
+
+	/**
+	 * Starts dumping the metrics to the log, periodically (in a daemon thread), if the system property
+	 * "{@code littlesearch.metrics.dump}" gives a period (in seconds).
+	 */
+	public static void startPeriodicDump() {
+
+		long period = Long.getLong(DUMP_PERIOD_PROPERTY, 0);
+		if (period > 0) {
+			startPeriodicDump(period);
+		}
+	}
+
+	/**
+	 * Starts dumping the metrics to the log, periodically (in a daemon thread), unless it is already started.
+	 * 
+	 * @param period
+	 *  the period of the dump (in seconds)
+	 */
+	public static synchronized void startPeriodicDump(long period) {
+
+		if (dumper == null) {
+			dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "littlesearch-metrics-dump");
+				thread.setDaemon(true);
+				return thread;
+			});
+			dumper.scheduleAtFixedRate(() -> LOGGER.info((Separator.NEW_LINE).getValue() + dump()), period, period, TimeUnit.SECONDS);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code SearchEvent} class defines the Flight Recorder event of a search (of a query, already expanded by synonymy).
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@Name("edu.fromatoz.littlesearch.Search")
+@Label("Search")
+@Category({ "Littlesearch", "Search Engine" })
+@Description("The search of a query")
+public class SearchEvent extends Event {
+
+	@Label("Query")
+	private String query;
+
+	@Label("Passage Mode")
+	private boolean passageMode;
+
+	@Label("Hits")
+	@Description("The number of the documents (or of the texts, in the passage mode) which match the query")
+	private long hits;
+
+	@Label("Returned")
+	@Description("The number of the documents which are returned (with their snippet)")
+	private int returned;
+
+	public void setQuery(String query) {
+
+		this.query = query;
+	}
+
+	public void setPassageMode(boolean passageMode) {
+
+		this.passageMode = passageMode;
+	}
+
+	public void setHits(long hits) {
+
+		this.hits = hits;
+	}
+
+	public void setReturned(int returned) {
+
+		this.returned = returned;
+	}
+
+}
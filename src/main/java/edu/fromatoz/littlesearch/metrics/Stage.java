@@ -0,0 +1,122 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Stage} class defines the metrics of a stage of the processing (for example, the expansion of a query by synonymy):
+ * a histogram of its latencies and a counter of its errors.
+ * <p>A stage is timed by its caller:</p>
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * stage.record(System.nanoTime() - start);
+ * </pre>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class Stage implements StageMXBean {
+
+	private final String name;
+
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private final LongAdder errorCount = new LongAdder();
+
+	/**
+	 * Constructs a stage (see {@code Metrics.stage(String)}, which also registers it).
+	 * 
+	 * @param name
+	 *  the name of the stage
+	 */
+	Stage(String name) {
+
+		this.name = name;
+	}
+
+	/**
+	 * Records the latency of an operation of the stage.
+	 * 
+	 * @param nanos
+	 *  the latency (in nanoseconds)
+	 */
+	public void record(long nanos) {
+
+		latencies.record(nanos);
+	}
+
+	/**
+	 * Records the failure of an operation of the stage.
+	 */
+	public void recordError() {
+
+		errorCount.increment();
+	}
+
+	/**
+	 * Returns the histogram of the latencies of the stage.
+	 * 
+	 * @return the histogram
+	 */
+	public LatencyHistogram getLatencies() {
+
+		return latencies;
+	}
+
+	@Override
+	public String getName() {
+
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+
+		return latencies.getCount();
+	}
+
+	@Override
+	public long getErrorCount() {
+
+		return errorCount.sum();
+	}
+
+	@Override
+	public long getMeanMicros() {
+
+		return TimeUnit.NANOSECONDS.toMicros(latencies.getMean());
+	}
+
+	@Override
+	public long getP50Micros() {
+
+		return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(50));
+	}
+
+	@Override
+	public long getP90Micros() {
+
+		return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(90));
+	}
+
+	@Override
+	public long getP99Micros() {
+
+		return TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(99));
+	}
+
+	@Override
+	public long getMaxMicros() {
+
+		return TimeUnit.NANOSECONDS.toMicros(latencies.getMax());
+	}
+
+	@Override
+	public void reset() {
+
+		latencies.reset();
+		errorCount.reset();
+	}
+
+}
@@ -0,0 +1,73 @@
+package edu.fromatoz.littlesearch.metrics;
+
+/**
+ * The {@code StageMXBean} interface defines the management interface (over JMX) of the metrics of a {@link Stage}.
+ * <p>The latencies are given in microseconds.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public interface StageMXBean {
+
+	/**
+	 * Returns the name of the stage.
+	 * 
+	 * @return the name
+	 */
+	String getName();
+
+	/**
+	 * Returns the number of the operations of the stage.
+	 * 
+	 * @return the count
+	 */
+	long getCount();
+
+	/**
+	 * Returns the number of the operations of the stage which have failed.
+	 * 
+	 * @return the count of the errors
+	 */
+	long getErrorCount();
+
+	/**
+	 * Returns the mean latency of the stage.
+	 * 
+	 * @return the mean (in microseconds)
+	 */
+	long getMeanMicros();
+
+	/**
+	 * Returns the median latency of the stage.
+	 * 
+	 * @return the 50th percentile (in microseconds)
+	 */
+	long getP50Micros();
+
+	/**
+	 * Returns the 90th percentile of the latencies of the stage.
+	 * 
+	 * @return the 90th percentile (in microseconds)
+	 */
+	long getP90Micros();
+
+	/**
+	 * Returns the 99th percentile of the latencies of the stage.
+	 * 
+	 * @return the 99th percentile (in microseconds)
+	 */
+	long getP99Micros();
+
+	/**
+	 * Returns the maximum latency of the stage.
+	 * 
+	 * @return the maximum (in microseconds)
+	 */
+	long getMaxMicros();
+
+	/**
+	 * Forgets the latencies and the counts of the stage.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,168 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import edu.fromatoz.littlesearch.tool.RamEstimator;
+
+/**
+ * The {@code CompiledSynonyms} class defines the synonyms of the data warehouse, compiled for the searches
+ * as a Java object which could be serialized to JSON (one file, instead of one file per synonyms set).
+ * <p>The synonyms sets are compiled into a graph of the words (see {@link SynonymGraph}), by which a form is expanded.</p>
+ * <p>Each form of a noun (<i>substantive</i> or <i>adjective</i>) is also associated with its lemma (its canonical form),
+ * for lemmatizing the texts and the queries (see {@link LemmatizingFilter}).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@JsonPropertyOrder({ "canonical_forms", "graph", "lemmas" })
+public class CompiledSynonyms implements Accountable {
+
+	// The canonical forms of all the synonyms...
+	private Set<String> canonicalForms = new TreeSet<>();
+
+	// The graph of the synonyms...
+	private SynonymGraph graph = (new SynonymGraph.Builder()).build();
+
+	// The lemma (the canonical form) of each form of the nouns...
+	private Map<String, String> lemmas = new TreeMap<>();
+
+	// To allow to deserialize...
+	public CompiledSynonyms() {
+	}
+
+	/**
+	 * Adds the canonical forms of the synonyms of a set.
+	 * 
+	 * @param setCanonicalForms
+	 *  the canonical forms of the synonyms of the set
+	 */
+	void addCanonicalForms(Set<String> setCanonicalForms) {
+
+		canonicalForms.addAll(setCanonicalForms);
+	}
+
+	/**
+	 * Sets the graph of the synonyms (built from the same sets).
+	 * 
+	 * @param synonymGraph
+	 *  the graph of the synonyms
+	 */
+	void setGraph(SynonymGraph synonymGraph) {
+
+		graph = synonymGraph;
+	}
+
+	/**
+	 * Adds the forms of a word, of which all the inflections are known (a noun), associated with its lemma.
+	 * <p>A form which is the canonical form of a word is its own lemma; a form of several words is associated with
+	 * the first of their canonical forms (in alphabetical order), so that the lemmas do not depend on the order of the sets.</p>
+	 * 
+	 * @param forms
+	 *  the forms of the word (its canonical form and its other forms)
+	 * @param lemma
+	 *  the canonical form of the word
+	 */
+	void addLemmas(Set<String> forms, String lemma) {
+
+		for (String form : forms) {
+			String lowerCaseForm = form.toLowerCase();
+			lemmas.merge(lowerCaseForm, lemma.toLowerCase(), (previousLemma, newLemma) -> {
+				if (previousLemma.equals(lowerCaseForm) || newLemma.equals(lowerCaseForm)) {
+					return lowerCaseForm;
+				}
+				return (previousLemma.compareTo(newLemma) <= 0) ? previousLemma : newLemma;
+			});
+		}
+	}
+
+	/**
+	 * Returns the forms by which a form is expanded: the forms of the words which it reaches in the graph of the synonyms
+	 * (see {@link SynonymGraph}), weighted by their best path.
+	 * 
+	 * @param form
+	 *  the form to be expanded
+	 * @param maxDepth
+	 *  the maximum number of hops
+	 * 
+	 * @return the map of the forms to their weight (this map could be empty)
+	 */
+	public Map<String, Float> getExpansions(String form, int maxDepth) {
+
+		return graph.expand(form, maxDepth);
+	}
+
+	/**
+	 * Returns all the forms (canonical forms and other forms) of all the synonyms.
+	 * 
+	 * @return the set of the forms
+	 */
+	@JsonIgnore
+	public Set<String> getForms() {
+
+		return graph.getForms();
+	}
+
+	/**
+	 * Estimates the heap used by the synonyms (the sum of the estimates of their structures).
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	@Override
+	public long ramBytesUsed() {
+
+		long size = RamUsageEstimator.shallowSizeOf(this);
+		for (Accountable childResource : getChildResources()) {
+			size += childResource.ramBytesUsed();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns the structures of the synonyms, with the estimates of the heap which they use
+	 * (a form being in several structures is counted once per structure).
+	 * 
+	 * @return the structures of the synonyms
+	 */
+	@JsonIgnore
+	@Override
+	public Collection<Accountable> getChildResources() {
+
+		return Arrays.asList(
+				Accountables.namedAccountable("canonical forms", RamEstimator.sizeOf(canonicalForms, RamEstimator::sizeOf)),
+				Accountables.namedAccountable("graph", graph.ramBytesUsed()),
+				Accountables.namedAccountable("lemmas", RamEstimator.sizeOf(lemmas, RamEstimator::sizeOf, RamEstimator::sizeOf)));
+	}
+
+	@JsonGetter("canonical_forms")
+	public Set<String> getCanonicalForms() {
+
+		return canonicalForms;
+	}
+
+	@JsonGetter("graph")
+	public SynonymGraph getGraph() {
+
+		return graph;
+	}
+
+	@JsonGetter("lemmas")
+	public Map<String, String> getLemmas() {
+
+		return lemmas;
+	}
+
+}
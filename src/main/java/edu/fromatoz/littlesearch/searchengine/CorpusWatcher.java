@@ -0,0 +1,229 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.tool.Extension;
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code CorpusWatcher} class defines a background indexer of the texts of a corpus directory.
+ * <p>The directory is watched (by a {@link WatchService}); the changes are gathered until no other change happens
+ * during a <i>debounce delay</i> (or, at the latest, until a <i>maximum latency</i>), then they are applied
+ * by the {@link Littlesearch} (added, updated and deleted texts) and the searchers are refreshed,
+ * without committing (near-real-time).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class CorpusWatcher implements Runnable, Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(CorpusWatcher.class);
+
+	/**
+	 * The default debounce delay (in milliseconds).
+	 */
+	public static final long DEFAULT_DEBOUNCE_DELAY = 200;
+
+	/**
+	 * The default maximum latency (in milliseconds) between a change and its refresh.
+	 */
+	public static final long DEFAULT_MAX_LATENCY = 2_000;
+
+	// The suffix of the names of the text files...
+	private static final String TEXT_FILE_SUFFIX = (Separator.POINT).getValue() + (Extension.TEXT).getValue();
+
+	private final Littlesearch littlesearch;
+
+	private final Path corpusDirectory;
+
+	private final long debounceDelay;
+
+	private final long maxLatency;
+
+	private final WatchService watchService;
+
+	private Thread thread;
+
+	/**
+	 * Constructs a watcher of a corpus directory, with the default delays.
+	 * 
+	 * @param littlesearch
+	 *  the search engine which indexes the texts
+	 * @param corpusDirectory
+	 *  the directory of the corpus
+	 * 
+	 * @throws IOException
+	 *  if the directory cannot be watched
+	 */
+	public CorpusWatcher(Littlesearch littlesearch, File corpusDirectory) throws IOException {
+
+		this(littlesearch, corpusDirectory, DEFAULT_DEBOUNCE_DELAY, DEFAULT_MAX_LATENCY);
+	}
+
+	/**
+	 * Constructs a watcher of a corpus directory.
+	 * 
+	 * @param littlesearch
+	 *  the search engine which indexes the texts
+	 * @param corpusDirectory
+	 *  the directory of the corpus
+	 * @param debounceDelay
+	 *  the delay (in milliseconds) without any change, after which the changes are applied
+	 * @param maxLatency
+	 *  the maximum delay (in milliseconds) between a change and its refresh (even if the changes go on)
+	 * 
+	 * @throws IOException
+	 *  if the directory cannot be watched
+	 */
+	public CorpusWatcher(Littlesearch littlesearch, File corpusDirectory, long debounceDelay, long maxLatency) throws IOException {
+
+		this.littlesearch = littlesearch;
+		this.corpusDirectory = corpusDirectory.toPath();
+		this.debounceDelay = debounceDelay;
+		this.maxLatency = maxLatency;
+
+		watchService = FileSystems.getDefault().newWatchService();
+		(this.corpusDirectory).register(watchService,
+				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+	}
+
+	/**
+	 * Starts watching the corpus directory, in a background (daemon) thread.
+	 */
+	public synchronized void start() {
+
+		if (thread == null) {
+			thread = new Thread(this, "littlesearch-corpus-watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void run() {
+
+		try {
+			while (!(Thread.currentThread().isInterrupted())) {
+				// Waits for a first change...
+				Set<Path> changedPaths = new LinkedHashSet<>();
+				boolean overflow = gather(watchService.take(), changedPaths);
+				// Gathers the burst of changes (until the debounce delay passes without any change, or until the maximum latency)...
+				long deadline = System.currentTimeMillis() + maxLatency;
+				long remaining;
+				while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+					WatchKey watchKey = watchService.poll(Math.min(debounceDelay, remaining), TimeUnit.MILLISECONDS);
+					if (watchKey == null) {
+						break;
+					}
+					overflow |= gather(watchKey, changedPaths);
+				}
+				// (A text which cannot be indexed loses its batch only: the watcher goes on.)
+				try {
+					apply(changedPaths, overflow);
+				} catch (RuntimeException re) {
+					LOGGER.error("Changes not applied: " + changedPaths, re);
+				}
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException cwse) {
+			// The watcher is closed...
+		}
+	}
+
+	/**
+	 * Gathers the paths changed by the events of a watch key.
+	 * 
+	 * @param watchKey
+	 *  the watch key
+	 * @param changedPaths
+	 *  the set of the changed paths (completed by this method)
+	 * 
+	 * @return <i>true</i>, if some events have been lost (then, the texts of the corpus should be indexed again, from scratch)
+	 */
+	private boolean gather(WatchKey watchKey, Set<Path> changedPaths) {
+
+		boolean overflow = false;
+
+		for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+			if (watchEvent.kind() == StandardWatchEventKinds.OVERFLOW) {
+				overflow = true;
+			} else {
+				// (Only the text files are indexed: the temporary files of the editors, for example, are ignored.)
+				Path changedPath = corpusDirectory.resolve((Path) watchEvent.context());
+				if ((changedPath.toString()).endsWith(TEXT_FILE_SUFFIX)) {
+					changedPaths.add(changedPath);
+				}
+			}
+		}
+		watchKey.reset();
+
+		return overflow;
+	}
+
+	/**
+	 * Applies the changes: indexes the texts which exist (again) and deletes the other ones, then refreshes the searchers.
+	 * If some events have been lost, the texts of the watched directory are indexed again from scratch instead
+	 * (so, the texts deleted meanwhile are not found any more).
+	 * 
+	 * @param changedPaths
+	 *  the set of the changed paths
+	 * @param overflow
+	 *  <i>true</i>, if some events have been lost
+	 */
+	void apply(Set<Path> changedPaths, boolean overflow) {
+
+		if (overflow) {
+			// All the texts of the corpus are indexed again (and committed)...
+			LOGGER.info("Events lost: indexing all the texts of " + corpusDirectory + " again...");
+			littlesearch.rebuildTexts(corpusDirectory.toFile());
+			return;
+		}
+
+		for (Path changedPath : changedPaths) {
+			File textFile = changedPath.toFile();
+			if (textFile.isFile()) {
+				littlesearch.indexText(textFile);
+			} else {
+				littlesearch.deleteText(textFile);
+			}
+			// For monitoring...
+			LOGGER.info((textFile.isFile() ? "Indexed: " : "Deleted: ") + textFile.getPath());
+		}
+		littlesearch.refresh();
+	}
+
+	/**
+	 * Stops watching the corpus directory.
+	 * (The changes which are not applied yet are lost.)
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+
+		watchService.close();
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+	}
+
+}
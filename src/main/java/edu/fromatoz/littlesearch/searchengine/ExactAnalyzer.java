@@ -0,0 +1,38 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+import org.apache.lucene.analysis.util.ElisionFilter;
+
+/**
+ * The {@code ExactAnalyzer} class defines the analyzer of the unstemmed content, for finding the exact words and the phrases:
+ * the words are only lower-cased, and their elided articles removed ("l'algèbre" as "algèbre"), so that they are found exactly
+ * (with their accents, their inflections, and the stop words of the phrases).
+ *
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+class ExactAnalyzer extends Analyzer {
+
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName) {
+
+		Tokenizer source = new StandardTokenizer();
+
+		return new TokenStreamComponents(source, normalize(fieldName, source));
+	}
+
+	@Override
+	protected TokenStream normalize(String fieldName, TokenStream in) {
+
+		return new LowerCaseFilter(new ElisionFilter(in, FrenchAnalyzer.DEFAULT_ARTICLES));
+	}
+
+}
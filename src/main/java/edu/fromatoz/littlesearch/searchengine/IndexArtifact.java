@@ -0,0 +1,333 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import org.apache.lucene.util.Version;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fromatoz.littlesearch.app.SearchEngine;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code IndexArtifact} class defines a prebuilt index, for searching without indexing the texts at each launch.
+ * <p>The artifact is a directory which contains:
+ * <ul>
+ * <li>the indexes of the texts (one per mode: text by text, and passage by passage), configured by a profile (see {@link IndexProfile}):
+ * read-optimized, by default (so, force-merged into one segment);</li>
+ * <li>the synonyms of the data warehouse, compiled into one JSON file (see {@link CompiledSynonyms});</li>
+ * <li>a manifest, which records the version of the format of the artifact, the version of Lucene
+ * and the version of the corpus (a digest of the manifest of the texts and of the data warehouse) from which the artifact has been built,
+ * and the profile of the indexes.</li>
+ * </ul>
+ * The artifact is up to date as long as these versions are the current ones; otherwise, it should be built again.
+ * (The manifest is written last, so that an artifact of which the building has failed is never up to date.)</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class IndexArtifact {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(IndexArtifact.class);
+
+	/**
+	 * The version of the format of the artifact (to be raised whenever the layout of the documents changes).
+	 */
+	public static final String FORMAT_VERSION = "4";
+
+	// The name of the manifest file...
+	private static final String MANIFEST_FILE_NAME = "manifest.properties";
+
+	// The keys of the manifest...
+	private static final String FORMAT_VERSION_KEY = "format.version";
+	private static final String LUCENE_VERSION_KEY = "lucene.version";
+	private static final String CORPUS_VERSION_KEY = "corpus.version";
+	private static final String INDEX_PROFILE_KEY = "index.profile";
+
+	// The name of the file of the compiled synonyms...
+	private static final String SYNONYMS_FILE_NAME = "synonyms.json";
+
+	// The name of the directory of the index (text by text)...
+	private static final String INDEX_DIRECTORY_NAME = "index";
+
+	// The name of the directory of the index, in the passage mode...
+	private static final String PASSAGES_INDEX_DIRECTORY_NAME = "passages_index";
+
+	// The algorithm of the digest of the corpus...
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private final File directory;
+
+	private final IndexProfile indexProfile;
+
+	/**
+	 * Constructs an index artifact (which could be not built yet), of which the indexes are read-optimized.
+	 * 
+	 * @param directory
+	 *  the directory of the artifact
+	 */
+	public IndexArtifact(File directory) {
+
+		this(directory, IndexProfile.READ_OPTIMIZED);
+	}
+
+	/**
+	 * Constructs an index artifact (which could be not built yet).
+	 * 
+	 * @param directory
+	 *  the directory of the artifact
+	 * @param indexProfile
+	 *  the profile of the indexes, when the artifact is built
+	 *  (an artifact which is up to date is opened whatever the profile of its indexes)
+	 */
+	public IndexArtifact(File directory, IndexProfile indexProfile) {
+
+		this.directory = directory;
+		this.indexProfile = indexProfile;
+	}
+
+	/**
+	 * Returns the directory of the artifact.
+	 * 
+	 * @return the directory of the artifact
+	 */
+	public File getDirectory() {
+
+		return directory;
+	}
+
+	/**
+	 * Checks whether the artifact is built from the current corpus (by the current versions of the format and of Lucene).
+	 * 
+	 * @return <i>true</i>, if the artifact could be opened; <i>false</i>, if it should be built (again)
+	 */
+	public boolean isUpToDate() {
+
+		return isUpToDate(new File(directory, MANIFEST_FILE_NAME), getCorpusVersion());
+	}
+
+	/**
+	 * Checks whether a manifest records the current versions of the format and of Lucene, and a version of the corpus.
+	 * 
+	 * @param manifestFile
+	 *  the manifest file
+	 * @param corpusVersion
+	 *  the current version of the corpus
+	 * 
+	 * @return <i>true</i>, if the manifest exists and records these versions; <i>false</i>, otherwise
+	 */
+	static boolean isUpToDate(File manifestFile, String corpusVersion) {
+
+		if (!(manifestFile.isFile())) {
+			return false;
+		}
+
+		Properties manifest = new Properties();
+		try (InputStream inputStream = new FileInputStream(manifestFile)) {
+			manifest.load(inputStream);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+
+			return false;
+		}
+
+		return FORMAT_VERSION.equals(manifest.getProperty(FORMAT_VERSION_KEY))
+				&& (Version.LATEST).toString().equals(manifest.getProperty(LUCENE_VERSION_KEY))
+				&& corpusVersion.equals(manifest.getProperty(CORPUS_VERSION_KEY));
+	}
+
+	/**
+	 * Builds (again) the artifact from the current corpus.
+	 * (The compiled synonyms are then used by {@link Synonymysearch}.)
+	 * 
+	 * @return <i>true</i>, if the building is successful; <i>false</i>, if it isn't
+	 */
+	public boolean build() {
+
+		try {
+			// Removes the previous artifact (the texts which are no longer in the corpus should not be found any more)...
+			delete(directory.toPath());
+			Files.createDirectories(directory.toPath());
+
+			// Compiles the synonyms (also used while building the spellcheckers and the suggesters of the indexes)...
+			String corpusVersion = getCorpusVersion();
+			if (corpusVersion.isEmpty()) {
+				return false;
+			}
+			CompiledSynonyms compiledSynonyms = Synonymysearch.compile();
+			(new ObjectMapper()).writeValue(new File(directory, SYNONYMS_FILE_NAME), compiledSynonyms);
+			Synonymysearch.setCompiledSynonyms(compiledSynonyms);
+
+			// Indexes the texts, in both modes (each index being merged, if the profile requests it)...
+			for (boolean passageMode : new boolean[] { false, true }) {
+				try (Littlesearch littlesearch = new Littlesearch(getIndexPath(passageMode), passageMode, null, 0, indexProfile)) {
+					if (!(littlesearch.indexTexts())) {
+						return false;
+					}
+				}
+			}
+
+			// Writes the manifest (last)...
+			writeManifest(new File(directory, MANIFEST_FILE_NAME), corpusVersion, indexProfile, "Littlesearch index artifact");
+
+			return true;
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Writes a manifest: the current versions of the format and of Lucene, the version of the corpus and the profile of the index.
+	 * 
+	 * @param manifestFile
+	 *  the manifest file
+	 * @param corpusVersion
+	 *  the version of the corpus
+	 * @param indexProfile
+	 *  the profile of the index
+	 * @param comments
+	 *  the comments of the manifest
+	 * 
+	 * @throws IOException
+	 *  if the manifest cannot be written
+	 */
+	static void writeManifest(File manifestFile, String corpusVersion, IndexProfile indexProfile, String comments) throws IOException {
+
+		Properties manifest = new Properties();
+		manifest.setProperty(FORMAT_VERSION_KEY, FORMAT_VERSION);
+		manifest.setProperty(LUCENE_VERSION_KEY, (Version.LATEST).toString());
+		manifest.setProperty(CORPUS_VERSION_KEY, corpusVersion);
+		manifest.setProperty(INDEX_PROFILE_KEY, indexProfile.getName());
+		try (OutputStream outputStream = new FileOutputStream(manifestFile)) {
+			manifest.store(outputStream, comments);
+		}
+	}
+
+	/**
+	 * Opens the artifact (which should be up to date): its compiled synonyms are then used by {@link Synonymysearch},
+	 * and its index is searched read-only.
+	 * 
+	 * @param passageMode
+	 *  <i>true</i>, for searching the texts passage by passage
+	 * 
+	 * @return the search engine
+	 * 
+	 * @throws IOException
+	 *  if the artifact cannot be read
+	 */
+	public Littlesearch open(boolean passageMode) throws IOException {
+
+		Synonymysearch.setCompiledSynonyms((new ObjectMapper()).readValue(new File(directory, SYNONYMS_FILE_NAME), CompiledSynonyms.class));
+
+		return Littlesearch.openReadOnly(getIndexPath(passageMode), passageMode);
+	}
+
+	/**
+	 * Returns the path of the index of a mode.
+	 * 
+	 * @param passageMode
+	 *  <i>true</i>, for the index of the passages
+	 * 
+	 * @return the path of the index
+	 */
+	private Path getIndexPath(boolean passageMode) {
+
+		return (new File(directory, passageMode ? PASSAGES_INDEX_DIRECTORY_NAME : INDEX_DIRECTORY_NAME)).toPath();
+	}
+
+	/**
+	 * Returns the current version of the corpus: a digest of its manifest, that is the paths, the sizes and the times of modification
+	 * of the texts and of the files of the data warehouse (which is much faster than reading them, at each launch).
+	 * 
+	 * @return the version of the corpus (as a hexadecimal string)
+	 */
+	public static String getCorpusVersion() {
+
+		return getCorpusVersion(SearchEngine.TEXT_CORPUS_DIRECTORY);
+	}
+
+	/**
+	 * Returns the current version of another corpus (with the data warehouse, which the analysis of the texts depends on).
+	 * 
+	 * @param textCorpusDirectory
+	 *  the directory of the texts
+	 * 
+	 * @return the version of the corpus (as a hexadecimal string; empty, if it cannot be computed)
+	 */
+	static String getCorpusVersion(File textCorpusDirectory) {
+
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			for (File corpusDirectory : new File[] { textCorpusDirectory, new File(Synonymysearch.DATA_WAREHOUSE) }) {
+				File[] files = corpusDirectory.listFiles();
+				if (files != null) {
+					// (The order of the listed files is not specified.)
+					Arrays.sort(files, Comparator.comparing(File::getName));
+					for (File file : files) {
+						messageDigest.update((file.getPath() + (Separator.SPACE).getValue() + file.length() + (Separator.SPACE).getValue() + file.lastModified() + (Separator.NEW_LINE).getValue()).getBytes("UTF-8"));
+					}
+				}
+			}
+
+			StringBuilder versionBuilder = new StringBuilder();
+			for (byte b : messageDigest.digest()) {
+				versionBuilder.append(String.format("%02x", b));
+			}
+
+			return versionBuilder.toString();
+		} catch (NoSuchAlgorithmException nsae) {
+			LOGGER.error(nsae);
+		} catch (UnsupportedEncodingException uee) {
+			LOGGER.error(uee);
+		}
+
+		return "";
+	}
+
+	/**
+	 * Deletes a directory with all its content (if it exists).
+	 * 
+	 * @param path
+	 *  the path of the directory
+	 * 
+	 * @throws IOException
+	 *  if a file cannot be deleted
+	 */
+	private static void delete(Path path) throws IOException {
+
+		if (Files.exists(path)) {
+			try (Stream<Path> paths = Files.walk(path)) {
+				// (The contents before their directory...)
+				for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+					Files.delete(p);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import org.apache.lucene.analysis.Analyzer;
+
+import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene70.Lucene70Codec;
+
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.TextField;
+
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.TieredMergePolicy;
+
+/**
+ * An index profile, such as "compact".
+ * <p>{@code IndexProfile} is an enum representing the trade-offs between the time of the indexing, the size of the index
+ * and the latency of the searches: each profile configures together the compression of the stored fields, the RAM buffer of the writer,
+ * the merge policy (and the compound files), the postings of the content, and whether the index is merged into one segment once built.</p>
+ * <p>The profile only matters while indexing: an index is opened (read-only) whatever its profile.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public enum IndexProfile {
+
+	/**
+	 * The singleton instance for the <b>default</b> configuration of Lucene.
+	 */
+	DEFAULT("default", Lucene50StoredFieldsFormat.Mode.BEST_SPEED, IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB, 10, TieredMergePolicy.DEFAULT_NO_CFS_RATIO, true, false),
+
+	/**
+	 * The singleton instance for the <b>fastest indexing</b>: a large RAM buffer (so, few flushes), few merges and no compound files.
+	 * (The index has many segments: it is meant to be indexed often, such as by the watcher of the corpus.)
+	 */
+	FAST_BUILD("fast-build", Lucene50StoredFieldsFormat.Mode.BEST_SPEED, 256, 50, 0, true, false),
+
+	/**
+	 * The singleton instance for the <b>fastest searches</b>: the stored fields are lightly compressed (so, fast to fetch),
+	 * there is no compound file and the index is merged into one segment once built.
+	 */
+	READ_OPTIMIZED("read-optimized", Lucene50StoredFieldsFormat.Mode.BEST_SPEED, 64, 10, 0, true, true),
+
+	/**
+	 * The singleton instance for the <b>smallest index</b>: the stored fields are highly compressed, the offsets of the terms are not indexed
+	 * (the snippets are then built by analysing the texts again), and the index is merged into one compound segment once built.
+	 */
+	COMPACT("compact", Lucene50StoredFieldsFormat.Mode.BEST_COMPRESSION, IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB, 10, 1, false, true);
+
+	private final String name;
+
+	private final Lucene50StoredFieldsFormat.Mode storedFieldsMode;
+
+	private final double ramBufferSizeMB;
+
+	private final int segmentsPerTier;
+
+	private final double noCFSRatio;
+
+	private final FieldType contentFieldType;
+
+	private final boolean forceMerged;
+
+	private IndexProfile(String name, Lucene50StoredFieldsFormat.Mode storedFieldsMode, double ramBufferSizeMB, int segmentsPerTier,
+			double noCFSRatio, boolean offsetsIndexed, boolean forceMerged) {
+
+		this.name = name;
+		this.storedFieldsMode = storedFieldsMode;
+		this.ramBufferSizeMB = ramBufferSizeMB;
+		this.segmentsPerTier = segmentsPerTier;
+		this.noCFSRatio = noCFSRatio;
+		this.forceMerged = forceMerged;
+
+		// The type of the field of the content: stored and indexed, with the offsets of the terms (if requested),
+		// so that the snippets are built from the postings (without analysing the text again)...
+		contentFieldType = new FieldType(TextField.TYPE_STORED);
+		if (offsetsIndexed) {
+			contentFieldType.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+		}
+		contentFieldType.freeze();
+	}
+
+	/**
+	 * Returns the name of the profile.
+	 * 
+	 * @return the name of the profile
+	 */
+	public String getName() {
+
+		return name;
+	}
+
+	/**
+	 * Returns whether the index is merged into one segment once built.
+	 * 
+	 * @return <i>true</i>, if the index is merged once built
+	 */
+	public boolean isForceMerged() {
+
+		return forceMerged;
+	}
+
+	/**
+	 * Returns the type of the field of the content of the texts.
+	 * 
+	 * @return the field type (frozen)
+	 */
+	FieldType getContentFieldType() {
+
+		return contentFieldType;
+	}
+
+	/**
+	 * Returns a new configuration of an index writer, according to the profile.
+	 * 
+	 * @param analyzer
+	 *  the analyzer of the texts
+	 * @param mergePolicy
+	 *  the merge policy (or <i>null</i>, for the tiered merge policy of the profile)
+	 * 
+	 * @return the configuration
+	 */
+	IndexWriterConfig newIndexWriterConfig(Analyzer analyzer, MergePolicy mergePolicy) {
+
+		IndexWriterConfig indexWriterConfig = new IndexWriterConfig(analyzer);
+		indexWriterConfig.setCodec(new Lucene70Codec(storedFieldsMode));
+		indexWriterConfig.setRAMBufferSizeMB(ramBufferSizeMB);
+		if (mergePolicy == null) {
+			TieredMergePolicy tieredMergePolicy = new TieredMergePolicy();
+			tieredMergePolicy.setSegmentsPerTier(segmentsPerTier);
+			tieredMergePolicy.setMaxMergeAtOnce(Math.max(segmentsPerTier, 10));
+			mergePolicy = tieredMergePolicy;
+		}
+		mergePolicy.setNoCFSRatio(noCFSRatio);
+		indexWriterConfig.setMergePolicy(mergePolicy);
+		// (The newly flushed segments are compound files only if the merged segments could be.)
+		indexWriterConfig.setUseCompoundFile(noCFSRatio > 0);
+
+		return indexWriterConfig;
+	}
+
+	/**
+	 * Returns the profile of a name.
+	 * 
+	 * @param name
+	 *  the name of the profile (such as "compact")
+	 * 
+	 * @return the profile
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if no profile has this name
+	 */
+	public static IndexProfile forName(String name) {
+
+		for (IndexProfile indexProfile : values()) {
+			if ((indexProfile.name).equals(name)) {
+				return indexProfile;
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown index profile: \"" + name + "\".");
+	}
+
+}
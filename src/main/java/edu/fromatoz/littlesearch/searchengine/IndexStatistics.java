@@ -0,0 +1,343 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code IndexStatistics} class defines the statistics of an index, as it is searched (see {@code Littlesearch.getIndexStatistics()}):
+ * <ul>
+ * <li>the number of its documents and of its segments;</li>
+ * <li>for each field, the number of its (unique) terms, of the documents having it, of its postings (the pairs of a term and a document)
+ * and of its positions, and the bytes of its stored values (uncompressed, as they are read);</li>
+ * <li>the bytes of its files, by part of the index (the postings, the terms dictionary, the stored fields...):
+ * the files of a compound segment are counted as the files which it contains.</li>
+ * </ul>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class IndexStatistics {
+
+	// The part of the index of each extension of the files of a segment (the other files are counted as "other")...
+	private static final Map<String, String> FILE_PARTS = new HashMap<>();
+	static {
+		FILE_PARTS.put("doc", "postings");
+		FILE_PARTS.put("pos", "positions");
+		FILE_PARTS.put("pay", "positions");
+		FILE_PARTS.put("tim", "terms dictionary");
+		FILE_PARTS.put("tip", "terms dictionary");
+		FILE_PARTS.put("fdt", "stored fields");
+		FILE_PARTS.put("fdx", "stored fields");
+		FILE_PARTS.put("tvd", "term vectors");
+		FILE_PARTS.put("tvx", "term vectors");
+		FILE_PARTS.put("nvd", "norms");
+		FILE_PARTS.put("nvm", "norms");
+		FILE_PARTS.put("dvd", "doc values");
+		FILE_PARTS.put("dvm", "doc values");
+	}
+
+	// The format of a line of the fields...
+	private static final String FIELD_LINE_FORMAT = "%-16s %10s %10s %12s %12s %14s";
+
+	private final int documentCount;
+
+	private final int maxDocument;
+
+	private final int segmentCount;
+
+	private final Map<String, FieldStatistics> fieldStatistics = new TreeMap<>();
+
+	private final Map<String, Long> fileBytes = new TreeMap<>();
+
+	/**
+	 * Computes the statistics of an index (reading all its terms and all its stored fields: this is meant for diagnosing, not for each search).
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be read
+	 */
+	IndexStatistics(IndexReader reader) throws IOException {
+
+		documentCount = reader.numDocs();
+		maxDocument = reader.maxDoc();
+		segmentCount = reader.leaves().size();
+
+		// Counts the terms, the postings and the positions of each indexed field...
+		for (FieldInfo fieldInfo : MultiFields.getMergedFieldInfos(reader)) {
+			FieldStatistics statistics = fieldStatistics.computeIfAbsent(fieldInfo.name, FieldStatistics::new);
+			Terms terms = MultiFields.getTerms(reader, fieldInfo.name);
+			if (terms != null) {
+				// (The terms of several segments are merged, so that a term of several segments is counted once.)
+				TermsEnum termsEnum = terms.iterator();
+				while (termsEnum.next() != null) {
+					statistics.termCount++;
+				}
+				statistics.documentCount = terms.getDocCount();
+				statistics.postingCount = terms.getSumDocFreq();
+				statistics.positionCount = terms.getSumTotalTermFreq();
+			}
+		}
+
+		for (LeafReaderContext leaf : reader.leaves()) {
+			// Counts the bytes of the stored fields of the (live) documents...
+			LeafReader leafReader = leaf.reader();
+			Bits liveDocs = leafReader.getLiveDocs();
+			StoredBytesVisitor visitor = new StoredBytesVisitor();
+			for (int doc = 0; doc < leafReader.maxDoc(); doc++) {
+				if ((liveDocs == null) || liveDocs.get(doc)) {
+					leafReader.document(doc, visitor);
+				}
+			}
+			// Counts the bytes of the files of the segment...
+			if (leafReader instanceof SegmentReader) {
+				addFileBytes(((SegmentReader) leafReader).getSegmentInfo());
+			}
+		}
+	}
+
+	/**
+	 * Adds the bytes of the files of a segment (those which a compound segment contains, rather than its compound file).
+	 * 
+	 * @param segmentInfo
+	 *  the information of the segment
+	 * 
+	 * @throws IOException
+	 *  if the files cannot be read
+	 */
+	private void addFileBytes(SegmentCommitInfo segmentInfo) throws IOException {
+
+		Directory directory = segmentInfo.info.dir;
+		if (segmentInfo.info.getUseCompoundFile()) {
+			try (Directory compoundDirectory = segmentInfo.info.getCodec().compoundFormat().getCompoundReader(directory, segmentInfo.info, IOContext.READONCE)) {
+				for (String fileName : compoundDirectory.listAll()) {
+					addFileBytes(fileName, compoundDirectory.fileLength(fileName));
+				}
+			}
+		}
+		for (String fileName : segmentInfo.files()) {
+			if (!(segmentInfo.info.getUseCompoundFile() && (fileName.endsWith(".cfs") || fileName.endsWith(".cfe")))) {
+				addFileBytes(fileName, directory.fileLength(fileName));
+			}
+		}
+	}
+
+	private void addFileBytes(String fileName, long bytes) {
+
+		String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+		fileBytes.merge(FILE_PARTS.getOrDefault(extension, "other"), bytes, Long::sum);
+	}
+
+	/**
+	 * Returns the number of the (live) documents of the index.
+	 * 
+	 * @return the number of the documents
+	 */
+	public int getDocumentCount() {
+
+		return documentCount;
+	}
+
+	/**
+	 * Returns the number of the documents of the index, including the deleted documents which are not merged away yet.
+	 * 
+	 * @return the maximum number of the documents
+	 */
+	public int getMaxDocument() {
+
+		return maxDocument;
+	}
+
+	/**
+	 * Returns the number of the segments of the index.
+	 * 
+	 * @return the number of the segments
+	 */
+	public int getSegmentCount() {
+
+		return segmentCount;
+	}
+
+	/**
+	 * Returns the statistics of the fields of the index.
+	 * 
+	 * @return the map of the names of the fields to their statistics
+	 */
+	public Map<String, FieldStatistics> getFieldStatistics() {
+
+		return Collections.unmodifiableMap(fieldStatistics);
+	}
+
+	/**
+	 * Returns the bytes of the files of the index, by part of the index
+	 * ("postings", "positions", "terms dictionary", "stored fields", "term vectors", "norms", "doc values" or "other").
+	 * 
+	 * @return the map of the parts of the index to the bytes of their files
+	 */
+	public Map<String, Long> getFileBytes() {
+
+		return Collections.unmodifiableMap(fileBytes);
+	}
+
+	/**
+	 * Returns the statistics as a text: one line per field, then one line per part of the index.
+	 */
+	@Override
+	public String toString() {
+
+		StringBuilder statisticsBuilder = new StringBuilder();
+
+		statisticsBuilder.append(String.format("%d documents (%d with the deleted ones), %d segments", documentCount, maxDocument, segmentCount));
+		statisticsBuilder.append((Separator.NEW_LINE).getValue());
+		statisticsBuilder.append(String.format(FIELD_LINE_FORMAT, "field", "terms", "documents", "postings", "positions", "stored bytes"));
+		for (FieldStatistics statistics : fieldStatistics.values()) {
+			statisticsBuilder.append((Separator.NEW_LINE).getValue());
+			statisticsBuilder.append(String.format(FIELD_LINE_FORMAT, statistics.name, statistics.termCount, statistics.documentCount,
+					statistics.postingCount, statistics.positionCount, statistics.storedBytes));
+		}
+		long totalBytes = 0;
+		for (Map.Entry<String, Long> partBytes : fileBytes.entrySet()) {
+			statisticsBuilder.append((Separator.NEW_LINE).getValue());
+			statisticsBuilder.append(String.format("%-16s %s", partBytes.getKey(), RamUsageEstimator.humanReadableUnits(partBytes.getValue())));
+			totalBytes += partBytes.getValue();
+		}
+		statisticsBuilder.append((Separator.NEW_LINE).getValue());
+		statisticsBuilder.append(String.format("%-16s %s", "files", RamUsageEstimator.humanReadableUnits(totalBytes)));
+
+		return statisticsBuilder.toString();
+	}
+
+	/**
+	 * The {@code FieldStatistics} class defines the statistics of a field
+	 * (a count which the codec does not record, such as the positions of a field without positions, is -1).
+	 */
+	public static class FieldStatistics {
+
+		private final String name;
+
+		private long termCount;
+
+		private int documentCount;
+
+		private long postingCount;
+
+		private long positionCount;
+
+		private long storedBytes;
+
+		private FieldStatistics(String name) {
+
+			this.name = name;
+		}
+
+		public String getName() {
+
+			return name;
+		}
+
+		public long getTermCount() {
+
+			return termCount;
+		}
+
+		public int getDocumentCount() {
+
+			return documentCount;
+		}
+
+		public long getPostingCount() {
+
+			return postingCount;
+		}
+
+		public long getPositionCount() {
+
+			return positionCount;
+		}
+
+		public long getStoredBytes() {
+
+			return storedBytes;
+		}
+
+	}
+
+	/**
+	 * The {@code StoredBytesVisitor} class defines a visitor of the stored fields, which adds their bytes to the statistics of their field.
+	 */
+	private class StoredBytesVisitor extends StoredFieldVisitor {
+
+		@Override
+		public Status needsField(FieldInfo fieldInfo) {
+
+			return Status.YES;
+		}
+
+		@Override
+		public void stringField(FieldInfo fieldInfo, byte[] value) {
+
+			addStoredBytes(fieldInfo, value.length);
+		}
+
+		@Override
+		public void binaryField(FieldInfo fieldInfo, byte[] value) {
+
+			addStoredBytes(fieldInfo, value.length);
+		}
+
+		@Override
+		public void intField(FieldInfo fieldInfo, int value) {
+
+			addStoredBytes(fieldInfo, Integer.BYTES);
+		}
+
+		@Override
+		public void longField(FieldInfo fieldInfo, long value) {
+
+			addStoredBytes(fieldInfo, Long.BYTES);
+		}
+
+		@Override
+		public void floatField(FieldInfo fieldInfo, float value) {
+
+			addStoredBytes(fieldInfo, Float.BYTES);
+		}
+
+		@Override
+		public void doubleField(FieldInfo fieldInfo, double value) {
+
+			addStoredBytes(fieldInfo, Double.BYTES);
+		}
+
+		private void addStoredBytes(FieldInfo fieldInfo, long bytes) {
+
+			fieldStatistics.computeIfAbsent(fieldInfo.name, FieldStatistics::new).storedBytes += bytes;
+		}
+
+	}
+
+}
@@ -0,0 +1,75 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import org.apache.lucene.analysis.CharArrayMap;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.StopwordAnalyzerBase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.fr.FrenchLightStemFilter;
+
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+import org.apache.lucene.analysis.util.ElisionFilter;
+
+/**
+ * The {@code LemmatizingAnalyzer} class defines the analyzer of the content, at the indexing as at the searches:
+ * the one of the {@link FrenchAnalyzer} (with its default stop words), but the words which the data warehouse knows
+ * are replaced by their lemma (see {@link LemmatizingFilter}), only the unknown words being (lightly) stemmed.
+ * <p>The lemmas are read once, when the analyzer is first used (those of an {@link IndexArtifact}, if it is opened before).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+class LemmatizingAnalyzer extends StopwordAnalyzerBase {
+
+	// The lemmas (read when they are first needed)...
+	private volatile CharArrayMap<String> lemmas;
+
+	LemmatizingAnalyzer() {
+
+		super(FrenchAnalyzer.getDefaultStopSet());
+	}
+
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName) {
+
+		Tokenizer source = new StandardTokenizer();
+		TokenStream result = new ElisionFilter(source, FrenchAnalyzer.DEFAULT_ARTICLES);
+		result = new LowerCaseFilter(result);
+		result = new StopFilter(result, stopwords);
+		result = new LemmatizingFilter(result, getLemmas());
+		result = new FrenchLightStemFilter(result);
+
+		return new TokenStreamComponents(source, result);
+	}
+
+	@Override
+	protected TokenStream normalize(String fieldName, TokenStream in) {
+
+		return new LowerCaseFilter(new ElisionFilter(in, FrenchAnalyzer.DEFAULT_ARTICLES));
+	}
+
+	/**
+	 * Returns the lemmas, read once.
+	 * 
+	 * @return the lemmas
+	 */
+	private CharArrayMap<String> getLemmas() {
+
+		CharArrayMap<String> currentLemmas = lemmas;
+		if (currentLemmas == null) {
+			synchronized (this) {
+				if (lemmas == null) {
+					lemmas = LemmatizingFilter.toCharArrayMap(Synonymysearch.getLemmas());
+				}
+				currentLemmas = lemmas;
+			}
+		}
+
+		return currentLemmas;
+	}
+
+}
@@ -0,0 +1,81 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.CharArrayMap;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+/**
+ * The {@code LemmatizingFilter} class defines a token filter which replaces each known form by its lemma
+ * ("mathématiciennes" by "mathématicien", "beaux" by "beau"), the lemmas being those of the data warehouse
+ * (see {@code Synonymysearch.getLemmas()}).
+ * <p>The lemmatized terms are marked as keywords, so that the next stemmer leaves them as they are:
+ * only the unknown words are then stemmed.</p>
+ * <p>The terms are looked up as they are (as characters, without creating a string per term):
+ * they should already be lower-cased.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+final class LemmatizingFilter extends TokenFilter {
+
+	private final CharTermAttribute charTermAttribute = addAttribute(CharTermAttribute.class);
+
+	private final KeywordAttribute keywordAttribute = addAttribute(KeywordAttribute.class);
+
+	private final CharArrayMap<String> lemmas;
+
+	/**
+	 * Constructs a filter which lemmatizes the terms of a token stream.
+	 * 
+	 * @param input
+	 *  the token stream
+	 * @param lemmas
+	 *  the lemma of each known form (see {@code toCharArrayMap(Map)})
+	 */
+	LemmatizingFilter(TokenStream input, CharArrayMap<String> lemmas) {
+
+		super(input);
+		this.lemmas = lemmas;
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+
+		if (!(input.incrementToken())) {
+			return false;
+		}
+
+		if (!(keywordAttribute.isKeyword())) {
+			String lemma = lemmas.get(charTermAttribute.buffer(), 0, charTermAttribute.length());
+			if (lemma != null) {
+				charTermAttribute.setEmpty().append(lemma);
+				keywordAttribute.setKeyword(true);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the lemmas of the forms, as a map which could be searched by characters.
+	 * 
+	 * @param lemmas
+	 *  the map of the forms (lower-cased) to their lemma
+	 * 
+	 * @return the map (read-only)
+	 */
+	static CharArrayMap<String> toCharArrayMap(Map<String, String> lemmas) {
+
+		CharArrayMap<String> charArrayMap = new CharArrayMap<>(lemmas.size(), false);
+		charArrayMap.putAll(lemmas);
+
+		return CharArrayMap.unmodifiableMap(charArrayMap);
+	}
+
+}
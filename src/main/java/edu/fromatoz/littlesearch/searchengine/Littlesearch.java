@@ -1,89 +1,414 @@
 package edu.fromatoz.littlesearch.searchengine;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
+import java.nio.charset.StandardCharsets;
+
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.log4j.Logger;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 
-import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 
-import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 
-import org.apache.lucene.queryparser.classic.ParseException;
-import org.apache.lucene.queryparser.classic.QueryParser;
-
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SynonymQuery;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 
+import org.apache.lucene.search.join.BitSetProducer;
+import org.apache.lucene.search.join.ParentChildrenBlockJoinQuery;
+import org.apache.lucene.search.join.QueryBitSetProducer;
+import org.apache.lucene.search.join.ScoreMode;
+import org.apache.lucene.search.join.ToParentBlockJoinQuery;
+
+import org.apache.lucene.search.spans.SpanNearQuery;
+import org.apache.lucene.search.spans.SpanQuery;
+import org.apache.lucene.search.spans.SpanTermQuery;
+
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.BytesRef;
+
 import edu.fromatoz.littlesearch.app.SearchEngine;
 
+import edu.fromatoz.littlesearch.metrics.IndexEvent;
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.SearchEvent;
+import edu.fromatoz.littlesearch.metrics.Stage;
+
+import edu.fromatoz.littlesearch.tool.RamEstimator;
 import edu.fromatoz.littlesearch.tool.Separator;
+import edu.fromatoz.littlesearch.tool.ValuesFileReader;
 
 /**
  * The {@code Littlesearch} class defines a search engine.
  * <p>
  * Therefore, this class provides the methods for indexing then searching:
  * <ul>
- * <li>{@code index(String... texts)}</li>
+ * <li>{@code indexTexts()}</li>
+ * <li>{@code indexTexts(File corpusDirectory)}</li>
+ * <li>{@code correct(String words)}</li>
+ * <li>{@code suggest(String prefix, int count)}</li>
  * <li>{@code search(String words)}</li>
+ * <li>{@code search(SearchQuery searchQuery, boolean profile)}</li>
  * </ul>
+ * <p>In the <i>passage mode</i>, each text is indexed as a block of documents: one document per passage (paragraph)
+ * followed by the document of the text itself (the <i>parent</i>, keyed by its path); the passages are searched,
+ * then the results are grouped back to the texts (by block join), the best passage being the snippet.</p>
+ * <p>An instance of {@code Littlesearch} owns the directory, the writer and the searchers of its index:
+ * it is safe for many concurrent callers (each search acquires a searcher from a {@link SearcherManager},
+ * which is refreshed after each commit).</p>
+ * <p>Optionally, each search could itself be parallelised: the searchers are then given an {@link ExecutorService},
+ * which searches the slices (the segments) of the index in parallel; the index is then kept at a target number
+ * of segments (see {@link SegmentCountMergePolicy}).</p>
+ * <p>The compression, the buffering and the merging of the index are configured together by a profile (see {@link IndexProfile}).</p>
+ * <p>An index which is already built (see {@link IndexArtifact}) could also be opened read-only,
+ * without any writer ({@code openReadOnly(Path, boolean)}).</p>
+ * <p>Several corpora could be indexed into as many indexes (the <i>shards</i>), then searched together (see {@link ShardedLittlesearch}).</p>
+ * <p>The heap which an instance retains could be estimated, by component ({@code ramBytesUsed()} and {@code getChildResources()}),
+ * and the statistics of its index could be computed ({@code getIndexStatistics()}).</p>
  * 
  * @author Andrei Zabolotnîi
  * @author Cyril Marilier
  */
-public class Littlesearch {
+public class Littlesearch implements Accountable, Closeable {
 
 	/**
 	 * Logger
 	 */
 	private static final Logger LOGGER = Logger.getLogger(Littlesearch.class);
 
-	// The Analyzer as a FrenchAnalyzer (constructed with the default stop words for the French language).
-	private static final Analyzer ANALYZER = new FrenchAnalyzer();
+	// The Analyzer as a FrenchAnalyzer (with the default stop words for the French language), which lemmatizes the words known
+	// by the data warehouse instead of stemming them (see LemmatizingAnalyzer).
+	// (An analyzer can be shared by several threads.)
+	private static final Analyzer ANALYZER = new LemmatizingAnalyzer();
+
+	// The name of the field which should contain the unstemmed content of text (for the exact words and the phrases)...
+	private static final String EXACT_FIELD_NAME = "exact_content";
+
+	// The type of the field which should contain the unstemmed content of text: indexed with the positions of the terms, not stored...
+	private static final FieldType EXACT_FIELD_TYPE = TextField.TYPE_NOT_STORED;
+
+	// The Analyzer of the index: the lemmatizing analyzer, but for the unstemmed content (see ExactAnalyzer)...
+	private static final Analyzer INDEX_ANALYZER = new PerFieldAnalyzerWrapper(ANALYZER, Collections.singletonMap(EXACT_FIELD_NAME, new ExactAnalyzer()));
 
 	// The name of the field which should contain the content of text...
 	private static final String CONTENT_FIELD_NAME = "content";
 
+	// The number of documents found by a search (the best ones)...
+	static final int TOP_DOCUMENTS_COUNT = 5;
+
+	// The maximum number of passages in the snippet of a document...
+	private static final int SNIPPET_PASSAGES_COUNT = 2;
+
 	// The name of the field which should contain the path of a text file...
 	private static final String PATH_FIELD_NAME = "path";
 
-	// The directory where the index will be stored:
-	private static Directory indexDirectory;
+	// The name of the field which should contain the type of a document (only the parent documents, in the passage mode)...
+	private static final String TYPE_FIELD_NAME = "type";
+
+	// The type of a document which is the parent of the documents of its passages...
+	private static final String TEXT_TYPE = "text";
+
+	// The query of the parent documents (in the passage mode)...
+	private static final Query PARENTS_QUERY = new TermQuery(new Term(TYPE_FIELD_NAME, TEXT_TYPE));
 
-	// The reader of the index:
-	private static DirectoryReader indexReader;
+	// The filter of the parent documents (in the passage mode)...
+	private static final BitSetProducer PARENTS_FILTER = new QueryBitSetProducer(PARENTS_QUERY);
+
+	// The name of the directory of the index...
+	private static final String INDEX_DIRECTORY_NAME = "littlesearch_index";
+
+	// The name of the directory of the index, in the passage mode...
+	private static final String PASSAGES_INDEX_DIRECTORY_NAME = "littlesearch_passages_index";
+
+	// The terms of the synonyms (analysed once, then reused by all the queries)...
+	private static final Map<String, List<String>> SYNONYM_TERMS = new ConcurrentHashMap<>();
+
+	// The name of the values file of the proper nouns...
+	private static final String PROPER_NOUNS_FILE_NAME = "proper.nouns";
+
+	// The metrics of the stages of the indexing and of the searches...
+	private static final Stage INDEX_STAGE = Metrics.stage("littlesearch.index");
+	private static final Stage CORRECT_STAGE = Metrics.stage("littlesearch.correct");
+	private static final Stage PARSE_STAGE = Metrics.stage("littlesearch.parse");
+	private static final Stage SEARCH_STAGE = Metrics.stage("littlesearch.search");
+	private static final Stage HIGHLIGHT_STAGE = Metrics.stage("littlesearch.highlight");
+	private static final Stage STORED_FIELDS_STAGE = Metrics.stage("littlesearch.stored_fields");
+
+	// Whether the texts are indexed (then searched) passage by passage:
+	private final boolean passageMode;
+
+	// The target number of segments of the index (0, if the merge policy of the profile is used):
+	private final int segmentCount;
+
+	// The profile of the index (the compression, the buffering and the merging of the index):
+	private final IndexProfile indexProfile;
+
+	// The directory where the index will be stored:
+	private final Directory indexDirectory;
 
 	// The writer of the index:
-	private static IndexWriter indexWriter;
+	private final IndexWriter indexWriter;
+
+	// The manager of the searchers of the index (each search acquires, then releases, the current searcher):
+	private final SearcherManager searcherManager;
+
+	// The spellchecker (built from the surface forms of the index, of the data warehouse and of the proper nouns):
+	private volatile Spellchecker spellchecker;
+
+	// The suggester (rebuilt from the surface forms of the index, after each commit or refresh, and from the lexicon):
+	private volatile Suggester suggester;
+
+	// Whether texts have been indexed (or deleted) since the last refresh (then, the refresh rebuilds the spellchecker and the suggester):
+	private volatile boolean textsChanged;
+
+	// The lexicon (the canonical forms of the data warehouse and the proper nouns), read once for all the builds of the suggester:
+	private Set<String> lexicon;
+
+	/**
+	 * Constructs a search engine, of which the index is stored in the temporary directory.
+	 * 
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	public Littlesearch(boolean passageMode) throws IOException {
+
+		// (Each mode has its own index, the layouts of the documents being different.)
+		this(Paths.get(System.getProperty("java.io.tmpdir"), (Separator.SLASH).getValue(), passageMode ? PASSAGES_INDEX_DIRECTORY_NAME : INDEX_DIRECTORY_NAME), passageMode);
+	}
+
+	/**
+	 * Constructs a search engine.
+	 * 
+	 * @param indexPath
+	 *  the path of the directory where the index is going to be stored
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	public Littlesearch(Path indexPath, boolean passageMode) throws IOException {
+
+		this(indexPath, passageMode, null, 0);
+	}
+
+	/**
+	 * Constructs a search engine, of which each search could be parallelised across the segments of the index.
+	 * 
+	 * @param indexPath
+	 *  the path of the directory where the index is going to be stored
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * @param searchExecutor
+	 *  the executor which searches the slices of the index in parallel (or <i>null</i>, for searching them in the calling thread);
+	 *  it is not shut down by the search engine
+	 * @param segmentCount
+	 *  the target number of segments of the index (or 0, for the default merge policy)
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	public Littlesearch(Path indexPath, boolean passageMode, ExecutorService searchExecutor, int segmentCount) throws IOException {
+
+		this(indexPath, passageMode, searchExecutor, segmentCount, IndexProfile.DEFAULT);
+	}
+
+	/**
+	 * Constructs a search engine, of which the index is configured by a profile (see {@link IndexProfile}).
+	 * 
+	 * @param indexPath
+	 *  the path of the directory where the index is going to be stored
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * @param searchExecutor
+	 *  the executor which searches the slices of the index in parallel (or <i>null</i>, for searching them in the calling thread);
+	 *  it is not shut down by the search engine
+	 * @param segmentCount
+	 *  the target number of segments of the index (or 0, for the merge policy of the profile)
+	 * @param indexProfile
+	 *  the profile of the index
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	public Littlesearch(Path indexPath, boolean passageMode, ExecutorService searchExecutor, int segmentCount, IndexProfile indexProfile) throws IOException {
+
+		this.passageMode = passageMode;
+		this.segmentCount = segmentCount;
+		this.indexProfile = indexProfile;
+
+		// Opens the directory, on the disk, where the index is going to be stored.
+		indexDirectory = FSDirectory.open(indexPath);
+
+		// Defines a configuration for giving the analyzer to the index writer (and the codec, the RAM buffer and the merge policy of the profile)...
+		IndexWriterConfig indexWriterConfig = indexProfile.newIndexWriterConfig(INDEX_ANALYZER, (segmentCount > 0) ? new SegmentCountMergePolicy(segmentCount) : null);
+		indexWriterConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+
+		// Creates an index writer, then the manager of the searchers (which see what the writer has committed).
+		indexWriter = new IndexWriter(indexDirectory, indexWriterConfig);
+		searcherManager = new SearcherManager(indexWriter, newSearcherFactory(searchExecutor));
+	}
+
+	/**
+	 * Constructs a search engine on an index which is already built, read-only (without any writer).
+	 * 
+	 * @param indexDirectory
+	 *  the directory of the index
+	 * @param passageMode
+	 *  <i>true</i>, if the texts have been indexed passage by passage
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	private Littlesearch(Directory indexDirectory, boolean passageMode) throws IOException {
+
+		this.passageMode = passageMode;
+		this.segmentCount = 0;
+		// (The profile only matters while indexing.)
+		this.indexProfile = IndexProfile.DEFAULT;
+		this.indexDirectory = indexDirectory;
+
+		indexWriter = null;
+		searcherManager = new SearcherManager(indexDirectory, newSearcherFactory(null));
+	}
+
+	/**
+	 * Opens a search engine on an index which is already built (see {@link IndexArtifact}), read-only:
+	 * the texts cannot be indexed, and the spellchecker and the suggester are only built when they are first needed
+	 * (so that the first search does not wait for them).
+	 * 
+	 * @param indexPath
+	 *  the path of the directory of the index
+	 * @param passageMode
+	 *  <i>true</i>, if the texts have been indexed passage by passage
+	 * 
+	 * @return the search engine
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be opened
+	 */
+	public static Littlesearch openReadOnly(Path indexPath, boolean passageMode) throws IOException {
+
+		Directory directory = FSDirectory.open(indexPath);
+		try {
+			return new Littlesearch(directory, passageMode);
+		} catch (IOException ioe) {
+			directory.close();
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Returns a factory of searchers, which search the slices of the index with an executor (if any).
+	 * 
+	 * @param searchExecutor
+	 *  the executor which searches the slices of the index in parallel (or <i>null</i>, for searching them in the calling thread)
+	 * 
+	 * @return the factory of searchers
+	 */
+	private static SearcherFactory newSearcherFactory(ExecutorService searchExecutor) {
+
+		return new SearcherFactory() {
+
+			@Override
+			public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+
+				return new IndexSearcher(reader, searchExecutor);
+			}
+
+		};
+	}
+
+	/**
+	 * Returns whether the texts are indexed (then searched) passage by passage.
+	 * 
+	 * @return <i>true</i>, in the passage mode; <i>false</i>, otherwise
+	 */
+	public boolean isPassageMode() {
 
-	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
-	private Littlesearch() {
+		return passageMode;
+	}
+
+	/**
+	 * Returns the profile of the index.
+	 * 
+	 * @return the profile (the default one, if the index is read-only)
+	 */
+	public IndexProfile getIndexProfile() {
+
+		return indexProfile;
+	}
+
+	/**
+	 * Returns whether the index is read-only (so, whether the texts cannot be indexed).
+	 * 
+	 * @return <i>true</i>, if the search engine has been opened by {@code openReadOnly(Path, boolean)}; <i>false</i>, otherwise
+	 */
+	public boolean isReadOnly() {
 
-		throw new IllegalStateException("Littlesearch class");
+		return indexWriter == null;
 	}
 
 	/**
@@ -91,33 +416,88 @@ public class Littlesearch {
 	 * 
 	 * @return <i>true</i>, if the indexing is successful; <i>false</i>, if it isn't
 	 */
-	public static boolean indexTexts() {
+	public boolean indexTexts() {
 
-		try {
-			// Opens the directory, on the disk (normally in a temporary way), where the index is going to be stored.
-			indexDirectory = FSDirectory.open(Paths.get(System.getProperty("java.io.tmpdir"), (Separator.SLASH).getValue(), "littlesearch_index"));
+		return indexTexts(SearchEngine.TEXT_CORPUS_DIRECTORY);
+	}
+
+	/**
+	 * Tries to index the texts of another corpus (the texts already indexed are kept, or updated).
+	 * 
+	 * @param corpusDirectory
+	 *  the directory of the corpus
+	 * 
+	 * @return <i>true</i>, if the indexing is successful; <i>false</i>, if it isn't
+	 */
+	public boolean indexTexts(File corpusDirectory) {
+
+		return indexTexts(corpusDirectory, false);
+	}
+
+	/**
+	 * Tries to index the texts of a corpus again, from scratch: the texts which are no longer in the corpus are not found any more.
+	 * (The searches see the previous index until the new one is committed.)
+	 * 
+	 * @param corpusDirectory
+	 *  the directory of the corpus
+	 * 
+	 * @return <i>true</i>, if the indexing is successful; <i>false</i>, if it isn't
+	 */
+	public boolean rebuildTexts(File corpusDirectory) {
+
+		return indexTexts(corpusDirectory, true);
+	}
 
-			// Defines a configuration for giving the analyzer to the index writer...
-			IndexWriterConfig indexWriterConfig = new IndexWriterConfig(ANALYZER);
-			indexWriterConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+	/**
+	 * Tries to index the texts of a corpus.
+	 * 
+	 * @param corpusDirectory
+	 *  the directory of the corpus
+	 * @param rebuild
+	 *  <i>true</i>, for deleting all the documents of the index before
+	 * 
+	 * @return <i>true</i>, if the indexing is successful; <i>false</i>, if it isn't
+	 */
+	private boolean indexTexts(File corpusDirectory, boolean rebuild) {
 
-			// Creates an index writer.
-			indexWriter = new IndexWriter(indexDirectory, indexWriterConfig);
+		checkWritable();
 
+		try {
 			// Checks whether the TC is a directory...
-			if ((SearchEngine.TEXT_CORPUS_DIRECTORY).isDirectory()) {
-				// Checks whether the TC (as a directory) is empty...
-				if (((SearchEngine.TEXT_CORPUS_DIRECTORY).list()).length > 0) {
-					// Gets the files of the TC
-					File[] files = (SearchEngine.TEXT_CORPUS_DIRECTORY).listFiles();
-					for (File file : files) {
-						index(file);
+			if (corpusDirectory.isDirectory()) {
+				// Gets the files of the TC
+				File[] files = corpusDirectory.listFiles();
+				// Checks whether the TC (as a directory) is empty... (A rebuilt TC could be: its deleted texts must not be found any more.)
+				if ((files.length > 0) || rebuild) {
+					if (rebuild) {
+						indexWriter.deleteAll();
+					}
+					// (For reaching the target number of segments, the texts are flushed by as many groups.)
+					int flushedFilesCount = (segmentCount > 0) ? (files.length + segmentCount - 1) / segmentCount : files.length;
+					for (int i = 0; i < files.length; i++) {
+						if (passageMode) {
+							indexPassages(files[i]);
+						} else {
+							index(files[i]);
+						}
+						if (((i + 1) % flushedFilesCount) == 0) {
+							indexWriter.flush();
+						}
+					}
+
+					// Merges the index into one segment, if the profile requests it (and if no target number of segments is requested)...
+					if (indexProfile.isForceMerged() && (segmentCount == 0)) {
+						indexWriter.forceMerge(1);
 					}
 
 					// "Commits all pending changes (added and deleted documents, segment merges, added indexes, etc.) to the index..."
 					// (Necessary to solve "org.apache.lucene.index.IndexNotFoundException: no segments* file found in MMapDirectory".)
 					indexWriter.commit();
 
+					// Makes the searchers see the new index, then rebuilds the spellchecker and the suggester from it...
+					searcherManager.maybeRefreshBlocking();
+					rebuildDictionaries();
+
 					return true;
 				} else {
 					throw new NoSuchFileException("The TC's directory is empty.");
@@ -132,25 +512,199 @@ public class Littlesearch {
 		return false;
 	}
 
+	/**
+	 * Indexes (or indexes again) the text of a file, without committing:
+	 * the text is searchable after the next {@code refresh()} (near-real-time).
+	 * 
+	 * @param textFile
+	 *  the file of a text
+	 */
+	public void indexText(File textFile) {
+
+		checkWritable();
+
+		if (passageMode) {
+			indexPassages(textFile);
+		} else {
+			index(textFile);
+		}
+		textsChanged = true;
+	}
+
+	/**
+	 * Deletes the text of a file from the index, without committing:
+	 * the text is no longer found after the next {@code refresh()} (near-real-time).
+	 * 
+	 * @param textFile
+	 *  the file of a text
+	 */
+	public void deleteText(File textFile) {
+
+		checkWritable();
+
+		try {
+			// (In the passage mode, the documents of the passages are deleted with the document of the text.)
+			indexWriter.deleteDocuments(new Term(PATH_FIELD_NAME, textFile.getPath()));
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+		textsChanged = true;
+	}
+
+	/**
+	 * Makes the searches see the texts which are indexed (or deleted) since the last refresh, without committing;
+	 * the spellchecker and the suggester are then rebuilt from the refreshed index (so, the words of the new texts are suggested).
+	 */
+	public void refresh() {
+
+		try {
+			boolean rebuilt = textsChanged;
+			// (A text which is indexed meanwhile is seen by the next refresh.)
+			textsChanged = false;
+			searcherManager.maybeRefreshBlocking();
+			if (rebuilt) {
+				rebuildDictionaries();
+			}
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+	}
+
+	/**
+	 * Rebuilds the spellchecker and the suggester from the current index.
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private void rebuildDictionaries() throws IOException {
+
+		IndexSearcher indexSearcher = searcherManager.acquire();
+		try {
+			spellchecker = buildSpellchecker(indexSearcher.getIndexReader());
+			suggester = buildSuggester(indexSearcher.getIndexReader());
+		} finally {
+			searcherManager.release(indexSearcher);
+		}
+	}
+
+	/**
+	 * Merges the segments of the index into one (which is the fastest to open and to search), then commits.
+	 * (The merge rewrites the whole index: it is meant for an index which is built once, then only searched.)
+	 * 
+	 * @return <i>true</i>, if the merge is successful; <i>false</i>, if it isn't
+	 */
+	public boolean forceMerge() {
+
+		checkWritable();
+
+		try {
+			indexWriter.forceMerge(1);
+			indexWriter.commit();
+			searcherManager.maybeRefreshBlocking();
+
+			return true;
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks that the index is not read-only.
+	 * 
+	 * @throws IllegalStateException
+	 *  if the index is read-only
+	 */
+	private void checkWritable() {
+
+		if (isReadOnly()) {
+			throw new IllegalStateException("The index is read-only.");
+		}
+	}
+
 	/**
 	 * Indexes the text of a file that is as a parameter.
 	 * 
 	 * @param textFile
 	 *  the file of a text
 	 */
-	private static void index(File textFile) {
+	private void index(File textFile) {
 
+		IndexEvent event = new IndexEvent();
+		event.begin();
+		long start = System.nanoTime();
 		try {
 			// Constructs a document from the file of which the path which is as a parameter...
 			org.apache.lucene.document.Document doc = new org.apache.lucene.document.Document();
 			// Stores the path which is as a parameter.
 			doc.add(new StringField(PATH_FIELD_NAME, textFile.getPath(), Field.Store.YES));
 			// Store the content (which is text) of the file of which the path which is as a parameter.
-			doc.add(new TextField(CONTENT_FIELD_NAME, getText(textFile), Field.Store.YES));
+			String text = getText(textFile);
+			doc.add(new Field(CONTENT_FIELD_NAME, text, indexProfile.getContentFieldType()));
+			doc.add(new Field(EXACT_FIELD_NAME, text, EXACT_FIELD_TYPE));
 			// Indexes the document... (Updates it, if it exists...)
 			indexWriter.updateDocument(new Term(PATH_FIELD_NAME, textFile.toString()), doc);
+			if (event.shouldCommit()) {
+				event.setPath(textFile.getPath());
+				event.setCharacters(text.length());
+				event.setDocuments(1);
+			}
+		} catch (IOException ioe) {
+			INDEX_STAGE.recordError();
+			LOGGER.error(ioe);
+		} finally {
+			INDEX_STAGE.record(System.nanoTime() - start);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Indexes the text of a file that is as a parameter, passage by passage:
+	 * the documents of the passages (the paragraphs) then the document of the text, as a block.
+	 * 
+	 * @param textFile
+	 *  the file of a text
+	 */
+	private void indexPassages(File textFile) {
+
+		IndexEvent event = new IndexEvent();
+		event.begin();
+		long start = System.nanoTime();
+		try {
+			String text = getText(textFile);
+
+			List<org.apache.lucene.document.Document> block = new ArrayList<>();
+			// Constructs a document for each passage of the text...
+			for (String passage : text.split((Separator.NEW_LINE).getValue())) {
+				if (!((passage.trim()).isEmpty())) {
+					org.apache.lucene.document.Document passageDoc = new org.apache.lucene.document.Document();
+					passageDoc.add(new StringField(PATH_FIELD_NAME, textFile.getPath(), Field.Store.YES));
+					passageDoc.add(new Field(CONTENT_FIELD_NAME, passage, indexProfile.getContentFieldType()));
+					passageDoc.add(new Field(EXACT_FIELD_NAME, passage, EXACT_FIELD_TYPE));
+					block.add(passageDoc);
+				}
+			}
+			// Constructs the document of the text (the last of the block, as the parent of the passages)...
+			org.apache.lucene.document.Document textDoc = new org.apache.lucene.document.Document();
+			textDoc.add(new StringField(PATH_FIELD_NAME, textFile.getPath(), Field.Store.YES));
+			textDoc.add(new StringField(TYPE_FIELD_NAME, TEXT_TYPE, Field.Store.NO));
+			// (The content is only stored: the passages are searched.)
+			textDoc.add(new StoredField(CONTENT_FIELD_NAME, text));
+			block.add(textDoc);
+			// Indexes the block... (Updates it, if it exists...)
+			indexWriter.updateDocuments(new Term(PATH_FIELD_NAME, textFile.toString()), block);
+			if (event.shouldCommit()) {
+				event.setPath(textFile.getPath());
+				event.setCharacters(text.length());
+				event.setDocuments(block.size());
+			}
 		} catch (IOException ioe) {
+			INDEX_STAGE.recordError();
 			LOGGER.error(ioe);
+		} finally {
+			INDEX_STAGE.record(System.nanoTime() - start);
+			event.commit();
 		}
 	}
 
@@ -166,7 +720,7 @@ public class Littlesearch {
 
 		String text = "";
 
-		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(textFile.toString())))) {
+		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(textFile.toString()), StandardCharsets.UTF_8))) {
 			StringBuilder textBuilder = new StringBuilder();
 			String paragraph;
 			while ((paragraph = bufferedReader.readLine()) != null) {
@@ -183,82 +737,1125 @@ public class Littlesearch {
 	}
 
 	/**
-	 * Searches, in the indexed texts, for words (which are as a parameter).
+	 * Corrects the misspelled words (which are as a parameter), before searching for them.
+	 * <p>A word is considered as misspelled when neither the index nor the data warehouse knows it:
+	 * it is then rewritten to its best correction (see {@link Spellchecker}).</p>
 	 * 
 	 * @param words
-	 *  the set of words which should be searched
+	 *  the set of words which should be corrected
 	 * 
-	 * @return the list of the documents where at least one of the words appears (this list could be empty)
+	 * @return the set of words where the misspelled words are replaced by their correction
 	 */
-	public static List<Document> search(String words) {
+	public String correct(String words) {
 
-		List<Document> documents = new ArrayList<>();
+		List<String> correctedWords = new ArrayList<>();
 
+		long start = System.nanoTime();
 		try {
-			// Opens the directory where the index was stored...
-			indexReader = DirectoryReader.open(indexDirectory);
-			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
-			// Parses a query for searching for words in the indexed content.
-			QueryParser queryParser = new QueryParser(CONTENT_FIELD_NAME, ANALYZER);
-			Query query = queryParser.parse(words);
-			// Gets meta-information of the top 5 documents (sorted by relevance, the default sorting mode)...
-			TopDocs foundDocs = indexSearcher.search(query, 5);
-			// Adds the corresponding documents to the list...
-			for (ScoreDoc hit : foundDocs.scoreDocs) {
-				documents.add(new Littlesearch.Document(hit));
+			IndexSearcher indexSearcher = searcherManager.acquire();
+			try {
+				IndexReader reader = indexSearcher.getIndexReader();
+				for (String word : words.split((Separator.SPACE).getValue())) {
+					if (!(word.isEmpty())) {
+						String lowerCaseWord = word.toLowerCase();
+						String term = analyze(word);
+						// (The spellchecker is only needed for the words which the index does not know.)
+						Spellchecker currentSpellchecker = ((term == null) || (reader.docFreq(new Term(CONTENT_FIELD_NAME, term)) > 0)) ? null : getSpellchecker(reader);
+						if ((currentSpellchecker == null) || currentSpellchecker.contains(lowerCaseWord)) {
+							correctedWords.add(word);
+						} else {
+							String correctedWord = matchCapital(word, currentSpellchecker.correct(lowerCaseWord));
+							// For monitoring... (At the debug level only: every query of a batch or of a load is corrected.)
+							if (LOGGER.isDebugEnabled()) {
+								LOGGER.debug("\"" + word + "\" -> \"" + correctedWord + "\"");
+							}
+							correctedWords.add(correctedWord);
+						}
+					}
+				}
+			} finally {
+				searcherManager.release(indexSearcher);
 			}
 		} catch (IOException ioe) {
+			CORRECT_STAGE.recordError();
 			LOGGER.error(ioe);
-		} catch (ParseException pe) {
-			LOGGER.error(pe);
+
+			return words;
 		} finally {
-			try {
-				if (indexReader != null) {
-					indexReader.close();
-				}
-				if (indexDirectory != null) {
-					indexDirectory.close();
-				}
-			} catch (IOException ioe) {
-				LOGGER.error(ioe);
-			}
+			CORRECT_STAGE.record(System.nanoTime() - start);
 		}
 
-        return documents;
+		return String.join((Separator.SPACE).getValue(), correctedWords);
 	}
 
-	public static class Document {
+	/**
+	 * Returns the correction of a word, with a capital if the word has one (the surface forms of the index being in lower case).
+	 * 
+	 * @param word
+	 *  the word, as it is typed
+	 * @param correction
+	 *  its correction
+	 * 
+	 * @return the correction, with a capital if the word begins with one
+	 */
+	private static String matchCapital(String word, String correction) {
 
-		private int number;
-		private String content;
-		private float score;
+		if (correction.isEmpty() || !(Character.isUpperCase(word.charAt(0))) || Character.isUpperCase(correction.charAt(0))) {
+			return correction;
+		}
+
+		return Character.toUpperCase(correction.charAt(0)) + correction.substring(1);
+	}
 
-		private Document(ScoreDoc hit) {
+	/**
+	 * Returns the spellchecker: the one built once the texts are indexed or, if they are not indexed by this instance
+	 * (the index being read-only, or already built), the one built from the index when it is first needed.
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * 
+	 * @return the spellchecker
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private Spellchecker getSpellchecker(IndexReader reader) throws IOException {
 
-			number = hit.doc;
-			score = hit.score;
-			try {
-				content = (indexReader.document(number)).get(CONTENT_FIELD_NAME);
-			} catch (IOException ioe) {
-				LOGGER.error(ioe);
+		Spellchecker currentSpellchecker = spellchecker;
+		if (currentSpellchecker == null) {
+			synchronized (this) {
+				if (spellchecker == null) {
+					spellchecker = buildSpellchecker(reader);
+				}
+				currentSpellchecker = spellchecker;
 			}
 		}
 
-		public int getNumber() {
+		return currentSpellchecker;
+	}
 
-			return number;
-		}
+	/**
+	 * Builds a spellchecker from surface forms: the terms of the exact content, the forms of the data warehouse and the proper nouns
+	 * (so, a word is never corrected to a stem or to a lemma of the index, and a proper noun keeps its capital).
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * 
+	 * @return the spellchecker
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private static Spellchecker buildSpellchecker(IndexReader reader) throws IOException {
+
+		Spellchecker newSpellchecker = new Spellchecker();
+
+		Set<String> words = new HashSet<>(Synonymysearch.getWarehouseForms());
+		words.addAll(getProperNouns());
+		for (Map.Entry<String, Long> surfaceForm : (getSurfaceForms(reader, words)).entrySet()) {
+			newSpellchecker.add(surfaceForm.getKey(), (int) Math.min(surfaceForm.getValue(), Integer.MAX_VALUE));
+		}
+
+		return newSpellchecker;
+	}
+
+	/**
+	 * Returns surface forms (the words as they are written, rather than the stems or the lemmas which the content is indexed by):
+	 * the terms of the exact content and other words, each weighted by the document frequency of its analysed term
+	 * (so, the forms of the words which the most texts contain are preferred).
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * @param words
+	 *  the other words (as they are written)
+	 * 
+	 * @return the map of the surface forms to their weight (0, for a stop word or for a word which no text contains)
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private static Map<String, Long> getSurfaceForms(IndexReader reader, Collection<String> words) throws IOException {
+
+		List<String> forms = new ArrayList<>(words);
+		Terms exactTerms = MultiFields.getTerms(reader, EXACT_FIELD_NAME);
+		if (exactTerms != null) {
+			TermsEnum termsEnum = exactTerms.iterator();
+			BytesRef term;
+			while ((term = termsEnum.next()) != null) {
+				forms.add(term.utf8ToString());
+			}
+		}
+
+		// (The forms of a word share its analysed term, whose document frequency is read once.)
+		Map<String, Long> docFreqs = new HashMap<>();
+		Map<String, Long> surfaceForms = new HashMap<>();
+		for (String form : forms) {
+			String term = analyze(form);
+			long frequency = 0;
+			if (term != null) {
+				Long docFreq = docFreqs.get(term);
+				if (docFreq == null) {
+					docFreq = (long) reader.docFreq(new Term(CONTENT_FIELD_NAME, term));
+					docFreqs.put(term, docFreq);
+				}
+				frequency = docFreq;
+			}
+			surfaceForms.merge(form, frequency, Math::max);
+		}
+
+		return surfaceForms;
+	}
+
+	/**
+	 * Suggests completions of a prefix (which is as a parameter), "as you type".
+	 * <p>The completions are words as they are written (never the stems or the lemmas which the content is indexed by):
+	 * the terms of the exact content, the canonical forms of the data warehouse and the proper nouns;
+	 * they are weighted by the number of the texts which contain them.</p>
+	 * 
+	 * @param prefix
+	 *  the prefix which should be completed
+	 * @param count
+	 *  the maximum number of completions
+	 * 
+	 * @return the list of the completions, the most frequent first (this list could be empty)
+	 */
+	public List<String> suggest(String prefix, int count) {
+
+		// (The suggester is built once the texts are indexed or, if they are not indexed by this instance, when it is first needed.)
+		Suggester currentSuggester = suggester;
+		if (currentSuggester == null) {
+			try {
+				IndexSearcher indexSearcher = searcherManager.acquire();
+				try {
+					currentSuggester = getSuggester(indexSearcher.getIndexReader());
+				} finally {
+					searcherManager.release(indexSearcher);
+				}
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
+			}
+		}
+		if (currentSuggester == null) {
+			return new ArrayList<>();
+		}
+
+		return currentSuggester.suggest(prefix, count);
+	}
+
+	/**
+	 * Returns the suggester, built from the index if it is not built yet.
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * 
+	 * @return the suggester
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private synchronized Suggester getSuggester(IndexReader reader) throws IOException {
+
+		if (suggester == null) {
+			suggester = buildSuggester(reader);
+		}
+
+		return suggester;
+	}
+
+	/**
+	 * Builds a suggester from the terms of the exact content (the words of the texts, as they are written) and from the lexicon.
+	 * 
+	 * @param reader
+	 *  the reader of the index
+	 * 
+	 * @return the suggester
+	 * 
+	 * @throws IOException
+	 *  if the terms of the index cannot be read
+	 */
+	private synchronized Suggester buildSuggester(IndexReader reader) throws IOException {
+
+		Map<String, Long> weightedWords = new HashMap<>();
+
+		// Adds the terms of the exact content (weighted by their document frequency)...
+		Terms terms = MultiFields.getTerms(reader, EXACT_FIELD_NAME);
+		if (terms != null) {
+			TermsEnum termsEnum = terms.iterator();
+			BytesRef term;
+			while ((term = termsEnum.next()) != null) {
+				weightedWords.put(term.utf8ToString(), (long) termsEnum.docFreq());
+			}
+		}
+		// Adds the words of the lexicon which no text contains (so, they are suggested after the words of the texts)...
+		if (lexicon == null) {
+			lexicon = Synonymysearch.getWarehouseCanonicalForms();
+			lexicon.addAll(getProperNouns());
+		}
+		for (String word : lexicon) {
+			weightedWords.putIfAbsent(word.toLowerCase(), 0L);
+		}
+
+		return new Suggester(weightedWords);
+	}
+
+	/**
+	 * Returns the proper nouns (of the values file "proper.nouns").
+	 * 
+	 * @return the set of the proper nouns
+	 */
+	private static Set<String> getProperNouns() {
+
+		Set<String> properNouns = new TreeSet<>();
+
+		ValuesFileReader valuesFileReader = ValuesFileReader.getInstance();
+		for (String key : valuesFileReader.getKeys(PROPER_NOUNS_FILE_NAME)) {
+			for (String value : (valuesFileReader.getStringValue(PROPER_NOUNS_FILE_NAME, key)).split("\\s")) {
+				if (!(value.isEmpty())) {
+					properNouns.add(new String(value.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8));
+				}
+			}
+		}
+
+		return properNouns;
+	}
+
+	/**
+	 * Returns the first term of a word analysed as the content is (so, the term to be found in the index).
+	 * 
+	 * @param word
+	 *  the word to be analysed
+	 * 
+	 * @return the term (or <i>null</i>, if the analyser discards the word, as a stop word)
+	 * 
+	 * @throws IOException
+	 *  if the word cannot be analysed
+	 */
+	private static String analyze(String word) throws IOException {
+
+		String term = null;
+
+		try (TokenStream tokenStream = ANALYZER.tokenStream(CONTENT_FIELD_NAME, word)) {
+			CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			if (tokenStream.incrementToken()) {
+				term = charTermAttribute.toString();
+			}
+			tokenStream.end();
+		}
+
+		return term;
+	}
+
+	/**
+	 * Searches, in the indexed texts, for words (which are as a parameter).
+	 * 
+	 * @param words
+	 *  the set of words which should be searched (exact words, phrases and words near each other could be given: see {@code SearchQuery.parse(String)})
+	 * 
+	 * @return the list of the documents where at least one of the words appears (this list could be empty)
+	 */
+	public List<Document> search(String words) {
+
+		return search(SearchQuery.parse(words), false).getDocuments();
+	}
+
+	/**
+	 * Searches, in the indexed texts, for words (which are as a parameter), profiling the search if requested.
+	 * 
+	 * @param words
+	 *  the set of words which should be searched (exact words, phrases and words near each other could be given: see {@code SearchQuery.parse(String)})
+	 * @param profile
+	 *  <i>true</i>, for profiling the search (see {@link QueryProfile}): what each clause of the query costs,
+	 *  and why each document found is scored as it is
+	 * 
+	 * @return the result: the list of the documents where at least one of the words appears (this list could be empty)
+	 *  and, if requested, the profile of the search
+	 */
+	public Result search(String words, boolean profile) {
+
+		return search(SearchQuery.parse(words), profile);
+	}
+
+	/**
+	 * Searches, in the indexed texts, for a query (of which the clauses are typed: see {@link SearchQuery}),
+	 * profiling the search if requested.
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * @param profile
+	 *  <i>true</i>, for profiling the search (see {@link QueryProfile}): what each clause of the query costs,
+	 *  and why each document found is scored as it is
+	 * 
+	 * @return the result: the list of the documents where at least one of the words (or of their synonyms) appears
+	 *  (this list could be empty) and, if requested, the profile of the search
+	 */
+	public Result search(SearchQuery searchQuery, boolean profile) {
+
+		List<Document> documents = new ArrayList<>();
+		QueryProfile queryProfile = profile ? new QueryProfile() : null;
+		// The time spent fetching the documents found (building their snippets, then loading their paths)...
+		long fetchTime = 0;
+
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		try {
+			// Acquires the current searcher (released after the search, even if another thread refreshes the index meanwhile)...
+			IndexSearcher indexSearcher = searcherManager.acquire();
+			try {
+				// Builds the query for searching for words in the indexed content (each word being analysed once)...
+				long start = System.nanoTime();
+				Query query;
+				Query highlightQuery;
+				try {
+					// (The terms of the synonyms are selected once, against the terms of the index, for both queries.)
+					Map<SearchQuery.Clause, Map<Term, Float>> synonymTerms = selectSynonymTerms(searchQuery, indexSearcher.getIndexReader(), queryProfile);
+					query = toQuery(searchQuery, synonymTerms, false);
+					highlightQuery = toQuery(searchQuery, synonymTerms, true);
+				} catch (IOException ioe) {
+					PARSE_STAGE.recordError();
+					throw ioe;
+				} finally {
+					start = record(PARSE_STAGE, start);
+				}
+				// (Only the main search is profiled: the snippets are built with the query itself.)
+				Query searchedQuery = profile ? queryProfile.wrap(query) : query;
+				UnifiedHighlighter highlighter = new UnifiedHighlighter(indexSearcher, ANALYZER);
+				if (passageMode) {
+					// Gets meta-information of the top 5 texts (scored by their best passage)...
+					TopDocs foundDocs = indexSearcher.search(new ToParentBlockJoinQuery(searchedQuery, PARENTS_FILTER, ScoreMode.Max), TOP_DOCUMENTS_COUNT);
+					start = record(SEARCH_STAGE, start);
+					event.setHits(foundDocs.totalHits);
+					for (ScoreDoc hit : foundDocs.scoreDocs) {
+						// Gets the best passage of the text in question, for building the snippet...
+						TopDocs bestPassage = indexSearcher.search(new ParentChildrenBlockJoinQuery(PARENTS_FILTER, query, hit.doc), 1);
+						start = record(SEARCH_STAGE, start);
+						long fetchStart = start;
+						String[] snippets = highlighter.highlight(CONTENT_FIELD_NAME, highlightQuery, bestPassage, SNIPPET_PASSAGES_COUNT);
+						start = record(HIGHLIGHT_STAGE, start);
+						documents.add(new Littlesearch.Document(this, indexSearcher.getIndexReader(), hit, (snippets.length > 0) ? snippets[0] : null));
+						start = record(STORED_FIELDS_STAGE, start);
+						fetchTime += start - fetchStart;
+					}
+					if (profile) {
+						for (int i = 0; i < (foundDocs.scoreDocs).length; i++) {
+							queryProfile.addExplanation(documents.get(i).getPath(),
+									indexSearcher.explain(new ToParentBlockJoinQuery(query, PARENTS_FILTER, ScoreMode.Max), (foundDocs.scoreDocs[i]).doc));
+						}
+					}
+				} else {
+					// Gets meta-information of the top 5 documents (sorted by relevance, the default sorting mode)...
+					TopDocs foundDocs = indexSearcher.search(searchedQuery, TOP_DOCUMENTS_COUNT);
+					start = record(SEARCH_STAGE, start);
+					event.setHits(foundDocs.totalHits);
+					long fetchStart = start;
+					// Builds the snippets of the top documents (around the words and the synonyms which are found)...
+					String[] snippets = highlighter.highlight(CONTENT_FIELD_NAME, highlightQuery, foundDocs, SNIPPET_PASSAGES_COUNT);
+					start = record(HIGHLIGHT_STAGE, start);
+					// Adds the corresponding documents to the list...
+					for (int i = 0; i < (foundDocs.scoreDocs).length; i++) {
+						documents.add(new Littlesearch.Document(this, indexSearcher.getIndexReader(), foundDocs.scoreDocs[i], snippets[i]));
+					}
+					fetchTime = record(STORED_FIELDS_STAGE, start) - fetchStart;
+					if (profile) {
+						for (int i = 0; i < (foundDocs.scoreDocs).length; i++) {
+							queryProfile.addExplanation(documents.get(i).getPath(), indexSearcher.explain(query, (foundDocs.scoreDocs[i]).doc));
+						}
+					}
+				}
+			} finally {
+				searcherManager.release(indexSearcher);
+			}
+		} catch (IOException ioe) {
+			SEARCH_STAGE.recordError();
+			LOGGER.error(ioe);
+		} finally {
+			if (event.shouldCommit()) {
+				event.setQuery(searchQuery.toString());
+				event.setPassageMode(passageMode);
+				event.setReturned(documents.size());
+			}
+			event.commit();
+		}
+
+        return new Result(documents, queryProfile, fetchTime);
+	}
+
+	/**
+	 * Selects the terms of the synonyms of the words of a query which are searched, within the budget of the query:
+	 * <ol>
+	 * <li>each term of the synonyms of a word keeps its best weight (the terms of the words themselves are not searched as synonyms);</li>
+	 * <li>the terms which the index does not contain are dropped (so, Lucene does not seek them);</li>
+	 * <li>the terms of the greatest weight (the rarest first, for the same weight) are kept, as long as there are at most
+	 * {@code getMaxSynonymTerms()} of them and as long as they have at most {@code getMaxSynonymPostings()} postings in all.</li>
+	 * </ol>
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * @param indexReader
+	 *  the reader of the index which is searched
+	 * @param queryProfile
+	 *  the profile of the search, in which the terms kept and dropped are counted (or <i>null</i>)
+	 * 
+	 * @return the terms of the synonyms of each word, with their weight
+	 * 
+	 * @throws IOException
+	 *  if a word cannot be analysed, or if the terms of the index cannot be read
+	 */
+	private static Map<SearchQuery.Clause, Map<Term, Float>> selectSynonymTerms(SearchQuery searchQuery, IndexReader indexReader, QueryProfile queryProfile) throws IOException {
+
+		Set<String> originalTerms = new HashSet<>();
+		for (SearchQuery.Clause clause : searchQuery.getClauses()) {
+			if (clause.getType() == SearchQuery.Clause.Type.WORD) {
+				originalTerms.addAll(analyzeAll(CONTENT_FIELD_NAME, clause.getWord()));
+			}
+		}
+
+		// Gathers the terms of the synonyms which the index contains, with their weight and their number of documents...
+		Terms contentTerms = MultiFields.getTerms(indexReader, CONTENT_FIELD_NAME);
+		TermsEnum termsEnum = (contentTerms != null) ? contentTerms.iterator() : null;
+		Map<String, Integer> docFreqs = new HashMap<>();
+		List<SynonymTerm> candidates = new ArrayList<>();
+		int absentTermCount = 0;
+		for (SearchQuery.Clause clause : searchQuery.getClauses()) {
+			// (The terms of the synonyms are analysed once for all the queries: they are forms of the data warehouse.)
+			Map<String, Float> clauseTermWeights = new HashMap<>();
+			for (String synonym : clause.getSynonyms()) {
+				for (String term : SYNONYM_TERMS.computeIfAbsent(synonym, Littlesearch::analyzeSynonym)) {
+					if (!(originalTerms.contains(term))) {
+						clauseTermWeights.merge(term, clause.getSynonymWeight(synonym), Math::max);
+					}
+				}
+			}
+			for (Map.Entry<String, Float> termWeight : clauseTermWeights.entrySet()) {
+				String term = termWeight.getKey();
+				Integer docFreq = docFreqs.get(term);
+				if (docFreq == null) {
+					docFreq = ((termsEnum != null) && termsEnum.seekExact(new BytesRef(term))) ? termsEnum.docFreq() : 0;
+					docFreqs.put(term, docFreq);
+				}
+				if (docFreq > 0) {
+					candidates.add(new SynonymTerm(clause, new Term(CONTENT_FIELD_NAME, term), termWeight.getValue(), docFreq));
+				} else {
+					absentTermCount++;
+				}
+			}
+		}
+
+		// Keeps the terms of the greatest weight (the rarest first), within the budget of the query...
+		candidates.sort(Comparator.comparing((SynonymTerm candidate) -> candidate.weight).reversed()
+				.thenComparingInt(candidate -> candidate.docFreq).thenComparing(candidate -> candidate.term));
+		Map<SearchQuery.Clause, Map<Term, Float>> synonymTerms = new HashMap<>();
+		int termCount = 0;
+		long postingCount = 0;
+		for (SynonymTerm candidate : candidates) {
+			if ((termCount < searchQuery.getMaxSynonymTerms()) && (postingCount + candidate.docFreq <= searchQuery.getMaxSynonymPostings())) {
+				synonymTerms.computeIfAbsent(candidate.clause, clause -> new HashMap<>()).put(candidate.term, candidate.weight);
+				termCount++;
+				postingCount += candidate.docFreq;
+			}
+		}
+		if (candidates.size() > termCount) {
+			LOGGER.debug((candidates.size() - termCount) + " termes de synonymes dépassent le budget de la requête " + searchQuery + ".");
+		}
+		if (queryProfile != null) {
+			queryProfile.setSynonymTerms(termCount, postingCount, absentTermCount, candidates.size() - termCount);
+		}
+
+		return synonymTerms;
+	}
+
+	/**
+	 * Builds the Lucene query of a query: a disjunction of a clause per clause of the query.
+	 * <ul>
+	 * <li>A word (whose terms are already found) matches the terms of the word (by the original boost) or,
+	 * blended as one term per weight, the terms of its synonyms which are selected (by the synonym boost), in the stemmed content.</li>
+	 * <li>An exact word, or a phrase, matches its terms at their positions, in the unstemmed content.</li>
+	 * <li>Words near each other match their terms as spans, in the stemmed content (or in the unstemmed content, if one of them is exact).</li>
+	 * </ul>
+	 * The query which highlights the snippets searches the stemmed content only, of which the offsets of the terms are indexed.
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * @param synonymTerms
+	 *  the terms of the synonyms of each word, with their weight (see {@code selectSynonymTerms(SearchQuery, IndexReader, QueryProfile)})
+	 * @param highlighting
+	 *  <i>true</i>, for building the query which highlights the snippets
+	 * 
+	 * @return the Lucene query
+	 * 
+	 * @throws IOException
+	 *  if a word cannot be analysed
+	 */
+	private static Query toQuery(SearchQuery searchQuery, Map<SearchQuery.Clause, Map<Term, Float>> synonymTerms, boolean highlighting) throws IOException {
+
+		// Analyses the words themselves (a term which several words share is searched only once)...
+		Map<SearchQuery.Clause, Set<String>> clauseTerms = new HashMap<>();
+		Set<String> originalTerms = new HashSet<>();
+		for (SearchQuery.Clause clause : searchQuery.getClauses()) {
+			if (clause.getType() == SearchQuery.Clause.Type.WORD) {
+				Set<String> terms = new LinkedHashSet<>(analyzeAll(CONTENT_FIELD_NAME, clause.getWord()));
+				terms.removeAll(originalTerms);
+				clauseTerms.put(clause, terms);
+				originalTerms.addAll(terms);
+			}
+		}
+
+		BooleanQuery.Builder queryBuilder = new BooleanQuery.Builder();
+		for (SearchQuery.Clause clause : searchQuery.getClauses()) {
+			String field = (clause.isExact() && !highlighting) ? EXACT_FIELD_NAME : CONTENT_FIELD_NAME;
+			Query clauseQuery;
+			switch (clause.getType()) {
+			case EXACT_WORD:
+			case PHRASE:
+				clauseQuery = toPhraseQuery(field, clause.getWord());
+				break;
+			case NEAR:
+				clauseQuery = toNearQuery(field, clause.getWords(), clause.getSlop());
+				break;
+			default:
+				clauseQuery = toWordQuery(clauseTerms.get(clause), synonymTerms.getOrDefault(clause, Collections.emptyMap()), searchQuery);
+				break;
+			}
+			if (clauseQuery != null) {
+				queryBuilder.add((clause.getType() == SearchQuery.Clause.Type.WORD) ? clauseQuery : boost(clauseQuery, searchQuery.getOriginalBoost()), BooleanClause.Occur.SHOULD);
+			}
+		}
+
+		return queryBuilder.build();
+	}
+
+	/**
+	 * Builds the Lucene query of a word: its terms (by the original boost) or, blended as one term per weight, those of its synonyms
+	 * (by the synonym boost, times their weight).
+	 * 
+	 * @param terms
+	 *  the terms of the word (which no previous word shares)
+	 * @param synonymTermWeights
+	 *  the terms of its synonyms which are selected, with their weight
+	 * @param searchQuery
+	 *  the query
+	 * 
+	 * @return the Lucene query (or <i>null</i>, if the word has no term to be searched)
+	 */
+	private static Query toWordQuery(Set<String> terms, Map<Term, Float> synonymTermWeights, SearchQuery searchQuery) {
+
+		BooleanQuery.Builder clauseBuilder = new BooleanQuery.Builder();
+		int clauseCount = 0;
+		for (String term : terms) {
+			clauseBuilder.add(boost(new TermQuery(new Term(CONTENT_FIELD_NAME, term)), searchQuery.getOriginalBoost()), BooleanClause.Occur.SHOULD);
+			clauseCount++;
+		}
+		// The terms of the synonyms of the same weight are blended as one term...
+		Map<Float, Set<Term>> synonymTerms = new TreeMap<>(Collections.reverseOrder());
+		synonymTermWeights.forEach((term, weight) -> synonymTerms.computeIfAbsent(weight, w -> new TreeSet<>()).add(term));
+		for (Map.Entry<Float, Set<Term>> weightTerms : synonymTerms.entrySet()) {
+			Set<Term> weightedTerms = weightTerms.getValue();
+			clauseBuilder.add(boost(new SynonymQuery(weightedTerms.toArray(new Term[weightedTerms.size()])), searchQuery.getSynonymBoost() * weightTerms.getKey()), BooleanClause.Occur.SHOULD);
+			clauseCount++;
+		}
+		if (clauseCount == 0) {
+			return null;
+		}
+		BooleanQuery clauseQuery = clauseBuilder.build();
+
+		return (clauseCount == 1) ? ((clauseQuery.clauses()).get(0)).getQuery() : clauseQuery;
+	}
+
+	/**
+	 * Builds the Lucene query of words which should follow each other (an exact word, or a phrase): their terms at their positions.
+	 * 
+	 * @param field
+	 *  the field to be searched
+	 * @param words
+	 *  the words (separated by spaces)
+	 * 
+	 * @return the Lucene query (or <i>null</i>, if the words have no term to be searched)
+	 * 
+	 * @throws IOException
+	 *  if the words cannot be analysed
+	 */
+	private static Query toPhraseQuery(String field, String words) throws IOException {
+
+		PhraseQuery.Builder phraseBuilder = new PhraseQuery.Builder();
+		Term lastTerm = null;
+		int termCount = 0;
+
+		try (TokenStream tokenStream = INDEX_ANALYZER.tokenStream(field, words)) {
+			CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			PositionIncrementAttribute positionIncrementAttribute = tokenStream.addAttribute(PositionIncrementAttribute.class);
+			tokenStream.reset();
+			// (The positions of the stop words, which the stemmed content discards, are kept.)
+			int position = -1;
+			while (tokenStream.incrementToken()) {
+				position += positionIncrementAttribute.getPositionIncrement();
+				lastTerm = new Term(field, charTermAttribute.toString());
+				phraseBuilder.add(lastTerm, position);
+				termCount++;
+			}
+			tokenStream.end();
+		}
+
+		if (termCount == 0) {
+			return null;
+		}
+
+		return (termCount == 1) ? new TermQuery(lastTerm) : phraseBuilder.build();
+	}
+
+	/**
+	 * Builds the Lucene query of words which should be near each other, in any order: their spans.
+	 * 
+	 * @param field
+	 *  the field to be searched
+	 * @param words
+	 *  the words
+	 * @param slop
+	 *  the maximum number of positions between them
+	 * 
+	 * @return the Lucene query (or <i>null</i>, if the words have no term to be searched)
+	 * 
+	 * @throws IOException
+	 *  if a word cannot be analysed
+	 */
+	private static Query toNearQuery(String field, List<String> words, int slop) throws IOException {
+
+		List<SpanQuery> wordSpanQueries = new ArrayList<>();
+		for (String word : words) {
+			// (A word of several terms, such as "Jean-Pierre", is a span of these terms in a row.)
+			List<SpanQuery> termSpanQueries = new ArrayList<>();
+			for (String term : analyzeAll(field, word)) {
+				termSpanQueries.add(new SpanTermQuery(new Term(field, term)));
+			}
+			if (termSpanQueries.size() == 1) {
+				wordSpanQueries.add(termSpanQueries.get(0));
+			} else if (termSpanQueries.size() > 1) {
+				wordSpanQueries.add(new SpanNearQuery(termSpanQueries.toArray(new SpanQuery[termSpanQueries.size()]), 0, true));
+			}
+		}
+
+		if (wordSpanQueries.isEmpty()) {
+			return null;
+		}
+
+		return (wordSpanQueries.size() == 1) ? wordSpanQueries.get(0) : new SpanNearQuery(wordSpanQueries.toArray(new SpanQuery[wordSpanQueries.size()]), slop, false);
+	}
+
+	private static Query boost(Query query, float boost) {
+
+		return (boost == 1.0f) ? query : new BoostQuery(query, boost);
+	}
+
+	/**
+	 * Returns the terms of a synonym analysed as the content is (or none, if the synonym cannot be analysed).
+	 * 
+	 * @param synonym
+	 *  the synonym
+	 * 
+	 * @return the list of the terms
+	 */
+	private static List<String> analyzeSynonym(String synonym) {
+
+		try {
+			return analyzeAll(CONTENT_FIELD_NAME, synonym);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Returns all the terms of a word analysed as a field is.
+	 * 
+	 * @param field
+	 *  the name of the field (the stemmed content, or the unstemmed content)
+	 * @param word
+	 *  the word to be analysed
+	 * 
+	 * @return the list of the terms (empty, if the analyser discards the word, as a stop word)
+	 * 
+	 * @throws IOException
+	 *  if the word cannot be analysed
+	 */
+	private static List<String> analyzeAll(String field, String word) throws IOException {
+
+		List<String> terms = new ArrayList<>();
+
+		try (TokenStream tokenStream = INDEX_ANALYZER.tokenStream(field, word)) {
+			CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			while (tokenStream.incrementToken()) {
+				terms.add(charTermAttribute.toString());
+			}
+			tokenStream.end();
+		}
+
+		return terms;
+	}
+
+	/**
+	 * Records the latency of a stage (since its start), which is also the start of the next stage.
+	 * 
+	 * @param stage
+	 *  the stage
+	 * @param start
+	 *  the start of the stage (in nanoseconds)
+	 * 
+	 * @return the end of the stage (in nanoseconds)
+	 */
+	private static long record(Stage stage, long start) {
+
+		long end = System.nanoTime();
+		stage.record(end - start);
+
+		return end;
+	}
+
+	/**
+	 * Returns the (whole) content of the text of which the path is as a parameter,
+	 * from the current searcher (so, even if the index has been refreshed since the search).
+	 * 
+	 * @param path
+	 *  the path of the text
+	 * 
+	 * @return the content of the text (or <i>null</i>, if the index no longer contains the text)
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be read
+	 */
+	String getContent(String path) throws IOException {
+
+		String content = null;
+
+		long start = System.nanoTime();
+		IndexSearcher indexSearcher = searcherManager.acquire();
+		try {
+			Query query = new TermQuery(new Term(PATH_FIELD_NAME, path));
+			if (passageMode) {
+				// (Only the parent document stores the whole content.)
+				query = (new BooleanQuery.Builder())
+						.add(query, BooleanClause.Occur.FILTER)
+						.add(PARENTS_QUERY, BooleanClause.Occur.FILTER)
+						.build();
+			}
+			TopDocs foundDocs = indexSearcher.search(query, 1);
+			if ((foundDocs.scoreDocs).length > 0) {
+				content = (indexSearcher.doc((foundDocs.scoreDocs[0]).doc, Collections.singleton(CONTENT_FIELD_NAME))).get(CONTENT_FIELD_NAME);
+			}
+		} finally {
+			searcherManager.release(indexSearcher);
+			STORED_FIELDS_STAGE.record(System.nanoTime() - start);
+		}
+
+		return content;
+	}
+
+	/**
+	 * Computes the statistics of the index, as it is searched (see {@link IndexStatistics}).
+	 * 
+	 * @return the statistics of the index
+	 * 
+	 * @throws IOException
+	 *  if the index cannot be read
+	 */
+	public IndexStatistics getIndexStatistics() throws IOException {
+
+		IndexSearcher indexSearcher = searcherManager.acquire();
+		try {
+			return new IndexStatistics(indexSearcher.getIndexReader());
+		} finally {
+			searcherManager.release(indexSearcher);
+		}
+	}
+
+	/**
+	 * Estimates the heap retained by this search engine (the sum of the estimates of its components).
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	@Override
+	public long ramBytesUsed() {
+
+		long size = 0;
+		for (Accountable childResource : getChildResources()) {
+			size += childResource.ramBytesUsed();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns the components of this search engine, with the estimates of the heap which they retain:
+	 * <ul>
+	 * <li>the reader of the index (as Lucene accounts for its segments: their terms indexes, norms, doc values...);</li>
+	 * <li>the writer of the index, if any (its buffered documents and deletions);</li>
+	 * <li>the spellchecker and the suggester, if they are built (each is built when it is first needed);</li>
+	 * <li>the lexicon of the suggester, if it is read;</li>
+	 * <li>the terms of the synonyms (analysed once, then cached for all the instances).</li>
+	 * </ul>
+	 * <p>(The synonyms themselves are shared by all the instances: see {@code Synonymysearch.getRamUsage()}.)</p>
+	 * 
+	 * @return the components of this search engine
+	 */
+	@Override
+	public Collection<Accountable> getChildResources() {
+
+		List<Accountable> childResources = new ArrayList<>();
+
+		try {
+			IndexSearcher indexSearcher = searcherManager.acquire();
+			try {
+				List<Accountable> segments = new ArrayList<>();
+				long size = 0;
+				for (LeafReaderContext leaf : (indexSearcher.getIndexReader()).leaves()) {
+					if (leaf.reader() instanceof Accountable) {
+						Accountable segment = (Accountable) leaf.reader();
+						segments.add(Accountables.namedAccountable((leaf.reader()).toString(), segment));
+						size += segment.ramBytesUsed();
+					}
+				}
+				childResources.add(Accountables.namedAccountable("index reader", segments, size));
+			} finally {
+				searcherManager.release(indexSearcher);
+			}
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+		if (indexWriter != null) {
+			childResources.add(Accountables.namedAccountable("index writer", indexWriter.ramBytesUsed()));
+		}
+		Spellchecker currentSpellchecker = spellchecker;
+		if (currentSpellchecker != null) {
+			childResources.add(Accountables.namedAccountable("spellchecker", currentSpellchecker.ramBytesUsed()));
+		}
+		Suggester currentSuggester = suggester;
+		if (currentSuggester != null) {
+			childResources.add(Accountables.namedAccountable("suggester", currentSuggester.ramBytesUsed()));
+		}
+		synchronized (this) {
+			if (lexicon != null) {
+				childResources.add(Accountables.namedAccountable("lexicon", RamEstimator.sizeOf(lexicon, RamEstimator::sizeOf)));
+			}
+		}
+		childResources.add(Accountables.namedAccountable("synonym terms",
+				RamEstimator.sizeOf(SYNONYM_TERMS, RamEstimator::sizeOf, terms -> RamEstimator.sizeOf(terms, RamEstimator::sizeOf))));
+
+		return childResources;
+	}
+
+	/**
+	 * Closes the searchers, the writer (if any) and the directory of the index.
+	 * (The content of the documents which are found can no longer be fetched.)
+	 */
+	@Override
+	public void close() {
+
+		try {
+			searcherManager.close();
+			if (indexWriter != null) {
+				indexWriter.close();
+			}
+			indexDirectory.close();
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+		}
+	}
+
+	/**
+	 * A term of the synonyms of a word, which could be searched (see {@code selectSynonymTerms(SearchQuery, IndexReader, QueryProfile)}).
+	 */
+	private static class SynonymTerm {
+
+		private final SearchQuery.Clause clause;
+
+		private final Term term;
+
+		private final float weight;
+
+		private final int docFreq;
+
+		private SynonymTerm(SearchQuery.Clause clause, Term term, float weight, int docFreq) {
+
+			this.clause = clause;
+			this.term = term;
+			this.weight = weight;
+			this.docFreq = docFreq;
+		}
+
+	}
+
+	/**
+	 * The {@code Result} class defines the result of a search: the documents found and, if requested, the profile of the search.
+	 */
+	public static class Result {
+
+		private final List<Document> documents;
+
+		private final QueryProfile profile;
+
+		private final long fetchTime;
+
+		Result(List<Document> documents, QueryProfile profile) {
+
+			this(documents, profile, 0);
+		}
+
+		Result(List<Document> documents, QueryProfile profile, long fetchTime) {
+
+			this.documents = documents;
+			this.profile = profile;
+			this.fetchTime = fetchTime;
+		}
+
+		/**
+		 * Returns the documents found.
+		 * 
+		 * @return the list of the documents (this list could be empty)
+		 */
+		public List<Document> getDocuments() {
+
+			return documents;
+		}
+
+		/**
+		 * Returns the profile of the search.
+		 * 
+		 * @return the profile (or <i>null</i>, if the search is not profiled)
+		 */
+		public QueryProfile getProfile() {
+
+			return profile;
+		}
+
+		/**
+		 * Returns the time spent fetching the documents found (building their snippets, then loading their paths),
+		 * which is a part of the time of the search.
+		 * 
+		 * @return the time (in nanoseconds), or 0 if it is not known (such as for the documents found by other processes)
+		 */
+		public long getFetchTime() {
+
+			return fetchTime;
+		}
+
+	}
+
+	/**
+	 * The {@code Document} class defines a document found by the search engine:
+	 * its snippet is built with the search, whereas its content is only fetched (once) when it is requested.
+	 */
+	public static class Document {
+
+		private ContentSource contentSource;
+
+		private int number;
+		private float score;
+		private String path;
+		private String snippet;
+		private String content;
+
+		private Document(Littlesearch littlesearch, IndexReader reader, ScoreDoc hit, String snippet) throws IOException {
+
+			contentSource = littlesearch::getContent;
+			number = hit.doc;
+			score = hit.score;
+			// (Only the path is loaded with the search: the number of a document could change when the index is refreshed.)
+			path = (reader.document(number, Collections.singleton(PATH_FIELD_NAME))).get(PATH_FIELD_NAME);
+			this.snippet = snippet;
+		}
+
+		/**
+		 * Constructs a document found by another search engine (such as the one of a shard process, see {@link ShardCoordinator}).
+		 * 
+		 * @param number
+		 *  the number of the document (in the index which has found it)
+		 * @param score
+		 *  the score of the document
+		 * @param path
+		 *  the path of the text of the document
+		 * @param snippet
+		 *  the snippet of the document
+		 * @param contentSource
+		 *  the source from which the content is fetched, when it is requested
+		 */
+		Document(int number, float score, String path, String snippet, ContentSource contentSource) {
+
+			this.contentSource = contentSource;
+			this.number = number;
+			this.score = score;
+			this.path = path;
+			this.snippet = snippet;
+		}
+
+		public int getNumber() {
+
+			return number;
+		}
 
 		public float getScore() {
 
 			return score;
 		}
 
-		public String getContent() {
+		/**
+		 * Returns the path of the text of the document.
+		 * 
+		 * @return the path of the text
+		 */
+		public String getPath() {
+
+			return path;
+		}
+
+		/**
+		 * Returns the snippet of the document: the passages where the searched words appear (highlighted).
+		 * 
+		 * @return the snippet of the document
+		 */
+		public String getSnippet() {
+
+			return snippet;
+		}
+
+		/**
+		 * Returns the (whole) content of the document, fetched from the index at the first call.
+		 * 
+		 * @return the content of the document
+		 */
+		public synchronized String getContent() {
+
+			if (content == null) {
+				try {
+					content = contentSource.getContent(path);
+				} catch (IOException ioe) {
+					LOGGER.error(ioe);
+				}
+			}
 
 			return content;
 		}
 
+		/**
+		 * The {@code ContentSource} interface defines the source of the content of the documents (their index, or the process which has found them).
+		 */
+		@FunctionalInterface
+		interface ContentSource {
+
+			/**
+			 * Returns the (whole) content of a text.
+			 * 
+			 * @param path
+			 *  the path of the text
+			 * 
+			 * @return the content of the text (or <i>null</i>, if the source no longer contains the text)
+			 * 
+			 * @throws IOException
+			 *  if the content cannot be fetched
+			 */
+			String getContent(String path) throws IOException;
+
+		}
+
 	}
 
 }
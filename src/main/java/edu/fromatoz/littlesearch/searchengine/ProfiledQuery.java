@@ -0,0 +1,282 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.Set;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Matches;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+
+/**
+ * The {@code ProfiledQuery} class defines a query which wraps a clause of a query, for profiling it (see {@link QueryProfile}):
+ * its weight and its scorers are wrapped too, so that each call to them is measured.
+ * <p>A profiled query is only equal to itself (so that two clauses are never merged), and its weight is never cached.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+class ProfiledQuery extends Query {
+
+	private final Query query;
+
+	private final QueryProfile.ClauseProfile clauseProfile;
+
+	ProfiledQuery(Query query, QueryProfile.ClauseProfile clauseProfile) {
+
+		this.query = query;
+		this.clauseProfile = clauseProfile;
+	}
+
+	@Override
+	public Query rewrite(IndexReader reader) throws IOException {
+
+		Query rewrittenQuery = query.rewrite(reader);
+
+		return (rewrittenQuery == query) ? this : new ProfiledQuery(rewrittenQuery, clauseProfile);
+	}
+
+	@Override
+	public Weight createWeight(IndexSearcher searcher, boolean needsScores, float boost) throws IOException {
+
+		long start = System.nanoTime();
+		Weight weight = query.createWeight(searcher, needsScores, boost);
+		clauseProfile.addWeightTime(System.nanoTime() - start);
+
+		return new ProfiledWeight(this, weight);
+	}
+
+	@Override
+	public String toString(String field) {
+
+		return query.toString(field);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+
+		return System.identityHashCode(this);
+	}
+
+	/**
+	 * The {@code ProfiledWeight} class defines the weight of a profiled query.
+	 */
+	private class ProfiledWeight extends Weight {
+
+		private final Weight weight;
+
+		private ProfiledWeight(Query profiledQuery, Weight weight) {
+
+			super(profiledQuery);
+
+			this.weight = weight;
+		}
+
+		@Override
+		public Scorer scorer(LeafReaderContext context) throws IOException {
+
+			long start = System.nanoTime();
+			Scorer scorer = weight.scorer(context);
+			clauseProfile.addScorerTime(System.nanoTime() - start);
+
+			return (scorer != null) ? new ProfiledScorer(this, scorer) : null;
+		}
+
+		@Override
+		public void extractTerms(Set<Term> terms) {
+
+			weight.extractTerms(terms);
+		}
+
+		@Override
+		public Matches matches(LeafReaderContext context, int doc) throws IOException {
+
+			return weight.matches(context, doc);
+		}
+
+		@Override
+		public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+
+			return weight.explain(context, doc);
+		}
+
+		@Override
+		public boolean isCacheable(LeafReaderContext context) {
+
+			return false;
+		}
+
+	}
+
+	/**
+	 * The {@code ProfiledScorer} class defines a scorer of a profiled query (for a segment).
+	 */
+	private class ProfiledScorer extends Scorer {
+
+		private final Scorer scorer;
+
+		private final TwoPhaseIterator twoPhaseIterator;
+
+		private final DocIdSetIterator iterator;
+
+		private ProfiledScorer(Weight profiledWeight, Scorer scorer) {
+
+			super(profiledWeight);
+
+			this.scorer = scorer;
+
+			// (If the scorer confirms its matches in two phases, only the confirmed matches are counted as matched.)
+			TwoPhaseIterator scorerTwoPhaseIterator = scorer.twoPhaseIterator();
+			if (scorerTwoPhaseIterator != null) {
+				twoPhaseIterator = new ProfiledTwoPhaseIterator(scorerTwoPhaseIterator);
+				iterator = TwoPhaseIterator.asDocIdSetIterator(twoPhaseIterator);
+			} else {
+				twoPhaseIterator = null;
+				iterator = new ProfiledIterator(scorer.iterator(), true);
+			}
+			clauseProfile.addCost(iterator.cost());
+		}
+
+		@Override
+		public int docID() {
+
+			return scorer.docID();
+		}
+
+		@Override
+		public float score() throws IOException {
+
+			long start = System.nanoTime();
+			float score = scorer.score();
+			clauseProfile.addScoreTime(System.nanoTime() - start);
+			clauseProfile.addScore(score);
+
+			return score;
+		}
+
+		@Override
+		public DocIdSetIterator iterator() {
+
+			return iterator;
+		}
+
+		@Override
+		public TwoPhaseIterator twoPhaseIterator() {
+
+			return twoPhaseIterator;
+		}
+
+	}
+
+	/**
+	 * The {@code ProfiledIterator} class defines an iterator over the postings of a profiled query.
+	 */
+	private class ProfiledIterator extends DocIdSetIterator {
+
+		private final DocIdSetIterator iterator;
+
+		// Whether each document which is visited is a match (otherwise, the matches are confirmed in a second phase)...
+		private final boolean matching;
+
+		private ProfiledIterator(DocIdSetIterator iterator, boolean matching) {
+
+			this.iterator = iterator;
+			this.matching = matching;
+		}
+
+		@Override
+		public int docID() {
+
+			return iterator.docID();
+		}
+
+		@Override
+		public int nextDoc() throws IOException {
+
+			long start = System.nanoTime();
+			int doc = iterator.nextDoc();
+			visited(doc, start);
+
+			return doc;
+		}
+
+		@Override
+		public int advance(int target) throws IOException {
+
+			long start = System.nanoTime();
+			int doc = iterator.advance(target);
+			visited(doc, start);
+
+			return doc;
+		}
+
+		private void visited(int doc, long start) {
+
+			clauseProfile.addIterateTime(System.nanoTime() - start);
+			if (doc != NO_MORE_DOCS) {
+				clauseProfile.addPostingVisited();
+				if (matching) {
+					clauseProfile.addDocMatched();
+				}
+			}
+		}
+
+		@Override
+		public long cost() {
+
+			return iterator.cost();
+		}
+
+	}
+
+	/**
+	 * The {@code ProfiledTwoPhaseIterator} class defines the two phases of the matching of a profiled query.
+	 */
+	private class ProfiledTwoPhaseIterator extends TwoPhaseIterator {
+
+		private final TwoPhaseIterator twoPhaseIterator;
+
+		private ProfiledTwoPhaseIterator(TwoPhaseIterator twoPhaseIterator) {
+
+			super(new ProfiledIterator(twoPhaseIterator.approximation(), false));
+
+			this.twoPhaseIterator = twoPhaseIterator;
+		}
+
+		@Override
+		public boolean matches() throws IOException {
+
+			long start = System.nanoTime();
+			boolean matches = twoPhaseIterator.matches();
+			clauseProfile.addMatchTime(System.nanoTime() - start);
+			if (matches) {
+				clauseProfile.addDocMatched();
+			}
+
+			return matches;
+		}
+
+		@Override
+		public float matchCost() {
+
+			return twoPhaseIterator.matchCost();
+		}
+
+	}
+
+}
@@ -0,0 +1,407 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.Query;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code QueryProfile} class defines the profile of a search: what each clause of the query has cost
+ * (for tuning the synonyms and the expansion of the queries), and the explanation of the score of each document found.
+ * <p>Each clause is wrapped (see {@link ProfiledQuery}), so that the time spent in its weight and in its scorers
+ * (creating them, iterating over the postings, matching and scoring the documents), the number of the postings visited,
+ * the number of the documents matched and the sum of the scores which it contributes are measured.
+ * (The profiling slows the search down: the measures are relative.)</p>
+ * <p>The profile also counts the terms of the synonyms which are searched, and those which are dropped
+ * (because the index does not contain them, or because they exceed the budget of the query).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class QueryProfile {
+
+	// The format of a line of the report...
+	private static final String REPORT_LINE_FORMAT = "%-8s %10s %10s %10s %10s %10s %10s %10s %10s %10s  %s";
+
+	// The format of the line of the terms of the synonyms...
+	private static final String SYNONYM_TERMS_LINE_FORMAT = "synonym terms: %d searched (%d postings), %d absent from the index, %d over the budget";
+
+	private final List<ClauseProfile> clauses = new ArrayList<>();
+
+	private final List<String> explanations = new ArrayList<>();
+
+	private int searchedSynonymTerms;
+
+	private long searchedSynonymPostings;
+
+	private int absentSynonymTerms;
+
+	private int overBudgetSynonymTerms;
+
+	/**
+	 * Wraps each clause of a query (or the query itself, if it is not a boolean query), for profiling it.
+	 * The clauses of the nested boolean queries (such as the terms of a word and the terms of its synonyms) are profiled one by one.
+	 * 
+	 * @param query
+	 *  the query
+	 * 
+	 * @return the wrapped query
+	 */
+	Query wrap(Query query) {
+
+		return wrap(query, BooleanClause.Occur.MUST);
+	}
+
+	private Query wrapClauses(BooleanQuery booleanQuery) {
+
+		BooleanQuery.Builder builder = new BooleanQuery.Builder();
+		builder.setMinimumNumberShouldMatch(booleanQuery.getMinimumNumberShouldMatch());
+		for (BooleanClause clause : booleanQuery.clauses()) {
+			builder.add(wrap(clause.getQuery(), clause.getOccur()), clause.getOccur());
+		}
+
+		return builder.build();
+	}
+
+	private Query wrap(Query query, BooleanClause.Occur occur) {
+
+		// (A boosted boolean query keeps its boost, around its wrapped clauses.)
+		if (query instanceof BooleanQuery) {
+			return wrapClauses((BooleanQuery) query);
+		}
+		if ((query instanceof BoostQuery) && (((BoostQuery) query).getQuery() instanceof BooleanQuery)) {
+			return new BoostQuery(wrapClauses((BooleanQuery) ((BoostQuery) query).getQuery()), ((BoostQuery) query).getBoost());
+		}
+
+		ClauseProfile clauseProfile = new ClauseProfile(query.toString(), occur);
+		clauses.add(clauseProfile);
+
+		return new ProfiledQuery(query, clauseProfile);
+	}
+
+	/**
+	 * Adds the explanation of the score of a document found.
+	 * 
+	 * @param path
+	 *  the path of the text of the document
+	 * @param explanation
+	 *  the explanation of its score
+	 */
+	void addExplanation(String path, Explanation explanation) {
+
+		explanations.add(path + (Separator.NEW_LINE).getValue() + explanation);
+	}
+
+	/**
+	 * Sets the counts of the terms of the synonyms of the query.
+	 * 
+	 * @param searchedTerms
+	 *  the number of the terms which are searched
+	 * @param searchedPostings
+	 *  the number of their postings
+	 * @param absentTerms
+	 *  the number of the terms which the index does not contain
+	 * @param overBudgetTerms
+	 *  the number of the terms which exceed the budget of the query
+	 */
+	void setSynonymTerms(int searchedTerms, long searchedPostings, int absentTerms, int overBudgetTerms) {
+
+		searchedSynonymTerms = searchedTerms;
+		searchedSynonymPostings = searchedPostings;
+		absentSynonymTerms = absentTerms;
+		overBudgetSynonymTerms = overBudgetTerms;
+	}
+
+	/**
+	 * Returns the number of the terms of the synonyms which are searched.
+	 * 
+	 * @return the number of the terms of the synonyms which are searched
+	 */
+	public int getSearchedSynonymTerms() {
+
+		return searchedSynonymTerms;
+	}
+
+	/**
+	 * Returns the number of the postings of the terms of the synonyms which are searched.
+	 * 
+	 * @return the number of the postings
+	 */
+	public long getSearchedSynonymPostings() {
+
+		return searchedSynonymPostings;
+	}
+
+	/**
+	 * Returns the number of the terms of the synonyms which are dropped because the index does not contain them.
+	 * 
+	 * @return the number of the absent terms
+	 */
+	public int getAbsentSynonymTerms() {
+
+		return absentSynonymTerms;
+	}
+
+	/**
+	 * Returns the number of the terms of the synonyms which are dropped because they exceed the budget of the query.
+	 * 
+	 * @return the number of the terms over the budget
+	 */
+	public int getOverBudgetSynonymTerms() {
+
+		return overBudgetSynonymTerms;
+	}
+
+	/**
+	 * Returns the profiles of the clauses, the most costly first.
+	 * 
+	 * @return the list of the profiles of the clauses
+	 */
+	public List<ClauseProfile> getClauses() {
+
+		List<ClauseProfile> sortedClauses = new ArrayList<>(clauses);
+		sortedClauses.sort(Comparator.comparingLong(ClauseProfile::getTime).reversed());
+
+		return Collections.unmodifiableList(sortedClauses);
+	}
+
+	/**
+	 * Returns the explanations of the scores of the documents found (in the order of the documents).
+	 * 
+	 * @return the list of the explanations
+	 */
+	public List<String> getExplanations() {
+
+		return Collections.unmodifiableList(explanations);
+	}
+
+	/**
+	 * Returns the report of the profile: the counts of the terms of the synonyms,
+	 * a line per clause (the most costly first, the times in microseconds), then the explanations.
+	 */
+	@Override
+	public String toString() {
+
+		StringBuilder reportBuilder = new StringBuilder();
+
+		reportBuilder.append(String.format(SYNONYM_TERMS_LINE_FORMAT, searchedSynonymTerms, searchedSynonymPostings, absentSynonymTerms, overBudgetSynonymTerms));
+		reportBuilder.append((Separator.NEW_LINE).getValue());
+		reportBuilder.append(String.format(REPORT_LINE_FORMAT, "occur", "time", "weight", "scorer", "iterate", "match", "score",
+				"cost", "visited", "matched", "score sum / clause"));
+		for (ClauseProfile clause : getClauses()) {
+			reportBuilder.append((Separator.NEW_LINE).getValue());
+			reportBuilder.append(String.format(REPORT_LINE_FORMAT, (clause.getOccur()).name(), toMicros(clause.getTime()),
+					toMicros(clause.getWeightTime()), toMicros(clause.getScorerTime()), toMicros(clause.getIterateTime()),
+					toMicros(clause.getMatchTime()), toMicros(clause.getScoreTime()), clause.getCost(), clause.getPostingsVisited(),
+					clause.getDocsMatched(), String.format("%.3f", clause.getScoreContribution()) + " / " + clause.getDescription()));
+		}
+		for (String explanation : explanations) {
+			reportBuilder.append((Separator.NEW_LINE).getValue());
+			reportBuilder.append(explanation);
+		}
+
+		return reportBuilder.toString();
+	}
+
+	private static long toMicros(long nanos) {
+
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	/**
+	 * The {@code ClauseProfile} class defines the profile of a clause of a query.
+	 * (The measures could be taken by several threads, when the segments are searched in parallel.)
+	 */
+	public static class ClauseProfile {
+
+		private final String description;
+
+		private final BooleanClause.Occur occur;
+
+		private final LongAdder weightTime = new LongAdder();
+		private final LongAdder scorerTime = new LongAdder();
+		private final LongAdder iterateTime = new LongAdder();
+		private final LongAdder matchTime = new LongAdder();
+		private final LongAdder scoreTime = new LongAdder();
+
+		private final LongAdder cost = new LongAdder();
+		private final LongAdder postingsVisited = new LongAdder();
+		private final LongAdder docsMatched = new LongAdder();
+
+		private final DoubleAdder scoreContribution = new DoubleAdder();
+
+		private ClauseProfile(String description, BooleanClause.Occur occur) {
+
+			this.description = description;
+			this.occur = occur;
+		}
+
+		public String getDescription() {
+
+			return description;
+		}
+
+		public BooleanClause.Occur getOccur() {
+
+			return occur;
+		}
+
+		/**
+		 * Returns the whole time spent in the clause.
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getTime() {
+
+			return getWeightTime() + getScorerTime() + getIterateTime() + getMatchTime() + getScoreTime();
+		}
+
+		/**
+		 * Returns the time spent creating the weight of the clause (so, reading the statistics of its terms).
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getWeightTime() {
+
+			return weightTime.sum();
+		}
+
+		/**
+		 * Returns the time spent creating the scorers of the clause (one per segment: so, seeking its terms).
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getScorerTime() {
+
+			return scorerTime.sum();
+		}
+
+		/**
+		 * Returns the time spent iterating over the postings of the clause.
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getIterateTime() {
+
+			return iterateTime.sum();
+		}
+
+		/**
+		 * Returns the time spent confirming the matches of the clause (for the phrases, for example: checking the positions).
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getMatchTime() {
+
+			return matchTime.sum();
+		}
+
+		/**
+		 * Returns the time spent scoring the documents matched by the clause.
+		 * 
+		 * @return the time (in nanoseconds)
+		 */
+		public long getScoreTime() {
+
+			return scoreTime.sum();
+		}
+
+		/**
+		 * Returns the cost of the clause, as estimated by its scorers (the number of its postings, ordinarily).
+		 * 
+		 * @return the estimated cost
+		 */
+		public long getCost() {
+
+			return cost.sum();
+		}
+
+		/**
+		 * Returns the number of the postings of the clause which have been visited.
+		 * 
+		 * @return the number of the postings visited
+		 */
+		public long getPostingsVisited() {
+
+			return postingsVisited.sum();
+		}
+
+		/**
+		 * Returns the number of the documents matched by the clause.
+		 * 
+		 * @return the number of the documents matched
+		 */
+		public long getDocsMatched() {
+
+			return docsMatched.sum();
+		}
+
+		/**
+		 * Returns the sum of the scores which the clause contributes (to the scores of the documents which it matches).
+		 * 
+		 * @return the sum of the scores
+		 */
+		public double getScoreContribution() {
+
+			return scoreContribution.sum();
+		}
+
+		void addWeightTime(long nanos) {
+
+			weightTime.add(nanos);
+		}
+
+		void addScorerTime(long nanos) {
+
+			scorerTime.add(nanos);
+		}
+
+		void addIterateTime(long nanos) {
+
+			iterateTime.add(nanos);
+		}
+
+		void addMatchTime(long nanos) {
+
+			matchTime.add(nanos);
+		}
+
+		void addScoreTime(long nanos) {
+
+			scoreTime.add(nanos);
+		}
+
+		void addCost(long estimatedCost) {
+
+			cost.add(estimatedCost);
+		}
+
+		void addPostingVisited() {
+
+			postingsVisited.increment();
+		}
+
+		void addDocMatched() {
+
+			docsMatched.increment();
+		}
+
+		void addScore(float score) {
+
+			scoreContribution.add(score);
+		}
+
+	}
+
+}
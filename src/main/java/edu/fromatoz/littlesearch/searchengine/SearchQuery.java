@@ -0,0 +1,652 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code SearchQuery} class defines a query of the search engine, as typed clauses rather than as a string to be parsed:
+ * each clause is a word, with the synonyms by which it is expanded, an exact word (which is neither corrected nor expanded),
+ * a phrase, or words near each other.
+ * <p>The search engine builds the Lucene query from the clauses directly (see {@code Littlesearch.search(SearchQuery, boolean)}):
+ * each word is analysed once, its own terms are boosted by the <i>original boost</i>, and the terms of its synonyms,
+ * blended as one term, by the <i>synonym boost</i> (times their weight, if they are weighted). So, no form of the data warehouse could break the syntax of a query.
+ * The exact words and the phrases are searched in the unstemmed content (so, exactly but for the case and the elisions),
+ * the words near each other in the stemmed content (unless one of them is exact).</p>
+ * <p>The expansion of a query is bounded by a <i>budget</i>: the terms of the synonyms which the index does not contain are dropped,
+ * then the terms of the greatest weight are kept, as long as there are at most {@code getMaxSynonymTerms()} of them
+ * and as long as they have at most {@code getMaxSynonymPostings()} postings in all. So, a word of many synonyms costs no more than a few words.</p>
+ * <p>A query is immutable: it is built by a {@link SearchQuery.Builder}, or parsed from the syntax of the search engine
+ * (see {@code parse(String)}).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class SearchQuery {
+
+	/**
+	 * The default boost of the terms of the words themselves.
+	 */
+	public static final float DEFAULT_ORIGINAL_BOOST = 1.0f;
+
+	/**
+	 * The default boost of the terms of the synonyms (lower, so that the texts which contain the words themselves are found first).
+	 */
+	public static final float DEFAULT_SYNONYM_BOOST = 0.5f;
+
+	/**
+	 * The default maximum number of the terms of the synonyms of a query (each of them being a term which Lucene seeks).
+	 */
+	public static final int DEFAULT_MAX_SYNONYM_TERMS = 64;
+
+	/**
+	 * The default maximum number of the postings of the terms of the synonyms of a query (the documents which contain them, term by term).
+	 */
+	public static final long DEFAULT_MAX_SYNONYM_POSTINGS = 100000L;
+
+	/**
+	 * The default maximum number of positions between words which should be near each other (when the operator gives none).
+	 */
+	public static final int DEFAULT_NEAR_SLOP = 5;
+
+	// The operator of the words which should be near each other ("NEAR", or "NEAR/n" where n is the maximum number of positions between them)...
+	private static final Pattern NEAR_OPERATOR_PATTERN = Pattern.compile("^NEAR(?:/(\\d{1,4}))?$");
+
+	// The delimiter of a phrase...
+	private static final char PHRASE_DELIMITER = '"';
+
+	// The delimiter of an exact word...
+	private static final String EXACT_WORD_DELIMITER = "_";
+
+	private final List<Clause> clauses;
+
+	private final float originalBoost;
+
+	private final float synonymBoost;
+
+	private final int maxSynonymTerms;
+
+	private final long maxSynonymPostings;
+
+	private SearchQuery(Builder builder) {
+
+		clauses = Collections.unmodifiableList(new ArrayList<>(builder.clauses));
+		originalBoost = builder.originalBoost;
+		synonymBoost = builder.synonymBoost;
+		maxSynonymTerms = builder.maxSynonymTerms;
+		maxSynonymPostings = builder.maxSynonymPostings;
+	}
+
+	/**
+	 * Parses a query (without synonyms) from the syntax of the search engine:
+	 * <ul>
+	 * <li>{@code word}: a word;</li>
+	 * <li>{@code _word_}: an exact word;</li>
+	 * <li>{@code "some words"}: a phrase (a quote which is not closed is closed at the end of the query);</li>
+	 * <li>{@code word NEAR/n word}: words which are at most <i>n</i> positions away from each other, in any order
+	 * ({@code NEAR} alone meaning {@code NEAR/5}); the operator could be chained ({@code a NEAR/2 b NEAR/3 c}: the greatest distance is kept).</li>
+	 * </ul>
+	 * Any other character is part of a word (there is no other syntax, so no query is malformed).
+	 * 
+	 * @param text
+	 *  the text of the query
+	 * 
+	 * @return the query
+	 */
+	public static SearchQuery parse(String text) {
+
+		Builder builder = new Builder();
+
+		// The operands of the words near each other, being parsed (or null), and their distance...
+		List<String> nearWords = null;
+		boolean nearExact = false;
+		int nearSlop = 0;
+		// The distance of the pending operator (or -1), which expects its next operand...
+		int pendingSlop = -1;
+
+		int i = 0;
+		while (i < text.length()) {
+			if (Character.isWhitespace(text.charAt(i))) {
+				i++;
+				continue;
+			}
+
+			// Reads a phrase, or a word...
+			String token;
+			boolean phrase = text.charAt(i) == PHRASE_DELIMITER;
+			if (phrase) {
+				int end = text.indexOf(PHRASE_DELIMITER, i + 1);
+				token = text.substring(i + 1, (end < 0) ? text.length() : end);
+				i = (end < 0) ? text.length() : end + 1;
+			} else {
+				int end = i;
+				while ((end < text.length()) && !(Character.isWhitespace(text.charAt(end)))) {
+					end++;
+				}
+				token = text.substring(i, end);
+				i = end;
+			}
+
+			Matcher nearOperatorMatcher = NEAR_OPERATOR_PATTERN.matcher(token);
+			if (!phrase && nearOperatorMatcher.matches() && (nearWords != null)) {
+				pendingSlop = (nearOperatorMatcher.group(1) != null) ? Integer.parseInt(nearOperatorMatcher.group(1)) : DEFAULT_NEAR_SLOP;
+				continue;
+			}
+
+			boolean exact = !phrase && isExactWord(token);
+			String word = exact ? token.substring(1, token.length() - 1) : token;
+			if ((pendingSlop >= 0) && !phrase) {
+				// The next operand of the words near each other...
+				nearWords.add(word);
+				nearExact |= exact;
+				nearSlop = Math.max(nearSlop, pendingSlop);
+				pendingSlop = -1;
+				continue;
+			}
+
+			// (Otherwise, the words near each other, if any, are complete.)
+			addNear(builder, nearWords, nearSlop, nearExact);
+			nearWords = null;
+			nearSlop = 0;
+			pendingSlop = -1;
+			if (phrase) {
+				if (!((word.trim()).isEmpty())) {
+					builder.addPhrase(Arrays.asList(word.trim().split("\\s+")));
+				}
+			} else {
+				// (A word could be the first operand of words near each other.)
+				nearWords = new ArrayList<>();
+				nearWords.add(word);
+				nearExact = exact;
+			}
+		}
+		addNear(builder, nearWords, nearSlop, nearExact);
+
+		return builder.build();
+	}
+
+	private static boolean isExactWord(String token) {
+
+		return (token.length() > 2) && token.startsWith(EXACT_WORD_DELIMITER) && token.endsWith(EXACT_WORD_DELIMITER);
+	}
+
+	/**
+	 * Adds the words near each other which are parsed (a single word being added as a word, or as an exact word).
+	 */
+	private static void addNear(Builder builder, List<String> nearWords, int nearSlop, boolean nearExact) {
+
+		if (nearWords == null) {
+			return;
+		}
+		if (nearWords.size() > 1) {
+			builder.addNear(nearWords, nearSlop, nearExact);
+		} else if (nearExact) {
+			builder.addExactWord(nearWords.get(0));
+		} else {
+			builder.addWord(nearWords.get(0));
+		}
+	}
+
+	/**
+	 * Returns the clauses of the query.
+	 * 
+	 * @return the list of the clauses (in the order in which they have been added)
+	 */
+	public List<Clause> getClauses() {
+
+		return clauses;
+	}
+
+	/**
+	 * Returns the boost of the terms of the words themselves.
+	 * 
+	 * @return the original boost
+	 */
+	public float getOriginalBoost() {
+
+		return originalBoost;
+	}
+
+	/**
+	 * Returns the boost of the terms of the synonyms.
+	 * 
+	 * @return the synonym boost
+	 */
+	public float getSynonymBoost() {
+
+		return synonymBoost;
+	}
+
+	/**
+	 * Returns the maximum number of the terms of the synonyms which are searched (the terms of the greatest weight being kept).
+	 * 
+	 * @return the maximum number of the terms of the synonyms
+	 */
+	public int getMaxSynonymTerms() {
+
+		return maxSynonymTerms;
+	}
+
+	/**
+	 * Returns the maximum number of the postings of the terms of the synonyms which are searched (the terms of the greatest weight being kept).
+	 * 
+	 * @return the maximum number of the postings of the terms of the synonyms
+	 */
+	public long getMaxSynonymPostings() {
+
+		return maxSynonymPostings;
+	}
+
+	/**
+	 * Returns whether the query has no clause.
+	 * 
+	 * @return <i>true</i>, if the query is empty
+	 */
+	public boolean isEmpty() {
+
+		return clauses.isEmpty();
+	}
+
+	/**
+	 * Returns the clauses, separated by commas: the exact words between underscores, the synonyms of each word between braces.
+	 */
+	@Override
+	public String toString() {
+
+		List<String> clauseStrings = new ArrayList<>();
+		for (Clause clause : clauses) {
+			clauseStrings.add(clause.toString());
+		}
+
+		return String.join((Separator.COMMA).getValue() + (Separator.SPACE).getValue(), clauseStrings);
+	}
+
+	/**
+	 * The {@code Clause} class defines a clause of a query: a word (with its synonyms), an exact word, a phrase, or words near each other.
+	 */
+	public static class Clause {
+
+		/**
+		 * The type of a clause.
+		 */
+		public enum Type {
+
+			/**
+			 * A word, with its synonyms (searched in the stemmed content).
+			 */
+			WORD,
+
+			/**
+			 * An exact word (searched in the unstemmed content).
+			 */
+			EXACT_WORD,
+
+			/**
+			 * A phrase: words which follow each other (searched in the unstemmed content).
+			 */
+			PHRASE,
+
+			/**
+			 * Words near each other, in any order (searched in the stemmed content, unless one of them is exact).
+			 */
+			NEAR
+
+		}
+
+		private final Type type;
+
+		private final List<String> words;
+
+		private final Map<String, Float> synonyms;
+
+		private final int slop;
+
+		private final boolean exact;
+
+		private Clause(Type type, List<String> words, Map<String, Float> synonyms, int slop, boolean exact) {
+
+			this.type = type;
+			this.words = Collections.unmodifiableList(new ArrayList<>(words));
+			this.synonyms = Collections.unmodifiableMap(synonyms);
+			this.slop = slop;
+			this.exact = exact;
+		}
+
+		/**
+		 * Returns the type of the clause.
+		 * 
+		 * @return the type
+		 */
+		public Type getType() {
+
+			return type;
+		}
+
+		/**
+		 * Returns the word of the clause (the words, separated by spaces, for a phrase or for words near each other).
+		 * 
+		 * @return the word
+		 */
+		public String getWord() {
+
+			return String.join((Separator.SPACE).getValue(), words);
+		}
+
+		/**
+		 * Returns the words of the clause.
+		 * 
+		 * @return the list of the words (only one, for a word or for an exact word)
+		 */
+		public List<String> getWords() {
+
+			return words;
+		}
+
+		/**
+		 * Returns whether the words should be found exactly (so, they have no synonym).
+		 * 
+		 * @return <i>true</i>, for an exact word, a phrase, or words near each other of which one is exact
+		 */
+		public boolean isExact() {
+
+			return exact;
+		}
+
+		/**
+		 * Returns the synonyms by which the word is expanded.
+		 * 
+		 * @return the set of the synonyms (this set could be empty, and it is for any clause which is not a word)
+		 */
+		public Set<String> getSynonyms() {
+
+			return synonyms.keySet();
+		}
+
+		/**
+		 * Returns the weight of a synonym, by which the synonym boost is multiplied.
+		 * 
+		 * @param synonym
+		 *  the synonym
+		 * 
+		 * @return the weight (in ]0, 1]; 1, for a synonym which is not weighted)
+		 */
+		public float getSynonymWeight(String synonym) {
+
+			return synonyms.getOrDefault(synonym, 1.0f);
+		}
+
+		/**
+		 * Returns the maximum number of positions between the words near each other.
+		 * 
+		 * @return the slop (0, for any clause which is not words near each other)
+		 */
+		public int getSlop() {
+
+			return slop;
+		}
+
+		@Override
+		public String toString() {
+
+			switch (type) {
+			case EXACT_WORD:
+				return EXACT_WORD_DELIMITER + getWord() + EXACT_WORD_DELIMITER;
+			case PHRASE:
+				return PHRASE_DELIMITER + getWord() + PHRASE_DELIMITER;
+			case NEAR:
+				List<String> operands = new ArrayList<>();
+				for (String word : words) {
+					operands.add(exact ? EXACT_WORD_DELIMITER + word + EXACT_WORD_DELIMITER : word);
+				}
+				return String.join((Separator.SPACE).getValue() + "NEAR/" + slop + (Separator.SPACE).getValue(), operands);
+			default:
+				List<String> synonymStrings = new ArrayList<>();
+				for (Map.Entry<String, Float> synonym : synonyms.entrySet()) {
+					synonymStrings.add((synonym.getValue() < 1.0f) ? synonym.getKey() + "^" + synonym.getValue() : synonym.getKey());
+				}
+				return synonyms.isEmpty() ? getWord() : getWord() + (Separator.SPACE).getValue() + "{" + String.join((Separator.COMMA).getValue() + (Separator.SPACE).getValue(), synonymStrings) + "}";
+			}
+		}
+
+	}
+
+	/**
+	 * The {@code Builder} class builds a query, clause by clause.
+	 */
+	public static class Builder {
+
+		private final List<Clause> clauses = new ArrayList<>();
+
+		private float originalBoost = DEFAULT_ORIGINAL_BOOST;
+
+		private float synonymBoost = DEFAULT_SYNONYM_BOOST;
+
+		private int maxSynonymTerms = DEFAULT_MAX_SYNONYM_TERMS;
+
+		private long maxSynonymPostings = DEFAULT_MAX_SYNONYM_POSTINGS;
+
+		/**
+		 * Adds a word, without synonyms.
+		 * 
+		 * @param word
+		 *  the word
+		 * 
+		 * @return this builder
+		 */
+		public Builder addWord(String word) {
+
+			return addWord(word, Collections.<String>emptySet());
+		}
+
+		/**
+		 * Adds a word, with the synonyms by which it is expanded (see {@code Synonymysearch.expand(String)}).
+		 * 
+		 * @param word
+		 *  the word
+		 * @param synonyms
+		 *  the synonyms of the word (the word itself, if it is among them, is ignored)
+		 * 
+		 * @return this builder
+		 */
+		public Builder addWord(String word, Collection<String> synonyms) {
+
+			Map<String, Float> weightedSynonyms = new TreeMap<>();
+			for (String synonym : synonyms) {
+				weightedSynonyms.put(synonym, 1.0f);
+			}
+
+			return addWord(word, weightedSynonyms);
+		}
+
+		/**
+		 * Adds a word, with the weighted synonyms by which it is expanded (see {@code Synonymysearch.expand(String)}).
+		 * 
+		 * @param word
+		 *  the word
+		 * @param synonyms
+		 *  the synonyms of the word, with their weight (the word itself, if it is among them, is ignored)
+		 * 
+		 * @return this builder
+		 * 
+		 * @throws IllegalArgumentException
+		 *  if a weight is not in ]0, 1]
+		 */
+		public Builder addWord(String word, Map<String, Float> synonyms) {
+
+			Map<String, Float> wordSynonyms = new TreeMap<>();
+			for (Map.Entry<String, Float> synonym : synonyms.entrySet()) {
+				if (!((synonym.getValue() > 0) && (synonym.getValue() <= 1))) {
+					throw new IllegalArgumentException("A weight should be in ]0, 1]: " + synonym.getValue() + ".");
+				}
+				wordSynonyms.put(synonym.getKey(), synonym.getValue());
+			}
+			wordSynonyms.remove(word);
+			clauses.add(new Clause(Clause.Type.WORD, Collections.singletonList(word), wordSynonyms, 0, false));
+
+			return this;
+		}
+
+		/**
+		 * Adds an exact word (which is neither corrected nor expanded).
+		 * 
+		 * @param word
+		 *  the word
+		 * 
+		 * @return this builder
+		 */
+		public Builder addExactWord(String word) {
+
+			clauses.add(new Clause(Clause.Type.EXACT_WORD, Collections.singletonList(word), Collections.emptyMap(), 0, true));
+
+			return this;
+		}
+
+		/**
+		 * Adds a phrase: words which should follow each other, exactly.
+		 * 
+		 * @param words
+		 *  the words of the phrase
+		 * 
+		 * @return this builder
+		 */
+		public Builder addPhrase(List<String> words) {
+
+			clauses.add(new Clause(Clause.Type.PHRASE, words, Collections.emptyMap(), 0, true));
+
+			return this;
+		}
+
+		/**
+		 * Adds words which should be near each other, in any order.
+		 * 
+		 * @param words
+		 *  the words
+		 * @param slop
+		 *  the maximum number of positions between them (positive)
+		 * @param exact
+		 *  <i>true</i>, if the words should be found exactly
+		 * 
+		 * @return this builder
+		 */
+		public Builder addNear(List<String> words, int slop, boolean exact) {
+
+			if (slop < 0) {
+				throw new IllegalArgumentException("A slop should be positive: " + slop + ".");
+			}
+			clauses.add(new Clause(Clause.Type.NEAR, words, Collections.emptyMap(), slop, exact));
+
+			return this;
+		}
+
+		/**
+		 * Adds a clause (of another query).
+		 * 
+		 * @param clause
+		 *  the clause
+		 * 
+		 * @return this builder
+		 */
+		public Builder add(Clause clause) {
+
+			clauses.add(clause);
+
+			return this;
+		}
+
+		/**
+		 * Sets the boost of the terms of the words themselves ({@code DEFAULT_ORIGINAL_BOOST}, by default).
+		 * 
+		 * @param boost
+		 *  the original boost (positive)
+		 * 
+		 * @return this builder
+		 */
+		public Builder setOriginalBoost(float boost) {
+
+			originalBoost = checkBoost(boost);
+
+			return this;
+		}
+
+		/**
+		 * Sets the boost of the terms of the synonyms ({@code DEFAULT_SYNONYM_BOOST}, by default).
+		 * 
+		 * @param boost
+		 *  the synonym boost (positive)
+		 * 
+		 * @return this builder
+		 */
+		public Builder setSynonymBoost(float boost) {
+
+			synonymBoost = checkBoost(boost);
+
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of the terms of the synonyms which are searched ({@code DEFAULT_MAX_SYNONYM_TERMS}, by default).
+		 * 
+		 * @param maxTerms
+		 *  the maximum number of the terms (positive; 0, for searching for no synonym)
+		 * 
+		 * @return this builder
+		 */
+		public Builder setMaxSynonymTerms(int maxTerms) {
+
+			if (maxTerms < 0) {
+				throw new IllegalArgumentException("A maximum number of terms should be positive: " + maxTerms + ".");
+			}
+			maxSynonymTerms = maxTerms;
+
+			return this;
+		}
+
+		/**
+		 * Sets the maximum number of the postings of the terms of the synonyms which are searched ({@code DEFAULT_MAX_SYNONYM_POSTINGS}, by default).
+		 * 
+		 * @param maxPostings
+		 *  the maximum number of the postings (positive; 0, for searching for no synonym)
+		 * 
+		 * @return this builder
+		 */
+		public Builder setMaxSynonymPostings(long maxPostings) {
+
+			if (maxPostings < 0) {
+				throw new IllegalArgumentException("A maximum number of postings should be positive: " + maxPostings + ".");
+			}
+			maxSynonymPostings = maxPostings;
+
+			return this;
+		}
+
+		/**
+		 * Builds the query.
+		 * 
+		 * @return the query
+		 */
+		public SearchQuery build() {
+
+			return new SearchQuery(this);
+		}
+
+		private static float checkBoost(float boost) {
+
+			if (!(boost > 0) || Float.isInfinite(boost)) {
+				throw new IllegalArgumentException("A boost should be positive and finite: " + boost + ".");
+			}
+
+			return boost;
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.FilterMergePolicy;
+import org.apache.lucene.index.MergeTrigger;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.TieredMergePolicy;
+
+/**
+ * The {@code SegmentCountMergePolicy} class defines a merge policy which keeps a target number of segments.
+ * <p>The segments are the units of the parallel search (one slice per segment): this policy only merges
+ * (the smallest segments, together) when the index has more segments than the target; the forced merges
+ * are left to a {@link TieredMergePolicy}.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class SegmentCountMergePolicy extends FilterMergePolicy {
+
+	private final int targetSegmentCount;
+
+	/**
+	 * Constructs a merge policy which keeps a target number of segments.
+	 * 
+	 * @param targetSegmentCount
+	 *  the target number of segments (the number of cores, ordinarily)
+	 */
+	public SegmentCountMergePolicy(int targetSegmentCount) {
+
+		super(new TieredMergePolicy());
+
+		this.targetSegmentCount = targetSegmentCount;
+	}
+
+	/**
+	 * Returns the target number of segments.
+	 * 
+	 * @return the target number of segments
+	 */
+	public int getTargetSegmentCount() {
+
+		return targetSegmentCount;
+	}
+
+	@Override
+	public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, MergeContext mergeContext) throws IOException {
+
+		int excessSegmentCount = segmentInfos.size() - targetSegmentCount;
+		if (excessSegmentCount <= 0) {
+			return null;
+		}
+
+		// Gets the segments which are not already merging, with their size...
+		List<SegmentCommitInfo> candidates = new ArrayList<>();
+		Map<SegmentCommitInfo, Long> sizes = new HashMap<>();
+		for (SegmentCommitInfo segmentCommitInfo : segmentInfos) {
+			if (!((mergeContext.getMergingSegments()).contains(segmentCommitInfo))) {
+				candidates.add(segmentCommitInfo);
+				sizes.put(segmentCommitInfo, size(segmentCommitInfo, mergeContext));
+			}
+		}
+		if (candidates.size() <= excessSegmentCount) {
+			return null;
+		}
+
+		// Merges the smallest segments into one, so that the target number of segments is reached...
+		candidates.sort((s1, s2) -> Long.compare(sizes.get(s1), sizes.get(s2)));
+		MergeSpecification mergeSpecification = new MergeSpecification();
+		mergeSpecification.add(new OneMerge(new ArrayList<>(candidates.subList(0, excessSegmentCount + 1))));
+
+		return mergeSpecification;
+	}
+
+	@Override
+	public String toString() {
+
+		return getClass().getSimpleName() + "(" + targetSegmentCount + ")";
+	}
+
+}
@@ -0,0 +1,285 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.Stage;
+
+/**
+ * The {@code ShardCoordinator} class defines the coordinator of several shard processes (see {@link ShardServer}),
+ * each one searching a slice of the corpus, so that the corpus is not bounded by the memory of one JVM.
+ * <p>Each query, of which the words are already expanded by synonymy (once, by the coordinator), is scattered to all the shards at once;
+ * their best documents are then gathered and merged by score (see {@link ShardedLittlesearch}).
+ * A shard which does not respond before the timeout (or which fails) is left out: the result is then <i>partial</i>,
+ * and tells which shards are missing.</p>
+ * <p>The content of a document found is fetched from its shard, when it is requested.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ShardCoordinator implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ShardCoordinator.class);
+
+	/**
+	 * The default timeout of a shard (in milliseconds).
+	 */
+	public static final long DEFAULT_TIMEOUT = 1_000L;
+
+	// The metrics of the searches of the shards (each request, from the coordinator)...
+	private static final Stage SHARD_STAGE = Metrics.stage("coordinator.shard");
+
+	private final List<String> shardUrls;
+
+	private final long timeoutMillis;
+
+	// The executor which requests the shards (one thread per pending request)...
+	private final ExecutorService executor;
+
+	/**
+	 * Constructs a coordinator of shards.
+	 * 
+	 * @param shardUrls
+	 *  the URLs of the servers of the shards, such as "http://127.0.0.1:8080"
+	 * @param timeoutMillis
+	 *  the timeout of each shard (in milliseconds), after which a search goes on without it
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no shard, or if the timeout is not positive
+	 */
+	public ShardCoordinator(List<String> shardUrls, long timeoutMillis) {
+
+		if (shardUrls.isEmpty()) {
+			throw new IllegalArgumentException("No shard is given.");
+		}
+		if (timeoutMillis <= 0) {
+			throw new IllegalArgumentException("A timeout should be positive: " + timeoutMillis + ".");
+		}
+
+		this.shardUrls = Collections.unmodifiableList(new ArrayList<>(shardUrls));
+		this.timeoutMillis = timeoutMillis;
+
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "shard-coordinator");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the URLs of the servers of the shards.
+	 * 
+	 * @return the list of the URLs
+	 */
+	public List<String> getShardUrls() {
+
+		return shardUrls;
+	}
+
+	/**
+	 * Searches all the shards for a query (of which the words should already be expanded by synonymy).
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * 
+	 * @return the result: the list of the best documents of the shards which have responded in time (this list could be empty),
+	 *  and the shards which have not
+	 */
+	public Result search(SearchQuery searchQuery) {
+
+		byte[] query;
+		try {
+			query = ShardProtocol.writeQuery(searchQuery);
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+
+			return new Result(new ArrayList<>(), shardUrls);
+		}
+
+		// Scatters the query...
+		List<Future<List<Littlesearch.Document>>> futures = new ArrayList<>();
+		for (String shardUrl : shardUrls) {
+			futures.add(executor.submit(() -> searchShard(shardUrl, query)));
+		}
+
+		// Gathers the documents of the shards, until the timeout (which is the same for all of them, since they are searched at once)...
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		List<List<Littlesearch.Document>> shardDocuments = new ArrayList<>();
+		List<String> missingShardUrls = new ArrayList<>();
+		for (int i = 0; i < futures.size(); i++) {
+			Future<List<Littlesearch.Document>> future = futures.get(i);
+			try {
+				shardDocuments.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			} catch (InterruptedException ie) {
+				LOGGER.error(ie);
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+				missingShardUrls.add(shardUrls.get(i));
+			} catch (ExecutionException | TimeoutException e) {
+				SHARD_STAGE.recordError();
+				LOGGER.warn("The shard \"" + shardUrls.get(i) + "\" is left out: " + ((e instanceof TimeoutException) ? "timeout." : e.getCause()));
+				future.cancel(true);
+				missingShardUrls.add(shardUrls.get(i));
+			}
+		}
+
+		return new Result(ShardedLittlesearch.merge(shardDocuments), missingShardUrls);
+	}
+
+	/**
+	 * Searches a shard for a query.
+	 * 
+	 * @param shardUrl
+	 *  the URL of the server of the shard
+	 * @param query
+	 *  the JSON of the query
+	 * 
+	 * @return the list of the best documents of the shard
+	 * 
+	 * @throws IOException
+	 *  if the shard does not respond (in time), or if it fails
+	 */
+	private List<Littlesearch.Document> searchShard(String shardUrl, byte[] query) throws IOException {
+
+		long start = System.nanoTime();
+		HttpURLConnection connection = open(shardUrl + ShardProtocol.SEARCH_PATH);
+		try {
+			connection.setRequestMethod("POST");
+			connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+			connection.setDoOutput(true);
+			try (OutputStream outputStream = connection.getOutputStream()) {
+				outputStream.write(query);
+			}
+			checkResponseCode(shardUrl, connection);
+			try (InputStream inputStream = connection.getInputStream()) {
+				return ShardProtocol.readDocuments(inputStream, path -> fetchContent(shardUrl, path));
+			}
+		} finally {
+			connection.disconnect();
+			SHARD_STAGE.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Fetches the content of a text from its shard.
+	 * 
+	 * @param shardUrl
+	 *  the URL of the server of the shard
+	 * @param path
+	 *  the path of the text
+	 * 
+	 * @return the content of the text (or <i>null</i>, if the shard no longer contains the text)
+	 * 
+	 * @throws IOException
+	 *  if the shard does not respond (in time), or if it fails
+	 */
+	private String fetchContent(String shardUrl, String path) throws IOException {
+
+		HttpURLConnection connection = open(shardUrl + ShardProtocol.CONTENT_PATH + "?" + ShardProtocol.PATH_PARAMETER + "=" + URLEncoder.encode(path, StandardCharsets.UTF_8.name()));
+		try {
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+				return null;
+			}
+			checkResponseCode(shardUrl, connection);
+			try (InputStream inputStream = connection.getInputStream()) {
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8_192];
+				int length;
+				while ((length = inputStream.read(buffer)) > 0) {
+					content.write(buffer, 0, length);
+				}
+				return new String(content.toByteArray(), StandardCharsets.UTF_8);
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private HttpURLConnection open(String url) throws IOException {
+
+		HttpURLConnection connection = (HttpURLConnection) (new URL(url)).openConnection();
+		// (The timeouts of the connection also bound a request which the coordinator no longer waits for.)
+		connection.setConnectTimeout((int) Math.min(Integer.MAX_VALUE, timeoutMillis));
+		connection.setReadTimeout((int) Math.min(Integer.MAX_VALUE, timeoutMillis));
+
+		return connection;
+	}
+
+	private static void checkResponseCode(String shardUrl, HttpURLConnection connection) throws IOException {
+
+		int responseCode = connection.getResponseCode();
+		if (responseCode != HttpURLConnection.HTTP_OK) {
+			throw new IOException("The shard \"" + shardUrl + "\" responds " + responseCode + ".");
+		}
+	}
+
+	/**
+	 * Stops requesting the shards (the shard processes being left running).
+	 */
+	@Override
+	public void close() {
+
+		executor.shutdownNow();
+	}
+
+	/**
+	 * The {@code Result} class defines the result of a search of the shards: the documents found and the shards which are missing.
+	 */
+	public static class Result extends Littlesearch.Result {
+
+		private final List<String> missingShardUrls;
+
+		private Result(List<Littlesearch.Document> documents, List<String> missingShardUrls) {
+
+			super(documents, null);
+			this.missingShardUrls = Collections.unmodifiableList(new ArrayList<>(missingShardUrls));
+		}
+
+		/**
+		 * Returns the shards which have not responded in time (or which have failed).
+		 * 
+		 * @return the list of the URLs of their servers (this list is empty, if the result is complete)
+		 */
+		public List<String> getMissingShardUrls() {
+
+			return missingShardUrls;
+		}
+
+		/**
+		 * Returns whether some shards are missing from the result.
+		 * 
+		 * @return <i>true</i>, if the result is partial
+		 */
+		public boolean isPartial() {
+
+			return !(missingShardUrls.isEmpty());
+		}
+
+	}
+
+}
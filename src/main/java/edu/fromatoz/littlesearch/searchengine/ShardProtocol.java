@@ -0,0 +1,226 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The {@code ShardProtocol} class defines what a coordinator (see {@link ShardCoordinator}) and the servers of the shards
+ * (see {@link ShardServer}) exchange, over HTTP on the loopback interface:
+ * <ul>
+ * <li>{@code POST /search}: a query, as JSON (its clauses, with the synonyms (and their weights) by which the coordinator has expanded the words,
+ * its boosts and its budget, which each shard applies to its own terms), answered by the best documents of the shard, as JSON (their numbers, scores, paths and snippets);</li>
+ * <li>{@code GET /content?path=...}: the content of a text, as plain text (404, if the shard does not contain it).</li>
+ * </ul>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+final class ShardProtocol {
+
+	/**
+	 * The path of the searches.
+	 */
+	static final String SEARCH_PATH = "/search";
+
+	/**
+	 * The path of the contents of the texts.
+	 */
+	static final String CONTENT_PATH = "/content";
+
+	/**
+	 * The parameter of the path of a text (whose content is requested).
+	 */
+	static final String PATH_PARAMETER = "path";
+
+	// The names of the fields of a query...
+	private static final String ORIGINAL_BOOST_FIELD = "original_boost";
+	private static final String SYNONYM_BOOST_FIELD = "synonym_boost";
+	private static final String MAX_SYNONYM_TERMS_FIELD = "max_synonym_terms";
+	private static final String MAX_SYNONYM_POSTINGS_FIELD = "max_synonym_postings";
+	private static final String CLAUSES_FIELD = "clauses";
+	private static final String TYPE_FIELD = "type";
+	private static final String WORDS_FIELD = "words";
+	private static final String SYNONYMS_FIELD = "synonyms";
+	private static final String SYNONYM_WEIGHTS_FIELD = "synonym_weights";
+	private static final String SLOP_FIELD = "slop";
+	private static final String EXACT_FIELD = "exact";
+
+	// The names of the fields of the documents found...
+	private static final String DOCUMENTS_FIELD = "documents";
+	private static final String NUMBER_FIELD = "number";
+	private static final String SCORE_FIELD = "score";
+	private static final String PATH_FIELD = "path";
+	private static final String SNIPPET_FIELD = "snippet";
+
+	// (An object mapper can be shared by several threads, once it is configured.)
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private ShardProtocol() {
+
+		throw new IllegalStateException("ShardProtocol class");
+	}
+
+	/**
+	 * Writes a query as JSON.
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * 
+	 * @return the JSON of the query (as UTF-8 bytes)
+	 * 
+	 * @throws IOException
+	 *  if the query cannot be written
+	 */
+	static byte[] writeQuery(SearchQuery searchQuery) throws IOException {
+
+		ObjectNode queryNode = OBJECT_MAPPER.createObjectNode();
+		queryNode.put(ORIGINAL_BOOST_FIELD, searchQuery.getOriginalBoost());
+		queryNode.put(SYNONYM_BOOST_FIELD, searchQuery.getSynonymBoost());
+		queryNode.put(MAX_SYNONYM_TERMS_FIELD, searchQuery.getMaxSynonymTerms());
+		queryNode.put(MAX_SYNONYM_POSTINGS_FIELD, searchQuery.getMaxSynonymPostings());
+		ArrayNode clausesNode = queryNode.putArray(CLAUSES_FIELD);
+		for (SearchQuery.Clause clause : searchQuery.getClauses()) {
+			ObjectNode clauseNode = clausesNode.addObject();
+			clauseNode.put(TYPE_FIELD, (clause.getType()).name());
+			ArrayNode wordsNode = clauseNode.putArray(WORDS_FIELD);
+			clause.getWords().forEach(wordsNode::add);
+			ArrayNode synonymsNode = clauseNode.putArray(SYNONYMS_FIELD);
+			ArrayNode synonymWeightsNode = clauseNode.putArray(SYNONYM_WEIGHTS_FIELD);
+			for (String synonym : clause.getSynonyms()) {
+				synonymsNode.add(synonym);
+				synonymWeightsNode.add(clause.getSynonymWeight(synonym));
+			}
+			clauseNode.put(SLOP_FIELD, clause.getSlop());
+			clauseNode.put(EXACT_FIELD, clause.isExact());
+		}
+
+		return OBJECT_MAPPER.writeValueAsBytes(queryNode);
+	}
+
+	/**
+	 * Reads a query from JSON.
+	 * 
+	 * @param inputStream
+	 *  the stream of the JSON of the query
+	 * 
+	 * @return the query
+	 * 
+	 * @throws IOException
+	 *  if the query cannot be read
+	 * @throws IllegalArgumentException
+	 *  if the query is not valid (an unknown type of clause, a clause without words, or a boost which is not positive)
+	 */
+	static SearchQuery readQuery(InputStream inputStream) throws IOException {
+
+		JsonNode queryNode = OBJECT_MAPPER.readTree(inputStream);
+
+		SearchQuery.Builder builder = (new SearchQuery.Builder())
+				.setOriginalBoost((float) (queryNode.path(ORIGINAL_BOOST_FIELD)).asDouble(SearchQuery.DEFAULT_ORIGINAL_BOOST))
+				.setSynonymBoost((float) (queryNode.path(SYNONYM_BOOST_FIELD)).asDouble(SearchQuery.DEFAULT_SYNONYM_BOOST))
+				.setMaxSynonymTerms((queryNode.path(MAX_SYNONYM_TERMS_FIELD)).asInt(SearchQuery.DEFAULT_MAX_SYNONYM_TERMS))
+				.setMaxSynonymPostings((queryNode.path(MAX_SYNONYM_POSTINGS_FIELD)).asLong(SearchQuery.DEFAULT_MAX_SYNONYM_POSTINGS));
+		for (JsonNode clauseNode : queryNode.path(CLAUSES_FIELD)) {
+			List<String> words = toStrings(clauseNode.path(WORDS_FIELD));
+			if (words.isEmpty()) {
+				throw new IllegalArgumentException("A clause should have words.");
+			}
+			switch (SearchQuery.Clause.Type.valueOf((clauseNode.path(TYPE_FIELD)).asText())) {
+			case EXACT_WORD:
+				builder.addExactWord(words.get(0));
+				break;
+			case PHRASE:
+				builder.addPhrase(words);
+				break;
+			case NEAR:
+				builder.addNear(words, (clauseNode.path(SLOP_FIELD)).asInt(), (clauseNode.path(EXACT_FIELD)).asBoolean());
+				break;
+			default:
+				// (The synonyms which are not weighted weigh 1.)
+				Map<String, Float> synonyms = new LinkedHashMap<>();
+				JsonNode synonymWeightsNode = clauseNode.path(SYNONYM_WEIGHTS_FIELD);
+				int i = 0;
+				for (String synonym : toStrings(clauseNode.path(SYNONYMS_FIELD))) {
+					synonyms.put(synonym, (float) (synonymWeightsNode.path(i++)).asDouble(1.0));
+				}
+				builder.addWord(words.get(0), synonyms);
+				break;
+			}
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Writes documents found as JSON.
+	 * 
+	 * @param documents
+	 *  the documents
+	 * 
+	 * @return the JSON of the documents (as UTF-8 bytes)
+	 * 
+	 * @throws IOException
+	 *  if the documents cannot be written
+	 */
+	static byte[] writeDocuments(List<Littlesearch.Document> documents) throws IOException {
+
+		ObjectNode resultNode = OBJECT_MAPPER.createObjectNode();
+		ArrayNode documentsNode = resultNode.putArray(DOCUMENTS_FIELD);
+		for (Littlesearch.Document document : documents) {
+			ObjectNode documentNode = documentsNode.addObject();
+			documentNode.put(NUMBER_FIELD, document.getNumber());
+			documentNode.put(SCORE_FIELD, document.getScore());
+			documentNode.put(PATH_FIELD, document.getPath());
+			documentNode.put(SNIPPET_FIELD, document.getSnippet());
+		}
+
+		return OBJECT_MAPPER.writeValueAsBytes(resultNode);
+	}
+
+	/**
+	 * Reads documents found from JSON.
+	 * 
+	 * @param inputStream
+	 *  the stream of the JSON of the documents
+	 * @param contentSource
+	 *  the source from which the content of the documents is fetched, when it is requested
+	 * 
+	 * @return the list of the documents (in the order in which they have been written)
+	 * 
+	 * @throws IOException
+	 *  if the documents cannot be read
+	 */
+	static List<Littlesearch.Document> readDocuments(InputStream inputStream, Littlesearch.Document.ContentSource contentSource) throws IOException {
+
+		List<Littlesearch.Document> documents = new ArrayList<>();
+
+		for (JsonNode documentNode : (OBJECT_MAPPER.readTree(inputStream)).path(DOCUMENTS_FIELD)) {
+			JsonNode snippetNode = documentNode.path(SNIPPET_FIELD);
+			documents.add(new Littlesearch.Document((documentNode.path(NUMBER_FIELD)).asInt(), (float) (documentNode.path(SCORE_FIELD)).asDouble(),
+					(documentNode.path(PATH_FIELD)).asText(), snippetNode.isTextual() ? snippetNode.asText() : null, contentSource));
+		}
+
+		return documents;
+	}
+
+	private static List<String> toStrings(JsonNode arrayNode) {
+
+		List<String> strings = new ArrayList<>();
+		for (JsonNode node : arrayNode) {
+			strings.add(node.asText());
+		}
+
+		return strings;
+	}
+
+}
@@ -0,0 +1,184 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code ShardServer} class defines a local HTTP server which serves the searches of a shard (a search engine over a slice of the corpus)
+ * to a coordinator (see {@link ShardCoordinator}), on the loopback interface (see {@link ShardProtocol}).
+ * <p>The queries are searched as they are received (so, with the synonyms by which the coordinator has expanded the words,
+ * and without correcting them), by several threads at once.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ShardServer implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ShardServer.class);
+
+	// The parameter of the path of a text, as it starts the query of the URL...
+	private static final String PATH_QUERY_PREFIX = ShardProtocol.PATH_PARAMETER + "=";
+
+	// Disables Nagle's algorithm on the connections of the server (which, otherwise, delays each response by some 40 ms),
+	// unless it is configured (the property is read once, when the first server is created)...
+	static {
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", Boolean.TRUE.toString());
+		}
+	}
+
+	private final Littlesearch littlesearch;
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	/**
+	 * Constructs then starts the server of a shard, on a port of the loopback interface.
+	 * 
+	 * @param littlesearch
+	 *  the search engine of the shard (which is not closed by the server)
+	 * @param port
+	 *  the port (or 0, for a free port)
+	 * 
+	 * @throws IOException
+	 *  if the server cannot be started
+	 */
+	public ShardServer(Littlesearch littlesearch, int port) throws IOException {
+
+		this.littlesearch = littlesearch;
+
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "shard-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext(ShardProtocol.SEARCH_PATH, this::handleSearch);
+		server.createContext(ShardProtocol.CONTENT_PATH, this::handleContent);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * Returns the port of the server.
+	 * 
+	 * @return the port
+	 */
+	public int getPort() {
+
+		return (server.getAddress()).getPort();
+	}
+
+	/**
+	 * Returns the URL of the server (which is given to the coordinator).
+	 * 
+	 * @return the URL, such as "http://127.0.0.1:8080"
+	 */
+	public String getUrl() {
+
+		InetSocketAddress address = server.getAddress();
+
+		return "http://" + (address.getAddress()).getHostAddress() + Separator.COLON.getValue() + address.getPort();
+	}
+
+	/**
+	 * Stops the server (the search engine of the shard being left open).
+	 */
+	@Override
+	public void close() {
+
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Handles a search: reads the query, searches it, then responds with the best documents of the shard.
+	 * 
+	 * @param exchange
+	 *  the exchange of the request
+	 * 
+	 * @throws IOException
+	 *  if the response cannot be sent
+	 */
+	private void handleSearch(HttpExchange exchange) throws IOException {
+
+		try {
+			SearchQuery searchQuery;
+			try (InputStream inputStream = exchange.getRequestBody()) {
+				searchQuery = ShardProtocol.readQuery(inputStream);
+			} catch (IOException | IllegalArgumentException e) {
+				LOGGER.error(e);
+				exchange.sendResponseHeaders(400, -1);
+				return;
+			}
+			respond(exchange, ShardProtocol.writeDocuments((littlesearch.search(searchQuery, false)).getDocuments()), "application/json; charset=UTF-8");
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Handles a request of content: responds with the content of the text of the path (or with 404, if the shard does not contain it).
+	 * 
+	 * @param exchange
+	 *  the exchange of the request
+	 * 
+	 * @throws IOException
+	 *  if the response cannot be sent
+	 */
+	private void handleContent(HttpExchange exchange) throws IOException {
+
+		try {
+			String query = (exchange.getRequestURI()).getRawQuery();
+			String content = null;
+			if ((query != null) && query.startsWith(PATH_QUERY_PREFIX)) {
+				content = littlesearch.getContent(URLDecoder.decode(query.substring(PATH_QUERY_PREFIX.length()), StandardCharsets.UTF_8.name()));
+			}
+			if (content == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			respond(exchange, content.getBytes(StandardCharsets.UTF_8), "text/plain; charset=UTF-8");
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, byte[] body, String contentType) throws IOException {
+
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(body);
+		}
+	}
+
+}
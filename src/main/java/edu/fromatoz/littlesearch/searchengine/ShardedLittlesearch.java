@@ -0,0 +1,434 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+
+import edu.fromatoz.littlesearch.tool.Separator;
+
+/**
+ * The {@code ShardedLittlesearch} class defines a search engine over several named corpora:
+ * each corpus is indexed into its own index (its <i>shard</i>), by its own {@link Littlesearch}.
+ * <p>A search fans out across the shards (all of them, or the chosen ones), in parallel if an executor is given;
+ * the best documents of each shard are then merged (by {@link TopDocs#merge(int, TopDocs[])}) into the best documents of all.
+ * (Each shard scores its documents with its own statistics, so that the scores of the shards are only comparable
+ * as long as their corpora are alike.)</p>
+ * <p>Each shard records the version of its corpus (see {@link IndexArtifact}), so that it is rebuilt only when its corpus changes:
+ * a corpus could be added without indexing the others again, and the size of each shard is bounded by the size of its corpus.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class ShardedLittlesearch implements Closeable {
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = Logger.getLogger(ShardedLittlesearch.class);
+
+	// The pattern of the name of a corpus (which is also the name of the directory of its shard)...
+	private static final String CORPUS_NAME_REGEX = "^[\\w-]+$";
+
+	// The name of the directory of the index of a shard (text by text)...
+	private static final String INDEX_DIRECTORY_NAME = "index";
+
+	// The name of the directory of the index of a shard, in the passage mode...
+	private static final String PASSAGES_INDEX_DIRECTORY_NAME = "passages_index";
+
+	// The extension of the manifest of the index of a shard...
+	private static final String MANIFEST_FILE_EXTENSION = "properties";
+
+	private final boolean passageMode;
+
+	private final IndexProfile indexProfile;
+
+	// The executor which searches the shards in parallel (or null, for searching them in the calling thread)...
+	private final ExecutorService fanOutExecutor;
+
+	// The shards, by the names of their corpora (in the order in which they are given)...
+	private final Map<String, Shard> shards = new LinkedHashMap<>();
+
+	/**
+	 * Constructs a search engine over several corpora, of which the shards are read-optimized.
+	 * 
+	 * @param shardsPath
+	 *  the path of the directory where the shards are going to be stored (one directory per corpus)
+	 * @param corpusDirectories
+	 *  the directories of the corpora, by their names (which are made of letters, digits, underscores and hyphens)
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * @param fanOutExecutor
+	 *  the executor which searches the shards in parallel (or <i>null</i>, for searching them in the calling thread);
+	 *  it is not shut down by the search engine
+	 * 
+	 * @throws IOException
+	 *  if a shard cannot be opened
+	 */
+	public ShardedLittlesearch(Path shardsPath, Map<String, File> corpusDirectories, boolean passageMode, ExecutorService fanOutExecutor) throws IOException {
+
+		this(shardsPath, corpusDirectories, passageMode, fanOutExecutor, IndexProfile.READ_OPTIMIZED);
+	}
+
+	/**
+	 * Constructs a search engine over several corpora, of which the shards are configured by a profile (see {@link IndexProfile}).
+	 * 
+	 * @param shardsPath
+	 *  the path of the directory where the shards are going to be stored (one directory per corpus)
+	 * @param corpusDirectories
+	 *  the directories of the corpora, by their names (which are made of letters, digits, underscores and hyphens)
+	 * @param passageMode
+	 *  <i>true</i>, for indexing then searching the texts passage by passage
+	 * @param fanOutExecutor
+	 *  the executor which searches the shards in parallel (or <i>null</i>, for searching them in the calling thread);
+	 *  it is not shut down by the search engine
+	 * @param indexProfile
+	 *  the profile of the shards
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no corpus, or if the name of a corpus is not valid
+	 * @throws IOException
+	 *  if a shard cannot be opened
+	 */
+	public ShardedLittlesearch(Path shardsPath, Map<String, File> corpusDirectories, boolean passageMode, ExecutorService fanOutExecutor, IndexProfile indexProfile) throws IOException {
+
+		if (corpusDirectories.isEmpty()) {
+			throw new IllegalArgumentException("No corpus is given.");
+		}
+		for (String name : corpusDirectories.keySet()) {
+			if (!(name.matches(CORPUS_NAME_REGEX))) {
+				throw new IllegalArgumentException("The name of the corpus \"" + name + "\" is not valid.");
+			}
+		}
+
+		this.passageMode = passageMode;
+		this.indexProfile = indexProfile;
+		this.fanOutExecutor = fanOutExecutor;
+
+		try {
+			for (Map.Entry<String, File> corpusDirectory : corpusDirectories.entrySet()) {
+				Path shardPath = shardsPath.resolve(corpusDirectory.getKey());
+				Files.createDirectories(shardPath);
+				String indexDirectoryName = passageMode ? PASSAGES_INDEX_DIRECTORY_NAME : INDEX_DIRECTORY_NAME;
+				Littlesearch littlesearch = new Littlesearch(shardPath.resolve(indexDirectoryName), passageMode, null, 0, indexProfile);
+				shards.put(corpusDirectory.getKey(), new Shard(littlesearch, corpusDirectory.getValue(),
+						(shardPath.resolve(indexDirectoryName + (Separator.POINT).getValue() + MANIFEST_FILE_EXTENSION)).toFile()));
+			}
+		} catch (IOException ioe) {
+			close();
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Returns the names of the corpora.
+	 * 
+	 * @return the list of the names (in the order in which the corpora are given)
+	 */
+	public List<String> getCorpusNames() {
+
+		return new ArrayList<>(shards.keySet());
+	}
+
+	/**
+	 * Returns the search engine of the shard of a corpus (for indexing its texts while searching, for example).
+	 * 
+	 * @param name
+	 *  the name of the corpus
+	 * 
+	 * @return the search engine of the shard
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no such corpus
+	 */
+	public Littlesearch getShard(String name) {
+
+		return getShardOf(name).littlesearch;
+	}
+
+	/**
+	 * Returns whether the texts are indexed (then searched) passage by passage.
+	 * 
+	 * @return <i>true</i>, in the passage mode; <i>false</i>, otherwise
+	 */
+	public boolean isPassageMode() {
+
+		return passageMode;
+	}
+
+	/**
+	 * Checks whether the shard of a corpus is built from the current corpus (by the current versions of the format and of Lucene).
+	 * 
+	 * @param name
+	 *  the name of the corpus
+	 * 
+	 * @return <i>true</i>, if the shard is up to date; <i>false</i>, if it should be built (again)
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no such corpus
+	 */
+	public boolean isUpToDate(String name) {
+
+		Shard shard = getShardOf(name);
+
+		return IndexArtifact.isUpToDate(shard.manifestFile, IndexArtifact.getCorpusVersion(shard.corpusDirectory));
+	}
+
+	/**
+	 * Tries to index the texts of the corpora: only the shards which are not up to date are built (again).
+	 * 
+	 * @return <i>true</i>, if the indexing of every shard is successful; <i>false</i>, if it isn't
+	 */
+	public boolean indexTexts() {
+
+		boolean successful = true;
+		for (String name : shards.keySet()) {
+			if (!(isUpToDate(name))) {
+				// For monitoring...
+				LOGGER.info("Le fragment \"" + name + "\" n'est pas à jour : construction...");
+				successful &= rebuild(name);
+			}
+		}
+
+		return successful;
+	}
+
+	/**
+	 * Tries to build (again) the shard of a corpus, from scratch, whatever its version (the other shards are not affected).
+	 * (The searches see the previous shard until the new one is committed.)
+	 * 
+	 * @param name
+	 *  the name of the corpus
+	 * 
+	 * @return <i>true</i>, if the building is successful; <i>false</i>, if it isn't
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no such corpus
+	 */
+	public boolean rebuild(String name) {
+
+		Shard shard = getShardOf(name);
+
+		// (The version is read before indexing, so that a corpus which changes meanwhile is indexed again at the next call.)
+		String corpusVersion = IndexArtifact.getCorpusVersion(shard.corpusDirectory);
+		if (corpusVersion.isEmpty()) {
+			return false;
+		}
+		// (The previous manifest is removed first, so that a shard of which the building fails is never up to date.)
+		if (shard.manifestFile.exists() && !(shard.manifestFile.delete())) {
+			LOGGER.error("The manifest \"" + shard.manifestFile + "\" cannot be deleted.");
+			return false;
+		}
+		if (!(shard.littlesearch.rebuildTexts(shard.corpusDirectory))) {
+			return false;
+		}
+		try {
+			IndexArtifact.writeManifest(shard.manifestFile, corpusVersion, indexProfile, "Littlesearch shard \"" + name + "\"");
+		} catch (IOException ioe) {
+			LOGGER.error(ioe);
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Corrects the misspelled words (which are as a parameter), before searching for them:
+	 * a word is kept if any shard knows it; otherwise, it is corrected by the shard of the first corpus (see {@code Littlesearch.correct(String)}).
+	 * 
+	 * @param words
+	 *  the set of words which should be corrected
+	 * 
+	 * @return the set of words where the misspelled words are replaced by their correction
+	 */
+	public String correct(String words) {
+
+		List<String> correctedWords = new ArrayList<>();
+
+		for (String word : words.split((Separator.SPACE).getValue())) {
+			if (!(word.isEmpty())) {
+				String correctedWord = null;
+				for (Shard shard : shards.values()) {
+					String shardCorrectedWord = shard.littlesearch.correct(word);
+					if (shardCorrectedWord.equals(word)) {
+						correctedWord = word;
+						break;
+					}
+					if (correctedWord == null) {
+						correctedWord = shardCorrectedWord;
+					}
+				}
+				correctedWords.add(correctedWord);
+			}
+		}
+
+		return String.join((Separator.SPACE).getValue(), correctedWords);
+	}
+
+	/**
+	 * Searches, in the texts of all the corpora, for a query (see {@code Littlesearch.search(SearchQuery, boolean)}).
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * 
+	 * @return the result: the list of the best documents of all the shards (this list could be empty), without any profile
+	 */
+	public Littlesearch.Result search(SearchQuery searchQuery) {
+
+		return search(searchQuery, shards.keySet());
+	}
+
+	/**
+	 * Searches, in the texts of the chosen corpora, for a query (see {@code Littlesearch.search(SearchQuery, boolean)}).
+	 * 
+	 * @param searchQuery
+	 *  the query
+	 * @param names
+	 *  the names of the corpora to be searched
+	 * 
+	 * @return the result: the list of the best documents of the chosen shards (this list could be empty), without any profile
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no such corpus
+	 */
+	public Littlesearch.Result search(SearchQuery searchQuery, Collection<String> names) {
+
+		List<Shard> searchedShards = new ArrayList<>();
+		for (String name : names) {
+			searchedShards.add(getShardOf(name));
+		}
+
+		// Searches each shard (in parallel, if an executor is given)...
+		List<Littlesearch.Result> shardResults = new ArrayList<>();
+		if ((fanOutExecutor == null) || (searchedShards.size() == 1)) {
+			for (Shard shard : searchedShards) {
+				shardResults.add(shard.littlesearch.search(searchQuery, false));
+			}
+		} else {
+			List<Future<Littlesearch.Result>> futures = new ArrayList<>();
+			for (Shard shard : searchedShards) {
+				futures.add(fanOutExecutor.submit(() -> shard.littlesearch.search(searchQuery, false)));
+			}
+			for (Future<Littlesearch.Result> future : futures) {
+				try {
+					shardResults.add(future.get());
+				} catch (InterruptedException ie) {
+					LOGGER.error(ie);
+					Thread.currentThread().interrupt();
+					shardResults.add(new Littlesearch.Result(Collections.emptyList(), null));
+				} catch (ExecutionException ee) {
+					LOGGER.error(ee);
+					shardResults.add(new Littlesearch.Result(Collections.emptyList(), null));
+				}
+			}
+		}
+
+		List<List<Littlesearch.Document>> shardDocuments = new ArrayList<>();
+		for (Littlesearch.Result shardResult : shardResults) {
+			shardDocuments.add(shardResult.getDocuments());
+		}
+
+		return new Littlesearch.Result(merge(shardDocuments), null);
+	}
+
+	/**
+	 * Merges the documents found in the shards into the best documents of all
+	 * (sorted by their score; the shard given first, then the document found first, at an equal score).
+	 * 
+	 * @param shardDocuments
+	 *  the documents found in each shard (sorted by their score)
+	 * 
+	 * @return the list of the best documents
+	 */
+	static List<Littlesearch.Document> merge(List<List<Littlesearch.Document>> shardDocuments) {
+
+		// (Each document is numbered by its rank in the documents of its shard.)
+		TopDocs[] shardHits = new TopDocs[shardDocuments.size()];
+		for (int i = 0; i < shardHits.length; i++) {
+			List<Littlesearch.Document> documents = shardDocuments.get(i);
+			ScoreDoc[] scoreDocs = new ScoreDoc[documents.size()];
+			for (int j = 0; j < scoreDocs.length; j++) {
+				scoreDocs[j] = new ScoreDoc(j, (documents.get(j)).getScore());
+			}
+			shardHits[i] = new TopDocs(scoreDocs.length, scoreDocs, (scoreDocs.length > 0) ? scoreDocs[0].score : Float.NaN);
+		}
+
+		List<Littlesearch.Document> documents = new ArrayList<>();
+		for (ScoreDoc hit : (TopDocs.merge(Littlesearch.TOP_DOCUMENTS_COUNT, shardHits)).scoreDocs) {
+			documents.add((shardDocuments.get(hit.shardIndex)).get(hit.doc));
+		}
+
+		return documents;
+	}
+
+	/**
+	 * Returns the shard of a corpus.
+	 * 
+	 * @param name
+	 *  the name of the corpus
+	 * 
+	 * @return the shard
+	 * 
+	 * @throws IllegalArgumentException
+	 *  if there is no such corpus
+	 */
+	private Shard getShardOf(String name) {
+
+		Shard shard = shards.get(name);
+		if (shard == null) {
+			throw new IllegalArgumentException("There is no corpus \"" + name + "\".");
+		}
+
+		return shard;
+	}
+
+	/**
+	 * Closes the search engines of all the shards.
+	 */
+	@Override
+	public void close() {
+
+		for (Shard shard : shards.values()) {
+			shard.littlesearch.close();
+		}
+	}
+
+	/**
+	 * The {@code Shard} class defines the shard of a corpus: its search engine, the directory of the corpus and the manifest of the index.
+	 */
+	private static class Shard {
+
+		private final Littlesearch littlesearch;
+
+		private final File corpusDirectory;
+
+		private final File manifestFile;
+
+		private Shard(Littlesearch littlesearch, File corpusDirectory, File manifestFile) {
+
+			this.littlesearch = littlesearch;
+			this.corpusDirectory = corpusDirectory;
+			this.manifestFile = manifestFile;
+		}
+
+	}
+
+}
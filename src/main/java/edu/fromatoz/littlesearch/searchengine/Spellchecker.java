@@ -0,0 +1,246 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import edu.fromatoz.littlesearch.tool.RamEstimator;
+
+/**
+ * The {@code Spellchecker} class defines a corrector for misspelled words.
+ * <p>
+ * The correction is based on the <i>Symmetric Delete</i> algorithm (the one of SymSpell):
+ * all the deletions (up to the maximum edit distance) of every word of the dictionary
+ * are precomputed, so that a lookup only has to generate the deletions of the word to be corrected
+ * and to compare the few words sharing one of them (instead of scanning the whole dictionary).
+ * </p>
+ * <p>The words are compared in lower case, but a correction is given as its word has been added (for example, a proper noun keeps its capital).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class Spellchecker implements Accountable {
+
+	/**
+	 * The default maximum edit distance between a word and its correction.
+	 */
+	public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+
+	// Only the deletions of the prefix (of this length) of a word are precomputed (which bounds the size of the index of deletions).
+	private static final int PREFIX_LENGTH = 7;
+
+	private final int maxEditDistance;
+
+	// The frequencies of the words of the dictionary
+	private final Map<String, Integer> frequencies = new HashMap<>();
+
+	// The index of deletions: each deletion is associated with the words of the dictionary from which it comes
+	private final Map<String, List<String>> deletions = new HashMap<>();
+
+	// The spellings of the words of the dictionary which are not written in lower case (such as the proper nouns)
+	private final Map<String, String> spellings = new HashMap<>();
+
+	/**
+	 * Constructs a spellchecker with the default maximum edit distance.
+	 */
+	public Spellchecker() {
+
+		this(DEFAULT_MAX_EDIT_DISTANCE);
+	}
+
+	/**
+	 * Constructs a spellchecker.
+	 * 
+	 * @param maxEditDistance
+	 *  the maximum edit distance between a word and its correction
+	 */
+	public Spellchecker(int maxEditDistance) {
+
+		this.maxEditDistance = maxEditDistance;
+	}
+
+	/**
+	 * Adds a word to the dictionary (or raises its frequency, if the dictionary already contains it).
+	 * 
+	 * @param spelling
+	 *  the word to be added, as it should be given as a correction
+	 * @param frequency
+	 *  the frequency of the word (the higher, the more the word is preferred as a correction)
+	 */
+	public void add(String spelling, int frequency) {
+
+		if (spelling.isEmpty()) {
+			return;
+		}
+
+		String word = spelling.toLowerCase();
+		if (!(word.equals(spelling))) {
+			spellings.putIfAbsent(word, spelling);
+		}
+
+		Integer previousFrequency = frequencies.get(word);
+		if (previousFrequency == null) {
+			frequencies.put(word, frequency);
+			for (String deletion : getDeletions(word)) {
+				deletions.computeIfAbsent(deletion, d -> new ArrayList<>(1)).add(word);
+			}
+		} else if (frequency > previousFrequency) {
+			frequencies.put(word, frequency);
+		}
+	}
+
+	/**
+	 * Returns whether the dictionary contains a word (in any case).
+	 * 
+	 * @param word
+	 *  the word in question
+	 * 
+	 * @return <i>true</i>, if the dictionary contains the word; <i>false</i>, if it doesn't
+	 */
+	public boolean contains(String word) {
+
+		return frequencies.containsKey(word.toLowerCase());
+	}
+
+	/**
+	 * Returns the number of the words of the dictionary.
+	 * 
+	 * @return the size of the dictionary
+	 */
+	public int size() {
+
+		return frequencies.size();
+	}
+
+	/**
+	 * Estimates the heap used by the dictionary and by its index of deletions
+	 * (the words listed by the index of deletions being those of the dictionary, they are counted once).
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	@Override
+	public long ramBytesUsed() {
+
+		return RamUsageEstimator.shallowSizeOf(this)
+				+ RamEstimator.sizeOf(frequencies, RamEstimator::sizeOf, RamEstimator::sizeOf)
+				+ RamEstimator.sizeOf(deletions, RamEstimator::sizeOf, words -> RamEstimator.sizeOf(words, word -> 0))
+				+ RamEstimator.sizeOf(spellings, RamEstimator::sizeOf, RamEstimator::sizeOf);
+	}
+
+	/**
+	 * Returns the best correction of a word.
+	 * <p>The best correction is the closest word of the dictionary (according to the Damerau-Levenshtein distance);
+	 * among several words at the same distance, the most frequent one is preferred.</p>
+	 * 
+	 * @param misspelledWord
+	 *  the word to be corrected
+	 * 
+	 * @return the best correction, as its word has been added (the word itself, if it is known or if no word of the dictionary is close enough)
+	 */
+	public String correct(String misspelledWord) {
+
+		String word = misspelledWord.toLowerCase();
+		if (word.isEmpty() || contains(word)) {
+			return misspelledWord;
+		}
+
+		String correction = null;
+		int correctionDistance = maxEditDistance + 1;
+		int correctionFrequency = 0;
+
+		Set<String> candidates = new HashSet<>();
+		for (String deletion : getDeletions(word)) {
+			List<String> suggestions = deletions.get(deletion);
+			if (suggestions != null) {
+				for (String suggestion : suggestions) {
+					// Compares each candidate only once and skips the ones which are obviously too far...
+					if (candidates.add(suggestion) && Math.abs(suggestion.length() - word.length()) <= maxEditDistance) {
+						int distance = getDistance(word, suggestion);
+						int frequency = frequencies.get(suggestion);
+						if ((distance < correctionDistance) || ((distance == correctionDistance) && (frequency > correctionFrequency))) {
+							correction = suggestion;
+							correctionDistance = distance;
+							correctionFrequency = frequency;
+						}
+					}
+				}
+			}
+		}
+
+		return (correction != null) ? spellings.getOrDefault(correction, correction) : misspelledWord;
+	}
+
+	/**
+	 * Returns the deletions (up to the maximum edit distance) of the prefix of a word, the prefix included.
+	 * 
+	 * @param word
+	 *  the word in question
+	 * 
+	 * @return the set of the deletions
+	 */
+	private Set<String> getDeletions(String word) {
+
+		String prefix = (word.length() > PREFIX_LENGTH) ? word.substring(0, PREFIX_LENGTH) : word;
+
+		Set<String> wordDeletions = new HashSet<>();
+		wordDeletions.add(prefix);
+
+		List<String> currentDeletions = new ArrayList<>();
+		currentDeletions.add(prefix);
+		for (int distance = 1; distance <= maxEditDistance; distance++) {
+			List<String> nextDeletions = new ArrayList<>();
+			for (String currentDeletion : currentDeletions) {
+				for (int i = 0; i < currentDeletion.length(); i++) {
+					String deletion = currentDeletion.substring(0, i) + currentDeletion.substring(i + 1);
+					if (wordDeletions.add(deletion)) {
+						nextDeletions.add(deletion);
+					}
+				}
+			}
+			currentDeletions = nextDeletions;
+		}
+
+		return wordDeletions;
+	}
+
+	/**
+	 * Returns the (restricted) Damerau-Levenshtein distance between two words:
+	 * the minimal number of insertions, deletions, substitutions and transpositions of adjacent characters.
+	 * 
+	 * @param source
+	 *  the first word
+	 * @param target
+	 *  the second word
+	 * 
+	 * @return the distance between the two words
+	 */
+	static int getDistance(String source, String target) {
+
+		int[][] distances = new int[source.length() + 1][target.length() + 1];
+		for (int i = 0; i <= source.length(); i++) {
+			distances[i][0] = i;
+		}
+		for (int j = 0; j <= target.length(); j++) {
+			distances[0][j] = j;
+		}
+
+		for (int i = 1; i <= source.length(); i++) {
+			for (int j = 1; j <= target.length(); j++) {
+				int cost = (source.charAt(i - 1) == target.charAt(j - 1)) ? 0 : 1;
+				distances[i][j] = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1), distances[i - 1][j - 1] + cost);
+				if ((i > 1) && (j > 1) && (source.charAt(i - 1) == target.charAt(j - 2)) && (source.charAt(i - 2) == target.charAt(j - 1))) {
+					distances[i][j] = Math.min(distances[i][j], distances[i - 2][j - 2] + 1);
+				}
+			}
+		}
+
+		return distances[source.length()][target.length()];
+	}
+
+}
@@ -0,0 +1,155 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+
+import org.apache.lucene.search.suggest.fst.WFSTCompletionLookup;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * The {@code Suggester} class defines a completer of prefixes, for suggesting words "as you type".
+ * <p>The words are compiled into a <i>weighted FST</i> (see {@link WFSTCompletionLookup}),
+ * so that the most weighted completions of a prefix are found without scanning the words.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public class Suggester implements Accountable {
+
+	// The prefix of the temporary files needed for sorting the words while building...
+	private static final String TEMPORARY_FILE_NAME_PREFIX = "littlesearch_suggester";
+
+	private final WFSTCompletionLookup lookup;
+
+	/**
+	 * Constructs a suggester from weighted words.
+	 * 
+	 * @param weightedWords
+	 *  the words to be suggested, associated with their weight (the higher, the sooner the word is suggested)
+	 * 
+	 * @throws IOException
+	 *  if the FST cannot be built
+	 */
+	public Suggester(Map<String, Long> weightedWords) throws IOException {
+
+		try (ByteBuffersDirectory temporaryDirectory = new ByteBuffersDirectory()) {
+			lookup = new WFSTCompletionLookup(temporaryDirectory, TEMPORARY_FILE_NAME_PREFIX);
+			lookup.build(new WeightedWordsIterator(weightedWords));
+		}
+	}
+
+	/**
+	 * Returns the most weighted completions of a prefix.
+	 * 
+	 * @param prefix
+	 *  the prefix to be completed
+	 * @param count
+	 *  the maximum number of completions
+	 * 
+	 * @return the list of the completions, sorted by decreasing weight (this list could be empty)
+	 */
+	public List<String> suggest(String prefix, int count) {
+
+		List<String> suggestions = new ArrayList<>();
+
+		if (!(prefix.isEmpty())) {
+			for (Lookup.LookupResult result : lookup.lookup(prefix.toLowerCase(), null, false, count)) {
+				suggestions.add((result.key).toString());
+			}
+		}
+
+		return suggestions;
+	}
+
+	/**
+	 * Returns the number of the words which could be suggested.
+	 * 
+	 * @return the size of the suggester
+	 */
+	public long size() {
+
+		return lookup.getCount();
+	}
+
+	/**
+	 * Returns the heap used by the FST (as Lucene accounts for it).
+	 * 
+	 * @return the size of the FST (in bytes)
+	 */
+	@Override
+	public long ramBytesUsed() {
+
+		return lookup.ramBytesUsed();
+	}
+
+	/**
+	 * The {@code WeightedWordsIterator} class defines an iterator over weighted words, as an input of the FST.
+	 */
+	private static class WeightedWordsIterator implements InputIterator {
+
+		private final Iterator<Map.Entry<String, Long>> iterator;
+
+		private long weight;
+
+		private WeightedWordsIterator(Map<String, Long> weightedWords) {
+
+			iterator = (weightedWords.entrySet()).iterator();
+		}
+
+		@Override
+		public BytesRef next() {
+
+			if (!(iterator.hasNext())) {
+				return null;
+			}
+			Map.Entry<String, Long> weightedWord = iterator.next();
+			weight = weightedWord.getValue();
+
+			return new BytesRef(weightedWord.getKey());
+		}
+
+		@Override
+		public long weight() {
+
+			return weight;
+		}
+
+		@Override
+		public BytesRef payload() {
+
+			return null;
+		}
+
+		@Override
+		public boolean hasPayloads() {
+
+			return false;
+		}
+
+		@Override
+		public Set<BytesRef> contexts() {
+
+			return null;
+		}
+
+		@Override
+		public boolean hasContexts() {
+
+			return false;
+		}
+
+	}
+
+}
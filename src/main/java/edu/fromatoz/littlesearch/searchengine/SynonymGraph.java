@@ -0,0 +1,371 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import edu.fromatoz.littlesearch.tool.RamEstimator;
+
+/**
+ * The {@code SynonymGraph} class defines the graph of the synonyms of the data warehouse, built once (offline, see {@code Synonymysearch.compile()})
+ * so that a word is expanded by its synonyms, then by the synonyms of its synonyms, without reading the synonyms sets again.
+ * <p>Each node is a word of a part of speech (the same canonical form of two parts of speech gives two nodes), with its forms;
+ * each synonyms set links its reference word (its first synonym) with each of its other synonyms, by an edge weighted by the part of speech
+ * of the set (the synonyms of the nouns being the closest, those of the verbs the loosest). So, a word reaches in one hop the reference words
+ * of its sets (and the other synonyms of its own set, if it is a reference word), then in two hops the other synonyms of these sets.</p>
+ * <p>The nodes, their forms and their edges are stored in arrays (as compressed rows: the edges of the node {@code n}
+ * are those from {@code edgeOffsets[n]} to {@code edgeOffsets[n + 1]}), which are also those of the JSON of the graph.</p>
+ * <p>The weight of a form reached by an expansion is the product of the weights of the edges of the best path to it, halved by each hop
+ * after the first one: the forms of the word itself weigh 1, those of its direct synonyms (among nouns) also weigh 1.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+@JsonPropertyOrder({ "words", "form_offsets", "node_forms", "edge_offsets", "edge_targets", "edge_weights", "entry_forms", "entry_offsets", "entry_nodes" })
+public class SynonymGraph implements Accountable {
+
+	/**
+	 * The default maximum number of hops of an expansion (the synonyms of the synonyms).
+	 */
+	public static final int DEFAULT_MAX_DEPTH = 2;
+
+	/**
+	 * The factor of the weight of each hop after the first one.
+	 */
+	public static final float DEPTH_DECAY = 0.5f;
+
+	// The weight of an edge, by part of speech (the other parts of speech weighing as the verbs)...
+	private static final Map<String, Float> PART_OF_SPEECH_WEIGHTS = new HashMap<>();
+	static {
+		PART_OF_SPEECH_WEIGHTS.put("substantif", 1.0f);
+		PART_OF_SPEECH_WEIGHTS.put("adjectif", 0.9f);
+		PART_OF_SPEECH_WEIGHTS.put("verbe", 0.8f);
+	}
+	private static final float DEFAULT_PART_OF_SPEECH_WEIGHT = 0.8f;
+
+	// The canonical form of each node...
+	private final String[] words;
+
+	// The forms of each node (those of the node n from formOffsets[n] to formOffsets[n + 1])...
+	private final int[] formOffsets;
+	private final String[] forms;
+
+	// The edges of each node (those of the node n from edgeOffsets[n] to edgeOffsets[n + 1], the heaviest first)...
+	private final int[] edgeOffsets;
+	private final int[] edgeTargets;
+	private final float[] edgeWeights;
+
+	// The nodes of each form (sorted, those of the form entryForms[i] from entryOffsets[i] to entryOffsets[i + 1])...
+	private final String[] entryForms;
+	private final int[] entryOffsets;
+	private final int[] entryNodes;
+
+	@JsonCreator
+	SynonymGraph(@JsonProperty("words") String[] words,
+			@JsonProperty("form_offsets") int[] formOffsets, @JsonProperty("node_forms") String[] forms,
+			@JsonProperty("edge_offsets") int[] edgeOffsets, @JsonProperty("edge_targets") int[] edgeTargets, @JsonProperty("edge_weights") float[] edgeWeights,
+			@JsonProperty("entry_forms") String[] entryForms, @JsonProperty("entry_offsets") int[] entryOffsets, @JsonProperty("entry_nodes") int[] entryNodes) {
+
+		this.words = words;
+		this.formOffsets = formOffsets;
+		this.forms = forms;
+		this.edgeOffsets = edgeOffsets;
+		this.edgeTargets = edgeTargets;
+		this.edgeWeights = edgeWeights;
+		this.entryForms = entryForms;
+		this.entryOffsets = entryOffsets;
+		this.entryNodes = entryNodes;
+	}
+
+	/**
+	 * Expands a form by the forms of the words which it reaches in a maximum number of hops, weighted by their best path.
+	 * 
+	 * @param form
+	 *  the form to be expanded
+	 * @param maxDepth
+	 *  the maximum number of hops (0, for the forms of the words of which the form is itself a form)
+	 * 
+	 * @return the map of the forms (the form itself included, if it is known) to their weight (this map could be empty)
+	 */
+	public Map<String, Float> expand(String form, int maxDepth) {
+
+		Map<String, Float> expansions = new TreeMap<>();
+
+		int entry = Arrays.binarySearch(entryForms, form);
+		if (entry < 0) {
+			return expansions;
+		}
+
+		// Walks the graph hop by hop, from the nodes of the form, keeping the best weight of each node reached...
+		Map<Integer, Float> nodeWeights = new HashMap<>();
+		List<Integer> frontier = new ArrayList<>();
+		for (int i = entryOffsets[entry]; i < entryOffsets[entry + 1]; i++) {
+			nodeWeights.put(entryNodes[i], 1.0f);
+			frontier.add(entryNodes[i]);
+		}
+		float decay = 1.0f;
+		for (int depth = 1; (depth <= maxDepth) && !(frontier.isEmpty()); depth++) {
+			List<Integer> nextFrontier = new ArrayList<>();
+			for (int node : frontier) {
+				float nodeWeight = nodeWeights.get(node);
+				for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+					float weight = nodeWeight * edgeWeights[edge] * decay;
+					Float previousWeight = nodeWeights.get(edgeTargets[edge]);
+					if ((previousWeight == null) || (weight > previousWeight)) {
+						nodeWeights.put(edgeTargets[edge], weight);
+						nextFrontier.add(edgeTargets[edge]);
+					}
+				}
+			}
+			frontier = nextFrontier;
+			decay *= DEPTH_DECAY;
+		}
+
+		for (Map.Entry<Integer, Float> nodeWeight : nodeWeights.entrySet()) {
+			int node = nodeWeight.getKey();
+			for (int i = formOffsets[node]; i < formOffsets[node + 1]; i++) {
+				expansions.merge(forms[i], nodeWeight.getValue(), Math::max);
+			}
+		}
+
+		return expansions;
+	}
+
+	/**
+	 * Returns all the forms of all the words of the graph.
+	 * 
+	 * @return the set of the forms
+	 */
+	@JsonIgnore
+	public Set<String> getForms() {
+
+		return new TreeSet<>(Arrays.asList(entryForms));
+	}
+
+	/**
+	 * Returns the number of the nodes (the words of a part of speech).
+	 * 
+	 * @return the number of the nodes
+	 */
+	@JsonIgnore
+	public int getNodeCount() {
+
+		return words.length;
+	}
+
+	/**
+	 * Returns the number of the edges (each link between two words being counted in both directions).
+	 * 
+	 * @return the number of the edges
+	 */
+	@JsonIgnore
+	public int getEdgeCount() {
+
+		return edgeTargets.length;
+	}
+
+	/**
+	 * Estimates the heap used by the arrays of the graph.
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	@Override
+	public long ramBytesUsed() {
+
+		long size = RamUsageEstimator.shallowSizeOf(this)
+				+ RamUsageEstimator.sizeOf(formOffsets) + RamUsageEstimator.sizeOf(edgeOffsets) + RamUsageEstimator.sizeOf(edgeTargets)
+				+ RamUsageEstimator.sizeOf(edgeWeights) + RamUsageEstimator.sizeOf(entryOffsets) + RamUsageEstimator.sizeOf(entryNodes);
+		for (String[] strings : new String[][] { words, forms, entryForms }) {
+			size += RamEstimator.sizeOf(Arrays.asList(strings), RamEstimator::sizeOf);
+		}
+
+		return size;
+	}
+
+	@JsonIgnore
+	@Override
+	public Collection<Accountable> getChildResources() {
+
+		return Collections.emptyList();
+	}
+
+	@JsonGetter("words")
+	String[] getWords() {
+
+		return words;
+	}
+
+	@JsonGetter("form_offsets")
+	int[] getFormOffsets() {
+
+		return formOffsets;
+	}
+
+	@JsonGetter("node_forms")
+	String[] getNodeForms() {
+
+		return forms;
+	}
+
+	@JsonGetter("edge_offsets")
+	int[] getEdgeOffsets() {
+
+		return edgeOffsets;
+	}
+
+	@JsonGetter("edge_targets")
+	int[] getEdgeTargets() {
+
+		return edgeTargets;
+	}
+
+	@JsonGetter("edge_weights")
+	float[] getEdgeWeights() {
+
+		return edgeWeights;
+	}
+
+	@JsonGetter("entry_forms")
+	String[] getEntryForms() {
+
+		return entryForms;
+	}
+
+	@JsonGetter("entry_offsets")
+	int[] getEntryOffsets() {
+
+		return entryOffsets;
+	}
+
+	@JsonGetter("entry_nodes")
+	int[] getEntryNodes() {
+
+		return entryNodes;
+	}
+
+	/**
+	 * The {@code Builder} class builds a graph, synonyms set by synonyms set.
+	 */
+	static class Builder {
+
+		// The node of each word (its canonical form and its part of speech)...
+		private final Map<String, Integer> nodes = new HashMap<>();
+
+		private final List<String> words = new ArrayList<>();
+
+		private final List<Set<String>> nodeForms = new ArrayList<>();
+
+		// The edges of each node, with their weight (the heaviest, if two sets link the same words)...
+		private final List<Map<Integer, Float>> nodeEdges = new ArrayList<>();
+
+		/**
+		 * Adds a synonyms set.
+		 * 
+		 * @param partOfSpeech
+		 *  the part of speech of the set
+		 * @param setWords
+		 *  the canonical forms of the synonyms of the set (the reference word first)
+		 * @param setForms
+		 *  the forms of each synonym of the set (in the same order)
+		 */
+		void addSet(String partOfSpeech, List<String> setWords, List<Set<String>> setForms) {
+
+			float weight = PART_OF_SPEECH_WEIGHTS.getOrDefault(partOfSpeech, DEFAULT_PART_OF_SPEECH_WEIGHT);
+
+			int referenceNode = -1;
+			for (int i = 0; i < setWords.size(); i++) {
+				int node = getNode(setWords.get(i), partOfSpeech);
+				nodeForms.get(node).addAll(setForms.get(i));
+				if (i == 0) {
+					referenceNode = node;
+				} else if (node != referenceNode) {
+					nodeEdges.get(referenceNode).merge(node, weight, Math::max);
+					nodeEdges.get(node).merge(referenceNode, weight, Math::max);
+				}
+			}
+		}
+
+		private int getNode(String word, String partOfSpeech) {
+
+			return nodes.computeIfAbsent(word + '\u0000' + partOfSpeech, key -> {
+				words.add(word);
+				nodeForms.add(new TreeSet<>());
+				nodeEdges.add(new HashMap<>());
+				return words.size() - 1;
+			});
+		}
+
+		/**
+		 * Builds the graph.
+		 * 
+		 * @return the graph
+		 */
+		SynonymGraph build() {
+
+			int nodeCount = words.size();
+
+			int[] formOffsets = new int[nodeCount + 1];
+			List<String> forms = new ArrayList<>();
+			int[] edgeOffsets = new int[nodeCount + 1];
+			List<Integer> edgeTargets = new ArrayList<>();
+			List<Float> edgeWeights = new ArrayList<>();
+			Map<String, List<Integer>> entries = new TreeMap<>();
+			for (int node = 0; node < nodeCount; node++) {
+				for (String form : nodeForms.get(node)) {
+					forms.add(form);
+					entries.computeIfAbsent(form, f -> new ArrayList<>(1)).add(node);
+				}
+				formOffsets[node + 1] = forms.size();
+
+				List<Map.Entry<Integer, Float>> edges = new ArrayList<>(nodeEdges.get(node).entrySet());
+				edges.sort(Map.Entry.<Integer, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+				for (Map.Entry<Integer, Float> edge : edges) {
+					edgeTargets.add(edge.getKey());
+					edgeWeights.add(edge.getValue());
+				}
+				edgeOffsets[node + 1] = edgeTargets.size();
+			}
+
+			String[] entryForms = new String[entries.size()];
+			int[] entryOffsets = new int[entries.size() + 1];
+			List<Integer> entryNodes = new ArrayList<>();
+			int entry = 0;
+			for (Map.Entry<String, List<Integer>> formNodes : entries.entrySet()) {
+				entryForms[entry] = formNodes.getKey();
+				entryNodes.addAll(formNodes.getValue());
+				entryOffsets[++entry] = entryNodes.size();
+			}
+
+			float[] weights = new float[edgeWeights.size()];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = edgeWeights.get(i);
+			}
+
+			return new SynonymGraph(words.toArray(new String[nodeCount]), formOffsets, forms.toArray(new String[forms.size()]),
+					edgeOffsets, toArray(edgeTargets), weights, entryForms, entryOffsets, toArray(entryNodes));
+		}
+
+		private static int[] toArray(Collection<Integer> integers) {
+
+			return integers.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+	}
+
+}
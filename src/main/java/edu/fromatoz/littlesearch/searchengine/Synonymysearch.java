@@ -7,22 +7,35 @@ import edu.fromatoz.littlesearch.dataintegrator.model.entity.Word;
 
 import edu.fromatoz.littlesearch.dataintegrator.model.entity.word.Noun;
 
+import edu.fromatoz.littlesearch.metrics.ExpandEvent;
+import edu.fromatoz.littlesearch.metrics.Metrics;
+import edu.fromatoz.littlesearch.metrics.Stage;
+
 import edu.fromatoz.littlesearch.tool.Separator;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 
 import java.nio.charset.StandardCharsets;
 
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
 
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
 /**
  * @author Andrei Zabolotnîi
  * @author Cyril Marilier
@@ -35,7 +48,13 @@ public class Synonymysearch {
 	private static final Logger LOGGER = Logger.getLogger(Littlesearch.class);
 
 	// The Data Warehouse
-	private static final String DATA_WAREHOUSE = "data_warehouse";
+	static final String DATA_WAREHOUSE = "data_warehouse";
+
+	// The metrics of the expansions (by synonymy)...
+	private static final Stage EXPAND_STAGE = Metrics.stage("synonymysearch.expand");
+
+	// The compiled synonyms, if they are given or loaded (otherwise, the data warehouse is compiled by the first call, once for all)...
+	private static volatile CompiledSynonyms compiledSynonyms;
 
 	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
 	private Synonymysearch() {
@@ -43,55 +62,259 @@ public class Synonymysearch {
 		throw new IllegalStateException("Synonymysearch class");
 	}
 
+	/**
+	 * Gives the compiled synonyms which are used instead of the data warehouse (for example, those of an {@link IndexArtifact}).
+	 * 
+	 * @param synonyms
+	 *  the compiled synonyms (or <i>null</i>, for compiling the data warehouse again by the next call)
+	 */
+	public static void setCompiledSynonyms(CompiledSynonyms synonyms) {
+
+		compiledSynonyms = synonyms;
+	}
+
+	/**
+	 * Compiles the synonyms of the data warehouse once, for all the next calls (unless compiled synonyms are already given),
+	 * such as before searching many queries (otherwise, the first call compiles them).
+	 */
+	public static synchronized void loadCompiledSynonyms() {
+
+		if (compiledSynonyms == null) {
+			compiledSynonyms = compile();
+		}
+	}
+
+	/**
+	 * Estimates the heap retained by the synonymy: the compiled synonyms (if they are given, or loaded).
+	 * 
+	 * @return the estimate, named "synonyms" (with the estimate of each structure as a child)
+	 */
+	public static Accountable getRamUsage() {
+
+		Collection<Accountable> childResources = new ArrayList<>();
+		CompiledSynonyms synonyms = compiledSynonyms;
+		if (synonyms != null) {
+			childResources.add(Accountables.namedAccountable("compiled synonyms", synonyms.getChildResources(), synonyms.ramBytesUsed()));
+		}
+		long size = 0;
+		for (Accountable childResource : childResources) {
+			size += childResource.ramBytesUsed();
+		}
+
+		return Accountables.namedAccountable("synonyms", childResources, size);
+	}
+
 	public static String search(String words) {
 
+		ExpandEvent event = new ExpandEvent();
+		event.begin();
+		long start = System.nanoTime();
+
 		String[] separatedWords = words.split((Separator.SPACE).getValue());
 		Set<String> contextualForms = new TreeSet<>(Arrays.asList(separatedWords));
 
+		// Adds the forms of the direct synonyms of each word (the forms are not weighted, so the synonyms of the synonyms are not added)...
+		CompiledSynonyms synonyms = getCompiledSynonyms();
 		for (String word : separatedWords) {
-			// Gets the JSON files of the data warehouse
-			File[] files = (new File(String.format(DATA_WAREHOUSE))).listFiles();
-			for (File file : files) {
-				ObjectMapper objectMapper = new ObjectMapper();
-				try {
-					SynonymsSet synonymsSet = objectMapper.readValue(new InputStreamReader(new FileInputStream(file), StandardCharsets.ISO_8859_1), SynonymsSet.class);
-					String partOfSpeech = synonymsSet.getPartOfSpeech();
-
-					Word[] synonyms = synonymsSet.getSynonyms();
-					for (Word synonym : synonyms) {
-						Set<String> forms = new TreeSet<>();
-						forms = getForms(forms, synonym, partOfSpeech);
-
-						if (forms.stream().anyMatch(f -> f.equals(word))) {
-							contextualForms = getForms(contextualForms, synonyms[0], partOfSpeech);
-						}
+			contextualForms.addAll((synonyms.getExpansions(word, 1)).keySet());
+		}
+
+		record(event, start, words, contextualForms.size());
+
+		return String.join(" ", contextualForms);
+	}
+
+	/**
+	 * Returns the forms by which a word is expanded, weighted (for building a query clause by clause: see {@link SearchQuery}):
+	 * the forms of its synonyms and of the synonyms of its synonyms (up to {@code SynonymGraph.DEFAULT_MAX_DEPTH} hops, see {@link SynonymGraph}).
+	 * 
+	 * @param word
+	 *  the word to be expanded
+	 * 
+	 * @return the map of the forms to their weight (this map could be empty)
+	 */
+	public static Map<String, Float> expand(String word) {
+
+		return expand(word, SynonymGraph.DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Returns the forms by which a word is expanded, weighted: the forms of the words which it reaches in a maximum number of hops.
+	 * 
+	 * @param word
+	 *  the word to be expanded
+	 * @param maxDepth
+	 *  the maximum number of hops (1, for its direct synonyms only)
+	 * 
+	 * @return the map of the forms to their weight (this map could be empty)
+	 */
+	public static Map<String, Float> expand(String word, int maxDepth) {
+
+		ExpandEvent event = new ExpandEvent();
+		event.begin();
+		long start = System.nanoTime();
+
+		Map<String, Float> expansions = getCompiledSynonyms().getExpansions(word, maxDepth);
+
+		record(event, start, word, expansions.size());
+
+		return expansions;
+	}
+
+	/**
+	 * Records the latency of an expansion, and its event.
+	 * 
+	 * @param event
+	 *  the event of the expansion (which has begun)
+	 * @param start
+	 *  the start of the expansion
+	 * @param words
+	 *  the expanded words
+	 * @param expansionSize
+	 *  the number of the forms of the expansion
+	 */
+	private static void record(ExpandEvent event, long start, String words, int expansionSize) {
+
+		EXPAND_STAGE.record(System.nanoTime() - start);
+		if (event.shouldCommit()) {
+			event.setWords(words);
+			event.setExpansionSize(expansionSize);
+		}
+		event.commit();
+	}
+
+	/**
+	 * Returns all the forms (canonical forms and other forms) of all the synonyms of the data warehouse.
+	 * 
+	 * @return the set of the forms known by the data warehouse
+	 */
+	public static Set<String> getWarehouseForms() {
+
+		return getCompiledSynonyms().getForms();
+	}
+
+	/**
+	 * Returns the canonical forms of all the synonyms of the data warehouse.
+	 * 
+	 * @return the set of the canonical forms known by the data warehouse
+	 */
+	public static Set<String> getWarehouseCanonicalForms() {
+
+		return new TreeSet<>(getCompiledSynonyms().getCanonicalForms());
+	}
+
+	/**
+	 * Returns the lemma (the canonical form) of each form of the nouns (<i>substantives</i> or <i>adjectives</i>) of the data warehouse:
+	 * those of the compiled synonyms (see {@code loadCompiledSynonyms()}).
+	 * <p>(The verbs are not lemmatized: the data warehouse only knows their infinitive, not their conjugated forms.)</p>
+	 * 
+	 * @return the map of the forms (lower-cased) to their lemma
+	 */
+	public static Map<String, String> getLemmas() {
+
+		return getCompiledSynonyms().getLemmas();
+	}
+
+	/**
+	 * Compiles the synonyms sets of the data warehouse (read from its JSON files), with their graph (see {@link SynonymGraph}).
+	 * 
+	 * @return the compiled synonyms
+	 */
+	public static CompiledSynonyms compile() {
+
+		CompiledSynonyms synonyms = new CompiledSynonyms();
+		SynonymGraph.Builder graphBuilder = new SynonymGraph.Builder();
+
+		for (SynonymsSet synonymsSet : getSynonymsSets()) {
+			String partOfSpeech = synonymsSet.getPartOfSpeech();
+			Word[] setSynonyms = synonymsSet.getSynonyms();
+			if ((setSynonyms == null) || (setSynonyms.length == 0)) {
+				continue;
+			}
+
+			Set<String> canonicalForms = new TreeSet<>();
+			List<String> setWords = new ArrayList<>();
+			List<Set<String>> setForms = new ArrayList<>();
+			for (Word synonym : setSynonyms) {
+				canonicalForms.add(synonym.getCanonicalForm());
+				setWords.add(synonym.getCanonicalForm());
+				setForms.add(getForms(new TreeSet<>(), synonym, partOfSpeech));
+				if (isNoun(partOfSpeech)) {
+					synonyms.addLemmas(getForms(new TreeSet<>(), synonym, partOfSpeech), synonym.getCanonicalForm());
+				}
+			}
+			synonyms.addCanonicalForms(canonicalForms);
+			graphBuilder.addSet(partOfSpeech, setWords, setForms);
+		}
+		synonyms.setGraph(graphBuilder.build());
+
+		return synonyms;
+	}
+
+	/**
+	 * Returns the compiled synonyms which are given or loaded, or loads those of the data warehouse (so, they are compiled only once).
+	 * 
+	 * @return the compiled synonyms
+	 */
+	static CompiledSynonyms getCompiledSynonyms() {
+
+		CompiledSynonyms synonyms = compiledSynonyms;
+		if (synonyms == null) {
+			loadCompiledSynonyms();
+			synonyms = compiledSynonyms;
+		}
+
+		return synonyms;
+	}
+
+	/**
+	 * Returns the synonyms sets of the data warehouse (read from its JSON files).
+	 * 
+	 * @return the list of the synonyms sets
+	 */
+	private static List<SynonymsSet> getSynonymsSets() {
+
+		List<SynonymsSet> synonymsSets = new ArrayList<>();
+
+		// Gets the JSON files of the data warehouse
+		// (as paths, which keep the bytes of their names: a name such as "théorème.json" is found whatever the locale)...
+		Path dataWarehouse = Paths.get(DATA_WAREHOUSE);
+		if (Files.isDirectory(dataWarehouse)) {
+			ObjectMapper objectMapper = new ObjectMapper();
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(dataWarehouse)) {
+				for (Path file : files) {
+					try (InputStreamReader inputStreamReader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.ISO_8859_1)) {
+						synonymsSets.add(objectMapper.readValue(inputStreamReader, SynonymsSet.class));
+					} catch (IOException ioe) {
+						LOGGER.error(ioe);
 					}
-				} catch (IOException ioe) {
-					LOGGER.error(ioe);
 				}
+			} catch (IOException ioe) {
+				LOGGER.error(ioe);
 			}
 		}
 
-		return String.join(" ", contextualForms);
+		return synonymsSets;
 	}
 
 	private static Set<String> getForms(Set<String> forms, Word synonym, String partOfSpeech) {
 
-		try {
-			forms.add(new String((synonym.getCanonicalForm()).getBytes("UTF-8")));
-			if (partOfSpeech.equals("substantif") || partOfSpeech.equals("adjectif")) {
-				Object[] otherForms = ((Noun)synonym).getOtherForms();
-				if (otherForms.length > 0) {
-					for (Object otherForm : otherForms) {
-						forms.add(new String((otherForm.toString()).getBytes("UTF-8")));
-					}
+		forms.add(synonym.getCanonicalForm());
+		if (isNoun(partOfSpeech)) {
+			Object[] otherForms = ((Noun)synonym).getOtherForms();
+			if (otherForms.length > 0) {
+				for (Object otherForm : otherForms) {
+					forms.add(otherForm.toString());
 				}
 			}
-		} catch (UnsupportedEncodingException uee) {
-			LOGGER.error(uee);
 		}
 
 		return forms;
 	}
 
+	private static boolean isNoun(String partOfSpeech) {
+
+		return partOfSpeech.equals("substantif") || partOfSpeech.equals("adjectif");
+	}
+
 }
@@ -0,0 +1,200 @@
+package edu.fromatoz.littlesearch.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * The {@code RamEstimator} class estimates the heap used by the structures of the JDK which Lucene does not account for
+ * (its {@link RamUsageEstimator} only knows the arrays and the shallow size of the objects): strings, boxed integers,
+ * lists, sets and maps.
+ * <p>The estimates are those of the current JVM (compressed references or not, and the <i>compact strings</i> of Java 9, the strings
+ * of which all the characters are Latin-1 using one byte per character); an object which is shared by several structures
+ * (such as a string which is both a key and a value) is counted once per structure, so that a sum of estimates is an upper bound.</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public final class RamEstimator {
+
+	// The shallow sizes of the objects...
+	private static final long STRING_SIZE = RamUsageEstimator.shallowSizeOfInstance(String.class);
+	private static final long INTEGER_SIZE = RamUsageEstimator.shallowSizeOfInstance(Integer.class);
+	private static final long LONG_SIZE = RamUsageEstimator.shallowSizeOfInstance(Long.class);
+	private static final long ARRAY_LIST_SIZE = RamUsageEstimator.shallowSizeOfInstance(ArrayList.class);
+	private static final long HASH_MAP_SIZE = RamUsageEstimator.shallowSizeOfInstance(HashMap.class);
+	private static final long LINKED_HASH_MAP_SIZE = RamUsageEstimator.shallowSizeOfInstance(LinkedHashMap.class);
+	private static final long TREE_MAP_SIZE = RamUsageEstimator.shallowSizeOfInstance(TreeMap.class);
+
+	// A set (such as a HashSet, or a TreeSet) is a map of which the values are all the same object, plus the set itself...
+	private static final long SET_SIZE = RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+
+	// The entries of the maps: a hash and three references (the key, the value and the next entry of the bucket) for a HashMap
+	// (plus the previous and the next entries, for a LinkedHashMap); five references and a color (a boolean, so one byte) for a TreeMap...
+	private static final long HASH_MAP_ENTRY_SIZE = RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+			+ Integer.BYTES + (3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+	private static final long LINKED_HASH_MAP_ENTRY_SIZE = RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+			+ Integer.BYTES + (5L * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+	private static final long TREE_MAP_ENTRY_SIZE = RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+			+ (5L * RamUsageEstimator.NUM_BYTES_OBJECT_REF) + 1);
+
+	// The load factor of the hash maps (the default one)...
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+	private RamEstimator() {
+
+		throw new IllegalStateException("RamEstimator class");
+	}
+
+	/**
+	 * Estimates the heap used by a string (with its array of bytes).
+	 * 
+	 * @param string
+	 *  the string (or <i>null</i>)
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	public static long sizeOf(String string) {
+
+		if (string == null) {
+			return 0;
+		}
+
+		int bytesPerChar = 1;
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) > 0xFF) {
+				bytesPerChar = 2;
+				break;
+			}
+		}
+
+		return STRING_SIZE + RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + ((long) string.length() * bytesPerChar));
+	}
+
+	/**
+	 * Estimates the heap used by a boxed integer (the small integers being cached by the JVM).
+	 * 
+	 * @param integer
+	 *  the integer (or <i>null</i>)
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	public static long sizeOf(Integer integer) {
+
+		return ((integer == null) || ((integer >= -128) && (integer <= 127))) ? 0 : INTEGER_SIZE;
+	}
+
+	/**
+	 * Estimates the heap used by a boxed long (the small longs being cached by the JVM).
+	 * 
+	 * @param value
+	 *  the long (or <i>null</i>)
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	public static long sizeOf(Long value) {
+
+		return ((value == null) || ((value >= -128) && (value <= 127))) ? 0 : LONG_SIZE;
+	}
+
+	/**
+	 * Estimates the heap used by a collection (a list or a set) and by its elements.
+	 * 
+	 * @param collection
+	 *  the collection (or <i>null</i>)
+	 * @param elementEstimator
+	 *  the estimator of the heap used by an element (which could give 0, for the elements counted elsewhere)
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	public static <E> long sizeOf(Collection<E> collection, ToLongFunction<? super E> elementEstimator) {
+
+		if (collection == null) {
+			return 0;
+		}
+
+		long size;
+		if (collection instanceof SortedSet) {
+			size = SET_SIZE + TREE_MAP_SIZE + (collection.size() * TREE_MAP_ENTRY_SIZE);
+		} else if (collection instanceof Set) {
+			size = SET_SIZE + LINKED_HASH_MAP_SIZE + getTableSize(collection.size()) + (collection.size() * LINKED_HASH_MAP_ENTRY_SIZE);
+		} else if (collection instanceof List) {
+			// (The array of an ArrayList is assumed to be full.)
+			size = ARRAY_LIST_SIZE + RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + ((long) collection.size() * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+		} else {
+			size = RamUsageEstimator.shallowSizeOf(collection) + RamUsageEstimator.alignObjectSize((long) RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + ((long) collection.size() * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+		}
+		for (E element : collection) {
+			size += elementEstimator.applyAsLong(element);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimates the heap used by a map and by its keys and values.
+	 * 
+	 * @param map
+	 *  the map (or <i>null</i>)
+	 * @param keyEstimator
+	 *  the estimator of the heap used by a key
+	 * @param valueEstimator
+	 *  the estimator of the heap used by a value (which could give 0, for the values counted elsewhere)
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	public static <K, V> long sizeOf(Map<K, V> map, ToLongFunction<? super K> keyEstimator, ToLongFunction<? super V> valueEstimator) {
+
+		if (map == null) {
+			return 0;
+		}
+
+		long size;
+		if (map instanceof NavigableMap) {
+			size = TREE_MAP_SIZE + (map.size() * TREE_MAP_ENTRY_SIZE);
+		} else if (map instanceof LinkedHashMap) {
+			size = LINKED_HASH_MAP_SIZE + getTableSize(map.size()) + (map.size() * LINKED_HASH_MAP_ENTRY_SIZE);
+		} else {
+			// (A HashMap, or another hash map of which the entries are about the same, such as a ConcurrentHashMap.)
+			size = HASH_MAP_SIZE + getTableSize(map.size()) + (map.size() * HASH_MAP_ENTRY_SIZE);
+		}
+		for (Map.Entry<K, V> entry : map.entrySet()) {
+			size += keyEstimator.applyAsLong(entry.getKey()) + valueEstimator.applyAsLong(entry.getValue());
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimates the heap used by the table of the buckets of a hash map: a power of two, no less than the size over the load factor.
+	 * 
+	 * @param size
+	 *  the number of the entries of the map
+	 * 
+	 * @return the estimate (in bytes)
+	 */
+	private static long getTableSize(int size) {
+
+		if (size == 0) {
+			return 0;
+		}
+		long capacity = Long.highestOneBit((long) Math.ceil(size / LOAD_FACTOR));
+		if (capacity < Math.ceil(size / LOAD_FACTOR)) {
+			capacity <<= 1;
+		}
+
+		return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (capacity * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+	}
+
+}
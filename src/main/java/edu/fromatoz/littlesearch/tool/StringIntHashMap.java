@@ -0,0 +1,172 @@
+package edu.fromatoz.littlesearch.tool;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The {@code StringIntHashMap} class defines a map of strings to primitive integers (such as counts of words),
+ * by open addressing: the keys and the values are kept in two parallel arrays (probed linearly),
+ * so that no entry nor boxed {@code Integer} is created per key, nor per increment.
+ * <p>An absent key is associated with 0. The map is not thread-safe: each thread should fill its own map,
+ * then the maps are merged (see {@code addAll(StringIntHashMap)}).</p>
+ * 
+ * @author Andrei Zabolotnîi
+ * @author Cyril Marilier
+ */
+public final class StringIntHashMap {
+
+	// The default capacity (a power of two)...
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private String[] keys;
+
+	private int[] values;
+
+	private int size;
+
+	/**
+	 * Constructs an empty map.
+	 */
+	public StringIntHashMap() {
+
+		keys = new String[DEFAULT_CAPACITY];
+		values = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Returns the value of a key.
+	 * 
+	 * @param key
+	 *  the key
+	 * 
+	 * @return the value (0, if the map does not contain the key)
+	 */
+	public int get(String key) {
+
+		int slot = getSlot(keys, key);
+
+		return (keys[slot] != null) ? values[slot] : 0;
+	}
+
+	/**
+	 * Adds an increment to the value of a key (an absent key being associated with 0).
+	 * 
+	 * @param key
+	 *  the key (not <i>null</i>)
+	 * @param increment
+	 *  the increment
+	 * 
+	 * @return the new value of the key
+	 */
+	public int addTo(String key, int increment) {
+
+		int slot = getSlot(keys, key);
+		if (keys[slot] == null) {
+			// (The table is kept at most half full, so that the probes stay short.)
+			if ((size + 1) * 2 > keys.length) {
+				resize(keys.length * 2);
+				slot = getSlot(keys, key);
+			}
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] += increment;
+
+		return values[slot];
+	}
+
+	/**
+	 * Adds the values of another map to those of this map (key by key).
+	 * 
+	 * @param other
+	 *  the other map
+	 */
+	public void addAll(StringIntHashMap other) {
+
+		other.forEach(this::addTo);
+	}
+
+	/**
+	 * Performs an action for each key of the map, with its value (in no particular order).
+	 * 
+	 * @param action
+	 *  the action
+	 */
+	public void forEach(ObjIntConsumer<String> action) {
+
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				action.accept(keys[slot], values[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys of the map, sorted alphabetically.
+	 * 
+	 * @return the array of the keys
+	 */
+	public String[] getKeys() {
+
+		String[] sortedKeys = new String[size];
+		int i = 0;
+		for (String key : keys) {
+			if (key != null) {
+				sortedKeys[i++] = key;
+			}
+		}
+		Arrays.sort(sortedKeys);
+
+		return sortedKeys;
+	}
+
+	/**
+	 * Returns the number of keys of the map.
+	 * 
+	 * @return the number of keys
+	 */
+	public int size() {
+
+		return size;
+	}
+
+	private void resize(int capacity) {
+
+		String[] oldKeys = keys;
+		int[] oldValues = values;
+
+		keys = new String[capacity];
+		values = new int[capacity];
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			if (oldKeys[oldSlot] != null) {
+				int slot = getSlot(keys, oldKeys[oldSlot]);
+				keys[slot] = oldKeys[oldSlot];
+				values[slot] = oldValues[oldSlot];
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of a key: the slot which contains it or, if the table does not contain it, the free slot where it should be.
+	 * 
+	 * @param table
+	 *  the table of the keys (of which the length is a power of two, and which has a free slot at least)
+	 * @param key
+	 *  the key
+	 * 
+	 * @return the slot
+	 */
+	private static int getSlot(String[] table, String key) {
+
+		int mask = table.length - 1;
+		int hash = key.hashCode();
+		// (The high bits are spread to the low ones, which alone select the slot.)
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while ((table[slot] != null) && !(table[slot].equals(key))) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+}
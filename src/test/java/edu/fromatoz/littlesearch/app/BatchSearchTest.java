@@ -0,0 +1,132 @@
+package edu.fromatoz.littlesearch.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fromatoz.littlesearch.searchengine.IndexFixtures;
+import edu.fromatoz.littlesearch.searchengine.Littlesearch;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link BatchSearch}.
+ */
+public class BatchSearchTest extends TestCase {
+
+    private Path indexPath;
+
+    private Littlesearch littlesearch;
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public BatchSearchTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(BatchSearchTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+
+        indexPath = Files.createTempDirectory("littlesearch_test_batch_index");
+        littlesearch = IndexFixtures.indexCorpus(indexPath, false);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+
+        littlesearch.close();
+        IndexFixtures.deleteDirectory(indexPath);
+    }
+
+    /**
+     * Tests that each query of a batch (the empty lines being skipped) is written as one line of JSON,
+     * with the documents which a single search finds and with the time of each step.
+     */
+    public void testBatch() throws IOException {
+
+        String queries = "théorème\n\nRiemann NEAR/2 Bernhard\n\"théorème de Fermat\"\nGauss astronome\n";
+        StringWriter results = new StringWriter();
+        int queryCount = (new BatchSearch(littlesearch::correct, searchQuery -> littlesearch.search(searchQuery, false), 3))
+                .run(new BufferedReader(new StringReader(queries)), results);
+        assertEquals(4, queryCount);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<Integer, JsonNode> resultNodes = new HashMap<>();
+        for (String line : results.toString().split("\n")) {
+            JsonNode resultNode = objectMapper.readTree(line);
+            resultNodes.put(resultNode.path("line").asInt(), resultNode);
+        }
+        assertEquals(4, resultNodes.size());
+        assertFalse(resultNodes.containsKey(2));
+
+        JsonNode resultNode = resultNodes.get(1);
+        assertEquals("théorème", resultNode.path("query").asText());
+        assertFalse(resultNode.has("error"));
+        Littlesearch.Result expectedResult = littlesearch.search(SearchEngine.buildQuery("théorème", littlesearch::correct), false);
+        assertEquals(expectedResult.getDocuments().size(), resultNode.path("documents").size());
+        for (int i = 0; i < expectedResult.getDocuments().size(); i++) {
+            assertEquals((expectedResult.getDocuments().get(i)).getPath(), resultNode.path("documents").get(i).path("path").asText());
+        }
+        for (JsonNode node : resultNodes.values()) {
+            assertTrue(node.path("documents").size() > 0);
+            assertTrue(node.path("expansion_us").asLong(-1) >= 0);
+            assertTrue(node.path("search_us").asLong(-1) >= 0);
+            assertTrue(node.path("fetch_us").asLong(-1) > 0);
+        }
+    }
+
+    /**
+     * Tests that a query which fails is written with its error, the other queries being searched.
+     */
+    public void testFailingQuery() throws IOException {
+
+        StringWriter results = new StringWriter();
+        (new BatchSearch(littlesearch::correct, searchQuery -> {
+            if (searchQuery.toString().contains("Gauss")) {
+                throw new IllegalStateException("Gauss");
+            }
+            return littlesearch.search(searchQuery, false);
+        }, 2)).run(new BufferedReader(new StringReader("Riemann\nGauss\n")), results);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        int errorCount = 0;
+        for (String line : results.toString().split("\n")) {
+            JsonNode resultNode = objectMapper.readTree(line);
+            if (resultNode.has("error")) {
+                errorCount++;
+                assertEquals(2, resultNode.path("line").asInt());
+                assertFalse(resultNode.has("documents"));
+            } else {
+                assertTrue(resultNode.path("documents").size() > 0);
+            }
+        }
+        assertEquals(1, errorCount);
+    }
+
+}
@@ -0,0 +1,119 @@
+package edu.fromatoz.littlesearch.dataintegrator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.fromatoz.littlesearch.app.DataIntegrator;
+
+import edu.fromatoz.littlesearch.dataintegrator.model.JSONWriter;
+
+import edu.fromatoz.littlesearch.searchengine.IndexFixtures;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link CNRTLStandIn}.
+ */
+public class CNRTLStandInTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public CNRTLStandInTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(CNRTLStandInTest.class);
+    }
+
+    /**
+     * Tests that integrating words against the stand-in gives back the synonyms sets of the data warehouse,
+     * that nothing is written while all the requests fail, and that the integration goes on once they succeed again.
+     */
+    public void testIntegration() throws IOException {
+
+        File dataWarehouse = new File("data_warehouse");
+        Path dataWarehousePath = Files.createTempDirectory("littlesearch_test_data_warehouse");
+        try (CNRTLStandIn standIn = new CNRTLStandIn(null, dataWarehouse)) {
+            DataIntegrator.CNRTLParser.setServer(standIn.getUrl(), 0);
+            JSONWriter jsonWriter = new JSONWriter(dataWarehousePath.toFile());
+
+            jsonWriter.load("systèmes");
+            assertEquals(read(new File(dataWarehouse, "système.json")), read(dataWarehousePath.resolve("système.json").toFile()));
+
+            standIn.setErrorRate(1);
+            jsonWriter.load("grandes");
+            assertFalse(dataWarehousePath.resolve("grand.json").toFile().exists());
+            assertTrue(standIn.getErrorCount() > 0);
+
+            standIn.setErrorRate(0);
+            jsonWriter.load("grandes");
+            assertEquals(read(new File(dataWarehouse, "grand.json")), read(dataWarehousePath.resolve("grand.json").toFile()));
+        } finally {
+            DataIntegrator.CNRTLParser.setServer(null, DataIntegrator.CNRTLParser.DEFAULT_WAIT);
+            IndexFixtures.deleteDirectory(dataWarehousePath);
+        }
+    }
+
+    /**
+     * Tests that integrating again words which the data warehouse already covers (any form of any of its synonyms)
+     * requests nothing from the CNRTL, whether the words have been integrated by this writer or by a previous one.
+     */
+    public void testKnownWords() throws IOException {
+
+        Path dataWarehousePath = Files.createTempDirectory("littlesearch_test_data_warehouse");
+        try (CNRTLStandIn standIn = new CNRTLStandIn(null, new File("data_warehouse"))) {
+            DataIntegrator.CNRTLParser.setServer(standIn.getUrl(), 0);
+
+            // The words of the data warehouse itself...
+            JSONWriter jsonWriter = new JSONWriter(new File("data_warehouse"));
+            for (String word : new String[] { "travail", "travaux", "théorèmes", "Systèmes", "grandes" }) {
+                jsonWriter.load(word);
+            }
+            assertEquals(0, standIn.getRequestCount());
+
+            // The words integrated by this writer, then by a previous one...
+            jsonWriter = new JSONWriter(dataWarehousePath.toFile());
+            jsonWriter.load("systèmes");
+            long requestCount = standIn.getRequestCount();
+            assertTrue(requestCount > 0);
+            jsonWriter.load("système");
+            jsonWriter.load("systèmes");
+            (new JSONWriter(dataWarehousePath.toFile())).load("systèmes");
+            assertEquals(requestCount, standIn.getRequestCount());
+        } finally {
+            DataIntegrator.CNRTLParser.setServer(null, DataIntegrator.CNRTLParser.DEFAULT_WAIT);
+            IndexFixtures.deleteDirectory(dataWarehousePath);
+        }
+    }
+
+    private static JsonNode read(File jsonFile) throws IOException {
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(jsonFile), StandardCharsets.ISO_8859_1)) {
+            return (new ObjectMapper()).readTree(reader);
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package edu.fromatoz.littlesearch.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link LatencyHistogram} (and for the stages registered by {@link Metrics}).
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public LatencyHistogramTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(LatencyHistogramTest.class);
+    }
+
+    /**
+     * Tests that each latency falls into a bucket of which it is between the bounds.
+     */
+    public void testBuckets() {
+
+        for (long latency = 0; latency < 100_000; latency++) {
+            int bucket = LatencyHistogram.getBucket(latency);
+            assertTrue(latency <= LatencyHistogram.getUpperBound(bucket));
+            assertTrue((bucket == 0) || (latency > LatencyHistogram.getUpperBound(bucket - 1)));
+        }
+        assertTrue(Long.MAX_VALUE <= LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Tests that the percentiles are known within 12.5 %.
+     */
+    public void testPercentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long latency = 1; latency <= 10_000; latency++) {
+            histogram.record(latency * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_500, histogram.getMean());
+        assertEquals(10_000_000, histogram.getMax());
+        for (double percentile : new double[] { 50, 90, 99 }) {
+            long expected = (long) (percentile * 100_000);
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue(actual <= expected * 1.125);
+        }
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    /**
+     * Tests that a finer histogram (128 buckets per power of two) knows the percentiles within 0.8 %, even the 99.9th one.
+     */
+    public void testFinePercentiles() {
+
+        for (long latency = 0; latency < 100_000; latency++) {
+            int bucket = LatencyHistogram.getBucket(latency, 7);
+            assertTrue(latency <= LatencyHistogram.getUpperBound(bucket, 7));
+            assertTrue((bucket == 0) || (latency > LatencyHistogram.getUpperBound(bucket - 1, 7)));
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram(7);
+        for (long latency = 1; latency <= 100_000; latency++) {
+            histogram.record(latency * 1_000);
+        }
+        for (double percentile : new double[] { 50, 90, 99, 99.9 }) {
+            long expected = (long) (percentile * 1_000_000);
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue(actual <= expected * 1.008);
+        }
+
+        try {
+            new LatencyHistogram(11);
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // (A histogram has at most 1024 buckets per power of two.)
+        }
+    }
+
+    /**
+     * Tests that a latency which has postponed the next requests is recorded with the latencies which they would have had.
+     */
+    public void testCoordinatedOmission() {
+
+        LatencyHistogram histogram = new LatencyHistogram(7);
+        LatencyHistogram uncorrectedHistogram = new LatencyHistogram(7);
+        for (int i = 0; i < 99; i++) {
+            histogram.recordWithExpectedInterval(1_000_000, 1_000_000);
+            uncorrectedHistogram.record(1_000_000);
+        }
+        // (A stall of 100 ms, for requests expected every ms, postpones 99 requests.)
+        histogram.recordWithExpectedInterval(100_000_000, 1_000_000);
+        uncorrectedHistogram.record(100_000_000);
+
+        assertEquals(199, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertTrue(histogram.getPercentile(75) >= 40_000_000);
+        assertTrue(histogram.getPercentile(50) <= 1_010_000);
+
+        // The correction afterwards gives the same latencies (within the precision of the histogram)...
+        LatencyHistogram correctedHistogram = uncorrectedHistogram.copyCorrectedForCoordinatedOmission(1_000_000);
+        assertEquals(199, correctedHistogram.getCount());
+        for (double percentile : new double[] { 50, 75, 90, 99 }) {
+            assertTrue(Math.abs(correctedHistogram.getPercentile(percentile) - histogram.getPercentile(percentile)) <= histogram.getPercentile(percentile) * 0.016);
+        }
+        assertEquals(100, (uncorrectedHistogram.copyCorrectedForCoordinatedOmission(0)).getCount());
+    }
+
+    /**
+     * Tests that a stage is readable over JMX.
+     */
+    public void testStageMBean() throws Exception {
+
+        Stage stage = Metrics.stage("test.stage");
+        stage.record(3_000_000);
+        stage.recordError();
+
+        ObjectName objectName = new ObjectName("edu.fromatoz.littlesearch:type=Stage,name=\"test.stage\"");
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Count"));
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "ErrorCount"));
+        assertTrue((Metrics.dump()).contains("test.stage"));
+    }
+
+}
@@ -0,0 +1,149 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link CorpusWatcher}.
+ */
+public class CorpusWatcherTest extends TestCase {
+
+    // The maximum time (in milliseconds) for a change to be searchable...
+    private static final long TIMEOUT = 10_000;
+
+    private Path indexPath;
+
+    private Path corpusPath;
+
+    private Littlesearch littlesearch;
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public CorpusWatcherTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(CorpusWatcherTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+
+        indexPath = Files.createTempDirectory("littlesearch_test_watcher_index");
+        corpusPath = Files.createTempDirectory("littlesearch_test_watcher_corpus");
+        write("riemann.txt", "Bernhard Riemann, mathématicien allemand.");
+        littlesearch = new Littlesearch(indexPath, false);
+        assertTrue(littlesearch.indexTexts(corpusPath.toFile()));
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+
+        littlesearch.close();
+        IndexFixtures.deleteDirectory(indexPath);
+        IndexFixtures.deleteDirectory(corpusPath);
+    }
+
+    /**
+     * Tests that a created text, then modified, then deleted, is searched as it is once the changes are debounced and refreshed.
+     */
+    public void testChanges() throws Exception {
+
+        try (CorpusWatcher corpusWatcher = new CorpusWatcher(littlesearch, corpusPath.toFile(), 50, 1_000)) {
+            corpusWatcher.start();
+            String path = (corpusPath.resolve("gauss.txt")).toString();
+
+            write("gauss.txt", "Carl Friedrich Gauss, astronome.");
+            assertEquals(Collections.singletonList(path), waitFor("Gauss", 1));
+
+            write("gauss.txt", "Carl Friedrich Gauss, géomètre.");
+            assertEquals(Collections.singletonList(path), waitFor("géomètre", 1));
+            assertTrue(littlesearch.search("_astronome_").isEmpty());
+
+            Files.delete(corpusPath.resolve("gauss.txt"));
+            assertEquals(Collections.emptyList(), waitFor("Gauss", 0));
+            assertEquals(1, littlesearch.search("Riemann").size());
+        }
+    }
+
+    /**
+     * Tests that, when some events have been lost, the watched corpus is indexed again from scratch
+     * (so, the texts deleted meanwhile are not found any more).
+     */
+    public void testOverflow() throws IOException {
+
+        write("gauss.txt", "Carl Friedrich Gauss, astronome.");
+        littlesearch.indexText(corpusPath.resolve("gauss.txt").toFile());
+        Files.delete(corpusPath.resolve("riemann.txt"));
+
+        try (CorpusWatcher corpusWatcher = new CorpusWatcher(littlesearch, corpusPath.toFile())) {
+            corpusWatcher.apply(Collections.<Path>emptySet(), true);
+        }
+        assertTrue(littlesearch.search("Riemann").isEmpty());
+        assertEquals(1, littlesearch.search("Gauss").size());
+    }
+
+    /**
+     * Tests that, when some events have been lost while the watched corpus was emptied, its deleted texts are not found any more.
+     */
+    public void testOverflowOnEmptiedCorpus() throws IOException {
+
+        Files.delete(corpusPath.resolve("riemann.txt"));
+
+        try (CorpusWatcher corpusWatcher = new CorpusWatcher(littlesearch, corpusPath.toFile())) {
+            corpusWatcher.apply(Collections.<Path>emptySet(), true);
+        }
+        assertTrue(littlesearch.search("Riemann").isEmpty());
+        assertEquals(0, littlesearch.getIndexStatistics().getDocumentCount());
+    }
+
+    private void write(String fileName, String text) throws IOException {
+
+        Files.write(corpusPath.resolve(fileName), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Searches for a word until the expected number of texts is found (or until the timeout), then returns their paths.
+     */
+    private List<String> waitFor(String word, int count) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<String> paths;
+        do {
+            paths = new ArrayList<>();
+            for (Littlesearch.Document document : littlesearch.search(word)) {
+                paths.add(document.getPath());
+            }
+            if (paths.size() == count) {
+                break;
+            }
+            Thread.sleep(20);
+        } while (System.currentTimeMillis() < deadline);
+
+        return paths;
+    }
+
+}
@@ -0,0 +1,90 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link IndexArtifact}.
+ */
+public class IndexArtifactTest extends TestCase {
+
+    private Path artifactPath;
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public IndexArtifactTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(IndexArtifactTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+
+        artifactPath = Files.createTempDirectory("littlesearch_test_artifact");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+
+        Synonymysearch.setCompiledSynonyms(null);
+        IndexFixtures.deleteDirectory(artifactPath);
+    }
+
+    /**
+     * Tests that the artifact is only up to date once built, and that it finds, read-only, what a freshly built index finds.
+     */
+    public void testBuildThenOpen() throws IOException {
+
+        IndexArtifact indexArtifact = new IndexArtifact(artifactPath.toFile());
+        assertFalse(indexArtifact.isUpToDate());
+        assertTrue(indexArtifact.build());
+        assertTrue(indexArtifact.isUpToDate());
+
+        String words = Synonymysearch.search("Riemann travail");
+
+        for (boolean passageMode : new boolean[] { false, true }) {
+            List<String> expectedPaths;
+            Path indexPath = Files.createTempDirectory("littlesearch_test_index");
+            try (Littlesearch littlesearch = IndexFixtures.indexCorpus(indexPath, passageMode)) {
+                expectedPaths = IndexFixtures.getPaths(littlesearch.search(words));
+            } finally {
+                IndexFixtures.deleteDirectory(indexPath);
+            }
+
+            try (Littlesearch littlesearch = indexArtifact.open(passageMode)) {
+                assertTrue(littlesearch.isReadOnly());
+                assertEquals(expectedPaths, IndexFixtures.getPaths(littlesearch.search(words)));
+                // (The spellchecker is built when it is first needed.)
+                assertEquals("Riemann", littlesearch.correct("Reimann"));
+                try {
+                    littlesearch.indexTexts();
+                    fail("A read-only index should not be written.");
+                } catch (IllegalStateException ise) {
+                    // Expected...
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import edu.fromatoz.littlesearch.app.SearchEngine;
+
+import junit.framework.Assert;
+
+/**
+ * The fixtures shared by the tests: the temporary indexes of the corpus, the corpus split into two corpora,
+ * the deletion of the temporary directories and the paths of the found documents.
+ */
+public final class IndexFixtures {
+
+    // Adds a private constructor to hide the implicit public one (indicated by SonarQube).
+    private IndexFixtures() {
+
+        throw new IllegalStateException("IndexFixtures class");
+    }
+
+    /**
+     * Indexes the texts of the corpus into a (temporary) index.
+     *
+     * @param indexPath the directory of the index
+     * @param passageMode <i>true</i>, for indexing the texts passage by passage
+     *
+     * @return the search engine of the index, once the texts are indexed
+     */
+    public static Littlesearch indexCorpus(Path indexPath, boolean passageMode) throws IOException {
+
+        Littlesearch littlesearch = new Littlesearch(indexPath, passageMode);
+        Assert.assertTrue(littlesearch.indexTexts());
+
+        return littlesearch;
+    }
+
+    /**
+     * Splits the texts of the corpus (sorted by name) into two corpora, "first" and "second",
+     * copied into the directories "first_corpus" and "second_corpus" of a directory.
+     *
+     * @param directoryPath the directory of the two corpora
+     *
+     * @return the directories of the two corpora, by their names
+     */
+    public static Map<String, File> splitCorpus(Path directoryPath) throws IOException {
+
+        File[] files = SearchEngine.TEXT_CORPUS_DIRECTORY.listFiles();
+        Arrays.sort(files);
+        Map<String, File> corpusDirectories = new LinkedHashMap<>();
+        corpusDirectories.put("first", Files.createDirectory(directoryPath.resolve("first_corpus")).toFile());
+        corpusDirectories.put("second", Files.createDirectory(directoryPath.resolve("second_corpus")).toFile());
+        for (int i = 0; i < files.length; i++) {
+            File corpusDirectory = corpusDirectories.get((i < (files.length / 2)) ? "first" : "second");
+            Files.copy(files[i].toPath(), new File(corpusDirectory, files[i].getName()).toPath());
+        }
+
+        return corpusDirectories;
+    }
+
+    /**
+     * Deletes a temporary directory, with all its content.
+     *
+     * @param directoryPath the directory
+     */
+    public static void deleteDirectory(Path directoryPath) throws IOException {
+
+        try (Stream<Path> paths = Files.walk(directoryPath)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Returns the paths of documents, in their order.
+     *
+     * @param documents the documents
+     *
+     * @return the list of the paths
+     */
+    public static List<String> getPaths(List<Littlesearch.Document> documents) {
+
+        List<String> paths = new ArrayList<>();
+        for (Littlesearch.Document document : documents) {
+            paths.add(document.getPath());
+        }
+
+        return paths;
+    }
+
+}
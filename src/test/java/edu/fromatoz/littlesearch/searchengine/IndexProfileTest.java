@@ -0,0 +1,97 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.lucene.index.DirectoryReader;
+
+import org.apache.lucene.store.FSDirectory;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link IndexProfile}.
+ */
+public class IndexProfileTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public IndexProfileTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(IndexProfileTest.class);
+    }
+
+    /**
+     * Tests that every profile finds the same documents (with a snippet), that the profiles which request it are merged
+     * into one segment, and that the compact profile gives the smallest index.
+     */
+    public void testProfiles() throws IOException {
+
+        String words = Synonymysearch.search("Riemann travail");
+
+        List<String> expectedPaths = null;
+        Map<IndexProfile, Long> sizes = new HashMap<>();
+        for (IndexProfile indexProfile : IndexProfile.values()) {
+            assertSame(indexProfile, IndexProfile.forName(indexProfile.getName()));
+
+            Path indexPath = Files.createTempDirectory("littlesearch_test_index");
+            try {
+                try (Littlesearch littlesearch = new Littlesearch(indexPath, false, null, 0, indexProfile)) {
+                    assertTrue(littlesearch.indexTexts());
+                    List<Littlesearch.Document> documents = littlesearch.search(words);
+                    if (expectedPaths == null) {
+                        expectedPaths = IndexFixtures.getPaths(documents);
+                        assertFalse(expectedPaths.isEmpty());
+                    } else {
+                        assertEquals(indexProfile.getName(), expectedPaths, IndexFixtures.getPaths(documents));
+                    }
+                    assertNotNull(indexProfile.getName(), documents.get(0).getSnippet());
+                }
+                try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(indexPath))) {
+                    if (indexProfile.isForceMerged()) {
+                        assertEquals(indexProfile.getName(), 1, (reader.leaves()).size());
+                    }
+                }
+                try (Stream<Path> paths = Files.list(indexPath)) {
+                    sizes.put(indexProfile, paths.mapToLong(path -> path.toFile().length()).sum());
+                }
+            } finally {
+                IndexFixtures.deleteDirectory(indexPath);
+            }
+        }
+
+        for (IndexProfile indexProfile : IndexProfile.values()) {
+            assertTrue(indexProfile.getName(), sizes.get(IndexProfile.COMPACT) <= sizes.get(indexProfile));
+        }
+
+        try {
+            IndexProfile.forName("unknown");
+            fail("An unknown profile should be rejected.");
+        } catch (IllegalArgumentException iae) {
+            // Expected...
+        }
+    }
+
+}
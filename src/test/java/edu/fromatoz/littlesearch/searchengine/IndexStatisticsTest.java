@@ -0,0 +1,109 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.util.Accountable;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link IndexStatistics} and for the estimate of the heap retained by {@link Littlesearch}.
+ */
+public class IndexStatisticsTest extends TestCase {
+
+    private Path indexPath;
+
+    private Littlesearch littlesearch;
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public IndexStatisticsTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(IndexStatisticsTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+
+        indexPath = Files.createTempDirectory("littlesearch_test_statistics_index");
+        littlesearch = IndexFixtures.indexCorpus(indexPath, false);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+
+        littlesearch.close();
+        IndexFixtures.deleteDirectory(indexPath);
+    }
+
+    /**
+     * Tests the statistics of the fields (one path per text, the exact content not being stored) and of the files.
+     */
+    public void testStatistics() throws IOException {
+
+        IndexStatistics statistics = littlesearch.getIndexStatistics();
+        assertTrue(statistics.getDocumentCount() > 0);
+        assertTrue(statistics.getSegmentCount() > 0);
+
+        IndexStatistics.FieldStatistics pathStatistics = statistics.getFieldStatistics().get("path");
+        assertEquals(statistics.getDocumentCount(), pathStatistics.getTermCount());
+        assertEquals(statistics.getDocumentCount(), pathStatistics.getPostingCount());
+        assertTrue(pathStatistics.getStoredBytes() > 0);
+
+        IndexStatistics.FieldStatistics contentStatistics = statistics.getFieldStatistics().get("content");
+        assertTrue(contentStatistics.getTermCount() > 0);
+        assertTrue(contentStatistics.getPostingCount() >= contentStatistics.getTermCount());
+        assertTrue(contentStatistics.getPositionCount() >= contentStatistics.getPostingCount());
+        assertTrue(contentStatistics.getStoredBytes() > 0);
+        assertEquals(0, statistics.getFieldStatistics().get("exact_content").getStoredBytes());
+
+        for (String part : new String[] { "postings", "positions", "terms dictionary", "stored fields" }) {
+            assertTrue(part, statistics.getFileBytes().getOrDefault(part, 0L) > 0);
+        }
+    }
+
+    /**
+     * Tests that the heap retained by the search engine is the sum of the heap of its components,
+     * of which the spellchecker and the suggester (with its lexicon) once they are built.
+     */
+    public void testRamUsage() {
+
+        littlesearch.correct("théorèmme");
+
+        Map<String, Long> components = new HashMap<>();
+        long size = 0;
+        for (Accountable childResource : littlesearch.getChildResources()) {
+            components.put(childResource.toString(), childResource.ramBytesUsed());
+            size += childResource.ramBytesUsed();
+        }
+        assertEquals(size, littlesearch.ramBytesUsed());
+        assertTrue(components.get("index reader") > 0);
+        assertTrue(components.get("spellchecker") > 0);
+        assertTrue(components.get("suggester") > 0);
+        assertTrue(components.get("lexicon") > 0);
+
+        assertTrue(Synonymysearch.getRamUsage().ramBytesUsed() >= 0);
+    }
+
+}
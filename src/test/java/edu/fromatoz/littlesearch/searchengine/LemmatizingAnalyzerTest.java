@@ -0,0 +1,76 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link LemmatizingAnalyzer}.
+ */
+public class LemmatizingAnalyzerTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public LemmatizingAnalyzerTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(LemmatizingAnalyzerTest.class);
+    }
+
+    /**
+     * Tests that the forms known by the data warehouse are replaced by their lemma (even the irregular ones),
+     * and that the unknown words are stemmed as by the {@link FrenchAnalyzer}.
+     */
+    public void testLemmatize() throws IOException {
+
+        try (Analyzer analyzer = new LemmatizingAnalyzer()) {
+            assertEquals(analyze(analyzer, "mathématicien beau"), analyze(analyzer, "Les mathématiciennes et les beaux"));
+            assertEquals(analyze(analyzer, "beau"), analyze(analyzer, "bel"));
+            assertEquals(analyze(analyzer, "système"), analyze(analyzer, "l'Systèmes"));
+
+            try (Analyzer frenchAnalyzer = new FrenchAnalyzer()) {
+                assertEquals(analyze(frenchAnalyzer, "passait"), analyze(analyzer, "passait"));
+            }
+        }
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String text) throws IOException {
+
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokenStream = analyzer.tokenStream("content", text)) {
+            CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(charTermAttribute.toString());
+            }
+            tokenStream.end();
+        }
+
+        return terms;
+    }
+
+}
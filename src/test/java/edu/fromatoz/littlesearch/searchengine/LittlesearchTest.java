@@ -0,0 +1,434 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jdk.jfr.Recording;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.log4j.Logger;
+
+import edu.fromatoz.littlesearch.metrics.SearchEvent;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link Littlesearch}, shared by concurrent callers.
+ */
+public class LittlesearchTest extends TestCase {
+
+    /**
+     * Logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(LittlesearchTest.class);
+
+    // The queries which are searched (some with synonyms, as expanded by Synonymysearch)...
+    private static final String[] QUERIES = {
+        "Riemann", "géomètre mathématicien mathématiciens", "algèbre algèbres", "théorème théorèmes", "Gauss astronome", "calcul calculs symbole"
+    };
+
+    // The number of queries searched by each thread...
+    private static final int QUERIES_PER_THREAD = 300;
+
+    private Path indexPath;
+
+    private Littlesearch littlesearch;
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public LittlesearchTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(LittlesearchTest.class);
+    }
+
+    @Override
+    protected void setUp() throws IOException {
+
+        indexPath = Files.createTempDirectory("littlesearch_test_index");
+        littlesearch = IndexFixtures.indexCorpus(indexPath, false);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+
+        littlesearch.close();
+        IndexFixtures.deleteDirectory(indexPath);
+    }
+
+    /**
+     * Tests that concurrent searches find the same documents as a single search
+     * (the throughput being measured by {@link edu.fromatoz.littlesearch.benchmark.ConcurrentSearchBenchmark}).
+     */
+    public void testConcurrentSearches() throws Exception {
+
+        List<List<String>> expectedPaths = new ArrayList<>();
+        for (String query : QUERIES) {
+            expectedPaths.add(IndexFixtures.getPaths(littlesearch.search(query)));
+            assertFalse(expectedPaths.get(expectedPaths.size() - 1).isEmpty());
+        }
+
+        runSearches(Math.max(2, Runtime.getRuntime().availableProcessors()), expectedPaths);
+    }
+
+    /**
+     * Tests that searches still succeed while the texts are indexed again (and the searchers refreshed) by another thread.
+     */
+    public void testConcurrentSearchesWhileIndexing() throws Exception {
+
+        List<List<String>> expectedPaths = new ArrayList<>();
+        for (String query : QUERIES) {
+            expectedPaths.add(IndexFixtures.getPaths(littlesearch.search(query)));
+        }
+
+        ExecutorService indexer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> indexing = indexer.submit(() -> littlesearch.indexTexts());
+            runSearches(Math.max(2, Runtime.getRuntime().availableProcessors()), expectedPaths);
+            assertTrue(indexing.get());
+        } finally {
+            indexer.shutdown();
+        }
+
+        // The content is fetched lazily, even after the refresh...
+        Littlesearch.Document document = littlesearch.search(QUERIES[0]).get(0);
+        assertTrue(document.getContent().contains("Riemann"));
+    }
+
+    /**
+     * Tests that each search emits a Flight Recorder event, with the query and the number of hits.
+     */
+    public void testSearchEvents() throws Exception {
+
+        List<RecordedEvent> events;
+        Path recordingPath = Files.createTempFile("littlesearch_test", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SearchEvent.class);
+            recording.start();
+            int returned = littlesearch.search(QUERIES[0]).size();
+            recording.stop();
+            recording.dump(recordingPath);
+
+            events = RecordingFile.readAllEvents(recordingPath);
+            assertEquals(1, events.size());
+            assertEquals(QUERIES[0], events.get(0).getString("query"));
+            assertEquals(returned, events.get(0).getInt("returned"));
+            assertTrue(events.get(0).getLong("hits") >= returned);
+        } finally {
+            Files.delete(recordingPath);
+        }
+    }
+
+    /**
+     * Tests that the misspelled words are corrected to words as they are written (a proper noun keeping its capital),
+     * never to the stems of the index, and that the known words are kept.
+     */
+    public void testCorrect() {
+
+        assertEquals("Riemann", littlesearch.correct("Reimann"));
+        assertEquals("théorème", littlesearch.correct("théorèmme"));
+        assertEquals("Gauss astronome", littlesearch.correct("Gauss astronome"));
+    }
+
+    /**
+     * Tests that the completions of a prefix are words as they are written (never the stems of the index), the most frequent first,
+     * and that the words of a text indexed (or deleted) since are suggested (or not any more) once the index is refreshed.
+     */
+    public void testSuggest() throws IOException {
+
+        List<String> suggestions = littlesearch.suggest("mathé", 5);
+        assertTrue(suggestions.indexOf("mathématicien") >= 0);
+        assertTrue(suggestions.indexOf("mathématicien") < suggestions.indexOf("mathématicienne"));
+        assertEquals("riemann", littlesearch.suggest("rie", 1).get(0));
+        assertFalse(littlesearch.suggest("rie", 10).contains("rieman"));
+        assertFalse(littlesearch.suggest("trav", 10).contains("travaila"));
+
+        Path textPath = Files.createTempFile("littlesearch_test_suggest", ".txt");
+        try {
+            Files.write(textPath, "La zygomorphie des fleurs.".getBytes(StandardCharsets.UTF_8));
+            littlesearch.indexText(textPath.toFile());
+            littlesearch.refresh();
+            assertEquals(Collections.singletonList("zygomorphie"), littlesearch.suggest("zygo", 5));
+
+            littlesearch.deleteText(textPath.toFile());
+            littlesearch.refresh();
+            assertTrue(littlesearch.suggest("zygo", 5).isEmpty());
+        } finally {
+            Files.delete(textPath);
+        }
+    }
+
+    /**
+     * Tests that, passage by passage, the texts are found once each (whatever the number of their passages found),
+     * with the passage of the best score as their snippet.
+     */
+    public void testPassageMode() throws IOException {
+
+        Path passagesIndexPath = Files.createTempDirectory("littlesearch_test_passages_index");
+        Path corpusPath = Files.createTempDirectory("littlesearch_test_passages_corpus");
+        try {
+            Files.write(corpusPath.resolve("riemann.txt"), ("Riemann naquit en Allemagne.\n"
+                    + "Élève de Gauss, Riemann fonda la géométrie de Riemann et posa l'hypothèse de Riemann.\n"
+                    + "Il mourut en Italie.\n").getBytes(StandardCharsets.UTF_8));
+            Files.write(corpusPath.resolve("gauss.txt"), "Gauss fut le maître de Riemann.\nIl observa les astres.\n".getBytes(StandardCharsets.UTF_8));
+            Files.write(corpusPath.resolve("euler.txt"), "Euler naquit en Suisse.\n".getBytes(StandardCharsets.UTF_8));
+
+            try (Littlesearch passagesLittlesearch = new Littlesearch(passagesIndexPath, true)) {
+                assertTrue(passagesLittlesearch.rebuildTexts(corpusPath.toFile()));
+
+                List<Littlesearch.Document> documents = passagesLittlesearch.search("Riemann");
+                assertEquals(2, documents.size());
+                assertEquals(2, new HashSet<>(IndexFixtures.getPaths(documents)).size());
+                Littlesearch.Document riemannDocument = documents.get(0);
+                assertEquals(corpusPath.resolve("riemann.txt").toString(), riemannDocument.getPath());
+                // (The passage of three occurrences, rather than the first one.)
+                assertTrue(riemannDocument.getSnippet(), riemannDocument.getSnippet().contains("hypothèse"));
+                assertFalse(riemannDocument.getSnippet().contains("Allemagne"));
+                // (The content is the whole text, not a passage.)
+                assertTrue(riemannDocument.getContent().contains("Italie"));
+            }
+        } finally {
+            IndexFixtures.deleteDirectory(passagesIndexPath);
+            IndexFixtures.deleteDirectory(corpusPath);
+        }
+    }
+
+    /**
+     * Tests that the snippet of a document highlights the searched word (even in the compact profile, whose offsets are not indexed,
+     * so whose snippets are built by analysing the content again), and that the content is only fetched when it is first requested.
+     */
+    public void testSnippetAndContent() throws IOException {
+
+        Littlesearch.Document document = littlesearch.search("Riemann").get(0);
+        assertTrue(document.getSnippet(), document.getSnippet().contains("<b>Riemann</b>"));
+        assertTrue(document.getContent().contains("Riemann"));
+
+        Path compactIndexPath = Files.createTempDirectory("littlesearch_test_compact_index");
+        try (Littlesearch compactLittlesearch = new Littlesearch(compactIndexPath, false, null, 0, IndexProfile.COMPACT)) {
+            assertTrue(compactLittlesearch.indexTexts());
+            Littlesearch.Document compactDocument = compactLittlesearch.search("Riemann").get(0);
+            assertEquals(document.getPath(), compactDocument.getPath());
+            assertTrue(compactDocument.getSnippet(), compactDocument.getSnippet().contains("<b>Riemann</b>"));
+        } finally {
+            IndexFixtures.deleteDirectory(compactIndexPath);
+        }
+
+        // The content is fetched from its source at the first request only...
+        List<String> fetchedPaths = new ArrayList<>();
+        Littlesearch.Document lazyDocument = new Littlesearch.Document(document.getNumber(), document.getScore(), document.getPath(), document.getSnippet(),
+                path -> {
+                    fetchedPaths.add(path);
+                    return littlesearch.getContent(path);
+                });
+        assertTrue(fetchedPaths.isEmpty());
+        assertEquals(document.getContent(), lazyDocument.getContent());
+        assertEquals(document.getContent(), lazyDocument.getContent());
+        assertEquals(Collections.singletonList(document.getPath()), fetchedPaths);
+    }
+
+    /**
+     * Tests that the index keeps the target number of segments once the texts are indexed,
+     * and that searching its segments in parallel finds what a serial search finds.
+     */
+    public void testParallelSegments() throws Exception {
+
+        int segmentCount = 3;
+        Path parallelIndexPath = Files.createTempDirectory("littlesearch_test_parallel_index");
+        ExecutorService searchExecutor = Executors.newFixedThreadPool(segmentCount);
+        try (Littlesearch parallelLittlesearch = new Littlesearch(parallelIndexPath, false, searchExecutor, segmentCount)) {
+            assertTrue(parallelLittlesearch.indexTexts());
+            assertEquals(segmentCount, parallelLittlesearch.getIndexStatistics().getSegmentCount());
+
+            for (String query : QUERIES) {
+                List<Littlesearch.Document> expectedDocuments = littlesearch.search(query);
+                List<Littlesearch.Document> documents = parallelLittlesearch.search(query);
+                assertEquals(query, IndexFixtures.getPaths(expectedDocuments), IndexFixtures.getPaths(documents));
+                for (int i = 0; i < documents.size(); i++) {
+                    assertEquals(query, expectedDocuments.get(i).getScore(), documents.get(i).getScore(), 1e-6f);
+                }
+            }
+        } finally {
+            searchExecutor.shutdown();
+            IndexFixtures.deleteDirectory(parallelIndexPath);
+        }
+    }
+
+    /**
+     * Tests that a profiled search finds the same documents as a plain search,
+     * with the cost of each clause of the query and the explanation of each score.
+     */
+    public void testProfiledSearch() {
+
+        String query = QUERIES[1];
+        List<String> expectedPaths = IndexFixtures.getPaths(littlesearch.search(query));
+
+        Littlesearch.Result result = littlesearch.search(query, true);
+        assertEquals(expectedPaths, IndexFixtures.getPaths(result.getDocuments()));
+
+        // (The two forms of "mathématicien" share one term, which is searched only once.)
+        QueryProfile profile = result.getProfile();
+        assertEquals(2, profile.getClauses().size());
+        long docsMatched = 0;
+        for (QueryProfile.ClauseProfile clause : profile.getClauses()) {
+            assertTrue(clause.getDocsMatched() <= clause.getPostingsVisited());
+            docsMatched += clause.getDocsMatched();
+        }
+        assertTrue(docsMatched >= expectedPaths.size());
+        assertEquals(expectedPaths.size(), profile.getExplanations().size());
+        LOGGER.info(profile);
+
+        // A plain search is not profiled...
+        assertNull(littlesearch.search(query, false).getProfile());
+    }
+
+    /**
+     * Tests that a typed query finds the texts of its words first (the synonyms being boosted less),
+     * and that no word could break its syntax.
+     */
+    public void testTypedQuery() {
+
+        // (Fewer texts than returned contain the word itself.)
+        String word = "astronome";
+        List<String> wordPaths = IndexFixtures.getPaths(littlesearch.search(word));
+        assertFalse(wordPaths.isEmpty());
+
+        SearchQuery query = (new SearchQuery.Builder()).addWord(word, Synonymysearch.expand(word)).setSynonymBoost(0.01f).build();
+        assertFalse(query.getClauses().get(0).getSynonyms().isEmpty());
+        List<String> paths = IndexFixtures.getPaths(littlesearch.search(query, false).getDocuments());
+        assertTrue(paths.size() > wordPaths.size());
+        assertEquals(new HashSet<>(wordPaths), new HashSet<>(paths.subList(0, wordPaths.size())));
+
+        // The terms of the word and those of its synonyms (blended by weight) are profiled apart...
+        Littlesearch.Result result = littlesearch.search(query, true);
+        List<QueryProfile.ClauseProfile> clauses = result.getProfile().getClauses();
+        assertTrue(clauses.size() > 1);
+        int wordClauseCount = 0;
+        long synonymDocsMatched = 0;
+        for (QueryProfile.ClauseProfile clause : clauses) {
+            if ((clause.getDescription()).contains("Synonym(")) {
+                synonymDocsMatched += clause.getDocsMatched();
+            } else {
+                wordClauseCount++;
+            }
+        }
+        assertEquals(1, wordClauseCount);
+        assertTrue(synonymDocsMatched > 0);
+
+        // The syntax of the former query parser has no meaning any more...
+        assertEquals(IndexFixtures.getPaths(littlesearch.search("Riemann")), IndexFixtures.getPaths(littlesearch.search("Riemann) (\\\" :")));
+        assertTrue(littlesearch.search("le la les").isEmpty());
+    }
+
+    /**
+     * Tests that the terms of the synonyms which the index does not contain are dropped,
+     * and that the terms of the synonyms are kept within the budget of the query.
+     */
+    public void testSynonymBudget() {
+
+        String word = "travail";
+        Map<String, Float> synonyms = Synonymysearch.expand(word);
+        QueryProfile profile = littlesearch.search((new SearchQuery.Builder()).addWord(word, synonyms)
+                .setMaxSynonymTerms(Integer.MAX_VALUE).setMaxSynonymPostings(Long.MAX_VALUE).build(), true).getProfile();
+        assertTrue(profile.getAbsentSynonymTerms() > 0);
+        assertEquals(0, profile.getOverBudgetSynonymTerms());
+        int searchedTerms = profile.getSearchedSynonymTerms();
+        assertTrue(searchedTerms > 1);
+
+        // At most one term...
+        profile = littlesearch.search((new SearchQuery.Builder()).addWord(word, synonyms).setMaxSynonymTerms(1).build(), true).getProfile();
+        assertEquals(1, profile.getSearchedSynonymTerms());
+        assertEquals(searchedTerms - 1, profile.getOverBudgetSynonymTerms());
+
+        // At most as many postings as the rarest term has...
+        profile = littlesearch.search((new SearchQuery.Builder()).addWord(word, synonyms).setMaxSynonymPostings(1).build(), true).getProfile();
+        assertTrue(profile.getSearchedSynonymPostings() <= 1);
+
+        // No synonym at all (so, the word alone is searched)...
+        SearchQuery query = (new SearchQuery.Builder()).addWord(word, synonyms).setMaxSynonymTerms(0).build();
+        assertEquals(IndexFixtures.getPaths(littlesearch.search(word)), IndexFixtures.getPaths(littlesearch.search(query, false).getDocuments()));
+    }
+
+    /**
+     * Tests that the exact words, the phrases and the words near each other are found as they are written.
+     */
+    public void testExactWordsAndPhrases() {
+
+        // (The stemmed content does not tell "travaux" from "travail".)
+        for (String word : new String[] { "travaux", "travail" }) {
+            List<Littlesearch.Document> documents = littlesearch.search("_" + word + "_");
+            assertFalse(documents.isEmpty());
+            for (Littlesearch.Document document : documents) {
+                assertTrue(document.getPath(), document.getContent().toLowerCase().contains(word));
+            }
+        }
+
+        List<Littlesearch.Document> documents = littlesearch.search("\"théorème de Fermat\"");
+        assertFalse(documents.isEmpty());
+        for (Littlesearch.Document document : documents) {
+            assertTrue(document.getPath(), document.getContent().contains("théorème de Fermat"));
+        }
+
+        documents = littlesearch.search("Bernhard NEAR/2 Riemann");
+        assertFalse(documents.isEmpty());
+        for (Littlesearch.Document document : documents) {
+            assertTrue(document.getPath(), document.getContent().contains("Bernhard Riemann"));
+        }
+        assertTrue(littlesearch.search("Riemann NEAR/0 Fermat").isEmpty());
+    }
+
+    private void runSearches(int threads, List<List<String>> expectedPaths) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                Callable<Void> searches = () -> {
+                    for (int i = 0; i < QUERIES_PER_THREAD; i++) {
+                        int q = (offset + i) % QUERIES.length;
+                        assertEquals(expectedPaths.get(q), IndexFixtures.getPaths(littlesearch.search(QUERIES[q])));
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(searches));
+            }
+            for (Future<Void> future : futures) {
+                // (Rethrows the failure of a thread, if any.)
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
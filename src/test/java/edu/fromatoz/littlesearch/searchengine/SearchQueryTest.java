@@ -0,0 +1,105 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link SearchQuery}.
+ */
+public class SearchQueryTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public SearchQueryTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(SearchQueryTest.class);
+    }
+
+    /**
+     * Tests the parsing of the words, of the exact words, of the phrases and of the words near each other.
+     */
+    public void testParse() {
+
+        List<SearchQuery.Clause> clauses = SearchQuery.parse("Riemann _travaux_ \"théorème de Fermat\" calcul NEAR/3 _intégral_ NEAR analyse").getClauses();
+        assertEquals(4, clauses.size());
+
+        assertEquals(SearchQuery.Clause.Type.WORD, clauses.get(0).getType());
+        assertEquals("Riemann", clauses.get(0).getWord());
+        assertFalse(clauses.get(0).isExact());
+
+        assertEquals(SearchQuery.Clause.Type.EXACT_WORD, clauses.get(1).getType());
+        assertEquals("travaux", clauses.get(1).getWord());
+        assertTrue(clauses.get(1).isExact());
+
+        assertEquals(SearchQuery.Clause.Type.PHRASE, clauses.get(2).getType());
+        assertEquals(Arrays.asList("théorème", "de", "Fermat"), clauses.get(2).getWords());
+
+        // (The greatest distance of a chain is kept; an exact operand makes the whole clause exact.)
+        assertEquals(SearchQuery.Clause.Type.NEAR, clauses.get(3).getType());
+        assertEquals(Arrays.asList("calcul", "intégral", "analyse"), clauses.get(3).getWords());
+        assertEquals(SearchQuery.DEFAULT_NEAR_SLOP, clauses.get(3).getSlop());
+        assertTrue(clauses.get(3).isExact());
+    }
+
+    /**
+     * Tests that no query is malformed: the operators without operands are ignored, and a quote which is not closed is closed at the end.
+     */
+    public void testParseMalformed() {
+
+        assertTrue(SearchQuery.parse("").isEmpty());
+        assertTrue(SearchQuery.parse("  \"\"  ").isEmpty());
+
+        List<SearchQuery.Clause> clauses = SearchQuery.parse("NEAR/2 Riemann NEAR/2 \"nombres premiers").getClauses();
+        assertEquals(3, clauses.size());
+        assertEquals("NEAR/2", clauses.get(0).getWord());
+        assertEquals(SearchQuery.Clause.Type.WORD, clauses.get(1).getType());
+        assertEquals(SearchQuery.Clause.Type.PHRASE, clauses.get(2).getType());
+        assertEquals("nombres premiers", clauses.get(2).getWord());
+
+        assertEquals("_", SearchQuery.parse("_").getClauses().get(0).getWord());
+    }
+
+    /**
+     * Tests that a word is not its own synonym (the weight of a synonym being shown, if it is not 1), and that the boosts should be positive.
+     */
+    public void testBuilder() {
+
+        SearchQuery query = (new SearchQuery.Builder()).addWord("calcul", Arrays.asList("calcul", "calculs", "algèbre")).build();
+        assertEquals(Arrays.asList("algèbre", "calculs"), Arrays.asList(query.getClauses().get(0).getSynonyms().toArray()));
+        assertEquals("calcul {algèbre, calculs}", query.toString());
+
+        Map<String, Float> weightedSynonyms = new TreeMap<>();
+        weightedSynonyms.put("calculs", 1.0f);
+        weightedSynonyms.put("algèbre", 0.5f);
+        query = (new SearchQuery.Builder()).addWord("calcul", weightedSynonyms).build();
+        assertEquals(0.5f, query.getClauses().get(0).getSynonymWeight("algèbre"));
+        assertEquals("calcul {algèbre^0.5, calculs}", query.toString());
+
+        try {
+            (new SearchQuery.Builder()).setSynonymBoost(0);
+            fail("A boost should be positive.");
+        } catch (IllegalArgumentException iae) {
+            // Expected...
+        }
+    }
+
+}
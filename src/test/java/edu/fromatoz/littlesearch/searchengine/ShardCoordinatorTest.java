@@ -0,0 +1,110 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import edu.fromatoz.littlesearch.app.ShardProcess;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link ShardCoordinator}, with two shard processes (see {@link ShardProcess}) on the loopback interface.
+ */
+public class ShardCoordinatorTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public ShardCoordinatorTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(ShardCoordinatorTest.class);
+    }
+
+    /**
+     * Tests that the shard processes find the same documents as the shards searched in this process
+     * (the query being expanded here, then sent with its synonyms), that the content of a document is fetched from its shard,
+     * and that a shard which does not respond in time is left out of a partial result.
+     */
+    public void testScatterGather() throws IOException {
+
+        Path tempPath = Files.createTempDirectory("littlesearch_test_shard_processes");
+        try {
+            // Splits the corpus into two slices...
+            Map<String, File> corpusDirectories = IndexFixtures.splitCorpus(tempPath);
+
+            SearchQuery searchQuery = (new SearchQuery.Builder())
+                    .addWord("théorème", Synonymysearch.expand("théorème"))
+                    .addWord("travail", Synonymysearch.expand("travail"))
+                    .addPhrase(Arrays.asList("nombres", "premiers"))
+                    .build();
+
+            List<Littlesearch.Document> expectedDocuments;
+            try (ShardedLittlesearch shardedLittlesearch = new ShardedLittlesearch(tempPath.resolve("shards"), corpusDirectories, false, null)) {
+                assertTrue(shardedLittlesearch.indexTexts());
+                expectedDocuments = (shardedLittlesearch.search(searchQuery)).getDocuments();
+            }
+            assertFalse(expectedDocuments.isEmpty());
+
+            File shardsDirectory = tempPath.resolve("shard_processes").toFile();
+            try (ShardProcess firstShardProcess = ShardProcess.start("first", corpusDirectories.get("first"), shardsDirectory);
+                    ShardProcess secondShardProcess = ShardProcess.start("second", corpusDirectories.get("second"), shardsDirectory)) {
+                try (ShardCoordinator shardCoordinator = new ShardCoordinator(Arrays.asList(firstShardProcess.getUrl(), secondShardProcess.getUrl()), 10_000L)) {
+                    ShardCoordinator.Result result = shardCoordinator.search(searchQuery);
+                    assertFalse(result.isPartial());
+                    List<Littlesearch.Document> documents = result.getDocuments();
+                    assertEquals(expectedDocuments.size(), documents.size());
+                    for (int i = 0; i < documents.size(); i++) {
+                        assertEquals((expectedDocuments.get(i)).getPath(), (documents.get(i)).getPath());
+                        assertEquals((expectedDocuments.get(i)).getScore(), (documents.get(i)).getScore());
+                        assertEquals((expectedDocuments.get(i)).getSnippet(), (documents.get(i)).getSnippet());
+                    }
+                    assertEquals(new String(Files.readAllBytes(new File((documents.get(0)).getPath()).toPath()), "UTF-8").trim(), (documents.get(0)).getContent().trim());
+                }
+
+                // A shard which accepts the connection, but never responds...
+                try (ServerSocket silentServerSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                    String silentShardUrl = "http://" + (InetAddress.getLoopbackAddress()).getHostAddress() + ":" + silentServerSocket.getLocalPort();
+                    try (ShardCoordinator shardCoordinator = new ShardCoordinator(Arrays.asList(firstShardProcess.getUrl(), silentShardUrl), 2_000L)) {
+                        long start = System.nanoTime();
+                        ShardCoordinator.Result result = shardCoordinator.search(searchQuery);
+                        assertTrue((System.nanoTime() - start) < 5_000_000_000L);
+                        assertTrue(result.isPartial());
+                        assertEquals(Collections.singletonList(silentShardUrl), result.getMissingShardUrls());
+                        assertFalse((result.getDocuments()).isEmpty());
+                        for (Littlesearch.Document document : result.getDocuments()) {
+                            assertTrue(document.getPath().contains("first_corpus"));
+                        }
+                    }
+                }
+            }
+        } finally {
+            IndexFixtures.deleteDirectory(tempPath);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link ShardedLittlesearch}.
+ */
+public class ShardedLittlesearchTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public ShardedLittlesearchTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(ShardedLittlesearchTest.class);
+    }
+
+    /**
+     * Tests that the corpus split into two shards is searched across both (the documents being merged by score),
+     * or across the chosen one, and that only the shard of which the corpus changes is built again.
+     */
+    public void testShards() throws IOException {
+
+        Path tempPath = Files.createTempDirectory("littlesearch_test_shards");
+        ExecutorService fanOutExecutor = Executors.newFixedThreadPool(2);
+        try {
+            // Splits the corpus into two corpora...
+            Map<String, File> corpusDirectories = IndexFixtures.splitCorpus(tempPath);
+
+            SearchQuery searchQuery = SearchQuery.parse(Synonymysearch.search("théorème travail"));
+            Path shardsPath = tempPath.resolve("shards");
+            try (ShardedLittlesearch shardedLittlesearch = new ShardedLittlesearch(shardsPath, corpusDirectories, false, fanOutExecutor)) {
+                assertFalse(shardedLittlesearch.isUpToDate("first"));
+                assertTrue(shardedLittlesearch.indexTexts());
+                assertTrue(shardedLittlesearch.isUpToDate("first"));
+                assertTrue(shardedLittlesearch.isUpToDate("second"));
+
+                List<Littlesearch.Document> documents = (shardedLittlesearch.search(searchQuery)).getDocuments();
+                assertEquals(Littlesearch.TOP_DOCUMENTS_COUNT, documents.size());
+                boolean[] foundShards = new boolean[2];
+                for (int i = 0; i < documents.size(); i++) {
+                    if (i > 0) {
+                        assertTrue((documents.get(i - 1)).getScore() >= (documents.get(i)).getScore());
+                    }
+                    foundShards[(documents.get(i)).getPath().contains("first_corpus") ? 0 : 1] = true;
+                    assertNotNull((documents.get(i)).getSnippet());
+                }
+                assertTrue(foundShards[0] && foundShards[1]);
+
+                for (Littlesearch.Document document : (shardedLittlesearch.search(searchQuery, Collections.singleton("second"))).getDocuments()) {
+                    assertTrue(document.getPath().contains("second_corpus"));
+                }
+
+                try {
+                    shardedLittlesearch.search(searchQuery, Collections.singleton("unknown"));
+                    fail("An unknown corpus should be rejected.");
+                } catch (IllegalArgumentException iae) {
+                    // Expected...
+                }
+            }
+
+            // Changes the second corpus only (by removing a text), then opens the shards again...
+            File[] secondFiles = corpusDirectories.get("second").listFiles();
+            Arrays.sort(secondFiles);
+            String removedPath = secondFiles[0].getPath();
+            Files.delete(secondFiles[0].toPath());
+            try (ShardedLittlesearch shardedLittlesearch = new ShardedLittlesearch(shardsPath, corpusDirectories, false, null)) {
+                assertTrue(shardedLittlesearch.isUpToDate("first"));
+                assertFalse(shardedLittlesearch.isUpToDate("second"));
+                assertTrue(shardedLittlesearch.indexTexts());
+                assertTrue(shardedLittlesearch.isUpToDate("second"));
+
+                for (Littlesearch.Document document : (shardedLittlesearch.search(searchQuery)).getDocuments()) {
+                    assertFalse(removedPath.equals(document.getPath()));
+                }
+            }
+        } finally {
+            fanOutExecutor.shutdown();
+            IndexFixtures.deleteDirectory(tempPath);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link Spellchecker}.
+ */
+public class SpellcheckerTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public SpellcheckerTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(SpellcheckerTest.class);
+    }
+
+    /**
+     * Tests the Damerau-Levenshtein distance (a transposition counts as one edit).
+     */
+    public void testDistance() {
+
+        assertEquals(0, Spellchecker.getDistance("riemann", "riemann"));
+        assertEquals(1, Spellchecker.getDistance("reimann", "riemann"));
+        assertEquals(1, Spellchecker.getDistance("algebre", "algèbre"));
+        assertEquals(3, Spellchecker.getDistance("", "abc"));
+    }
+
+    /**
+     * Tests the correction of misspelled words (and the preference for the most frequent word).
+     */
+    public void testCorrect() {
+
+        Spellchecker spellchecker = new Spellchecker();
+        spellchecker.add("riemann", 3);
+        spellchecker.add("algèbre", 5);
+        spellchecker.add("algèbres", 1);
+        spellchecker.add("mathématicien", 30);
+
+        assertEquals("riemann", spellchecker.correct("reimann"));
+        assertEquals("algèbre", spellchecker.correct("algebre"));
+        assertEquals("mathématicien", spellchecker.correct("mathematicein"));
+        // Too far from any word of the dictionary...
+        assertEquals("galois", spellchecker.correct("galois"));
+    }
+
+    /**
+     * Tests that a word is compared in lower case, but corrected as it has been added.
+     */
+    public void testSpelling() {
+
+        Spellchecker spellchecker = new Spellchecker();
+        spellchecker.add("Riemann", 3);
+        spellchecker.add("riemann", 1);
+
+        assertTrue(spellchecker.contains("riemann"));
+        assertTrue(spellchecker.contains("RIEMANN"));
+        assertEquals("Riemann", spellchecker.correct("reimann"));
+        assertEquals("Riemann", spellchecker.correct("Reimann"));
+        // A known word is kept as it is written...
+        assertEquals("RIEMANN", spellchecker.correct("RIEMANN"));
+    }
+
+}
@@ -0,0 +1,101 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link SynonymGraph}.
+ */
+public class SynonymGraphTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public SynonymGraphTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(SynonymGraphTest.class);
+    }
+
+    /**
+     * Builds a graph of three sets: "calcul" (of which "opération" is a synonym), "opération" (of which "intervention" is a synonym),
+     * and the verb "calculer" (of which "compter" is a synonym).
+     */
+    private static SynonymGraph buildGraph() {
+
+        SynonymGraph.Builder builder = new SynonymGraph.Builder();
+        builder.addSet("substantif", Arrays.asList("calcul", "opération"), Arrays.asList(forms("calcul", "calculs"), forms("opération", "opérations")));
+        builder.addSet("substantif", Arrays.asList("opération", "intervention"), Arrays.asList(forms("opération", "opérations"), forms("intervention", "interventions")));
+        builder.addSet("verbe", Arrays.asList("calculer", "compter"), Arrays.asList(forms("calculer"), forms("compter")));
+
+        return builder.build();
+    }
+
+    private static Set<String> forms(String... forms) {
+
+        return new TreeSet<>(Arrays.asList(forms));
+    }
+
+    /**
+     * Tests that an expansion is bounded by its depth, that the synonyms of the synonyms are reached (but weigh less),
+     * and that the edges are weighted by the part of speech.
+     */
+    public void testExpand() {
+
+        SynonymGraph graph = buildGraph();
+        assertEquals(5, graph.getNodeCount());
+        assertEquals(6, graph.getEdgeCount());
+
+        Map<String, Float> expansions = graph.expand("calculs", 0);
+        assertEquals(forms("calcul", "calculs"), expansions.keySet());
+
+        expansions = graph.expand("calculs", 1);
+        assertEquals(forms("calcul", "calculs", "opération", "opérations"), expansions.keySet());
+        assertEquals(1.0f, expansions.get("opérations"));
+
+        expansions = graph.expand("calculs", SynonymGraph.DEFAULT_MAX_DEPTH);
+        assertEquals(SynonymGraph.DEPTH_DECAY, expansions.get("interventions"));
+        assertFalse(expansions.containsKey("compter"));
+
+        assertTrue(graph.expand("calculer", 1).get("compter") < 1.0f);
+        assertEquals(Collections.emptyMap(), graph.expand("inconnu", 2));
+    }
+
+    /**
+     * Tests that a graph is expanded the same once it is written to JSON then read (as in an {@link IndexArtifact}).
+     */
+    public void testJson() throws IOException {
+
+        SynonymGraph graph = buildGraph();
+        ObjectMapper objectMapper = new ObjectMapper();
+        SynonymGraph readGraph = objectMapper.readValue(objectMapper.writeValueAsBytes(graph), SynonymGraph.class);
+
+        assertEquals(graph.getForms(), readGraph.getForms());
+        for (String form : graph.getForms()) {
+            assertEquals(graph.expand(form, 2), readGraph.expand(form, 2));
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package edu.fromatoz.littlesearch.searchengine;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link Synonymysearch}.
+ */
+public class SynonymysearchTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public SynonymysearchTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(SynonymysearchTest.class);
+    }
+
+    @Override
+    protected void tearDown() {
+
+        Synonymysearch.setCompiledSynonyms(null);
+    }
+
+    /**
+     * Tests that the data warehouse is compiled by the first expansion only (the next ones, and the lemmas, sharing its synonyms).
+     */
+    public void testCompiledOnce() {
+
+        Synonymysearch.setCompiledSynonyms(null);
+        assertFalse(Synonymysearch.expand("travail").isEmpty());
+        CompiledSynonyms synonyms = Synonymysearch.getCompiledSynonyms();
+        assertNotNull(synonyms);
+
+        assertEquals(synonyms.getExpansions("théorème", SynonymGraph.DEFAULT_MAX_DEPTH), Synonymysearch.expand("théorème"));
+        assertSame(synonyms, Synonymysearch.getCompiledSynonyms());
+        assertSame(synonyms.getLemmas(), Synonymysearch.getLemmas());
+    }
+
+}
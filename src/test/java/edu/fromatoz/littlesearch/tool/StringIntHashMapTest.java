@@ -0,0 +1,62 @@
+package edu.fromatoz.littlesearch.tool;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for {@link StringIntHashMap}.
+ */
+public class StringIntHashMapTest extends TestCase {
+
+    /**
+     * Creates the test case.
+     *
+     * @param testName name of the test case
+     */
+    public StringIntHashMapTest(String testName) {
+
+        super(testName);
+    }
+
+    /**
+     * Returns the suite of tests being tested.
+     *
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+
+        return new TestSuite(StringIntHashMapTest.class);
+    }
+
+    /**
+     * Tests the counts of many keys (so, after several resizes), then the merging of two maps.
+     */
+    public void testCounts() {
+
+        StringIntHashMap map = new StringIntHashMap();
+        for (int i = 0; i < 1_000; i++) {
+            for (int j = 0; j <= (i % 3); j++) {
+                map.addTo("word" + i, 1);
+            }
+        }
+        assertEquals(1_000, map.size());
+        assertEquals(1, map.get("word0"));
+        assertEquals(3, map.get("word998"));
+        assertEquals(0, map.get("absent"));
+
+        StringIntHashMap other = new StringIntHashMap();
+        other.addTo("word0", 5);
+        other.addTo("other", 2);
+        map.addAll(other);
+        assertEquals(1_001, map.size());
+        assertEquals(6, map.get("word0"));
+        assertEquals(2, map.get("other"));
+        assertEquals("other", map.getKeys()[0]);
+
+        int[] total = new int[1];
+        map.forEach((key, value) -> total[0] += value);
+        assertEquals(1_999 + 7, total[0]);
+    }
+
+}